@@ -0,0 +1,25 @@
+// Benchmarks module - JMH benchmarks for the core hot paths
+// Run with ./gradlew :benchmarks:jmh (add -PjmhIncludes=<regex> to run a subset); results are written as JSON
+// to benchmarks/results/<version>.json so runs can be compared across releases
+
+plugins {
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+dependencies {
+    jmhImplementation(project(":core"))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("s")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // Allocation rate per operation (gc.alloc.rate.norm) next to the throughput
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.projectDirectory.file("results/${project.version}.json"))
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+}
@@ -0,0 +1,45 @@
+package com.bcon.adapter.benchmarks
+
+import com.bcon.adapter.core.BconAdapter
+import com.bcon.adapter.core.logging.BconLogger
+import com.bcon.adapter.core.scheduling.BudgetedTickExecutor
+import com.google.gson.JsonObject
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Adapter stand-in for benchmarks: keeps the last encoded event instead of sending it and logs nothing,
+ * so a benchmark measures the adapter code rather than the socket or the log handler
+ */
+class BenchmarkAdapter : BconAdapter() {
+
+    var lastEncodedData: String? = null
+    var lastCborData: ByteArray? = null
+
+    override val logger: BconLogger = object : BconLogger {
+        override fun info(message: String) {}
+        override fun warning(message: String) {}
+        override fun error(message: String) {}
+        override fun debug(message: String) {}
+        override fun fine(message: String) {}
+        override fun severe(message: String) {}
+    }
+
+    override fun sendEncodedEvent(eventType: String, encodedData: String, timestamp: Long, key: Long) {
+        lastEncodedData = encodedData
+    }
+
+    override fun sendCborEvent(eventType: String, encodedData: ByteArray, timestamp: Long, key: Long) {
+        lastCborData = encodedData
+    }
+
+    override fun onInitialize() {}
+    override fun onShutdown() {}
+    override fun registerEvents() {}
+    override val tickExecutor: BudgetedTickExecutor get() = throw UnsupportedOperationException()
+    override fun executeCommand(command: String): CompletableFuture<String> = CompletableFuture.completedFuture("")
+    override fun broadcastMessage(message: String): CompletableFuture<String> = CompletableFuture.completedFuture("")
+    override fun getServerInstance(): Any? = null
+    override fun isServerRunning(): Boolean = true
+    override fun getServerInfo(): JsonObject = JsonObject()
+    override fun handleStrictModeFailure() {}
+}
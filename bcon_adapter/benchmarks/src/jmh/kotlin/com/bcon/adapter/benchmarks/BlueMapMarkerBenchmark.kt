@@ -0,0 +1,63 @@
+package com.bcon.adapter.benchmarks
+
+import com.bcon.adapter.core.integration.BlueMapIntegration
+import com.google.gson.JsonObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Marker commands against the in-memory marker table, with the platform BlueMap calls stubbed out
+ */
+@State(Scope.Thread)
+open class BlueMapMarkerBenchmark {
+
+    private class StubBlueMap : BlueMapIntegration(BenchmarkAdapter()) {
+        override fun initializeBlueMapAPI() {}
+    }
+
+    private lateinit var blueMap: BlueMapIntegration
+    private var next = 0
+
+    private val update = marker("marker-42").apply { addProperty("action", "update_marker"); addProperty("label", "Moved") }
+    private val get = JsonObject().apply { addProperty("action", "get_marker"); addProperty("id", "marker-42") }
+    private val list = JsonObject().apply { addProperty("action", "list_markers") }
+
+    @Setup(Level.Iteration)
+    fun setup() {
+        blueMap = StubBlueMap()
+        repeat(500) { blueMap.handleMarkerCommand(marker("marker-$it")) }
+    }
+
+    private fun marker(id: String) = JsonObject().apply {
+        addProperty("action", "add_marker")
+        addProperty("id", id)
+        addProperty("world", "world")
+        addProperty("x", 100.5)
+        addProperty("y", 64.0)
+        addProperty("z", -200.25)
+        addProperty("label", "Base $id")
+        addProperty("detail", "<b>Shared base</b>")
+    }
+
+    @Benchmark
+    fun addAndRemove(): String {
+        val id = "bench-${next++ and 1023}"
+        blueMap.handleMarkerCommand(marker(id))
+        return blueMap.handleMarkerCommand(JsonObject().apply {
+            addProperty("action", "remove_marker")
+            addProperty("id", id)
+        })
+    }
+
+    @Benchmark
+    fun updateMarker(): String = blueMap.handleMarkerCommand(update)
+
+    @Benchmark
+    fun getMarker(): String = blueMap.handleMarkerCommand(get)
+
+    @Benchmark
+    fun listMarkers(): String = blueMap.handleMarkerCommand(list)
+}
@@ -0,0 +1,41 @@
+package com.bcon.adapter.benchmarks
+
+import com.bcon.adapter.core.commands.CommandDefinition
+import com.bcon.adapter.core.commands.DynamicCommandManager
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Parsing a register_command payload into a CommandDefinition, as done for every registration and for
+ * every entry of commands.json on startup
+ */
+@State(Scope.Thread)
+open class CommandDefinitionBenchmark {
+
+    private val simple: JsonObject = JsonParser.parseString(
+        "{\"name\":\"spawn\",\"description\":\"Teleport to spawn\",\"usage\":\"/spawn\"}"
+    ).asJsonObject
+
+    private val nested: JsonObject = JsonParser.parseString(
+        """
+        {"name":"home","description":"Manage homes","usage":"/home <set|go|list> [name]","permission":"bcon.home",
+         "aliases":["h","homes"],
+         "arguments":[{"name":"name","type":"string","required":false,"suggestions":["base","farm","nether"]}],
+         "subcommands":[
+           {"name":"set","description":"Save a home","arguments":[{"name":"name","type":"string"}]},
+           {"name":"go","description":"Teleport home","arguments":[{"name":"name","type":"string","default":"base"}]},
+           {"name":"radius","description":"Nearby homes","arguments":[{"name":"blocks","type":"integer","min":1,"max":512}]}
+         ],
+         "responses":{"success":"Done","not_found":"No such home"}}
+        """
+    ).asJsonObject
+
+    @Benchmark
+    fun parseSimple(): CommandDefinition = DynamicCommandManager.parseCommandDefinition(simple)
+
+    @Benchmark
+    fun parseWithSubcommands(): CommandDefinition = DynamicCommandManager.parseCommandDefinition(nested)
+}
@@ -0,0 +1,115 @@
+package com.bcon.adapter.benchmarks
+
+import com.bcon.adapter.core.events.BlockData
+import com.bcon.adapter.core.events.EntityData
+import com.bcon.adapter.core.events.EventManager
+import com.bcon.adapter.core.events.FishHookData
+import com.bcon.adapter.core.events.ItemData
+import com.bcon.adapter.core.events.Location
+import com.bcon.adapter.core.events.PlayerData
+import com.bcon.adapter.core.events.WorldData
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Cost of turning one game event into its JSON data object, per event family, plus the CBOR encoding used on
+ * binary connections for a few of them
+ * The EventManager runs without worker threads, so each operation is the policy check plus the full encode
+ * on the calling thread, which is what a listener pays when workers are disabled
+ */
+@State(Scope.Thread)
+open class EventSerializationBenchmark {
+
+    private val adapter = BenchmarkAdapter()
+    private val events = EventManager(adapter)
+    private val binaryEvents = EventManager(adapter).apply { binaryPayloads = true }
+
+    private val overworld = "minecraft:overworld"
+    private val player = PlayerData(
+        uuid = "8667ba71-b85a-4004-af54-457a9734eed7",
+        name = "Steve",
+        location = Location(12.5, 64.0, -30.25, overworld, 90f, 10f),
+        health = 18.5,
+        level = 7
+    )
+    private val zombie = EntityData(
+        uuid = "0f3a2c1e-5b7d-4e8f-9a6b-1c2d3e4f5a6b",
+        type = "minecraft:zombie",
+        location = Location(10.0, 64.0, -28.0, overworld)
+    )
+    private val stone = BlockData("minecraft:stone", Location(1.0, 2.0, 3.0, overworld))
+    private val world = WorldData("world", overworld, 6000L, "NORMAL", "RAIN", true)
+    private val hook = FishHookData(Location(13.0, 62.5, -31.0, overworld), true, 140)
+    private val loot = listOf(
+        ItemData("minecraft:diamond", 2, displayName = "Shiny", lore = listOf("Line 1", "Line 2")),
+        ItemData("minecraft:stick", 1),
+        ItemData("minecraft:iron_ingot", 5)
+    )
+
+    @Benchmark
+    fun serverLifecycle(): String? {
+        events.onDataPackReloadEnd(true)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun playerJoined(): String? {
+        events.onPlayerJoined(player)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun playerChat(): String? {
+        events.onPlayerChat(player, "hello <world> & everyone in it")
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun playerDeath(): String? {
+        events.onPlayerDeath(player, "Steve was slain by Zombie", zombie)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun blockBreak(): String? {
+        events.onPlayerBreakBlockAfter(player, stone)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun entityDamage(): String? {
+        events.onEntityDamage(zombie, 4.5, "minecraft:player_attack", null)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun worldLoad(): String? {
+        events.onWorldLoad(world)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun fishingCast(): String? {
+        events.onPlayerFishingCast(player, hook)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun lootGenerate(): String? {
+        events.onLootGenerate(stone.location, "minecraft:chests/simple_dungeon", loot, null)
+        return adapter.lastEncodedData
+    }
+
+    @Benchmark
+    fun playerJoinedCbor(): ByteArray? {
+        binaryEvents.onPlayerJoined(player)
+        return adapter.lastCborData
+    }
+
+    @Benchmark
+    fun lootGenerateCbor(): ByteArray? {
+        binaryEvents.onLootGenerate(stone.location, "minecraft:chests/simple_dungeon", loot, null)
+        return adapter.lastCborData
+    }
+}
@@ -0,0 +1,124 @@
+package com.bcon.adapter.benchmarks
+
+import com.bcon.adapter.core.connection.ByteSink
+import com.bcon.adapter.core.connection.CborCodec
+import com.bcon.adapter.core.connection.CborEventWriter
+import com.bcon.adapter.core.connection.EventBatcher
+import com.bcon.adapter.core.connection.FrameCompressor
+import com.bcon.adapter.core.connection.IncomingMessage
+import com.bcon.adapter.core.connection.IncomingMessageReader
+import com.bcon.adapter.core.connection.OutboundMessage
+import com.bcon.adapter.core.connection.StringDictionary
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * The sender and receiver paths of BconWebSocketClient without the socket: envelope encoding, batching,
+ * CBOR (direct and transcoded) and compressed frames out, command parsing in
+ */
+@State(Scope.Thread)
+open class MessageCodecBenchmark {
+
+    private val gson = Gson()
+    private val eventData = "{\"playerId\":\"8667ba71-b85a-4004-af54-457a9734eed7\",\"playerName\":\"Steve\"," +
+        "\"x\":12.5,\"y\":64.0,\"z\":-30.25,\"dimension\":\"minecraft:overworld\",\"message\":\"hello everyone\"}"
+    private val event = OutboundMessage("player_chat", null, timestamp = 1700000000L, encodedData = eventData)
+    private val cborEvent = OutboundMessage("player_chat", null, timestamp = 1700000000L, encodedCbor = CborEventWriter.forThread().run {
+        beginObject()
+        name("playerId").value("8667ba71-b85a-4004-af54-457a9734eed7")
+        name("playerName").value("Steve")
+        name("x").value(12.5)
+        name("y").value(64.0)
+        name("z").value(-30.25)
+        name("dimension").value("minecraft:overworld")
+        name("message").value("hello everyone")
+        endObject()
+        toByteArray()
+    })
+    private val ack = OutboundMessage("command_result", JsonObject().apply {
+        addProperty("success", true)
+        addProperty("result", "Teleported Steve to 0, 64, 0")
+    }, replyTo = "3f1c0c2e-2f55-4f7a-9a57-5b0b3f6f8c11", timestamp = 1700000000L)
+
+    private val batcher = EventBatcher(100, 65536, 50)
+    private val cborFrame = ByteSink()
+    private val compressedFrame = ByteSink()
+    private val compressor = FrameCompressor(1024)
+    private val strings = StringDictionary()
+
+    private lateinit var envelope: String
+    private lateinit var batchFrame: String
+    private lateinit var batchUtf8: ByteArray
+    private val command = StringBuilder(
+        "{\"messageId\":\"3f1c0c2e-2f55-4f7a-9a57-5b0b3f6f8c11\",\"type\":\"command\",\"requires_ack\":true," +
+            "\"data\":{\"command\":\"tp Steve 0 64 0\"}}"
+    )
+    private val register = StringBuilder(
+        "{\"messageId\":\"a2\",\"type\":\"register_command\",\"requires_ack\":true,\"data\":{\"name\":\"home\"," +
+            "\"description\":\"Teleport home\",\"usage\":\"/home [name]\",\"permission\":\"bcon.home\"," +
+            "\"aliases\":[\"h\"],\"arguments\":[{\"name\":\"name\",\"type\":\"string\",\"required\":false," +
+            "\"suggestions\":[\"base\",\"farm\",\"nether\"]}]}}"
+    )
+
+    @Setup
+    fun setup() {
+        envelope = event.encode(gson)
+        repeat(100) { batcher.add(envelope, 0) }
+        batchFrame = batcher.drain().text!!
+        batchUtf8 = batchFrame.toByteArray(Charsets.UTF_8)
+    }
+
+    @Benchmark
+    fun encodeEventEnvelope(): String = event.encode(gson)
+
+    @Benchmark
+    fun encodeAckEnvelope(): String = ack.encode(gson)
+
+    @Benchmark
+    fun buildBatchOf100(): String {
+        repeat(100) { batcher.add(envelope, 0) }
+        return batcher.drain().text!!
+    }
+
+    @Benchmark
+    fun buildCborBatchOf100(): ByteArray {
+        repeat(100) {
+            cborFrame.reset()
+            cborEvent.encodeCbor(cborFrame)
+            batcher.add(cborFrame, 0)
+        }
+        return batcher.drain().cbor!!
+    }
+
+    @Benchmark
+    fun cborEventFrame(): Int {
+        cborFrame.reset()
+        cborFrame.write(CborCodec.FRAME_CBOR)
+        CborCodec.encode(envelope, cborFrame, strings)
+        return cborFrame.size
+    }
+
+    @Benchmark
+    fun cborBatchFrame(): Int {
+        cborFrame.reset()
+        cborFrame.write(CborCodec.FRAME_CBOR)
+        CborCodec.encode(batchFrame, cborFrame, strings)
+        return cborFrame.size
+    }
+
+    @Benchmark
+    fun compressBatchFrame(): Int {
+        compressor.compress(FrameCompressor.FRAME_DEFLATE_JSON, batchUtf8, 0, batchUtf8.size, compressedFrame)
+        return compressedFrame.size
+    }
+
+    @Benchmark
+    fun parseCommand(): IncomingMessage = IncomingMessageReader.read(command)
+
+    @Benchmark
+    fun parseRegisterCommand(): IncomingMessage = IncomingMessageReader.read(register)
+}
@@ -6,3 +6,20 @@ java {
     sourceCompatibility = JavaVersion.VERSION_21
     targetCompatibility = JavaVersion.VERSION_21
 }
+
+dependencies {
+    testImplementation(kotlin("test"))
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// Offline end-to-end load test against the in-process bcon_server stand-in
+// ./gradlew :core:loadTest --args="--rate=5000 --seconds=30 --disconnect-every=10"
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the synthetic load generator against a local bcon_server stand-in"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.bcon.adapter.core.harness.LoadTestKt")
+}
@@ -2,12 +2,32 @@ package com.bcon.adapter.core
 
 import com.bcon.adapter.core.config.BconConfig
 import com.bcon.adapter.core.connection.BconWebSocketClient
+import com.bcon.adapter.core.events.AdapterStatsData
+import com.bcon.adapter.core.events.EventKeys
 import com.bcon.adapter.core.events.EventManager
+import com.bcon.adapter.core.events.EventWorkers
+import com.bcon.adapter.core.events.ServerPerformanceData
+import com.bcon.adapter.core.commands.CommandBatch
 import com.bcon.adapter.core.commands.DynamicCommandManager
 import com.bcon.adapter.core.integration.BlueMapIntegration
 import com.bcon.adapter.core.logging.BconLogger
 import com.bcon.adapter.core.logging.JavaBconLogger
+import com.bcon.adapter.core.metrics.AdapterMetrics
+import com.bcon.adapter.core.metrics.ListenerProfiler
+import com.bcon.adapter.core.metrics.MetricsEndpoint
+import com.bcon.adapter.core.metrics.ServerStatsReporter
+import com.bcon.adapter.core.scheduling.AdapterScheduler
+import com.bcon.adapter.core.scheduling.BudgetedTickExecutor
+import com.bcon.adapter.core.scheduling.CommandDispatcher
+import com.google.gson.JsonArray
+import com.google.gson.JsonElement
 import com.google.gson.JsonObject
+import com.google.gson.JsonPrimitive
+import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 
 /**
  * Core Bcon adapter class that handles WebSocket connection and event routing
@@ -20,8 +40,18 @@ abstract class BconAdapter {
     protected lateinit var webSocketClient: BconWebSocketClient
     lateinit var eventManager: EventManager
     lateinit var commandManager: DynamicCommandManager
+    lateinit var scheduler: AdapterScheduler
     protected var blueMapIntegration: BlueMapIntegration? = null
     
+    /**
+     * Counters and latency histograms for the connection, events and commands
+     */
+    val metrics = AdapterMetrics()
+    private val metricsEndpoint by lazy {
+        MetricsEndpoint(metrics.registry, logger) { mapOf("server_id" to config.serverId) }
+    }
+    private val statsReporter by lazy { ServerStatsReporter(this) }
+    
     /**
      * Initialize the adapter with configuration
      */
@@ -29,10 +59,12 @@ abstract class BconAdapter {
         logger.info("Initializing Bcon Adapter")
         
         // Load configuration
-        config = BconConfig(logger)
+        config = BconConfig(logger, dataDirectory())
         
         // Initialize components
-        eventManager = EventManager(this)
+        scheduler = AdapterScheduler(logger, config.maxConcurrentCommands)
+        eventManager = EventManager(this, EventWorkers(config.eventWorkerThreads, config.outboundQueueCapacity))
+        eventManager.policies.configure(config.eventFilters, config.eventPolicies)
         commandManager = DynamicCommandManager(this)
         webSocketClient = BconWebSocketClient(config, this)
         
@@ -47,28 +79,78 @@ abstract class BconAdapter {
         // Platform-specific initialization
         onInitialize()
         
+        // All main-thread work is drained from one per-tick hook
+        tickExecutor.budgetMicros = config.tickBudgetMicros
+        tickExecutor.start()
+        
         // Register all events
         registerEvents()
         
         // Initialize WebSocket connection
         webSocketClient.initialize()
+        startMetricsEndpoint()
+        statsReporter.start(config.serverStatsIntervalSeconds)
         
         logger.info("Bcon Adapter initialized successfully")
     }
     
+    /**
+     * Directory for config.json, commands.json and the event spool
+     */
+    protected open fun dataDirectory(): File = File("plugins/bcon")
+    
     /**
      * Shutdown the adapter gracefully
      */
     fun shutdown() {
         logger.info("Shutting down Bcon Adapter")
         
+        statsReporter.stop()
+        metricsEndpoint.stop()
+        eventManager.shutdown()
         webSocketClient.shutdown()
         commandManager.shutdown()
+        tickExecutor.stop()
         onShutdown()
+        scheduler.shutdown(5000)
         
         logger.info("Bcon Adapter shutdown complete")
     }
     
+    /**
+     * Serve the metrics registry over HTTP when metricsPort is set
+     */
+    private fun startMetricsEndpoint() {
+        if (config.metricsPort > 0) {
+            metricsEndpoint.start(config.metricsBindAddress, config.metricsPort)
+        } else {
+            metricsEndpoint.stop()
+        }
+    }
+    
+    /**
+     * Tick and world numbers for the server_stats event, or null if the platform has none
+     * Called on an adapter task, never the tick thread. Read what is safe to read concurrently (tick-time rings,
+     * TPS averages) directly and hop to the tick thread only for world state; the result is awaited for 5s.
+     */
+    open fun sampleServerPerformance(): CompletableFuture<ServerPerformanceData?> = CompletableFuture.completedFuture(null)
+    
+    /**
+     * The connection's own numbers for the server_stats event
+     */
+    internal fun adapterStats(): AdapterStatsData {
+        return AdapterStatsData(
+            connected = webSocketClient.isConnected(),
+            queueDepth = webSocketClient.pendingMessages(),
+            droppedEvents = webSocketClient.droppedMessages(),
+            spooledBytes = webSocketClient.spooledBytes(),
+            reconnects = metrics.reconnects.sum(),
+            ackLatencyP99Micros = metrics.ackLatency.percentileMicros(99.0),
+            sendLatencyP99Micros = metrics.sendLatency.percentileMicros(99.0),
+            serializationP99Micros = metrics.serializationTime.percentileMicros(99.0)
+        )
+    }
+    
     /**
      * Send event to the Bcon server
      */
@@ -77,12 +159,45 @@ abstract class BconAdapter {
     }
     
     /**
-     * Handle incoming command from Bcon server
+     * Send an event whose data object is already encoded as JSON text
+     * key is the event's subject (normally the player UUID); it keeps that subject's events in order across event lanes
+     */
+    open fun sendEncodedEvent(eventType: String, encodedData: String, timestamp: Long = System.currentTimeMillis() / 1000, key: Long = EventKeys.NONE) {
+        webSocketClient.sendEncodedEvent(eventType, encodedData, timestamp, key)
+    }
+    
+    /**
+     * Send an event whose data object is already encoded as CBOR (while the connection uses CBOR frames)
+     */
+    open fun sendCborEvent(eventType: String, encodedData: ByteArray, timestamp: Long = System.currentTimeMillis() / 1000, key: Long = EventKeys.NONE) {
+        webSocketClient.sendCborEvent(eventType, encodedData, timestamp, key)
+    }
+    
+    /**
+     * Ordering key for an incoming command; commands with the same key run one at a time in arrival order
      */
-    fun handleIncomingCommand(type: String, data: JsonObject?): String {
+    fun commandOrderingKey(type: String, data: JsonObject?): String {
         return when (type) {
-            "command" -> executeCommand(data?.get("command")?.asString ?: "")
-            "chat" -> broadcastMessage(data?.get("message")?.asString ?: "")
+            "register_command", "unregister_command" ->
+                data?.get("name")?.asString?.let { "command:$it" } ?: CommandDispatcher.GLOBAL
+            "bluemap" -> data?.get("id")?.asString?.let { "marker:$it" } ?: CommandDispatcher.GLOBAL
+            "command", "command_batch" -> "console"
+            "chat" -> "chat"
+            else -> CommandDispatcher.GLOBAL
+        }
+    }
+    
+    /**
+     * Handle incoming command from Bcon server
+     * The result is a string for every type except command_batch, which answers with one entry per command
+     */
+    fun handleIncomingCommand(type: String, data: JsonObject?): JsonElement {
+        if (type == "command_batch") {
+            return runCommandBatch(data ?: JsonObject())
+        }
+        return JsonPrimitive(when (type) {
+            "command" -> awaitTickResult(executeCommand(data?.get("command")?.asString ?: ""))
+            "chat" -> awaitTickResult(broadcastMessage(data?.get("message")?.asString ?: ""))
             "register_command" -> {
                 data?.let { commandManager.registerCommand(it) }
                 "Command registered successfully"
@@ -102,6 +217,43 @@ abstract class BconAdapter {
                 handleBconConfigCommand(data ?: JsonObject())
             }
             else -> "Unknown command type: $type"
+        })
+    }
+    
+    /**
+     * Run a command_batch: {"commands": [...], "stopOnError": false}
+     */
+    private fun runCommandBatch(data: JsonObject): JsonArray {
+        val commands = data.getAsJsonArray("commands")?.map { it.asString }
+            ?: throw IllegalArgumentException("Missing commands array")
+        if (commands.size > MAX_BATCH_COMMANDS) {
+            throw IllegalArgumentException("Batch has ${commands.size} commands - the limit is $MAX_BATCH_COMMANDS")
+        }
+        if (commands.isEmpty()) {
+            return JsonArray()
+        }
+        
+        val batch = CommandBatch(
+            commands,
+            data.get("stopOnError")?.asBoolean ?: false,
+            tickExecutor,
+            tickExecutor::remainingTickNanos,
+            ::executeCommand
+        )
+        return awaitTickResult(batch.start())
+    }
+    
+    /**
+     * Wait (on the command worker, never the tick) for work handed to the tick thread; failures propagate
+     * so the ack reports them as errors
+     */
+    private fun <T> awaitTickResult(result: CompletableFuture<T>): T {
+        return try {
+            result.get(TICK_RESULT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+        } catch (e: TimeoutException) {
+            throw IllegalStateException("Server thread did not run the command within ${TICK_RESULT_TIMEOUT_MS / 1000}s")
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
         }
     }
     
@@ -118,7 +270,16 @@ abstract class BconAdapter {
                 "- Server ID: ${config.serverId}\n" +
                 "- Server Name: ${config.serverName}\n" +
                 "- Strict Mode: ${config.strictMode}\n" +
-                "- Connection: ${if (webSocketClient.isConnected()) "Connected" else "Disconnected"}\n" +
+                "- Connection: ${webSocketClient.describeConnection()}\n" +
+                "- Outbound Queue: ${webSocketClient.pendingMessages()} pending, ${webSocketClient.droppedMessages()} dropped\n" +
+                "- Event Workers: ${eventManager.pendingEncodes()} pending, ${eventManager.droppedEncodes()} dropped\n" +
+                "- Incoming Commands: ${webSocketClient.describeCommands()}\n" +
+                "- Ack Latency: ${metrics.ackLatency.describe()}\n" +
+                "- Send Latency: ${metrics.sendLatency.describe()}\n" +
+                "- Filtered Events: ${eventManager.policies.filteredCount()}\n" +
+                "- Spooled: ${webSocketClient.spooledBytes() / 1024} KB\n" +
+                "- Scheduler: ${scheduler.describe()}\n" +
+                "- Tick Work: ${tickExecutor.describe()}\n" +
                 "- Config Valid: ${config.isValid()}"
             }
             "token" -> {
@@ -194,13 +355,26 @@ abstract class BconAdapter {
             }
             "reload" -> {
                 config.loadConfig()
+                eventManager.policies.configure(config.eventFilters, config.eventPolicies)
                 webSocketClient.shutdown()
                 webSocketClient.initialize()
+                startMetricsEndpoint()
+                statsReporter.start(config.serverStatsIntervalSeconds)
                 "Configuration reloaded and connection restarted"
             }
+            "profile" -> {
+                when (data.get("value")?.asString?.lowercase()) {
+                    null, "" -> ListenerProfiler.report()
+                    "reset" -> {
+                        ListenerProfiler.reset()
+                        "Listener profile cleared"
+                    }
+                    else -> "Usage: /bcon profile [reset]"
+                }
+            }
             else -> {
                 "Unknown action: $action\n" +
-                "Available actions: status, token, url, id, name, strict, reconnect, reload"
+                "Available actions: status, token, url, id, name, strict, reconnect, reload, profile"
             }
         }
     }
@@ -223,14 +397,19 @@ abstract class BconAdapter {
     protected abstract fun registerEvents()
     
     /**
-     * Execute a server command
+     * Budgeted executor for the server thread that owns game state (platform-specific tick hook)
+     */
+    abstract val tickExecutor: BudgetedTickExecutor
+    
+    /**
+     * Execute a server command on the tick thread; completes with the command's output
      */
-    protected abstract fun executeCommand(command: String): String
+    protected abstract fun executeCommand(command: String): CompletableFuture<String>
     
     /**
-     * Broadcast a message to all players
+     * Broadcast a message to all players on the tick thread
      */
-    protected abstract fun broadcastMessage(message: String): String
+    protected abstract fun broadcastMessage(message: String): CompletableFuture<String>
     
     /**
      * Get the server instance (platform-specific)
@@ -251,4 +430,10 @@ abstract class BconAdapter {
      * Handle strict mode connection failure (platform-specific server shutdown)
      */
     abstract fun handleStrictModeFailure()
+    
+    companion object {
+        // Upper bound for waiting on the tick thread; a stalled or stopping server fails the ack instead
+        private const val TICK_RESULT_TIMEOUT_MS = 30_000L
+        private const val MAX_BATCH_COMMANDS = 1000
+    }
 }
\ No newline at end of file
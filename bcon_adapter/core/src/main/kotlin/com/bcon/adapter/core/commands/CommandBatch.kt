@@ -0,0 +1,67 @@
+package com.bcon.adapter.core.commands
+
+import com.bcon.adapter.core.scheduling.TickThreadExecutor
+import com.google.gson.JsonArray
+import com.google.gson.JsonObject
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+/**
+ * Runs the commands of a command_batch message on the tick thread
+ * Commands run back to back until the tick budget is spent, then the batch continues on the next tick,
+ * so hundreds of commands cost one message, one ack and a few tick hops instead of one of each per command.
+ * The result array has one entry per command that ran, in order.
+ */
+class CommandBatch(
+    private val commands: List<String>,
+    private val stopOnError: Boolean,
+    private val tickExecutor: TickThreadExecutor,
+    private val remainingTickNanos: () -> Long,
+    private val execute: (String) -> CompletableFuture<String>
+) {
+
+    private val started = ArrayList<CompletableFuture<String>>(commands.size)
+    private val result = CompletableFuture<JsonArray>()
+
+    fun start(): CompletableFuture<JsonArray> {
+        tickExecutor.executeNextTick(::runSlice)
+        return result
+    }
+
+    private fun runSlice() {
+        try {
+            while (started.size < commands.size) {
+                // On the tick thread the platform runs the command inline, so the future is normally done here
+                val future = execute(commands[started.size])
+                started.add(future)
+                if (stopOnError && future.isCompletedExceptionally) {
+                    break
+                }
+                if (remainingTickNanos() <= 0 && started.size < commands.size) {
+                    tickExecutor.executeNextTick(::runSlice)
+                    return
+                }
+            }
+            CompletableFuture.allOf(*started.toTypedArray()).handle { _, _ -> result.complete(collectResults()) }
+        } catch (e: Exception) {
+            result.completeExceptionally(e)
+        }
+    }
+
+    private fun collectResults(): JsonArray {
+        val results = JsonArray(started.size)
+        started.forEachIndexed { index, future ->
+            results.add(JsonObject().apply {
+                addProperty("command", commands[index])
+                try {
+                    addProperty("output", future.join())
+                    addProperty("success", true)
+                } catch (e: CompletionException) {
+                    addProperty("error", e.cause?.message ?: "Unknown error")
+                    addProperty("success", false)
+                }
+            })
+        }
+        return results
+    }
+}
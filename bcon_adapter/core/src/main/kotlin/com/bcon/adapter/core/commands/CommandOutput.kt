@@ -0,0 +1,31 @@
+package com.bcon.adapter.core.commands
+
+/**
+ * Collects the feedback a console command sends to its sender, so acks carry the real command output
+ * Feedback arrives on the tick thread while the result is read from the command worker, hence the locking.
+ */
+class CommandOutput {
+
+    private val lines = ArrayList<String>()
+
+    @Synchronized
+    fun add(line: String) {
+        if (line.isNotBlank()) {
+            lines.add(line)
+        }
+    }
+
+    @Synchronized
+    fun lines(): List<String> = lines.toList()
+
+    /**
+     * Result text for a finished command; throws for a failed one so the ack reports an error
+     */
+    fun toResult(success: Boolean): String {
+        val text = lines().joinToString("\n")
+        if (!success) {
+            throw IllegalStateException(if (text.isEmpty()) "Command execution failed" else text)
+        }
+        return text.ifEmpty { "Command executed successfully" }
+    }
+}
@@ -15,7 +15,7 @@ class DynamicCommandManager(private val adapter: BconAdapter) {
     
     private val logger = adapter.logger
     private val gson = GsonBuilder().setPrettyPrinting().create()
-    private val commandsFile = File("plugins/bcon/commands.json")
+    private val commandsFile = File(adapter.config.dataDirectory, "commands.json")
     
     private val registeredCommands = ConcurrentHashMap<String, CommandDefinition>()
     private val commandExecutions = ConcurrentHashMap<String, MutableList<CommandExecution>>()
@@ -206,78 +206,6 @@ class DynamicCommandManager(private val adapter: BconAdapter) {
         }
     }
     
-    /**
-     * Parse command definition from JSON
-     */
-    private fun parseCommandDefinition(json: JsonObject): CommandDefinition {
-        val name = json.get("name")?.asString 
-            ?: throw IllegalArgumentException("Command name is required")
-        
-        val description = json.get("description")?.asString ?: ""
-        val usage = json.get("usage")?.asString ?: ""
-        val permission = json.get("permission")?.asString
-        val aliases = json.get("aliases")?.asJsonArray?.map { it.asString } ?: emptyList()
-        
-        val arguments = mutableListOf<ArgumentDefinition>()
-        json.get("arguments")?.asJsonArray?.forEach { argElement ->
-            arguments.add(parseArgumentDefinition(argElement.asJsonObject))
-        }
-        
-        val subcommands = mutableListOf<SubcommandDefinition>()
-        json.get("subcommands")?.asJsonArray?.forEach { subElement ->
-            subcommands.add(parseSubcommandDefinition(subElement.asJsonObject))
-        }
-        
-        val responses = mutableMapOf<String, String>()
-        json.get("responses")?.asJsonObject?.entrySet()?.forEach { entry ->
-            responses[entry.key] = entry.value.asString
-        }
-        
-        return CommandDefinition(
-            name = name,
-            description = description,
-            usage = usage,
-            permission = permission,
-            aliases = aliases,
-            arguments = arguments,
-            subcommands = subcommands,
-            responses = responses
-        )
-    }
-    
-    /**
-     * Parse argument definition from JSON
-     */
-    private fun parseArgumentDefinition(json: JsonObject): ArgumentDefinition {
-        return ArgumentDefinition(
-            name = json.get("name")?.asString ?: throw IllegalArgumentException("Argument name required"),
-            type = ArgumentType.valueOf(json.get("type")?.asString?.uppercase() ?: "STRING"),
-            required = json.get("required")?.asBoolean ?: true,
-            defaultValue = json.get("default")?.asString,
-            suggestions = json.get("suggestions")?.asJsonArray?.map { it.asString } ?: emptyList(),
-            min = json.get("min")?.asDouble,
-            max = json.get("max")?.asDouble,
-            regex = json.get("regex")?.asString
-        )
-    }
-    
-    /**
-     * Parse subcommand definition from JSON  
-     */
-    private fun parseSubcommandDefinition(json: JsonObject): SubcommandDefinition {
-        val arguments = mutableListOf<ArgumentDefinition>()
-        json.get("arguments")?.asJsonArray?.forEach { argElement ->
-            arguments.add(parseArgumentDefinition(argElement.asJsonObject))
-        }
-        
-        return SubcommandDefinition(
-            name = json.get("name")?.asString ?: throw IllegalArgumentException("Subcommand name required"),
-            description = json.get("description")?.asString ?: "",
-            permission = json.get("permission")?.asString,
-            arguments = arguments
-        )
-    }
-    
     /**
      * Serialize command definition to JSON
      */
@@ -413,6 +341,81 @@ class DynamicCommandManager(private val adapter: BconAdapter) {
         // Platform-specific implementations will override this
         logger.info("Platform command registration not implemented for: ${definition.name}")
     }
+    
+    companion object {
+        /**
+         * Parse command definition from JSON
+         * Needs no manager state, so it also serves the benchmarks without touching commands.json
+         */
+        fun parseCommandDefinition(json: JsonObject): CommandDefinition {
+            val name = json.get("name")?.asString 
+                ?: throw IllegalArgumentException("Command name is required")
+        
+            val description = json.get("description")?.asString ?: ""
+            val usage = json.get("usage")?.asString ?: ""
+            val permission = json.get("permission")?.asString
+            val aliases = json.get("aliases")?.asJsonArray?.map { it.asString } ?: emptyList()
+        
+            val arguments = mutableListOf<ArgumentDefinition>()
+            json.get("arguments")?.asJsonArray?.forEach { argElement ->
+                arguments.add(parseArgumentDefinition(argElement.asJsonObject))
+            }
+        
+            val subcommands = mutableListOf<SubcommandDefinition>()
+            json.get("subcommands")?.asJsonArray?.forEach { subElement ->
+                subcommands.add(parseSubcommandDefinition(subElement.asJsonObject))
+            }
+        
+            val responses = mutableMapOf<String, String>()
+            json.get("responses")?.asJsonObject?.entrySet()?.forEach { entry ->
+                responses[entry.key] = entry.value.asString
+            }
+        
+            return CommandDefinition(
+                name = name,
+                description = description,
+                usage = usage,
+                permission = permission,
+                aliases = aliases,
+                arguments = arguments,
+                subcommands = subcommands,
+                responses = responses
+            )
+        }
+    
+        /**
+         * Parse argument definition from JSON
+         */
+        private fun parseArgumentDefinition(json: JsonObject): ArgumentDefinition {
+            return ArgumentDefinition(
+                name = json.get("name")?.asString ?: throw IllegalArgumentException("Argument name required"),
+                type = ArgumentType.valueOf(json.get("type")?.asString?.uppercase() ?: "STRING"),
+                required = json.get("required")?.asBoolean ?: true,
+                defaultValue = json.get("default")?.asString,
+                suggestions = json.get("suggestions")?.asJsonArray?.map { it.asString } ?: emptyList(),
+                min = json.get("min")?.asDouble,
+                max = json.get("max")?.asDouble,
+                regex = json.get("regex")?.asString
+            )
+        }
+    
+        /**
+         * Parse subcommand definition from JSON  
+         */
+        private fun parseSubcommandDefinition(json: JsonObject): SubcommandDefinition {
+            val arguments = mutableListOf<ArgumentDefinition>()
+            json.get("arguments")?.asJsonArray?.forEach { argElement ->
+                arguments.add(parseArgumentDefinition(argElement.asJsonObject))
+            }
+        
+            return SubcommandDefinition(
+                name = json.get("name")?.asString ?: throw IllegalArgumentException("Subcommand name required"),
+                description = json.get("description")?.asString ?: "",
+                permission = json.get("permission")?.asString,
+                arguments = arguments
+            )
+        }
+    }
 }
 
 // Data classes for command system
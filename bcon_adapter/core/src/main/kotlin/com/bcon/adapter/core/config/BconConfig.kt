@@ -11,10 +11,11 @@ import java.io.FileWriter
 /**
  * Configuration management for Bcon adapter
  * Supports JSON configuration with automatic creation of default config
+ * dataDirectory holds config.json and the other files the adapter keeps (commands.json, the event spool)
  */
-class BconConfig(private val logger: BconLogger) {
+class BconConfig(private val logger: BconLogger, val dataDirectory: File = File("plugins/bcon")) {
     private val gson: Gson = GsonBuilder().setPrettyPrinting().create()
-    private val configFile = File("plugins/bcon/config.json")
+    private val configFile = File(dataDirectory, "config.json")
     
     // Configuration properties
     var jwtToken: String = ""
@@ -35,6 +36,66 @@ class BconConfig(private val logger: BconLogger) {
         private set
     var connectionTimeout: Int = 10000
         private set
+    var outboundQueueCapacity: Int = 10000
+        private set
+    var outboundOverflowPolicy: String = "drop-oldest"
+        private set
+    var outboundBlockTimeoutMs: Int = 50
+        private set
+    var batchingEnabled: Boolean = false
+        private set
+    var batchMaxEvents: Int = 100
+        private set
+    var batchMaxBytes: Int = 65536
+        private set
+    var batchMaxDelayMs: Int = 50
+        private set
+    var ackBatchMaxDelayMs: Int = 5
+        private set
+    var ackBatchMaxAcks: Int = 64
+        private set
+    var eventWorkerThreads: Int = 2
+        private set
+    var maxConcurrentCommands: Int = 16
+        private set
+    var maxPendingCommands: Int = 256
+        private set
+    var tickBudgetMicros: Long = 2000
+        private set
+    var spoolEnabled: Boolean = true
+        private set
+    var spoolMaxMb: Int = 256
+        private set
+    var spoolReplayFramesPerSecond: Int = 20
+        private set
+    var wireFormat: String = "json"
+        private set
+    var compressionEnabled: Boolean = false
+        private set
+    var internStrings: Boolean = true
+        private set
+    var compressionThresholdBytes: Int = 1024
+        private set
+    var reconnectBaseDelayMs: Long = 500
+        private set
+    var reconnectMaxDelayMs: Long = 60000
+        private set
+    var circuitBreakerThreshold: Int = 10
+        private set
+    var circuitBreakerOpenMs: Long = 120000
+        private set
+    var eventLanes: Int = 0
+        private set
+    var metricsPort: Int = 0
+        private set
+    var metricsBindAddress: String = "127.0.0.1"
+        private set
+    var serverStatsIntervalSeconds: Int = 30
+        private set
+    var eventFilters: JsonObject = JsonObject()
+        private set
+    var eventPolicies: JsonObject = JsonObject()
+        private set
     
     init {
         loadConfig()
@@ -69,6 +130,36 @@ class BconConfig(private val logger: BconLogger) {
                 enableBlueMap = config.get("enableBlueMap")?.asBoolean ?: true
                 heartbeatInterval = config.get("heartbeatIntervalMs")?.asInt ?: 30000
                 connectionTimeout = config.get("connectionTimeoutMs")?.asInt ?: 10000
+                outboundQueueCapacity = config.get("outboundQueueCapacity")?.asInt ?: 10000
+                outboundOverflowPolicy = config.get("outboundOverflowPolicy")?.asString ?: "drop-oldest"
+                outboundBlockTimeoutMs = config.get("outboundBlockTimeoutMs")?.asInt ?: 50
+                batchingEnabled = config.get("batchingEnabled")?.asBoolean ?: false
+                batchMaxEvents = config.get("batchMaxEvents")?.asInt ?: 100
+                batchMaxBytes = config.get("batchMaxBytes")?.asInt ?: 65536
+                batchMaxDelayMs = config.get("batchMaxDelayMs")?.asInt ?: 50
+                ackBatchMaxDelayMs = config.get("ackBatchMaxDelayMs")?.asInt ?: 5
+                ackBatchMaxAcks = config.get("ackBatchMaxAcks")?.asInt ?: 64
+                eventWorkerThreads = config.get("eventWorkerThreads")?.asInt ?: 2
+                maxConcurrentCommands = config.get("maxConcurrentCommands")?.asInt ?: 16
+                maxPendingCommands = config.get("maxPendingCommands")?.asInt ?: 256
+                tickBudgetMicros = config.get("tickBudgetMicros")?.asLong ?: 2000
+                spoolEnabled = config.get("spoolEnabled")?.asBoolean ?: true
+                spoolMaxMb = config.get("spoolMaxMb")?.asInt ?: 256
+                spoolReplayFramesPerSecond = config.get("spoolReplayFramesPerSecond")?.asInt ?: 20
+                wireFormat = config.get("wireFormat")?.asString?.lowercase() ?: "json"
+                compressionEnabled = config.get("compressionEnabled")?.asBoolean ?: false
+                internStrings = config.get("internStrings")?.asBoolean ?: true
+                compressionThresholdBytes = config.get("compressionThresholdBytes")?.asInt ?: 1024
+                reconnectBaseDelayMs = config.get("reconnectBaseDelayMs")?.asLong ?: 500
+                reconnectMaxDelayMs = config.get("reconnectMaxDelayMs")?.asLong ?: 60000
+                circuitBreakerThreshold = config.get("circuitBreakerThreshold")?.asInt ?: 10
+                circuitBreakerOpenMs = config.get("circuitBreakerOpenMs")?.asLong ?: 120000
+                eventLanes = config.get("eventLanes")?.asInt ?: 0
+                metricsPort = config.get("metricsPort")?.asInt ?: 0
+                metricsBindAddress = config.get("metricsBindAddress")?.asString ?: "127.0.0.1"
+                serverStatsIntervalSeconds = config.get("serverStatsIntervalSeconds")?.asInt ?: 30
+                eventFilters = config.get("eventFilters")?.takeIf { it.isJsonObject }?.asJsonObject ?: JsonObject()
+                eventPolicies = config.get("eventPolicies")?.takeIf { it.isJsonObject }?.asJsonObject ?: JsonObject()
                 
                 validateConfig()
                 logger.info("Configuration loaded successfully")
@@ -108,6 +199,42 @@ class BconConfig(private val logger: BconLogger) {
             addProperty("enableBlueMap", true)
             addProperty("heartbeatIntervalMs", 30000)
             addProperty("connectionTimeoutMs", 10000)
+            addProperty("outboundQueueCapacity", 10000)
+            addProperty("outboundOverflowPolicy", "drop-oldest")
+            addProperty("outboundBlockTimeoutMs", 50)
+            addProperty("batchingEnabled", false)
+            addProperty("batchMaxEvents", 100)
+            addProperty("batchMaxBytes", 65536)
+            addProperty("batchMaxDelayMs", 50)
+            addProperty("ackBatchMaxDelayMs", 5)
+            addProperty("ackBatchMaxAcks", 64)
+            addProperty("eventWorkerThreads", 2)
+            addProperty("maxConcurrentCommands", 16)
+            addProperty("maxPendingCommands", 256)
+            addProperty("tickBudgetMicros", 2000)
+            addProperty("spoolEnabled", true)
+            addProperty("spoolMaxMb", 256)
+            addProperty("spoolReplayFramesPerSecond", 20)
+            addProperty("wireFormat", "json")
+            addProperty("compressionEnabled", false)
+            addProperty("internStrings", true)
+            addProperty("compressionThresholdBytes", 1024)
+            addProperty("reconnectBaseDelayMs", 500)
+            addProperty("reconnectMaxDelayMs", 60000)
+            addProperty("circuitBreakerThreshold", 10)
+            addProperty("circuitBreakerOpenMs", 120000)
+            addProperty("eventLanes", 0)
+            addProperty("metricsPort", 0)
+            addProperty("metricsBindAddress", "127.0.0.1")
+            addProperty("serverStatsIntervalSeconds", 30)
+            add("eventFilters", JsonObject().apply {
+                addProperty("enablePlayerEvents", true)
+                addProperty("enableServerEvents", true)
+                addProperty("enableWorldEvents", true)
+                addProperty("enableEntityEvents", true)
+                addProperty("enableInteractionEvents", true)
+            })
+            add("eventPolicies", JsonObject())
         }
         
         try {
@@ -139,6 +266,36 @@ class BconConfig(private val logger: BconLogger) {
                 addProperty("enableBlueMap", enableBlueMap)
                 addProperty("heartbeatIntervalMs", heartbeatInterval)
                 addProperty("connectionTimeoutMs", connectionTimeout)
+                addProperty("outboundQueueCapacity", outboundQueueCapacity)
+                addProperty("outboundOverflowPolicy", outboundOverflowPolicy)
+                addProperty("outboundBlockTimeoutMs", outboundBlockTimeoutMs)
+                addProperty("batchingEnabled", batchingEnabled)
+                addProperty("batchMaxEvents", batchMaxEvents)
+                addProperty("batchMaxBytes", batchMaxBytes)
+                addProperty("batchMaxDelayMs", batchMaxDelayMs)
+                addProperty("ackBatchMaxDelayMs", ackBatchMaxDelayMs)
+                addProperty("ackBatchMaxAcks", ackBatchMaxAcks)
+                addProperty("eventWorkerThreads", eventWorkerThreads)
+                addProperty("maxConcurrentCommands", maxConcurrentCommands)
+                addProperty("maxPendingCommands", maxPendingCommands)
+                addProperty("tickBudgetMicros", tickBudgetMicros)
+                addProperty("spoolEnabled", spoolEnabled)
+                addProperty("spoolMaxMb", spoolMaxMb)
+                addProperty("spoolReplayFramesPerSecond", spoolReplayFramesPerSecond)
+                addProperty("wireFormat", wireFormat)
+                addProperty("compressionEnabled", compressionEnabled)
+                addProperty("internStrings", internStrings)
+                addProperty("compressionThresholdBytes", compressionThresholdBytes)
+                addProperty("reconnectBaseDelayMs", reconnectBaseDelayMs)
+                addProperty("reconnectMaxDelayMs", reconnectMaxDelayMs)
+                addProperty("circuitBreakerThreshold", circuitBreakerThreshold)
+                addProperty("circuitBreakerOpenMs", circuitBreakerOpenMs)
+                addProperty("eventLanes", eventLanes)
+                addProperty("metricsPort", metricsPort)
+                addProperty("metricsBindAddress", metricsBindAddress)
+                addProperty("serverStatsIntervalSeconds", serverStatsIntervalSeconds)
+                add("eventFilters", eventFilters.deepCopy())
+                add("eventPolicies", eventPolicies.deepCopy())
             }
             
             FileWriter(configFile).use { writer ->
@@ -176,6 +333,91 @@ class BconConfig(private val logger: BconLogger) {
         if (heartbeatInterval < 10000) {
             logger.warning("Heartbeat interval is very low, minimum 10000ms recommended")
         }
+        
+        if (outboundQueueCapacity < 1) {
+            logger.warning("Outbound queue capacity must be positive - using default")
+            outboundQueueCapacity = 10000
+        }
+        
+        if (eventWorkerThreads < 0 || eventWorkerThreads > 16) {
+            logger.warning("Event worker threads must be between 0 and 16 - using default")
+            eventWorkerThreads = 2
+        }
+        
+        if (maxConcurrentCommands < 1 || maxConcurrentCommands > 256) {
+            logger.warning("Max concurrent commands must be between 1 and 256 - using default")
+            maxConcurrentCommands = 16
+        }
+        
+        if (maxPendingCommands < maxConcurrentCommands) {
+            logger.warning("Max pending commands can't be below max concurrent commands - using ${maxConcurrentCommands * 16}")
+            maxPendingCommands = maxConcurrentCommands * 16
+        }
+        
+        if (ackBatchMaxDelayMs < 0 || ackBatchMaxDelayMs > 1000 || ackBatchMaxAcks < 1 || ackBatchMaxAcks > 1000) {
+            logger.warning("Ack batch limits are out of range - using defaults")
+            ackBatchMaxDelayMs = 5
+            ackBatchMaxAcks = 64
+        }
+        
+        if (tickBudgetMicros < 100 || tickBudgetMicros > 40_000) {
+            logger.warning("Tick budget must be between 100 and 40000 microseconds - using default")
+            tickBudgetMicros = 2000
+        }
+        
+        if (spoolMaxMb < 1) {
+            logger.warning("Spool size must be at least 1 MB - using default")
+            spoolMaxMb = 256
+        }
+        
+        if (spoolReplayFramesPerSecond < 1) {
+            logger.warning("Spool replay rate must be positive - using default")
+            spoolReplayFramesPerSecond = 20
+        }
+        
+        if (wireFormat != "json" && wireFormat != "cbor") {
+            logger.warning("Unknown wire format '$wireFormat' - using json")
+            wireFormat = "json"
+        }
+        
+        if (compressionThresholdBytes < 64) {
+            logger.warning("Compression threshold below 64 bytes costs more than it saves - using default")
+            compressionThresholdBytes = 1024
+        }
+        
+        if (reconnectBaseDelayMs < 100 || reconnectMaxDelayMs < reconnectBaseDelayMs) {
+            logger.warning("Reconnect delays are out of range - using defaults")
+            reconnectBaseDelayMs = 500
+            reconnectMaxDelayMs = 60000
+        }
+        
+        if (circuitBreakerThreshold < 1 || circuitBreakerOpenMs < 1000) {
+            logger.warning("Circuit breaker settings are out of range - using defaults")
+            circuitBreakerThreshold = 10
+            circuitBreakerOpenMs = 120000
+        }
+        
+        if (eventLanes < 0 || eventLanes > 8) {
+            logger.warning("Event lanes must be between 0 and 8 - using a single connection")
+            eventLanes = 0
+        }
+        
+        if (metricsPort < 0 || metricsPort > 65535) {
+            logger.warning("Metrics port must be between 0 and 65535 - metrics endpoint disabled")
+            metricsPort = 0
+        }
+        
+        if (serverStatsIntervalSeconds != 0 && serverStatsIntervalSeconds !in 5..3600) {
+            logger.warning("Server stats interval must be 0 (off) or between 5 and 3600 seconds - using 30")
+            serverStatsIntervalSeconds = 30
+        }
+        
+        if (batchingEnabled && (batchMaxEvents < 1 || batchMaxBytes < 1024 || batchMaxDelayMs < 1)) {
+            logger.warning("Batch limits are out of range - using defaults")
+            batchMaxEvents = 100
+            batchMaxBytes = 65536
+            batchMaxDelayMs = 50
+        }
     }
     
     /**
@@ -193,6 +435,36 @@ class BconConfig(private val logger: BconLogger) {
                 addProperty("enableBlueMap", enableBlueMap)
                 addProperty("heartbeatIntervalMs", heartbeatInterval)
                 addProperty("connectionTimeoutMs", connectionTimeout)
+                addProperty("outboundQueueCapacity", outboundQueueCapacity)
+                addProperty("outboundOverflowPolicy", outboundOverflowPolicy)
+                addProperty("outboundBlockTimeoutMs", outboundBlockTimeoutMs)
+                addProperty("batchingEnabled", batchingEnabled)
+                addProperty("batchMaxEvents", batchMaxEvents)
+                addProperty("batchMaxBytes", batchMaxBytes)
+                addProperty("batchMaxDelayMs", batchMaxDelayMs)
+                addProperty("ackBatchMaxDelayMs", ackBatchMaxDelayMs)
+                addProperty("ackBatchMaxAcks", ackBatchMaxAcks)
+                addProperty("eventWorkerThreads", eventWorkerThreads)
+                addProperty("maxConcurrentCommands", maxConcurrentCommands)
+                addProperty("maxPendingCommands", maxPendingCommands)
+                addProperty("tickBudgetMicros", tickBudgetMicros)
+                addProperty("spoolEnabled", spoolEnabled)
+                addProperty("spoolMaxMb", spoolMaxMb)
+                addProperty("spoolReplayFramesPerSecond", spoolReplayFramesPerSecond)
+                addProperty("wireFormat", wireFormat)
+                addProperty("compressionEnabled", compressionEnabled)
+                addProperty("internStrings", internStrings)
+                addProperty("compressionThresholdBytes", compressionThresholdBytes)
+                addProperty("reconnectBaseDelayMs", reconnectBaseDelayMs)
+                addProperty("reconnectMaxDelayMs", reconnectMaxDelayMs)
+                addProperty("circuitBreakerThreshold", circuitBreakerThreshold)
+                addProperty("circuitBreakerOpenMs", circuitBreakerOpenMs)
+                addProperty("eventLanes", eventLanes)
+                addProperty("metricsPort", metricsPort)
+                addProperty("metricsBindAddress", metricsBindAddress)
+                addProperty("serverStatsIntervalSeconds", serverStatsIntervalSeconds)
+                add("eventFilters", eventFilters.deepCopy())
+                add("eventPolicies", eventPolicies.deepCopy())
             }
             
             FileWriter(configFile).use { writer ->
@@ -2,15 +2,22 @@ package com.bcon.adapter.core.connection
 
 import com.bcon.adapter.core.BconAdapter
 import com.bcon.adapter.core.config.BconConfig
+import com.bcon.adapter.core.events.EventKeys
+import com.bcon.adapter.core.scheduling.CommandDispatcher
 import com.google.gson.Gson
+import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonSyntaxException
+import java.io.File
+import java.io.IOException
 import java.net.URI
 import java.net.http.HttpClient
 import java.net.http.WebSocket
 import java.nio.ByteBuffer
 import java.time.Duration
+import java.util.UUID
 import java.util.concurrent.*
+import java.util.concurrent.atomic.AtomicReference
 
 /**
  * WebSocket client for connecting to Bcon server
@@ -23,18 +30,91 @@ class BconWebSocketClient(
     
     private val logger = adapter.logger
     private val gson = Gson()
-    private val messageBuffer = StringBuffer()
-    private val bufferLock = Any()
+    // The JDK delivers listener callbacks for a socket one at a time, so the receive buffer needs no lock
+    private val receiveBuffer = StringBuilder()
     
+    private val outboundQueue = OutboundQueue(
+        config.outboundQueueCapacity,
+        OverflowPolicy.fromConfig(config.outboundOverflowPolicy),
+        config.outboundBlockTimeoutMs.toLong()
+    )
+    private val batcher: EventBatcher? = if (config.batchingEnabled) {
+        EventBatcher(config.batchMaxEvents, config.batchMaxBytes, config.batchMaxDelayMs.toLong())
+    } else {
+        null
+    }
+    // Acks are coalesced separately from events so they never wait behind the event batch delay
+    private val ackBatcher: EventBatcher? = if (config.ackBatchMaxDelayMs > 0) {
+        EventBatcher(config.ackBatchMaxAcks, config.batchMaxBytes, config.ackBatchMaxDelayMs.toLong(), "command_result_batch")
+    } else {
+        null
+    }
+    // Scratch buffer for the CBOR envelope of one event (sender thread only)
+    private val envelopeSink = ByteSink(1024)
+    private val pendingAckTimes = LongArray(config.ackBatchMaxAcks.coerceAtLeast(1))
+    private var pendingAckCount = 0
+    private val metrics = adapter.metrics
+    
+    private val spool: EventSpool? = if (config.spoolEnabled) {
+        EventSpool(File(config.dataDirectory, "spool"), config.spoolMaxMb * 1024L * 1024L, logger)
+    } else {
+        null
+    }
+    private val replayIntervalNanos = 1_000_000_000L / config.spoolReplayFramesPerSecond.coerceAtLeast(1)
+    private var activeSpool: EventSpool? = null
+    private var nextReplayAt = 0L
+    
+    private val frames = FrameWriter(config.compressionThresholdBytes, config.internStrings)
+    // Extra sockets for event frames; empty unless eventLanes is set
+    private val lanes: List<EventLane> = List(config.eventLanes) { index ->
+        EventLane(index, config, logger, adapter.scheduler, metrics, { listener -> openSocket(listener, LANE_EVENTS) }) {
+            outboundQueue.offer(it)
+        }
+    }
+    // Ties the event lanes to the priority connection they were opened for
+    @Volatile
+    private var sessionId = UUID.randomUUID().toString()
+    
+    @Volatile
     private var webSocket: WebSocket? = null
     private var httpClient: HttpClient? = null
-    private var heartbeatExecutor: ScheduledExecutorService? = null
-    private var connectionMonitor: ScheduledExecutorService? = null
-    private var isShuttingDown = false
-    private var lastPongReceived = System.currentTimeMillis()
-    private var lastMessageReceived = System.currentTimeMillis() // Track any activity
-    private var connectionAttempts = 0
-    private val maxConnectionAttempts = 100 // Much higher limit for persistent reconnection
+    private var senderThread: Thread? = null
+    @Volatile
+    private var senderRunning = false
+    private var lastReportedDrops = 0L
+    private var lastDropReport = 0L
+    private val scheduler get() = adapter.scheduler
+    private val commands = CommandDispatcher(
+        adapter.scheduler,
+        config.maxConcurrentCommands,
+        config.maxPendingCommands,
+        ::resumeReading
+    )
+    private var heartbeatTask: ScheduledFuture<*>? = null
+    private var reconnectTask: ScheduledFuture<*>? = null
+    private val state = AtomicReference(ConnectionState.DISCONNECTED)
+    // Numbers connect attempts so a socket that opens after its attempt was abandoned is never installed;
+    // the attempt lock makes "is this still the current attempt" and the CONNECTING -> CONNECTED move one step
+    private val attemptLock = Any()
+    private var attemptGeneration = 0L
+    private val reconnectPolicy = ReconnectPolicy(
+        baseDelayMs = config.reconnectBaseDelayMs,
+        maxDelayMs = config.reconnectMaxDelayMs,
+        failureThreshold = config.circuitBreakerThreshold,
+        openMs = config.circuitBreakerOpenMs,
+        stableMs = STABLE_CONNECTION_MS
+    )
+    private val link = LinkMonitor(config.heartbeatInterval.toLong())
+    @Volatile
+    private var everConnected = false
+    
+    init {
+        metrics.registry.gauge("bcon_outbound_queue_depth", "Messages waiting for the sender threads") { pendingMessages() }
+        metrics.registry.counter("bcon_events_dropped_total", "Messages dropped because an outbound queue was full") { droppedMessages() }
+        metrics.registry.gauge("bcon_spool_bytes", "Bytes of event frames waiting in the on-disk spool") { spooledBytes() }
+        metrics.registry.gauge("bcon_connected", "1 while the priority connection is up") { if (isConnected()) 1 else 0 }
+        metrics.registry.gauge("bcon_event_lanes_up", "Event lanes currently connected") { lanes.count { it.isUp() } }
+    }
     
     /**
      * Initialize the WebSocket connection
@@ -50,6 +130,11 @@ class BconWebSocketClient(
         }
         
         logger.info("Initializing WebSocket connection to ${config.serverUrl}")
+        // A restart (reconnect/reload) starts from a clean slate
+        state.set(ConnectionState.DISCONNECTED)
+        reconnectPolicy.reset()
+        startSender()
+        lanes.forEach { it.start() }
         connectWebSocket()
     }
     
@@ -57,19 +142,17 @@ class BconWebSocketClient(
      * Shutdown the WebSocket connection
      */
     fun shutdown() {
-        isShuttingDown = true
+        state.set(ConnectionState.SHUTDOWN)
         
-        heartbeatExecutor?.shutdown()
-        connectionMonitor?.shutdown()
+        // Lanes hand what they still hold to the priority lane, so they stop first
+        lanes.forEach { it.stop() }
+        stopSender()
         
-        try {
-            heartbeatExecutor?.awaitTermination(5, TimeUnit.SECONDS)
-            connectionMonitor?.awaitTermination(5, TimeUnit.SECONDS)
-        } catch (e: InterruptedException) {
-            logger.warning("Executor shutdown interrupted")
-        }
+        heartbeatTask?.cancel(false)
+        reconnectTask?.cancel(false)
         
         webSocket?.sendClose(WebSocket.NORMAL_CLOSURE, "Shutting down")
+        webSocket = null
         httpClient = null
         
         logger.info("WebSocket connection shutdown complete")
@@ -79,44 +162,371 @@ class BconWebSocketClient(
      * Check if WebSocket is connected
      */
     fun isConnected(): Boolean {
-        return webSocket != null && !isShuttingDown
+        return state.get() == ConnectionState.CONNECTED && webSocket != null
     }
     
     /**
-     * Send event to Bcon server
+     * Connection state and circuit breaker summary for the status command
+     */
+    fun describeConnection(): String {
+        val description = "${state.get()}, breaker ${reconnectPolicy.breakerState}, ${reconnectPolicy.consecutiveFailures} consecutive failure(s), ${link.describe()}"
+        if (lanes.isEmpty()) {
+            return description
+        }
+        return "$description, ${lanes.count { it.isUp() }}/${lanes.size} event lanes up"
+    }
+    
+    /**
+     * Queue event for the sender thread
+     * Never blocks on the socket; a full queue is handled by the configured overflow policy
      */
     fun sendEvent(eventType: String, data: JsonObject?) {
-        val webSocketInstance = webSocket
-        if (webSocketInstance == null) {
-            logger.warning("Cannot send event '$eventType' - WebSocket not connected")
+        queueEvent(OutboundMessage(eventType, data), EventKeys.NONE)
+    }
+    
+    /**
+     * Queue an event whose data object was already streamed to JSON text by the EventManager
+     * key (the event's subject, see EventKeys) picks the event lane, so events with the same key stay in order
+     */
+    fun sendEncodedEvent(eventType: String, encodedData: String, timestamp: Long, key: Long = EventKeys.NONE) {
+        queueEvent(OutboundMessage(eventType, null, timestamp = timestamp, encodedData = encodedData), key)
+    }
+    
+    /**
+     * Queue an event whose data object the EventManager wrote as CBOR for a binary connection
+     */
+    fun sendCborEvent(eventType: String, encodedData: ByteArray, timestamp: Long, key: Long = EventKeys.NONE) {
+        queueEvent(OutboundMessage(eventType, null, timestamp = timestamp, encodedCbor = encodedData), key)
+    }
+    
+    private fun queueEvent(message: OutboundMessage, key: Long) {
+        if (lanes.isEmpty()) {
+            outboundQueue.offer(message)
             return
         }
+        lanes[EventKeys.stripe(key, lanes.size)].offer(message)
+    }
+    
+    /**
+     * Number of messages waiting for the sender thread
+     */
+    fun pendingMessages(): Int = outboundQueue.size() + lanes.sumOf { it.pendingMessages() }
+    
+    /**
+     * Incoming commands queued or running, and whether reading from the socket is paused because of them
+     */
+    fun describeCommands(): String {
+        return "${commands.pendingCommands()} pending" + if (commands.isPaused()) " (reading paused)" else ""
+    }
+    
+    /**
+     * Number of messages dropped because the outbound queue was full
+     */
+    fun droppedMessages(): Long = outboundQueue.droppedCount() + lanes.sumOf { it.droppedMessages() }
+    
+    /**
+     * Bytes of event frames waiting in the on-disk spool
+     */
+    fun spooledBytes(): Long = spool?.backlogBytes() ?: 0
+    
+    /**
+     * Start the dedicated sender thread that owns all text frame writes
+     */
+    private fun startSender() {
+        if (senderThread?.isAlive == true) {
+            return
+        }
+        
+        senderRunning = true
+        senderThread = Thread(::runSender, "bcon-sender").apply {
+            isDaemon = true
+            start()
+        }
+    }
+    
+    /**
+     * Stop the sender thread, giving it a short window to flush queued messages
+     */
+    private fun stopSender() {
+        senderRunning = false
+        val thread = senderThread ?: return
         
         try {
-            val message = JsonObject().apply {
-                addProperty("eventType", eventType)
-                add("data", data ?: JsonObject())
-                addProperty("timestamp", System.currentTimeMillis() / 1000)
+            thread.join(5000)
+            if (thread.isAlive) {
+                logger.warning("Sender thread did not finish flushing - ${outboundQueue.size()} messages left in queue")
+                thread.interrupt()
+            }
+        } catch (e: InterruptedException) {
+            logger.warning("Sender shutdown interrupted")
+        }
+        senderThread = null
+    }
+    
+    /**
+     * Sender loop: the only place text frames are written, so sends never overlap
+     */
+    private fun runSender() {
+        openSpool()
+        
+        while (senderRunning || !outboundQueue.isEmpty()) {
+            val pendingBatch = batcher
+            val pendingAcks = ackBatcher
+            var waitMs = if (pendingBatch != null && !pendingBatch.isEmpty()) {
+                pendingBatch.millisUntilDue(System.currentTimeMillis()).coerceAtMost(250)
+            } else {
+                250L
+            }
+            if (pendingAcks != null && !pendingAcks.isEmpty()) {
+                waitMs = waitMs.coerceAtMost(pendingAcks.millisUntilDue(System.currentTimeMillis()))
+            }
+            if (isReplaying()) {
+                waitMs = waitMs.coerceAtMost(((nextReplayAt - System.nanoTime()) / 1_000_000).coerceAtLeast(0))
             }
             
-            val jsonString = gson.toJson(message)
-            webSocketInstance.sendText(jsonString, true).thenAccept {
-                logger.fine("Sent event: $eventType")
-            }.exceptionally { throwable ->
-                logger.severe("⚠️  SEND EVENT FAILED: '$eventType' - ${throwable.message} - Connection lost, reconnecting immediately!")
-                // Force immediate reconnection when send fails
-                webSocket = null
-                connectionAttempts = 0
-                handleConnectionFailure()
-                null
+            val message = try {
+                outboundQueue.poll(waitMs, TimeUnit.MILLISECONDS)
+            } catch (e: InterruptedException) {
+                break
             }
             
+            reportDroppedMessages()
+            
+            if (message != null) {
+                dispatch(message)
+            }
+            
+            if (pendingAcks != null && (pendingAcks.isFull() || pendingAcks.isDue(System.currentTimeMillis()))) {
+                flushAcks()
+            }
+            
+            if (pendingBatch != null && (pendingBatch.isFull() || pendingBatch.isDue(System.currentTimeMillis()))) {
+                flushBatch()
+            }
+            
+            replaySpool()
+        }
+        
+        flushAcks()
+        flushBatch()
+        activeSpool?.close()
+        activeSpool = null
+    }
+    
+    /**
+     * Encode a message and either send it directly or add it to the current batch
+     * Acknowledgements are coalesced into their own command_result_batch frames
+     */
+    private fun dispatch(message: OutboundMessage) {
+        if (message.frame != null) {
+            // Handed back by an event lane; the lane holds its newer frames until this one is settled
+            try {
+                flushBatch()
+                writeEventFrame(message.frame, "event lane frame")
+            } finally {
+                message.onSettled?.invoke()
+            }
+            return
+        }
+        
+        val pendingBatch = batcher
+        
+        if (message.encodedCbor != null) {
+            metrics.eventSent(message.eventType)
+            envelopeSink.reset()
+            message.encodeCbor(envelopeSink, config.internStrings)
+            if (pendingBatch == null) {
+                writeEventFrame(Frame.cbor(envelopeSink.copyFrom(0)), message.eventType)
+                return
+            }
+            if (!pendingBatch.holds(true) || pendingBatch.wouldOverflow(envelopeSink)) {
+                flushBatch()
+            }
+            pendingBatch.add(envelopeSink, System.currentTimeMillis())
+            return
+        }
+        
+        val envelope = message.encode(gson)
+        
+        if (message.replyTo != null) {
+            val pendingAcks = ackBatcher
+            if (pendingAcks == null) {
+                if (sendFrame(Frame.text(envelope), message.eventType)) {
+                    metrics.ackLatency.recordNanos(System.nanoTime() - message.receivedAtNanos)
+                }
+                return
+            }
+            if (pendingAcks.wouldOverflow(envelope) || pendingAckCount == pendingAckTimes.size) {
+                flushAcks()
+            }
+            pendingAcks.add(envelope, System.currentTimeMillis())
+            pendingAckTimes[pendingAckCount++] = message.receivedAtNanos
+            return
+        }
+        
+        metrics.eventSent(message.eventType)
+        if (pendingBatch == null) {
+            writeEventFrame(Frame.text(envelope), message.eventType)
+            return
+        }
+        
+        if (!pendingBatch.holds(false) || pendingBatch.wouldOverflow(envelope)) {
+            flushBatch()
+        }
+        pendingBatch.add(envelope, System.currentTimeMillis())
+    }
+    
+    /**
+     * Send the pending acks, if any; acks are never spooled, the server times out what it doesn't receive
+     */
+    private fun flushAcks() {
+        val pendingAcks = ackBatcher ?: return
+        if (pendingAcks.isEmpty()) {
+            return
+        }
+        
+        val count = pendingAcks.size()
+        if (sendFrame(pendingAcks.drain(), if (count == 1) "command_result" else "command_result_batch ($count acks)")) {
+            val now = System.nanoTime()
+            for (i in 0 until pendingAckCount) {
+                metrics.ackLatency.recordNanos(now - pendingAckTimes[i])
+            }
+        }
+        pendingAckCount = 0
+    }
+    
+    /**
+     * Send the current batch, if any
+     */
+    private fun flushBatch() {
+        val pendingBatch = batcher ?: return
+        if (pendingBatch.isEmpty()) {
+            return
+        }
+        
+        val count = pendingBatch.size()
+        writeEventFrame(pendingBatch.drain(), if (count == 1) "event" else "event_batch ($count events)")
+    }
+    
+    /**
+     * Send an event frame, or append it to the spool while disconnected
+     * Live frames go straight out once the connection is back and the backlog replays alongside them at
+     * spoolReplayFramesPerSecond, so a server busier than the replay rate never waits on its own spool.
+     * Spooled frames therefore arrive after newer live ones; each event carries its own timestamp.
+     */
+    private fun writeEventFrame(frame: Frame, description: String) {
+        val currentSpool = activeSpool
+        if (currentSpool == null) {
+            sendFrame(frame, description)
+            return
+        }
+        
+        if (webSocket != null && sendFrame(frame, description)) {
+            return
+        }
+        
+        try {
+            // The spool keeps text, so a CBOR frame replays correctly whatever format the next connection uses
+            currentSpool.append(frame.asText())
+        } catch (e: IOException) {
+            disableSpool(e)
+        }
+    }
+    
+    private fun isReplaying(): Boolean {
+        val currentSpool = activeSpool ?: return false
+        return webSocket != null && currentSpool.hasBacklog()
+    }
+    
+    /**
+     * Send the oldest spooled frame if the replay rate allows it (sender thread only)
+     */
+    private fun replaySpool() {
+        if (!isReplaying()) {
+            return
+        }
+        val now = System.nanoTime()
+        if (now < nextReplayAt) {
+            return
+        }
+        
+        val currentSpool = activeSpool ?: return
+        try {
+            val frame = currentSpool.peek() ?: return
+            if (sendFrame(Frame.text(frame), "spooled events")) {
+                currentSpool.commit()
+                nextReplayAt = now + replayIntervalNanos
+                if (!currentSpool.hasBacklog()) {
+                    logger.info("Event spool replay complete")
+                }
+            }
+        } catch (e: IOException) {
+            disableSpool(e)
+        }
+    }
+    
+    private fun openSpool() {
+        val configuredSpool = spool ?: return
+        try {
+            configuredSpool.open()
+            activeSpool = configuredSpool
+        } catch (e: IOException) {
+            logger.severe("Failed to open event spool: ${e.message} - events will be dropped while disconnected")
+        }
+    }
+    
+    private fun disableSpool(error: IOException) {
+        logger.severe("Event spool I/O error: ${error.message} - spooling disabled")
+        try {
+            activeSpool?.close()
         } catch (e: Exception) {
-            logger.severe("⚠️  SEND EVENT EXCEPTION: '$eventType' - ${e.message} - Connection lost, reconnecting immediately!")
-            // Force immediate reconnection when send throws exception
-            webSocket = null
-            connectionAttempts = 0
-            handleConnectionFailure()
+            // Already failing, nothing more to do
+        }
+        activeSpool = null
+    }
+    
+    /**
+     * Write a single frame and wait for the send to complete
+     * Returns false if the frame was not delivered
+     */
+    private fun sendFrame(frame: Frame, description: String): Boolean {
+        val webSocketInstance = webSocket
+        if (webSocketInstance == null) {
+            logger.warning("Cannot send '$description' - WebSocket not connected")
+            return false
+        }
+        
+        try {
+            val started = System.nanoTime()
+            frames.write(webSocketInstance, frame)
+                .get(config.connectionTimeout.toLong(), TimeUnit.MILLISECONDS)
+            metrics.sendLatency.recordNanos(System.nanoTime() - started)
+            metrics.bytesSent.add(frames.lastFrameBytes.toLong())
+            logger.fine("Sent $description")
+            return true
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            return false
+        } catch (e: Exception) {
+            val reason = (e as? ExecutionException)?.cause?.message ?: e.message
+            logger.severe("⚠️  SEND EVENT FAILED: '$description' - $reason - Connection lost, reconnecting immediately!")
+            // The frame may carry string definitions the server never saw
+            frames.invalidateStrings()
+            handleConnectionFailure(webSocketInstance)
+            return false
+        }
+    }
+    
+    /**
+     * Log queue overflow at most every 10 seconds (sender thread only)
+     */
+    private fun reportDroppedMessages() {
+        val dropped = outboundQueue.droppedCount()
+        val now = System.currentTimeMillis()
+        if (dropped != lastReportedDrops && now - lastDropReport >= 10000) {
+            logger.warning("Outbound queue full - dropped ${dropped - lastReportedDrops} messages (policy: ${config.outboundOverflowPolicy})")
+            lastReportedDrops = dropped
+            lastDropReport = now
         }
     }
     
@@ -124,20 +534,27 @@ class BconWebSocketClient(
      * Establish WebSocket connection
      */
     private fun connectWebSocket() {
+        // Only one attempt in flight: a second caller (or a late timer) finds the state already moved on
+        val generation = synchronized(attemptLock) {
+            val current = state.get()
+            if ((current != ConnectionState.DISCONNECTED && current != ConnectionState.BACKOFF) ||
+                !state.compareAndSet(current, ConnectionState.CONNECTING)) {
+                return
+            }
+            ++attemptGeneration
+        }
+        
         try {
             httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofMillis(config.connectionTimeout.toLong()))
                 .build()
+            sessionId = UUID.randomUUID().toString()
             
-            val uri = URI.create(config.serverUrl)
-            
-            val connectionFuture = httpClient!!.newWebSocketBuilder()
-                .header("Authorization", "Bearer ${config.jwtToken}")
-                .connectTimeout(Duration.ofMillis(config.connectionTimeout.toLong()))
-                .buildAsync(uri, this)
+            val connectionFuture = openSocket(AttemptListener(generation), LANE_PRIORITY)
             
             try {
-                webSocket = connectionFuture.get(config.connectionTimeout.toLong(), TimeUnit.MILLISECONDS)
+                // onOpen publishes the socket; a socket that opens after the timeout is closed there
+                connectionFuture.get(config.connectionTimeout.toLong(), TimeUnit.MILLISECONDS)
                 logger.info("WebSocket connection established successfully")
             } catch (e: TimeoutException) {
                 logger.severe("Connection timeout after ${config.connectionTimeout}ms")
@@ -154,223 +571,266 @@ class BconWebSocketClient(
     }
     
     /**
-     * Handle connection failure with reconnection logic
+     * Start the WebSocket handshake for one lane of the current session
      */
-    private fun handleConnectionFailure() {
-        webSocket = null
-        connectionAttempts++
+    private fun openSocket(listener: WebSocket.Listener, lane: String): CompletableFuture<WebSocket> {
+        val client = httpClient ?: throw IllegalStateException("Not connecting")
+        val builder = client.newWebSocketBuilder()
+            .header("Authorization", "Bearer ${config.jwtToken}")
+            .connectTimeout(Duration.ofMillis(config.connectionTimeout.toLong()))
+        
+        // Servers without lane support treat every socket as a full connection, so only send this with lanes
+        if (lanes.isNotEmpty()) {
+            builder.header(LANE_HEADER, lane).header(SESSION_HEADER, sessionId)
+        }
+        
+        // Offer binary formats as subprotocols in order of preference; servers that don't know them
+        // simply don't echo one back and the connection stays on JSON text
+        val cbor = config.wireFormat == "cbor"
+        when {
+            cbor && config.compressionEnabled -> builder.subprotocols(FrameCompressor.SUBPROTOCOL_CBOR, CborCodec.SUBPROTOCOL)
+            cbor -> builder.subprotocols(CborCodec.SUBPROTOCOL)
+            config.compressionEnabled -> builder.subprotocols(FrameCompressor.SUBPROTOCOL_JSON)
+        }
+        
+        return builder.buildAsync(URI.create(config.serverUrl), listener)
+    }
+    
+    /**
+     * Handle a failed connect attempt or a lost connection
+     * failed is the socket that reported the problem; callbacks from a socket that was already replaced are
+     * ignored. Only the first report moves the state to BACKOFF and schedules the next attempt, so onClose,
+     * onError, a failed send and a failed heartbeat for the same outage count as one failure.
+     */
+    private fun handleConnectionFailure(failed: WebSocket? = null) {
+        if (failed != null && failed !== webSocket) {
+            return
+        }
         
-        if (isShuttingDown) {
+        val current = state.get()
+        if (current == ConnectionState.SHUTDOWN || current == ConnectionState.BACKOFF ||
+            !state.compareAndSet(current, ConnectionState.BACKOFF)) {
             return
         }
         
+        metrics.connectionFailures.increment()
+        val previous = webSocket
+        webSocket = null
+        previous?.abort()
+        heartbeatTask?.cancel(false)
+        lanes.forEach { it.disconnect() }
+        
         if (config.strictMode) {
             logger.severe("Connection failed in strict mode - requesting server shutdown")
             adapter.handleStrictModeFailure()
             return
         }
         
-        if (connectionAttempts > maxConnectionAttempts) {
-            logger.severe("Max connection attempts ($maxConnectionAttempts) exceeded - giving up")
-            if (config.strictMode) {
-                adapter.handleStrictModeFailure()
-            }
-            return
+        val delay = reconnectPolicy.onFailure()
+        val failures = reconnectPolicy.consecutiveFailures
+        if (reconnectPolicy.breakerState == ReconnectPolicy.BreakerState.OPEN) {
+            logger.warning("Connection failed $failures times in a row - circuit open, next attempt in ${delay / 1000}s")
+        } else {
+            logger.warning("Connection failed ($failures in a row), retrying in ${delay}ms")
         }
         
-        // Instant reconnection for the first few attempts, then gradual backoff
-        val delay = when {
-            connectionAttempts <= 5 -> 100L // Instant reconnection first 5 attempts (100ms)
-            connectionAttempts <= 15 -> 1000L // 1 second for next 10 attempts
-            connectionAttempts <= 30 -> 5000L // 5 seconds for next 15 attempts
-            else -> 15000L // 15 seconds for remaining attempts
+        reconnectTask = scheduler.schedule("reconnect", delay, ::attemptReconnect)
+    }
+    
+    /**
+     * Scheduled reconnect; waits out an open circuit breaker before trying
+     */
+    private fun attemptReconnect() {
+        if (state.get() != ConnectionState.BACKOFF) {
+            return
         }
-        
-        logger.warning("Connection failed (attempt $connectionAttempts/$maxConnectionAttempts), retrying in ${delay}ms")
-        
-        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
-            .execute(::connectWebSocket)
+        if (!reconnectPolicy.allowAttempt()) {
+            reconnectTask = scheduler.schedule("reconnect", 1000, ::attemptReconnect)
+            return
+        }
+        connectWebSocket()
     }
     
     /**
      * Start heartbeat mechanism
+     * The check runs every second but only pings after the link has been silent for the RTT-derived interval,
+     * so busy connections are never probed and a dead idle link is noticed within a few seconds.
      */
     private fun startHeartbeat() {
-        heartbeatExecutor?.shutdown()
-        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor { r ->
-            Thread(r, "bcon-heartbeat").apply {
-                isDaemon = true
-            }
-        }
-        
-        heartbeatExecutor!!.scheduleWithFixedDelay({
+        heartbeatTask?.cancel(false)
+        heartbeatTask = scheduler.scheduleWithFixedDelay("heartbeat", LINK_CHECK_MS, LINK_CHECK_MS) {
             try {
-                sendHeartbeat()
+                checkLink()
             } catch (e: Exception) {
                 logger.warning("Failed to send heartbeat: ${e.message}")
             }
-        }, config.heartbeatInterval.toLong(), config.heartbeatInterval.toLong(), TimeUnit.MILLISECONDS)
+        }
         
-        logger.info("Heartbeat started with ${config.heartbeatInterval}ms interval")
+        logger.info("Heartbeat started (probing after at most ${config.heartbeatInterval}ms of silence)")
     }
     
     /**
-     * Send heartbeat ping
+     * Ping an idle link, or drop it when the outstanding ping went unanswered for too long
      */
-    private fun sendHeartbeat() {
-        try {
-            webSocket?.sendPing(ByteBuffer.allocate(0))?.thenAccept { 
-                logger.fine("Heartbeat sent successfully")
-            }?.exceptionally { throwable ->
-                logger.severe("⚠️  HEARTBEAT FAILED: ${throwable.message} - Connection lost, reconnecting immediately!")
-                // Force immediate reconnection when heartbeat fails
-                webSocket = null
-                connectionAttempts = 0
-                handleConnectionFailure()
-                null
+    private fun checkLink() {
+        val socket = webSocket ?: return
+        when (link.check(commands.isPaused())) {
+            LinkMonitor.Action.NONE -> {}
+            LinkMonitor.Action.PING -> sendHeartbeat(socket)
+            LinkMonitor.Action.DEAD -> {
+                logger.warning("Connection appears dead (no pong within ${link.pongTimeoutNanos() / 1_000_000}ms) - forcing reconnection")
+                handleConnectionFailure(socket)
             }
-        } catch (e: Exception) {
-            logger.severe("⚠️  HEARTBEAT ERROR: ${e.message} - Connection lost, reconnecting immediately!")
-            webSocket = null
-            connectionAttempts = 0
-            handleConnectionFailure()
         }
     }
     
     /**
-     * Start connection monitoring to detect dead connections
+     * Send heartbeat ping carrying its send time, echoed back in the pong for RTT measurement
      */
-    private fun startConnectionMonitoring() {
-        connectionMonitor?.shutdown()
-        connectionMonitor = Executors.newSingleThreadScheduledExecutor { r ->
-            Thread(r, "bcon-connection-monitor").apply {
-                isDaemon = true
+    private fun sendHeartbeat(socket: WebSocket) {
+        try {
+            socket.sendPing(link.nextPing()).thenAccept { 
+                logger.fine("Heartbeat sent successfully")
+            }.exceptionally { throwable ->
+                logger.severe("⚠️  HEARTBEAT FAILED: ${throwable.message} - Connection lost, reconnecting!")
+                handleConnectionFailure(socket)
+                null
             }
+        } catch (e: Exception) {
+            logger.severe("⚠️  HEARTBEAT ERROR: ${e.message} - Connection lost, reconnecting!")
+            handleConnectionFailure(socket)
         }
-        
-        // Check connection health every 30 seconds (more aggressive monitoring)
-        connectionMonitor!!.scheduleWithFixedDelay({
-            try {
-                checkConnectionHealth()
-            } catch (e: Exception) {
-                logger.severe("Connection monitoring error: ${e.message}")
-            }
-        }, 30000, 30000, TimeUnit.MILLISECONDS)
-        
-        logger.info("Connection monitoring started")
     }
     
     /**
-     * Check if connection is healthy by examining activity
+     * Listener for one priority connect attempt; everything but onOpen goes straight to the client
      */
-    private fun checkConnectionHealth() {
-        val now = System.currentTimeMillis()
-        val timeSinceLastMessage = now - lastMessageReceived
-        val timeSinceLastPong = now - lastPongReceived
-        
-        // Shorter timeouts for faster detection - 2 minutes without activity
-        val activityTimeout = 120000L // 2 minutes
-        // Pong timeout - 3 minutes  
-        val pongTimeout = 180000L // 3 minutes
-        
-        // Check if we have recent message activity OR pong responses
-        val hasRecentActivity = timeSinceLastMessage < activityTimeout
-        val hasRecentPong = timeSinceLastPong < pongTimeout
-        
-        if (!hasRecentActivity && !hasRecentPong) {
-            logger.warning("Connection appears dead (no activity for ${timeSinceLastMessage / 1000}s, no pong for ${timeSinceLastPong / 1000}s) - forcing reconnection")
-            
-            // Force close the connection to trigger reconnection
-            webSocket?.sendClose(WebSocket.NORMAL_CLOSURE, "Connection timeout")
-            handleConnectionFailure()
-        } else if (!hasRecentActivity) {
-            logger.warning("No recent messages for ${timeSinceLastMessage / 1000}s but connection seems alive (pong ${timeSinceLastPong / 1000}s ago)")
-        } else {
-            logger.fine("Connection healthy (activity ${timeSinceLastMessage / 1000}s ago, pong ${timeSinceLastPong / 1000}s ago)")
+    private inner class AttemptListener(private val generation: Long) : WebSocket.Listener by this@BconWebSocketClient {
+        override fun onOpen(webSocket: WebSocket) {
+            onOpen(webSocket, generation)
         }
     }
     
     // WebSocket.Listener implementation
     
-    override fun onOpen(webSocket: WebSocket) {
+    private fun onOpen(webSocket: WebSocket, generation: Long) {
+        val current = synchronized(attemptLock) {
+            generation == attemptGeneration && state.compareAndSet(ConnectionState.CONNECTING, ConnectionState.CONNECTED)
+        }
+        if (!current) {
+            // The attempt already timed out (and maybe a newer one started) or the client is shutting down
+            logger.warning("Discarding connection that opened after its attempt was abandoned")
+            webSocket.abort()
+            return
+        }
         logger.info("✅ BCON CONNECTION ESTABLISHED - Server monitoring active!")
+        // Every connection starts a new string dictionary; negotiate before publishing the socket to the sender
+        frames.negotiate(webSocket.subprotocol)
+        // Event payloads are written in the format this connection speaks from here on
+        adapter.eventManager.binaryPayloads = frames.binaryFrames
+        adapter.eventManager.internStrings = config.internStrings
+        if (frames.binaryFrames) {
+            logger.info("Using CBOR binary frames${if (frames.compressFrames) " with compression" else ""}")
+        } else if (config.wireFormat == "cbor") {
+            logger.warning("Server did not accept CBOR frames - falling back to JSON")
+        }
+        if (config.compressionEnabled && !frames.compressFrames) {
+            logger.warning("Server did not accept frame compression - sending uncompressed")
+        }
+        receiveBuffer.setLength(0)
         this.webSocket = webSocket
-        connectionAttempts = 0 // Reset connection attempts on successful connection
-        val now = System.currentTimeMillis()
-        lastPongReceived = now
-        lastMessageReceived = now
+        if (everConnected) {
+            metrics.reconnects.increment()
+        }
+        everConnected = true
+        reconnectPolicy.onConnected()
+        link.reset()
         startHeartbeat()
-        startConnectionMonitoring()
+        lanes.forEach { it.connect() }
         webSocket.request(1)
     }
     
     override fun onText(webSocket: WebSocket, data: CharSequence, last: Boolean): CompletionStage<*>? {
-        synchronized(bufferLock) {
-            messageBuffer.append(data)
-            
-            if (last) {
-                try {
-                    lastMessageReceived = System.currentTimeMillis() // Update activity timestamp
-                    val completeMessage = messageBuffer.toString()
-                    handleIncomingMessage(completeMessage)
-                } catch (e: Exception) {
-                    logger.severe("Error processing message: ${e.message}")
-                    logger.severe("Message content: ${messageBuffer}")
-                } finally {
-                    messageBuffer.setLength(0)
+        if (webSocket !== this.webSocket) {
+            // Leftover fragment from a socket that was already replaced
+            return null
+        }
+        
+        receiveBuffer.append(data)
+        metrics.bytesReceived.add(data.length.toLong())
+        link.onInbound()
+        
+        if (last) {
+            try {
+                handleIncomingMessage(receiveBuffer)
+            } catch (e: Exception) {
+                logger.severe("Error processing message: ${e.message}")
+                logger.severe("Message content: $receiveBuffer")
+            } finally {
+                receiveBuffer.setLength(0)
+                // Don't keep the backing array of one oversized push alive for the rest of the session
+                if (receiveBuffer.capacity() > MAX_RETAINED_RECEIVE_CHARS) {
+                    receiveBuffer.trimToSize()
                 }
             }
         }
         
-        webSocket.request(1)
+        // Stop reading while the command backlog is full; resumeReading picks up again once it drains
+        if (commands.acceptMore()) {
+            webSocket.request(1)
+        }
         return null
     }
     
+    private fun resumeReading() {
+        logger.fine("Command backlog drained - reading from the socket again")
+        webSocket?.request(1)
+    }
+    
     override fun onClose(webSocket: WebSocket, statusCode: Int, reason: String): CompletionStage<*>? {
-        logger.severe("⚠️  BCON CONNECTION LOST: $statusCode $reason - Attempting immediate reconnection!")
-        this.webSocket = null
-        // Force immediate reconnection attempt by resetting connection attempts
-        connectionAttempts = 0
-        handleConnectionFailure()
+        logger.severe("⚠️  BCON CONNECTION LOST: $statusCode $reason - Reconnecting!")
+        handleConnectionFailure(webSocket)
         return null
     }
     
     override fun onError(webSocket: WebSocket, error: Throwable) {
-        logger.severe("⚠️  BCON CONNECTION ERROR: ${error.message} - Attempting immediate reconnection!")
-        this.webSocket = null
-        // Force immediate reconnection attempt by resetting connection attempts
-        connectionAttempts = 0
-        handleConnectionFailure()
+        logger.severe("⚠️  BCON CONNECTION ERROR: ${error.message} - Reconnecting!")
+        handleConnectionFailure(webSocket)
     }
     
     override fun onPing(webSocket: WebSocket, message: ByteBuffer): CompletionStage<*>? {
         logger.fine("Received ping")
+        link.onInbound()
+        // Control frames use up demand like any other message
+        webSocket.request(1)
         return null
     }
     
     override fun onPong(webSocket: WebSocket, message: ByteBuffer): CompletionStage<*>? {
-        lastPongReceived = System.currentTimeMillis()
+        link.onPong(message)
         logger.fine("Received pong - connection alive")
+        webSocket.request(1)
         return null
     }
     
     /**
      * Handle incoming message from Bcon server
      */
-    private fun handleIncomingMessage(message: String) {
-        if (message.trim().isEmpty()) {
+    private fun handleIncomingMessage(message: StringBuilder) {
+        if (message.isBlank()) {
             logger.warning("Received empty message")
             return
         }
         
+        val receivedAt = System.nanoTime()
         try {
-            val jsonMessage = gson.fromJson(message, JsonObject::class.java)
+            val incoming = IncomingMessageReader.read(message)
             
             // Handle the new server message format
-            val messageId = jsonMessage.get("messageId")?.asString
-            val eventType = jsonMessage.get("type")?.asString
-            val data = jsonMessage.get("data")?.asJsonObject
-            val requiresAck = jsonMessage.get("requiresAck")?.asBoolean ?: false
+            val messageId = incoming.messageId
+            val eventType = incoming.type
+            val data = incoming.data
+            val requiresAck = incoming.requiresAck
             
             if (messageId == null || eventType == null) {
                 logger.warning("Received malformed message without required fields: $message")
@@ -379,21 +839,24 @@ class BconWebSocketClient(
             
             logger.info("Processing command: $eventType (id: $messageId, requires_ack: $requiresAck)")
             
-            // Process command asynchronously to avoid blocking
-            CompletableFuture.runAsync {
+            // Run off the socket listener, in order with earlier commands that touch the same target
+            commands.submit(adapter.commandOrderingKey(eventType, data), "command $eventType") {
+                val started = System.nanoTime()
                 try {
                     val result = adapter.handleIncomingCommand(eventType, data)
+                    metrics.recordCommand(eventType, System.nanoTime() - started)
                     
                     // Send acknowledgment if required
                     if (requiresAck) {
-                        sendResponse(messageId, result)
+                        sendResponse(messageId, result, receivedAt)
                     }
                 } catch (e: Exception) {
+                    metrics.recordCommand(eventType, System.nanoTime() - started)
                     logger.severe("Error executing command '$eventType': ${e.message}")
                     
                     // Send error acknowledgment if required
                     if (requiresAck) {
-                        sendErrorResponse(messageId, e.message ?: "Unknown error")
+                        sendErrorResponse(messageId, e.message ?: "Unknown error", receivedAt)
                     }
                 }
             }
@@ -409,48 +872,42 @@ class BconWebSocketClient(
     /**
      * Send success response to Bcon server
      */
-    private fun sendResponse(messageId: String, result: String) {
-        try {
-            val response = JsonObject().apply {
-                addProperty("eventType", "command_result")
-                addProperty("replyTo", messageId)
-                addProperty("timestamp", System.currentTimeMillis() / 1000)
-                add("data", JsonObject().apply {
-                    addProperty("success", true)
-                    addProperty("result", result)
-                })
-            }
-            
-            val jsonString = gson.toJson(response)
-            webSocket?.sendText(jsonString, true)
-            
-            logger.fine("Sent acknowledgment for command: $messageId")
-        } catch (e: Exception) {
-            logger.severe("Failed to send response: ${e.message}")
+    private fun sendResponse(messageId: String, result: JsonElement, receivedAt: Long) {
+        val data = JsonObject().apply {
+            addProperty("success", true)
+            add("result", result)
         }
+        
+        outboundQueue.offer(OutboundMessage("command_result", data, replyTo = messageId, receivedAtNanos = receivedAt))
+        logger.fine("Queued acknowledgment for command: $messageId")
     }
     
     /**
      * Send error response to Bcon server
      */
-    private fun sendErrorResponse(messageId: String, error: String) {
-        try {
-            val response = JsonObject().apply {
-                addProperty("eventType", "command_result")
-                addProperty("replyTo", messageId)
-                addProperty("timestamp", System.currentTimeMillis() / 1000)
-                add("data", JsonObject().apply {
-                    addProperty("success", false)
-                    addProperty("error", error)
-                })
-            }
-            
-            val jsonString = gson.toJson(response)
-            webSocket?.sendText(jsonString, true)
-            
-            logger.warning("Sent error acknowledgment for command: $messageId - Error: $error")
-        } catch (e: Exception) {
-            logger.severe("Failed to send error response: ${e.message}")
+    private fun sendErrorResponse(messageId: String, error: String, receivedAt: Long) {
+        val data = JsonObject().apply {
+            addProperty("success", false)
+            addProperty("error", error)
         }
+        
+        outboundQueue.offer(OutboundMessage("command_result", data, replyTo = messageId, receivedAtNanos = receivedAt))
+        logger.warning("Queued error acknowledgment for command: $messageId - Error: $error")
+    }
+    
+    /**
+     * Connection lifecycle; every transition is a compare-and-set so concurrent failure reports collapse into one
+     */
+    private enum class ConnectionState { DISCONNECTED, CONNECTING, CONNECTED, BACKOFF, SHUTDOWN }
+    
+    companion object {
+        // A connection that stays up this long counts as recovered and clears the failure history
+        private const val STABLE_CONNECTION_MS = 30_000L
+        private const val LINK_CHECK_MS = 1_000L
+        private const val LANE_HEADER = "X-Bcon-Lane"
+        private const val SESSION_HEADER = "X-Bcon-Session"
+        private const val LANE_PRIORITY = "priority"
+        private const val LANE_EVENTS = "events"
+        private const val MAX_RETAINED_RECEIVE_CHARS = 64 * 1024
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,536 @@
+package com.bcon.adapter.core.connection
+
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import com.google.gson.stream.JsonWriter
+import java.io.StringReader
+import java.io.StringWriter
+
+/**
+ * CBOR (RFC 8949) primitives for the bcon.cbor.v2 subprotocols, and a transcoder for JSON frames
+ * Event payloads are written with these primitives directly (see CborEventWriter); encode() is only used
+ * for the frames that exist as JSON text anyway, such as acks and replayed spool frames.
+ * Objects and arrays are written with indefinite length so a frame can be streamed token by token
+ * from the JSON text without building a tree. Integers use the smallest CBOR form; decimals are
+ * written as float32 when that is lossless and float64 otherwise, so decoding gives back the same
+ * JSON text Gson produced. Map keys may also be integers standing for the names in FieldCodes.
+ * With a StringDictionary, values of its interned keys are sent once as a definition and then as an id.
+ * Event frames use SharedStrings instead: their values of interned keys are references into the adapter-wide
+ * table, and the FrameWriter puts the definitions the server hasn't seen yet under STRINGS_KEY at the front.
+ */
+object CborCodec {
+
+    /**
+     * Subprotocol offered in the WebSocket handshake; the server echoes it when it accepts binary frames
+     */
+    const val SUBPROTOCOL = "bcon.cbor.v2"
+
+    /**
+     * Leading byte of a binary frame carrying a CBOR envelope
+     */
+    const val FRAME_CBOR: Int = 0x01
+
+    private const val MAJOR_UNSIGNED = 0
+    private const val MAJOR_NEGATIVE = 1
+    private const val MAJOR_BYTES = 2
+    private const val MAJOR_TEXT = 3
+    private const val MAJOR_ARRAY = 4
+    private const val MAJOR_MAP = 5
+    private const val MAJOR_TAG = 6
+    private const val MAJOR_SIMPLE = 7
+
+    /**
+     * Tags for the session string dictionary, private to the bcon CBOR subprotocols
+     * A definition wraps [id, text] and stands for the text; a reference wraps an id defined earlier
+     */
+    const val TAG_STRING_DEFINE = 224L
+    const val TAG_STRING_REF = 225L
+
+    private const val INDEFINITE = 31
+    internal const val BREAK = 0xff
+    internal const val BEGIN_MAP = (MAJOR_MAP shl 5) or INDEFINITE
+    internal const val BEGIN_ARRAY = (MAJOR_ARRAY shl 5) or INDEFINITE
+
+    /**
+     * Envelope key for the SharedStrings definitions at the front of a frame; the server drops it after reading
+     */
+    const val STRINGS_KEY = "strings"
+
+    /**
+     * Append the CBOR encoding of a JSON document to the buffer
+     */
+    fun encode(json: String, out: ByteSink, strings: StringDictionary? = null) {
+        encode(json, out, strings, false)
+    }
+
+    /**
+     * Append the CBOR encoding of a JSON document, with values of interned keys as SharedStrings references
+     */
+    internal fun encodeShared(json: String, out: ByteSink) {
+        encode(json, out, null, true)
+    }
+
+    private fun encode(json: String, out: ByteSink, strings: StringDictionary?, shared: Boolean) {
+        val reader = JsonReader(StringReader(json))
+        reader.isLenient = true
+        var internValue = false
+
+        while (true) {
+            val token = reader.peek()
+            if (token == JsonToken.STRING && internValue) {
+                if (strings != null) {
+                    writeInterned(reader.nextString(), out, strings)
+                } else {
+                    writeShared(reader.nextString(), out)
+                }
+                internValue = false
+                continue
+            }
+            internValue = false
+
+            when (token) {
+                JsonToken.BEGIN_OBJECT -> {
+                    reader.beginObject()
+                    out.write(BEGIN_MAP)
+                }
+                JsonToken.END_OBJECT -> {
+                    reader.endObject()
+                    out.write(BREAK)
+                }
+                JsonToken.BEGIN_ARRAY -> {
+                    reader.beginArray()
+                    out.write(BEGIN_ARRAY)
+                }
+                JsonToken.END_ARRAY -> {
+                    reader.endArray()
+                    out.write(BREAK)
+                }
+                JsonToken.NAME -> {
+                    val name = reader.nextName()
+                    writeText(name, out)
+                    internValue = if (strings != null) strings.interns(name) else shared && StringDictionary.isInterned(name)
+                }
+                JsonToken.STRING -> writeText(reader.nextString(), out)
+                JsonToken.NUMBER -> writeNumber(reader.nextString(), out)
+                JsonToken.BOOLEAN -> writeBoolean(reader.nextBoolean(), out)
+                JsonToken.NULL -> {
+                    reader.nextNull()
+                    writeNull(out)
+                }
+                JsonToken.END_DOCUMENT, null -> return
+            }
+        }
+    }
+
+    /**
+     * Decode a CBOR item back to JSON text, expanding dictionary tags when strings is given
+     */
+    fun decode(bytes: ByteArray, offset: Int, length: Int, strings: StringDictionary? = null): String {
+        val output = StringWriter(length * 2)
+        val writer = JsonWriter(output)
+        writer.isLenient = true
+        val input = Input(bytes, offset, offset + length, strings, false)
+        readItem(input, writer)
+        writer.flush()
+        return output.toString()
+    }
+
+    /**
+     * Decode a CBOR frame written by this adapter back to JSON text, resolving SharedStrings references
+     */
+    internal fun toJson(bytes: ByteArray): String {
+        val output = StringWriter(bytes.size * 2)
+        val writer = JsonWriter(output)
+        writer.isLenient = true
+        readItem(Input(bytes, 0, bytes.size, null, true), writer)
+        writer.flush()
+        return output.toString()
+    }
+
+    /**
+     * Write a map key: its FieldCodes code when it has one, the text otherwise
+     */
+    internal fun writeKey(name: String, out: ByteSink) {
+        val id = FieldCodes.idOf(name)
+        if (id >= 0) {
+            writeHead(MAJOR_UNSIGNED, id.toLong(), out)
+        } else {
+            writeText(name, out)
+        }
+    }
+
+    internal fun writeBoolean(value: Boolean, out: ByteSink) {
+        out.write(if (value) 0xf5 else 0xf4)
+    }
+
+    internal fun writeNull(out: ByteSink) {
+        out.write(0xf6)
+    }
+
+    internal fun writeInteger(value: Long, out: ByteSink) {
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value, out)
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value, out)
+        }
+    }
+
+    private fun writeNumber(literal: String, out: ByteSink) {
+        val integral = literal.none { it == '.' || it == 'e' || it == 'E' }
+        if (integral) {
+            val value = literal.toLongOrNull()
+            if (value != null) {
+                writeInteger(value, out)
+                return
+            }
+        }
+        writeDouble(literal.toDouble(), out)
+    }
+
+    internal fun writeDouble(value: Double, out: ByteSink) {
+        val narrowed = value.toFloat()
+        if (narrowed.toDouble() == value || value.isNaN()) {
+            out.write(0xfa)
+            writeInt(java.lang.Float.floatToIntBits(narrowed), out)
+        } else {
+            out.write(0xfb)
+            val bits = java.lang.Double.doubleToLongBits(value)
+            writeInt((bits ushr 32).toInt(), out)
+            writeInt(bits.toInt(), out)
+        }
+    }
+
+    /**
+     * Write a string as a reference into SharedStrings, or as text once the table is full
+     */
+    internal fun writeShared(value: String, out: ByteSink) {
+        val id = SharedStrings.idOf(value)
+        if (id < 0) {
+            writeText(value, out)
+            return
+        }
+        writeHead(MAJOR_TAG, TAG_STRING_REF, out)
+        writeHead(MAJOR_UNSIGNED, id.toLong(), out)
+    }
+
+    /**
+     * Write the STRINGS_KEY map entry defining SharedStrings ids from until to (exclusive)
+     */
+    internal fun writeSharedDefinitions(from: Int, to: Int, out: ByteSink) {
+        writeText(STRINGS_KEY, out)
+        writeHead(MAJOR_ARRAY, (to - from).toLong(), out)
+        for (id in from until to) {
+            writeHead(MAJOR_TAG, TAG_STRING_DEFINE, out)
+            writeHead(MAJOR_ARRAY, 2, out)
+            writeHead(MAJOR_UNSIGNED, id.toLong(), out)
+            writeText(SharedStrings.valueOf(id), out)
+        }
+    }
+
+    private fun writeInterned(value: String, out: ByteSink, strings: StringDictionary) {
+        val id = strings.idOf(value)
+        if (id >= 0) {
+            writeHead(MAJOR_TAG, TAG_STRING_REF, out)
+            writeHead(MAJOR_UNSIGNED, id.toLong(), out)
+            return
+        }
+
+        val newId = strings.define(value)
+        if (newId < 0) {
+            writeText(value, out)
+            return
+        }
+        writeHead(MAJOR_TAG, TAG_STRING_DEFINE, out)
+        writeHead(MAJOR_ARRAY, 2, out)
+        writeHead(MAJOR_UNSIGNED, newId.toLong(), out)
+        writeText(value, out)
+    }
+
+    internal fun writeText(value: String, out: ByteSink) {
+        writeHead(MAJOR_TEXT, utf8Length(value).toLong(), out)
+        var i = 0
+        while (i < value.length) {
+            val c = value[i].code
+            when {
+                c < 0x80 -> out.write(c)
+                c < 0x800 -> {
+                    out.write(0xc0 or (c shr 6))
+                    out.write(0x80 or (c and 0x3f))
+                }
+                Character.isHighSurrogate(value[i]) && i + 1 < value.length && Character.isLowSurrogate(value[i + 1]) -> {
+                    val codePoint = Character.toCodePoint(value[i], value[i + 1])
+                    out.write(0xf0 or (codePoint shr 18))
+                    out.write(0x80 or ((codePoint shr 12) and 0x3f))
+                    out.write(0x80 or ((codePoint shr 6) and 0x3f))
+                    out.write(0x80 or (codePoint and 0x3f))
+                    i++
+                }
+                Character.isSurrogate(value[i]) -> out.write('?'.code)
+                else -> {
+                    out.write(0xe0 or (c shr 12))
+                    out.write(0x80 or ((c shr 6) and 0x3f))
+                    out.write(0x80 or (c and 0x3f))
+                }
+            }
+            i++
+        }
+    }
+
+    private fun utf8Length(value: String): Int {
+        var length = 0
+        var i = 0
+        while (i < value.length) {
+            val c = value[i].code
+            length += when {
+                c < 0x80 -> 1
+                c < 0x800 -> 2
+                Character.isHighSurrogate(value[i]) && i + 1 < value.length && Character.isLowSurrogate(value[i + 1]) -> {
+                    i++
+                    4
+                }
+                Character.isSurrogate(value[i]) -> 1
+                else -> 3
+            }
+            i++
+        }
+        return length
+    }
+
+    private fun writeHead(major: Int, value: Long, out: ByteSink) {
+        val type = major shl 5
+        when {
+            value < 24 -> out.write(type or value.toInt())
+            value < 0x100 -> {
+                out.write(type or 24)
+                out.write(value.toInt())
+            }
+            value < 0x10000 -> {
+                out.write(type or 25)
+                out.write((value shr 8).toInt() and 0xff)
+                out.write(value.toInt() and 0xff)
+            }
+            value < 0x100000000L -> {
+                out.write(type or 26)
+                writeInt(value.toInt(), out)
+            }
+            else -> {
+                out.write(type or 27)
+                writeInt((value ushr 32).toInt(), out)
+                writeInt(value.toInt(), out)
+            }
+        }
+    }
+
+    private fun writeInt(value: Int, out: ByteSink) {
+        out.write((value ushr 24) and 0xff)
+        out.write((value ushr 16) and 0xff)
+        out.write((value ushr 8) and 0xff)
+        out.write(value and 0xff)
+    }
+
+    private fun readItem(input: Input, writer: JsonWriter) {
+        val initial = input.next()
+        val major = initial shr 5
+        val info = initial and 0x1f
+
+        when (major) {
+            MAJOR_UNSIGNED -> writer.value(readArgument(input, info))
+            MAJOR_NEGATIVE -> writer.value(-1 - readArgument(input, info))
+            MAJOR_TEXT -> writer.value(readText(input, info))
+            MAJOR_ARRAY -> {
+                writer.beginArray()
+                readContainer(input, info) { readItem(input, writer) }
+                writer.endArray()
+            }
+            MAJOR_MAP -> {
+                writer.beginObject()
+                readContainer(input, info) {
+                    val keyHead = input.next()
+                    val key = when (keyHead shr 5) {
+                        MAJOR_TEXT -> readText(input, keyHead and 0x1f)
+                        MAJOR_UNSIGNED -> {
+                            val id = readArgument(input, keyHead and 0x1f)
+                            FieldCodes.nameOf(id) ?: throw IllegalArgumentException("Unknown field code $id")
+                        }
+                        else -> throw IllegalArgumentException("CBOR map keys must be text or field codes")
+                    }
+                    writer.name(key)
+                    readItem(input, writer)
+                }
+                writer.endObject()
+            }
+            MAJOR_TAG -> {
+                val tag = readArgument(input, info)
+                val strings = input.strings
+                when {
+                    strings != null && tag == TAG_STRING_DEFINE -> {
+                        if (input.next() != (MAJOR_ARRAY shl 5) or 2) {
+                            throw IllegalArgumentException("Malformed string definition")
+                        }
+                        val id = readArgument(input, input.next() and 0x1f).toInt()
+                        val textHead = input.next()
+                        if (textHead shr 5 != MAJOR_TEXT) {
+                            throw IllegalArgumentException("String definition without text")
+                        }
+                        val text = readText(input, textHead and 0x1f)
+                        strings.store(id, text)
+                        writer.value(text)
+                    }
+                    strings != null && tag == TAG_STRING_REF -> {
+                        writer.value(strings.valueOf(readArgument(input, input.next() and 0x1f).toInt()))
+                    }
+                    input.shared && tag == TAG_STRING_REF -> {
+                        writer.value(SharedStrings.valueOf(readArgument(input, input.next() and 0x1f).toInt()))
+                    }
+                    else -> readItem(input, writer)
+                }
+            }
+            MAJOR_SIMPLE -> when (info) {
+                20 -> writer.value(false)
+                21 -> writer.value(true)
+                22, 23 -> writer.nullValue()
+                25 -> writer.value(halfToFloat(input.readUnsigned(2).toInt()).toDouble())
+                26 -> writer.value(java.lang.Float.intBitsToFloat(input.readUnsigned(4).toInt()).toDouble())
+                27 -> writer.value(java.lang.Double.longBitsToDouble(input.readUnsigned(8)))
+                else -> throw IllegalArgumentException("Unsupported CBOR simple value $info")
+            }
+            MAJOR_BYTES -> throw IllegalArgumentException("CBOR byte strings have no JSON form")
+        }
+    }
+
+    private inline fun readContainer(input: Input, info: Int, readEntry: () -> Unit) {
+        if (info == INDEFINITE) {
+            while (input.peek() != BREAK) {
+                readEntry()
+            }
+            input.next()
+        } else {
+            val count = readArgument(input, info)
+            for (i in 0 until count) {
+                readEntry()
+            }
+        }
+    }
+
+    private fun readText(input: Input, info: Int): String {
+        if (info == INDEFINITE) {
+            val builder = StringBuilder()
+            while (input.peek() != BREAK) {
+                builder.append(readText(input, input.next() and 0x1f))
+            }
+            input.next()
+            return builder.toString()
+        }
+        val length = readArgument(input, info).toInt()
+        return input.readUtf8(length)
+    }
+
+    private fun readArgument(input: Input, info: Int): Long {
+        return when {
+            info < 24 -> info.toLong()
+            info == 24 -> input.readUnsigned(1)
+            info == 25 -> input.readUnsigned(2)
+            info == 26 -> input.readUnsigned(4)
+            info == 27 -> input.readUnsigned(8)
+            else -> throw IllegalArgumentException("Invalid CBOR length encoding $info")
+        }
+    }
+
+    private fun halfToFloat(bits: Int): Float {
+        val sign = if (bits and 0x8000 != 0) -1f else 1f
+        val exponent = (bits shr 10) and 0x1f
+        val mantissa = bits and 0x3ff
+        return sign * when (exponent) {
+            0 -> mantissa * Math.scalb(1f, -24)
+            31 -> if (mantissa == 0) Float.POSITIVE_INFINITY else Float.NaN
+            else -> (mantissa + 1024) * Math.scalb(1f, exponent - 25)
+        }
+    }
+
+    private class Input(
+        private val bytes: ByteArray,
+        private var position: Int,
+        private val end: Int,
+        val strings: StringDictionary?,
+        val shared: Boolean
+    ) {
+
+        fun peek(): Int {
+            if (position >= end) throw IllegalArgumentException("Truncated CBOR frame")
+            return bytes[position].toInt() and 0xff
+        }
+
+        fun next(): Int {
+            val value = peek()
+            position++
+            return value
+        }
+
+        fun readUnsigned(count: Int): Long {
+            var value = 0L
+            repeat(count) {
+                value = (value shl 8) or next().toLong()
+            }
+            return value
+        }
+
+        fun readUtf8(length: Int): String {
+            if (length < 0 || position + length > end) throw IllegalArgumentException("Truncated CBOR frame")
+            val text = String(bytes, position, length, Charsets.UTF_8)
+            position += length
+            return text
+        }
+    }
+}
+
+/**
+ * Growable byte buffer reused across frames by the sender thread
+ */
+class ByteSink(initialCapacity: Int = 4096) {
+
+    var bytes = ByteArray(initialCapacity)
+        private set
+    var size = 0
+        private set
+
+    fun write(value: Int) {
+        if (size == bytes.size) {
+            bytes = bytes.copyOf(bytes.size * 2)
+        }
+        bytes[size++] = value.toByte()
+    }
+
+    /**
+     * Make room for at least extra more bytes past size
+     */
+    fun ensureCapacity(extra: Int) {
+        if (size + extra > bytes.size) {
+            bytes = bytes.copyOf(maxOf(bytes.size * 2, size + extra))
+        }
+    }
+
+    /**
+     * Account for bytes written directly into the backing array
+     */
+    fun advance(count: Int) {
+        size += count
+    }
+
+    /**
+     * Append length bytes of source, starting at offset
+     */
+    fun write(source: ByteArray, offset: Int, length: Int) {
+        ensureCapacity(length)
+        System.arraycopy(source, offset, bytes, size, length)
+        size += length
+    }
+
+    /**
+     * Copy of the bytes from start to size
+     */
+    fun copyFrom(start: Int): ByteArray = bytes.copyOfRange(start, size)
+
+    fun reset() {
+        size = 0
+    }
+}
@@ -0,0 +1,117 @@
+package com.bcon.adapter.core.connection
+
+import com.bcon.adapter.core.events.EventWriter
+
+/**
+ * EventWriter that encodes payloads straight to CBOR for connections on bcon.cbor.v2
+ * Values take the same forms CborCodec gives them when transcoding, so a payload decodes to the JSON
+ * the JsonEventWriter would have written; keys listed in FieldCodes go out as their integer code.
+ * With interning on, values of the repeating keys (dimension, entityType, playerName, ...) are written as
+ * SharedStrings references as they are encoded, so they never exist as text in the payload.
+ * Each worker thread keeps one, with its own buffer; forThread() starts a new payload on it.
+ */
+class CborEventWriter private constructor() : EventWriter {
+
+    private var out = ByteSink(INITIAL_CAPACITY)
+    // Names are held back until their value arrives, so a null value can drop its name like the JSON writer does
+    private var pendingName: String? = null
+    private var internStrings = false
+
+    /**
+     * The payload written since forThread()
+     */
+    fun toByteArray(): ByteArray = out.copyFrom(0)
+
+    override fun beginObject(): EventWriter {
+        writePendingName()
+        out.write(CborCodec.BEGIN_MAP)
+        return this
+    }
+
+    override fun endObject(): EventWriter {
+        out.write(CborCodec.BREAK)
+        return this
+    }
+
+    override fun beginArray(): EventWriter {
+        writePendingName()
+        out.write(CborCodec.BEGIN_ARRAY)
+        return this
+    }
+
+    override fun endArray(): EventWriter {
+        out.write(CborCodec.BREAK)
+        return this
+    }
+
+    override fun name(name: String): EventWriter {
+        pendingName = name
+        return this
+    }
+
+    override fun value(value: String?): EventWriter {
+        if (value == null) {
+            if (pendingName != null) {
+                pendingName = null
+            } else {
+                CborCodec.writeNull(out)
+            }
+            return this
+        }
+        val key = pendingName
+        writePendingName()
+        if (internStrings && key != null && StringDictionary.isInterned(key)) {
+            CborCodec.writeShared(value, out)
+        } else {
+            CborCodec.writeText(value, out)
+        }
+        return this
+    }
+
+    override fun value(value: Boolean): EventWriter {
+        writePendingName()
+        CborCodec.writeBoolean(value, out)
+        return this
+    }
+
+    override fun value(value: Long): EventWriter {
+        writePendingName()
+        CborCodec.writeInteger(value, out)
+        return this
+    }
+
+    override fun value(value: Double): EventWriter {
+        writePendingName()
+        CborCodec.writeDouble(value, out)
+        return this
+    }
+
+    private fun writePendingName() {
+        val name = pendingName ?: return
+        pendingName = null
+        CborCodec.writeKey(name, out)
+    }
+
+    private fun reset(internStrings: Boolean) {
+        this.internStrings = internStrings
+        if (out.bytes.size > MAX_RETAINED_CAPACITY) {
+            // Don't pin a huge buffer after an unusually large payload (e.g. loot with many items)
+            out = ByteSink(INITIAL_CAPACITY)
+        } else {
+            out.reset()
+        }
+        pendingName = null
+    }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 512
+        private const val MAX_RETAINED_CAPACITY = 64 * 1024
+
+        private val writers = ThreadLocal.withInitial { CborEventWriter() }
+
+        /**
+         * This thread's writer, emptied for a new payload; internStrings turns on SharedStrings references
+         */
+        fun forThread(internStrings: Boolean = false): CborEventWriter = writers.get().also { it.reset(internStrings) }
+    }
+}
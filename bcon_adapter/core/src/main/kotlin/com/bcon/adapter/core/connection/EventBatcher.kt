@@ -0,0 +1,128 @@
+package com.bcon.adapter.core.connection
+
+/**
+ * Accumulates encoded envelopes into a single batch frame (event_batch, or command_result_batch for acks)
+ * A batch is flushed when it reaches maxEvents, maxBytes or maxDelayMs, whichever comes first
+ * A batch is either JSON text or CBOR, set by its first envelope; callers flush before adding the other kind
+ * Only used from the sender thread, so no synchronization is needed
+ */
+class EventBatcher(
+    private val maxEvents: Int,
+    private val maxBytes: Int,
+    private val maxDelayMs: Long,
+    private val frameType: String = "event_batch"
+) {
+
+    private val frame = StringBuilder(maxBytes.coerceAtMost(1 shl 20) + 64)
+    private val cborFrame = ByteSink(maxBytes.coerceAtMost(1 shl 20) + 64)
+    private var binary = false
+    private var firstEnvelope: String? = null
+    private var firstCborEnvelope = 0
+    private var count = 0
+    private var openedAt = 0L
+
+    fun isEmpty(): Boolean = count == 0
+
+    fun size(): Int = count
+
+    /**
+     * Whether the current batch can take an envelope of this kind
+     */
+    fun holds(cbor: Boolean): Boolean = count == 0 || binary == cbor
+
+    /**
+     * Whether adding this envelope would push the batch past the byte limit
+     */
+    fun wouldOverflow(envelope: String): Boolean {
+        return count > 0 && frame.length + envelope.length + 1 > maxBytes
+    }
+
+    /**
+     * Whether adding this CBOR envelope would push the batch past the byte limit
+     */
+    fun wouldOverflow(envelope: ByteSink): Boolean {
+        return count > 0 && cborFrame.size + envelope.size > maxBytes
+    }
+
+    /**
+     * Append an encoded envelope to the current batch
+     */
+    fun add(envelope: String, nowMs: Long) {
+        check(holds(false)) { "Batch holds CBOR envelopes" }
+        if (count == 0) {
+            binary = false
+            frame.setLength(0)
+            frame.append("{\"eventType\":\"").append(frameType).append("\",\"data\":[")
+            firstEnvelope = envelope
+            openedAt = nowMs
+        } else {
+            frame.append(',')
+        }
+        frame.append(envelope)
+        count++
+    }
+
+    /**
+     * Append a CBOR envelope (the bytes of the sink) to the current batch
+     */
+    fun add(envelope: ByteSink, nowMs: Long) {
+        check(holds(true)) { "Batch holds JSON envelopes" }
+        if (count == 0) {
+            binary = true
+            cborFrame.reset()
+            cborFrame.write(CborCodec.BEGIN_MAP)
+            CborCodec.writeKey("eventType", cborFrame)
+            CborCodec.writeText(frameType, cborFrame)
+            CborCodec.writeKey("data", cborFrame)
+            cborFrame.write(CborCodec.BEGIN_ARRAY)
+            firstCborEnvelope = cborFrame.size
+            openedAt = nowMs
+        }
+        cborFrame.write(envelope.bytes, 0, envelope.size)
+        count++
+    }
+
+    /**
+     * Whether the batch hit its event count or byte limit
+     */
+    fun isFull(): Boolean = count >= maxEvents || (if (binary) cborFrame.size else frame.length) >= maxBytes
+
+    /**
+     * Whether the oldest event in the batch has waited maxDelayMs
+     */
+    fun isDue(nowMs: Long): Boolean = count > 0 && nowMs - openedAt >= maxDelayMs
+
+    /**
+     * Milliseconds until the batch becomes due (0 if already due)
+     */
+    fun millisUntilDue(nowMs: Long): Long {
+        return (openedAt + maxDelayMs - nowMs).coerceAtLeast(0)
+    }
+
+    /**
+     * Close the batch and return the frame to send
+     * A batch holding a single event is sent as the plain envelope
+     */
+    fun drain(): Frame {
+        val result = when {
+            binary && count == 1 -> Frame.cbor(cborFrame.copyFrom(firstCborEnvelope))
+            binary -> {
+                cborFrame.write(CborCodec.BREAK)
+                CborCodec.writeKey("timestamp", cborFrame)
+                CborCodec.writeInteger(System.currentTimeMillis() / 1000, cborFrame)
+                cborFrame.write(CborCodec.BREAK)
+                Frame.cbor(cborFrame.copyFrom(0))
+            }
+            count == 1 -> Frame.text(firstEnvelope!!)
+            else -> {
+                frame.append("],\"timestamp\":").append(System.currentTimeMillis() / 1000).append('}')
+                Frame.text(frame.toString())
+            }
+        }
+        frame.setLength(0)
+        cborFrame.reset()
+        firstEnvelope = null
+        count = 0
+        return result
+    }
+}
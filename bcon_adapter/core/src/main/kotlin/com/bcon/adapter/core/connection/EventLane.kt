@@ -0,0 +1,325 @@
+package com.bcon.adapter.core.connection
+
+import com.bcon.adapter.core.config.BconConfig
+import com.bcon.adapter.core.logging.BconLogger
+import com.bcon.adapter.core.metrics.AdapterMetrics
+import com.bcon.adapter.core.scheduling.AdapterScheduler
+import com.google.gson.Gson
+import java.net.http.WebSocket
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * An extra socket that carries only event frames
+ * With eventLanes > 0 the main connection becomes the priority lane for acks, command traffic, heartbeats and
+ * spool replay, and live events are striped across the lanes by player UUID so one player's events stay in
+ * order. Each lane has its own queue, sender thread, batcher and frame writer, so a large frame on one socket
+ * never holds up the others.
+ * Lanes only connect while the priority lane is up. While a lane is down its sender hands queued events, and
+ * any frame that failed to send, back to the priority lane, which sends or spools them. After a reconnect the
+ * lane holds its own queue until the priority lane has settled every handed-back frame, so live frames never
+ * overtake them on the wire. Handed-back frames are still subject to the priority queue's overflow policy, and
+ * frames that end up spooled replay after newer live events, as spooled events always do.
+ */
+class EventLane(
+    val index: Int,
+    private val config: BconConfig,
+    private val logger: BconLogger,
+    private val scheduler: AdapterScheduler,
+    private val metrics: AdapterMetrics,
+    private val open: (WebSocket.Listener) -> CompletableFuture<WebSocket>,
+    private val fallback: (OutboundMessage) -> Unit
+) : WebSocket.Listener {
+
+    private val gson = Gson()
+    private val queue = OutboundQueue(
+        config.outboundQueueCapacity,
+        OverflowPolicy.fromConfig(config.outboundOverflowPolicy),
+        config.outboundBlockTimeoutMs.toLong()
+    )
+    private val batcher: EventBatcher? = if (config.batchingEnabled) {
+        EventBatcher(config.batchMaxEvents, config.batchMaxBytes, config.batchMaxDelayMs.toLong())
+    } else {
+        null
+    }
+    private val frames = FrameWriter(config.compressionThresholdBytes, config.internStrings)
+    // Scratch buffer for the CBOR envelope of one event (sender thread only)
+    private val envelopeSink = ByteSink(1024)
+    // Lanes never open the circuit breaker; the priority lane's breaker decides whether to connect at all
+    private val reconnectPolicy = ReconnectPolicy(
+        baseDelayMs = config.reconnectBaseDelayMs,
+        maxDelayMs = config.reconnectMaxDelayMs,
+        failureThreshold = Int.MAX_VALUE,
+        openMs = 0,
+        stableMs = 30_000
+    )
+
+    @Volatile
+    private var socket: WebSocket? = null
+    // Whether the priority lane wants this lane connected
+    @Volatile
+    private var active = false
+    private var connecting = false
+    private var retryTask: ScheduledFuture<*>? = null
+    private var senderThread: Thread? = null
+    @Volatile
+    private var senderRunning = false
+    // Frames handed to the priority lane that it has not yet sent, spooled or dropped
+    private val handedBack = AtomicInteger()
+
+    fun offer(message: OutboundMessage): Boolean = queue.offer(message)
+
+    fun isUp(): Boolean = socket != null
+
+    fun pendingMessages(): Int = queue.size()
+
+    fun droppedMessages(): Long = queue.droppedCount()
+
+    /**
+     * Start the lane's sender thread
+     */
+    fun start() {
+        if (senderThread?.isAlive == true) {
+            return
+        }
+
+        senderRunning = true
+        senderThread = Thread(::runSender, "bcon-events-$index").apply {
+            isDaemon = true
+            start()
+        }
+    }
+
+    /**
+     * Close the socket and stop the sender; whatever is still queued goes to the priority lane
+     */
+    fun stop() {
+        disconnect()
+        senderRunning = false
+        val thread = senderThread ?: return
+        try {
+            thread.join(5000)
+            if (thread.isAlive) {
+                logger.warning("Event lane $index did not finish flushing - ${queue.size()} messages left in queue")
+                thread.interrupt()
+            }
+        } catch (e: InterruptedException) {
+            logger.warning("Event lane $index shutdown interrupted")
+        }
+        senderThread = null
+    }
+
+    /**
+     * Open the lane's socket; called once the priority lane is connected
+     */
+    @Synchronized
+    fun connect() {
+        active = true
+        if (socket != null || connecting) {
+            return
+        }
+
+        connecting = true
+        try {
+            open(this).whenComplete { _, error ->
+                if (error != null) {
+                    logger.warning("Event lane $index failed to connect: ${error.message}")
+                    synchronized(this) {
+                        connecting = false
+                        scheduleRetry()
+                    }
+                }
+            }
+        } catch (e: Exception) {
+            logger.warning("Event lane $index failed to connect: ${e.message}")
+            connecting = false
+            scheduleRetry()
+        }
+    }
+
+    /**
+     * Close the lane's socket; called when the priority lane goes down
+     */
+    @Synchronized
+    fun disconnect() {
+        active = false
+        retryTask?.cancel(false)
+        retryTask = null
+        val previous = socket ?: return
+        socket = null
+        previous.sendClose(WebSocket.NORMAL_CLOSURE, "Priority lane closed").whenComplete { _, _ -> previous.abort() }
+    }
+
+    fun describe(): String {
+        return if (isUp()) "up" else "down"
+    }
+
+    @Synchronized
+    private fun fail(failed: WebSocket) {
+        if (failed !== socket) {
+            return
+        }
+        socket = null
+        failed.abort()
+        val delay = reconnectPolicy.onFailure()
+        logger.warning("Event lane $index lost - its events go over the priority lane, reconnecting in ${delay}ms")
+        scheduleRetry(delay)
+    }
+
+    private fun scheduleRetry(delay: Long = reconnectPolicy.onFailure()) {
+        if (!active) {
+            return
+        }
+        retryTask?.cancel(false)
+        retryTask = scheduler.schedule("event-lane-$index", delay) {
+            if (active) {
+                connect()
+            }
+        }
+    }
+
+    /**
+     * Sender loop for this lane; mirrors the priority lane's loop without acks or spooling
+     */
+    private fun runSender() {
+        while (senderRunning || !queue.isEmpty()) {
+            if (socket != null && handedBack.get() > 0) {
+                // The lane is back, but frames it handed to the priority lane have to go out before this stripe's newer ones
+                try {
+                    Thread.sleep(HAND_BACK_WAIT_MS)
+                } catch (e: InterruptedException) {
+                    break
+                }
+                continue
+            }
+            val pendingBatch = batcher
+            val waitMs = if (pendingBatch != null && !pendingBatch.isEmpty()) {
+                pendingBatch.millisUntilDue(System.currentTimeMillis()).coerceAtMost(250)
+            } else {
+                250L
+            }
+
+            val message = try {
+                queue.poll(waitMs, TimeUnit.MILLISECONDS)
+            } catch (e: InterruptedException) {
+                break
+            }
+
+            if (message != null) {
+                dispatch(message)
+            }
+
+            if (pendingBatch != null && (pendingBatch.isFull() || pendingBatch.isDue(System.currentTimeMillis()))) {
+                flushBatch()
+            }
+        }
+
+        flushBatch()
+    }
+
+    private fun dispatch(message: OutboundMessage) {
+        metrics.eventSent(message.eventType)
+        val cbor = message.encodedCbor != null
+        val envelope = if (cbor) {
+            envelopeSink.reset()
+            message.encodeCbor(envelopeSink, config.internStrings)
+            null
+        } else {
+            message.encode(gson)
+        }
+        if (socket == null) {
+            // Keep the stripe in order: anything already batched goes back first
+            flushBatch()
+            handBack(if (envelope != null) Frame.text(envelope) else Frame.cbor(envelopeSink.copyFrom(0)))
+            return
+        }
+
+        val pendingBatch = batcher
+        if (pendingBatch == null) {
+            sendOrFallBack(if (envelope != null) Frame.text(envelope) else Frame.cbor(envelopeSink.copyFrom(0)))
+            return
+        }
+
+        val overflows = if (envelope != null) pendingBatch.wouldOverflow(envelope) else pendingBatch.wouldOverflow(envelopeSink)
+        if (!pendingBatch.holds(cbor) || overflows) {
+            flushBatch()
+        }
+        if (envelope != null) {
+            pendingBatch.add(envelope, System.currentTimeMillis())
+        } else {
+            pendingBatch.add(envelopeSink, System.currentTimeMillis())
+        }
+    }
+
+    private fun flushBatch() {
+        val pendingBatch = batcher ?: return
+        if (pendingBatch.isEmpty()) {
+            return
+        }
+        sendOrFallBack(pendingBatch.drain())
+    }
+
+    /**
+     * Write a frame on this lane, or hand it to the priority lane if that fails
+     */
+    private fun sendOrFallBack(frame: Frame) {
+        val current = socket
+        if (current != null && handedBack.get() == 0) {
+            try {
+                val started = System.nanoTime()
+                frames.write(current, frame).get(config.connectionTimeout.toLong(), TimeUnit.MILLISECONDS)
+                metrics.sendLatency.recordNanos(System.nanoTime() - started)
+                metrics.bytesSent.add(frames.lastFrameBytes.toLong())
+                return
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+            } catch (e: Exception) {
+                val reason = (e as? ExecutionException)?.cause?.message ?: e.message
+                logger.warning("Event lane $index send failed: $reason")
+                fail(current)
+            }
+        }
+        handBack(frame)
+    }
+
+    private fun handBack(frame: Frame) {
+        handedBack.incrementAndGet()
+        fallback(OutboundMessage("event_batch", null, frame = frame, onSettled = { handedBack.decrementAndGet() }))
+    }
+
+    // WebSocket.Listener implementation
+
+    override fun onOpen(webSocket: WebSocket) {
+        synchronized(this) {
+            connecting = false
+            if (!active || socket != null) {
+                // The priority lane went down while this lane was connecting
+                webSocket.abort()
+                return
+            }
+            frames.negotiate(webSocket.subprotocol)
+            socket = webSocket
+            reconnectPolicy.onConnected()
+        }
+        logger.info("Event lane $index connected")
+        webSocket.request(1)
+    }
+
+    override fun onClose(webSocket: WebSocket, statusCode: Int, reason: String): CompletionStage<*>? {
+        fail(webSocket)
+        return null
+    }
+
+    override fun onError(webSocket: WebSocket, error: Throwable) {
+        logger.warning("Event lane $index error: ${error.message}")
+        fail(webSocket)
+    }
+
+    companion object {
+        private const val HAND_BACK_WAIT_MS = 5L
+    }
+}
@@ -0,0 +1,315 @@
+package com.bcon.adapter.core.connection
+
+import com.bcon.adapter.core.logging.BconLogger
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.CoderResult
+import java.nio.charset.CodingErrorAction
+import java.nio.charset.StandardCharsets
+import java.nio.file.StandardOpenOption
+
+/**
+ * Append-only segment log for event frames that could not be sent
+ * Frames are written as [int length][UTF-8 bytes] records into segment-NNNN.log files and read back
+ * in order once the connection is up. Writes go through a reusable direct buffer and are never
+ * fsynced per event; a crash can lose the unflushed tail and replays are at-least-once.
+ * When the total size exceeds maxBytes the oldest segment is discarded.
+ * Only used from the sender thread, so no synchronization is needed.
+ */
+class EventSpool(
+    private val directory: File,
+    private val maxBytes: Long,
+    private val logger: BconLogger
+) {
+
+    private val segmentBytes = (maxBytes / 8).coerceIn(MIN_SEGMENT_BYTES, MAX_SEGMENT_BYTES)
+    private val segments = ArrayDeque<Segment>()
+    private val encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+    private val writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES)
+    private val lengthBuffer = ByteBuffer.allocate(4)
+    private var readBuffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES)
+
+    private var writeChannel: FileChannel? = null
+    private var readChannel: FileChannel? = null
+    private var readPosition = 0L
+    private var peekedLength = -1
+    private var nextSequence = 0L
+    private var discardedSegments = 0L
+
+    @Volatile
+    private var totalBytes = 0L
+
+    /**
+     * Pick up segments left over from a previous run
+     */
+    fun open() {
+        directory.mkdirs()
+        segments.clear()
+        totalBytes = 0
+
+        directory.listFiles { file -> file.name.startsWith(SEGMENT_PREFIX) && file.name.endsWith(SEGMENT_SUFFIX) }
+            ?.mapNotNull { file -> sequenceOf(file)?.let { Segment(file, it, file.length()) } }
+            ?.sortedBy { it.sequence }
+            ?.forEach { segment ->
+                if (segment.size == 0L) {
+                    segment.file.delete()
+                } else {
+                    segments.addLast(segment)
+                    totalBytes += segment.size
+                }
+            }
+
+        nextSequence = (segments.lastOrNull()?.sequence ?: -1) + 1
+        if (segments.isNotEmpty()) {
+            logger.info("Event spool holds ${segments.size} segment(s), ${totalBytes / 1024} KB to replay")
+        }
+    }
+
+    /**
+     * Whether any spooled frames are waiting to be replayed
+     */
+    fun hasBacklog(): Boolean {
+        val first = segments.firstOrNull() ?: return false
+        return segments.size > 1 || readPosition < first.size
+    }
+
+    /**
+     * Bytes currently held on disk (including the unflushed buffer)
+     */
+    fun backlogBytes(): Long = totalBytes
+
+    /**
+     * Append a frame to the newest segment
+     */
+    fun append(frame: String) {
+        val estimate = frame.length.toLong() * 3 + 4
+        val active = activeSegment(estimate)
+
+        val written = if (estimate <= writeBuffer.capacity()) encodeIntoBuffer(frame) else writeLargeRecord(frame)
+        active.size += written
+        totalBytes += written
+
+        enforceCap()
+    }
+
+    /**
+     * Return the oldest spooled frame without consuming it, or null if the spool is empty
+     */
+    fun peek(): String? {
+        while (true) {
+            val first = segments.firstOrNull() ?: return null
+            if (first === segments.last()) {
+                flushWrites()
+            }
+
+            if (readPosition >= first.size) {
+                if (!finishSegment(first)) {
+                    return null
+                }
+                continue
+            }
+
+            val channel = readChannel ?: FileChannel.open(first.file.toPath(), StandardOpenOption.READ).also { readChannel = it }
+            val frame = readRecord(channel, first)
+            if (frame != null) {
+                return frame
+            }
+
+            // Truncated or corrupt tail (e.g. crash mid-write): skip the rest of this segment
+            logger.warning("Discarding unreadable tail of spool segment ${first.file.name}")
+            totalBytes -= first.size - readPosition
+            readPosition = first.size
+        }
+    }
+
+    /**
+     * Consume the frame returned by the last peek()
+     */
+    fun commit() {
+        if (peekedLength < 0) {
+            return
+        }
+        val consumed = 4L + peekedLength
+        readPosition += consumed
+        totalBytes -= consumed
+        peekedLength = -1
+
+        val first = segments.firstOrNull() ?: return
+        if (readPosition >= first.size) {
+            finishSegment(first)
+        }
+    }
+
+    /**
+     * Flush buffered writes and close the files; unreplayed frames stay on disk for the next start
+     */
+    fun close() {
+        try {
+            flushWrites()
+            writeChannel?.force(false)
+        } catch (e: Exception) {
+            logger.warning("Failed to flush event spool: ${e.message}")
+        }
+        writeChannel?.close()
+        readChannel?.close()
+        writeChannel = null
+        readChannel = null
+        readPosition = 0
+        peekedLength = -1
+        segments.clear()
+    }
+
+    private fun activeSegment(recordBytes: Long): Segment {
+        val last = segments.lastOrNull()
+        if (last != null && writeChannel != null && last.size + recordBytes <= segmentBytes) {
+            return last
+        }
+
+        flushWrites()
+        writeChannel?.close()
+
+        val file = File(directory, "%s%020d%s".format(SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX))
+        val segment = Segment(file, nextSequence++, 0)
+        writeChannel = FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        )
+        segments.addLast(segment)
+        return segment
+    }
+
+    private fun encodeIntoBuffer(frame: String): Int {
+        if (writeBuffer.remaining() < frame.length * 3 + 4) {
+            flushWrites()
+        }
+
+        val start = writeBuffer.position()
+        writeBuffer.position(start + 4)
+        encoder.reset()
+        val result = encoder.encode(CharBuffer.wrap(frame), writeBuffer, true)
+        if (result != CoderResult.UNDERFLOW) {
+            result.throwException()
+        }
+        encoder.flush(writeBuffer)
+
+        val length = writeBuffer.position() - start - 4
+        writeBuffer.putInt(start, length)
+        return length + 4
+    }
+
+    private fun writeLargeRecord(frame: String): Int {
+        flushWrites()
+        val bytes = frame.toByteArray(StandardCharsets.UTF_8)
+        val record = ByteBuffer.allocate(4 + bytes.size).putInt(bytes.size).put(bytes)
+        record.flip()
+        val channel = writeChannel!!
+        while (record.hasRemaining()) {
+            channel.write(record)
+        }
+        return 4 + bytes.size
+    }
+
+    private fun flushWrites() {
+        val channel = writeChannel ?: return
+        if (writeBuffer.position() == 0) {
+            return
+        }
+        writeBuffer.flip()
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer)
+        }
+        writeBuffer.clear()
+    }
+
+    private fun readRecord(channel: FileChannel, segment: Segment): String? {
+        if (segment.size - readPosition < 4) {
+            return null
+        }
+
+        lengthBuffer.clear()
+        if (!readFully(channel, lengthBuffer, readPosition)) {
+            return null
+        }
+        val length = lengthBuffer.getInt(0)
+        if (length < 0 || readPosition + 4 + length > segment.size) {
+            return null
+        }
+
+        if (readBuffer.capacity() < length) {
+            readBuffer = ByteBuffer.allocate(length)
+        }
+        readBuffer.clear().limit(length)
+        if (!readFully(channel, readBuffer, readPosition + 4)) {
+            return null
+        }
+
+        peekedLength = length
+        return String(readBuffer.array(), 0, length, StandardCharsets.UTF_8)
+    }
+
+    private fun readFully(channel: FileChannel, buffer: ByteBuffer, position: Long): Boolean {
+        var offset = position
+        while (buffer.hasRemaining()) {
+            val read = channel.read(buffer, offset)
+            if (read < 0) {
+                return false
+            }
+            offset += read
+        }
+        return true
+    }
+
+    /**
+     * Drop a fully replayed segment; returns false if it is the active segment and nothing is left
+     */
+    private fun finishSegment(segment: Segment): Boolean {
+        readChannel?.close()
+        readChannel = null
+        readPosition = 0
+        peekedLength = -1
+
+        val isActive = segment === segments.last()
+        if (isActive) {
+            writeChannel?.close()
+            writeChannel = null
+        }
+        segments.removeFirst()
+        segment.file.delete()
+        return !isActive
+    }
+
+    private fun enforceCap() {
+        while (totalBytes > maxBytes && segments.size > 1) {
+            val oldest = segments.removeFirst()
+            val unread = oldest.size - readPosition
+            readChannel?.close()
+            readChannel = null
+            readPosition = 0
+            peekedLength = -1
+            totalBytes -= unread
+            oldest.file.delete()
+            discardedSegments++
+            logger.warning("Event spool over ${maxBytes / (1024 * 1024)} MB - discarded oldest segment ($discardedSegments so far)")
+        }
+    }
+
+    private fun sequenceOf(file: File): Long? {
+        return file.name.removePrefix(SEGMENT_PREFIX).removeSuffix(SEGMENT_SUFFIX).toLongOrNull()
+    }
+
+    private class Segment(val file: File, val sequence: Long, var size: Long)
+
+    companion object {
+        private const val SEGMENT_PREFIX = "segment-"
+        private const val SEGMENT_SUFFIX = ".log"
+        private const val WRITE_BUFFER_BYTES = 64 * 1024
+        private const val MIN_SEGMENT_BYTES = 64L * 1024
+        private const val MAX_SEGMENT_BYTES = 16L * 1024 * 1024
+    }
+}
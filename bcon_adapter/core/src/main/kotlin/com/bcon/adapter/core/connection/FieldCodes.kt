@@ -0,0 +1,55 @@
+package com.bcon.adapter.core.connection
+
+/**
+ * Map keys that CBOR frames carry as small integers instead of text (bcon.cbor.v2)
+ * The list is part of the wire protocol: bcon_server's message.rs holds the same names in the same order,
+ * entries are only ever appended, and a key that isn't listed is simply sent as text. The first 24 entries
+ * encode in one byte, so the keys of every envelope and of player and entity snapshots come first.
+ */
+object FieldCodes {
+
+    private val NAMES = arrayOf(
+        "eventType", "data", "timestamp", "replyTo", "playerId", "playerName", "x", "y", "z", "dimension",
+        "health", "maxHealth", "level", "gameMode", "entityId", "entityType", "name", "entity", "type",
+        "amount", "displayName", "lore", "nbt", "item", "success", "result", "message", "deathMessage",
+        "attackerId", "attackerType", "alive", "killedEntity", "killer", "projectileType", "ownerId",
+        "ownerType", "target", "merchantId", "merchantType", "power", "advancementId", "title", "sender",
+        "inOpenWater", "waitTime", "fish", "hookedEntity", "hookX", "hookY", "hookZ", "hookDimension",
+        "groundX", "groundY", "groundZ", "groundDimension", "bucket", "mother", "father", "breeder",
+        "offspring", "cause", "damage", "damageType", "damageSource", "healAmount", "healReason", "rider",
+        "mount", "source", "fuel", "burnTime", "experience", "totalCookTime", "furnaceX", "furnaceY",
+        "furnaceZ", "furnaceDimension", "inventoryType", "inventoryX", "inventoryY", "inventoryZ",
+        "inventoryDimension", "dropX", "dropY", "dropZ", "dropDimension", "pickupX", "pickupY", "pickupZ",
+        "pickupDimension", "lootTable", "items", "keys", "inputType", "blockType", "blockData", "worldName",
+        "dimensionKey", "time", "difficultyLevel", "weather", "thundering", "tps", "mspt", "mean", "p50",
+        "p95", "p99", "max", "samples", "worlds", "players", "loadedChunks", "entities", "regionTps", "jvm",
+        "heapUsed", "heapCommitted", "heapMax", "nonHeapUsed", "gcCount", "gcTimeMs", "gcCountDelta",
+        "gcTimeMsDelta", "threads", "uptimeMs", "systemLoadAverage", "adapter", "connected", "queueDepth",
+        "droppedEvents", "spooledBytes", "reconnects", "ackLatencyP99Ms", "sendLatencyP99Ms",
+        "serializationP99Ms"
+    )
+
+    private val ids = HashMap<String, Int>(NAMES.size * 2).apply {
+        NAMES.forEachIndexed { id, name -> put(name, id) }
+    }
+
+    /**
+     * Code for a map key, or -1 if it goes on the wire as text
+     */
+    fun idOf(name: String): Int = ids[name] ?: -1
+
+    /**
+     * Map key for a code received from the other side, or null if the code is unknown
+     */
+    fun nameOf(id: Long): String? = if (id >= 0 && id < NAMES.size) NAMES[id.toInt()] else null
+
+    /**
+     * Number of coded keys, for the protocol check shared with the server's tests
+     */
+    fun size(): Int = NAMES.size
+
+    /**
+     * The table as one newline-separated string, for the same check
+     */
+    internal fun joined(): String = NAMES.joinToString("\n")
+}
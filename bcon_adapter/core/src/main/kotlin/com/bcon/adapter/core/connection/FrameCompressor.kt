@@ -0,0 +1,77 @@
+package com.bcon.adapter.core.connection
+
+import java.util.zip.Deflater
+
+/**
+ * Raw-deflate compression for large outbound frames
+ * java.net.http.WebSocket has no permessage-deflate, so frames above the threshold are compressed
+ * here and sent as binary frames tagged FRAME_DEFLATE_JSON or FRAME_DEFLATE_CBOR. Both sides prime
+ * the stream with the same preset dictionary of common keys, which is what makes mid-sized event
+ * frames worth compressing at all. One Deflater is reused for every frame (sender thread only).
+ */
+class FrameCompressor(private val thresholdBytes: Int, level: Int = Deflater.DEFAULT_COMPRESSION) {
+
+    private val deflater = Deflater(level, true)
+
+    /**
+     * Whether a payload of this size should be compressed
+     */
+    fun shouldCompress(length: Int): Boolean = length >= thresholdBytes
+
+    /**
+     * Write frameType followed by the compressed payload into out
+     * Returns false (leaving out in an unspecified state) if compression did not make the frame smaller
+     */
+    fun compress(frameType: Int, input: ByteArray, offset: Int, length: Int, out: ByteSink): Boolean {
+        out.reset()
+        out.write(frameType)
+
+        deflater.reset()
+        deflater.setDictionary(DICTIONARY)
+        deflater.setInput(input, offset, length)
+        deflater.finish()
+
+        while (!deflater.finished()) {
+            if (out.size >= length) {
+                return false
+            }
+            out.ensureCapacity(1024)
+            val written = deflater.deflate(out.bytes, out.size, out.bytes.size - out.size)
+            out.advance(written)
+        }
+        return out.size < length
+    }
+
+    fun close() {
+        deflater.end()
+    }
+
+    companion object {
+        /**
+         * Offered when the adapter sends CBOR and may compress large frames
+         */
+        const val SUBPROTOCOL_CBOR = "bcon.cbor+deflate.v2"
+
+        /**
+         * Offered when the adapter sends JSON text but may compress large frames as binary
+         */
+        const val SUBPROTOCOL_JSON = "bcon.json+deflate.v1"
+
+        const val FRAME_DEFLATE_JSON: Int = 0x02
+        const val FRAME_DEFLATE_CBOR: Int = 0x03
+
+        /**
+         * Preset dictionary shared with bcon_server (message.rs DEFLATE_DICTIONARY); must stay byte-identical
+         * Deflate favours matches near the end of the dictionary, so the most common keys come last
+         */
+        val DICTIONARY: ByteArray = (
+            "{\"eventType\":\"event_batch\",\"data\":[{\"eventType\":\"command_result\",\"replyTo\":\"\"," +
+            "\"data\":{\"success\":true,\"result\":\"\",\"error\":\"\",\"markers\":[{\"id\":\"\",\"label\":\"\"," +
+            "\"position\":{\"x\":,\"y\":,\"z\":}}],\"items\":[{\"type\":\"minecraft:\",\"amount\":1,\"displayName\":\"\"," +
+            "\"lore\":[\"\"],\"nbt\":\"\"}],\"lootTable\":\"minecraft:chests/\",\"entity\":{\"entityId\":\"\"," +
+            "\"entityType\":\"minecraft:\",\"name\":\"\"},\"playerId\":\"\",\"playerName\":\"\",\"x\":,\"y\":,\"z\":," +
+            "\"dimension\":\"minecraft:overworld\",\"health\":20.0,\"maxHealth\":20.0,\"level\":0," +
+            "\"gameMode\":\"SURVIVAL\"},\"timestamp\":17"
+        ).toByteArray(Charsets.US_ASCII)
+    }
+}
@@ -0,0 +1,134 @@
+package com.bcon.adapter.core.connection
+
+import java.net.http.WebSocket
+import java.nio.ByteBuffer
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Puts frames on the wire in the format negotiated for one socket
+ * Every socket has its own string dictionary on the server, so each connection (and each event lane) owns one
+ * writer and tracks which SharedStrings definitions that socket has received. write() is only called from that socket's sender thread; negotiate() and invalidateStrings() may be
+ * called from listener threads and take effect on the next write.
+ */
+class FrameWriter(
+    compressionThresholdBytes: Int,
+    private val internStrings: Boolean
+) {
+
+    private val cborFrame = ByteSink()
+    private val transcoded = ByteSink()
+    private val compressedFrame = ByteSink()
+    private val compressor = FrameCompressor(compressionThresholdBytes)
+    // How many SharedStrings entries this socket's server has been sent definitions for
+    private var definedStrings = 0
+    @Volatile
+    private var resetStrings = true
+    @Volatile
+    var binaryFrames = false
+        private set
+    @Volatile
+    var compressFrames = false
+        private set
+
+    /**
+     * Size on the wire of the last frame passed to write(); text frames count characters
+     */
+    var lastFrameBytes = 0
+        private set
+
+    /**
+     * Apply the subprotocol the server accepted for a new connection
+     * Every connection starts with an empty dictionary; call before publishing the socket to the sender
+     */
+    fun negotiate(protocol: String?) {
+        binaryFrames = protocol == CborCodec.SUBPROTOCOL || protocol == FrameCompressor.SUBPROTOCOL_CBOR
+        compressFrames = protocol == FrameCompressor.SUBPROTOCOL_CBOR || protocol == FrameCompressor.SUBPROTOCOL_JSON
+        resetStrings = true
+    }
+
+    /**
+     * Send every definition again; a failed frame may carry string definitions the server never saw
+     */
+    fun invalidateStrings() {
+        resetStrings = true
+    }
+
+    /**
+     * Put a frame on the wire in the negotiated format
+     * CBOR frames go out as they are and JSON frames are transcoded, led by the SharedStrings definitions this
+     * socket hasn't had yet; on a JSON connection a CBOR frame (encoded just before a reconnect changed formats)
+     * is decoded back to text.
+     * Large frames are compressed when the server accepted compression and it actually saves bytes
+     */
+    fun write(socket: WebSocket, frame: Frame): CompletableFuture<WebSocket> {
+        if (binaryFrames) {
+            if (resetStrings) {
+                resetStrings = false
+                definedStrings = 0
+            }
+            var payload = frame.cbor
+            var payloadSize = payload?.size ?: 0
+            if (payload == null) {
+                transcoded.reset()
+                if (internStrings) {
+                    CborCodec.encodeShared(frame.text!!, transcoded)
+                } else {
+                    CborCodec.encode(frame.text!!, transcoded)
+                }
+                payload = transcoded.bytes
+                payloadSize = transcoded.size
+            }
+
+            cborFrame.reset()
+            cborFrame.write(CborCodec.FRAME_CBOR)
+            // Read once: the table may grow while this frame is written, but every id in it is already below
+            val known = SharedStrings.size()
+            if (known > definedStrings && (payload[0].toInt() and 0xff) == CborCodec.BEGIN_MAP) {
+                cborFrame.write(CborCodec.BEGIN_MAP)
+                CborCodec.writeSharedDefinitions(definedStrings, known, cborFrame)
+                cborFrame.write(payload, 1, payloadSize - 1)
+                definedStrings = known
+            } else {
+                cborFrame.write(payload, 0, payloadSize)
+            }
+
+            val frameSize = cborFrame.size - 1
+            if (compressFrames && compressor.shouldCompress(frameSize) &&
+                compressor.compress(FrameCompressor.FRAME_DEFLATE_CBOR, cborFrame.bytes, 1, frameSize, compressedFrame)) {
+                lastFrameBytes = compressedFrame.size
+                return socket.sendBinary(ByteBuffer.wrap(compressedFrame.bytes, 0, compressedFrame.size), true)
+            }
+            lastFrameBytes = cborFrame.size
+            return socket.sendBinary(ByteBuffer.wrap(cborFrame.bytes, 0, cborFrame.size), true)
+        }
+
+        val text = frame.asText()
+        if (compressFrames && compressor.shouldCompress(text.length)) {
+            val utf8 = text.toByteArray(Charsets.UTF_8)
+            if (compressor.compress(FrameCompressor.FRAME_DEFLATE_JSON, utf8, 0, utf8.size, compressedFrame)) {
+                lastFrameBytes = compressedFrame.size
+                return socket.sendBinary(ByteBuffer.wrap(compressedFrame.bytes, 0, compressedFrame.size), true)
+            }
+        }
+        lastFrameBytes = text.length
+        return socket.sendText(text, true)
+    }
+}
+
+/**
+ * A finished envelope or batch: JSON text, or a CBOR item without the frame type byte
+ * Event frames are CBOR when their payloads were written as CBOR; everything else is text.
+ */
+class Frame private constructor(val text: String?, val cbor: ByteArray?) {
+
+    /**
+     * The frame as JSON text, decoding it if it is CBOR
+     */
+    fun asText(): String = text ?: CborCodec.toJson(cbor!!)
+
+    companion object {
+        fun text(json: String): Frame = Frame(json, null)
+
+        fun cbor(bytes: ByteArray): Frame = Frame(null, bytes)
+    }
+}
@@ -0,0 +1,93 @@
+package com.bcon.adapter.core.connection
+
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import com.google.gson.JsonSyntaxException
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import java.io.IOException
+import java.io.Reader
+
+/**
+ * Envelope of a message pushed by the Bcon server
+ */
+class IncomingMessage(
+    val messageId: String?,
+    val type: String?,
+    val data: JsonObject?,
+    val requiresAck: Boolean
+)
+
+/**
+ * Streaming reader for server messages
+ * The envelope fields are read straight off the receive buffer with a JsonReader and unknown fields are
+ * skipped without being materialized. Only the data payload becomes a JsonObject tree, and not at all for
+ * message types whose handler ignores it.
+ */
+object IncomingMessageReader {
+
+    // Message types handled without looking at their payload
+    private val PAYLOAD_FREE_TYPES = setOf("clear_commands")
+
+    fun read(message: StringBuilder): IncomingMessage {
+        var messageId: String? = null
+        var type: String? = null
+        var data: JsonObject? = null
+        var requiresAck = false
+
+        try {
+            val reader = JsonReader(StringBuilderReader(message))
+            reader.beginObject()
+            while (reader.hasNext()) {
+                val name = reader.nextName()
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue()
+                    continue
+                }
+                when (name) {
+                    "messageId" -> messageId = reader.nextString()
+                    "type" -> type = reader.nextString()
+                    // The server serializes this field in snake case; accept both spellings
+                    "requiresAck", "requires_ack" -> requiresAck = reader.nextBoolean()
+                    "data" -> {
+                        // The server writes type before data, so a payload-free message never builds a tree
+                        if (type != null && type in PAYLOAD_FREE_TYPES) {
+                            reader.skipValue()
+                        } else {
+                            val element = JsonParser.parseReader(reader)
+                            data = if (element.isJsonObject) element.asJsonObject else null
+                        }
+                    }
+                    else -> reader.skipValue()
+                }
+            }
+            reader.endObject()
+        } catch (e: IOException) {
+            throw JsonSyntaxException(e)
+        } catch (e: IllegalStateException) {
+            // Thrown by JsonReader when a field has the wrong token type
+            throw JsonSyntaxException(e)
+        }
+
+        return IncomingMessage(messageId, type, data, requiresAck)
+    }
+
+    /**
+     * Reader over the receive buffer; avoids copying the message into a String first
+     */
+    private class StringBuilderReader(private val buffer: StringBuilder) : Reader() {
+        private var position = 0
+
+        override fun read(cbuf: CharArray, off: Int, len: Int): Int {
+            if (position >= buffer.length) {
+                return -1
+            }
+            val count = minOf(len, buffer.length - position)
+            buffer.getChars(position, position + count, cbuf, off)
+            position += count
+            return count
+        }
+
+        override fun close() {}
+    }
+}
@@ -0,0 +1,143 @@
+package com.bcon.adapter.core.connection
+
+import java.nio.ByteBuffer
+
+/**
+ * Liveness and round-trip tracking for the server connection
+ * Pings carry their System.nanoTime() send time; the echoed pong gives an RTT sample that feeds a smoothed
+ * RTT and RTT variance (the RFC 6298 estimator). A ping is only sent after the link has been silent for the
+ * ping interval, so a connection with inbound traffic is never probed. The interval and the pong timeout
+ * follow the measured RTT, which lets an idle link be declared dead within seconds instead of minutes.
+ * While the client has stopped reading (command backpressure) pongs cannot arrive, so the link counts as alive.
+ */
+class LinkMonitor(
+    private val maxPingIntervalMs: Long,
+    private val clock: () -> Long = System::nanoTime
+) {
+
+    enum class Action { NONE, PING, DEAD }
+
+    @Volatile
+    private var lastInbound = clock()
+    private var pingOutstanding = false
+    private var pingSentAt = 0L
+    private var srtt = -1L
+    private var rttvar = 0L
+
+    /**
+     * Forget the previous connection's state
+     */
+    @Synchronized
+    fun reset() {
+        lastInbound = clock()
+        pingOutstanding = false
+        srtt = -1
+        rttvar = 0
+    }
+
+    /**
+     * Record any frame received from the server
+     */
+    fun onInbound() {
+        lastInbound = clock()
+    }
+
+    /**
+     * Record a pong; a pong echoing the outstanding ping's payload yields an RTT sample
+     */
+    @Synchronized
+    fun onPong(payload: ByteBuffer) {
+        val now = clock()
+        lastInbound = now
+        if (!pingOutstanding || payload.remaining() < 8 || payload.getLong(payload.position()) != pingSentAt) {
+            return
+        }
+        pingOutstanding = false
+
+        val sample = now - pingSentAt
+        if (srtt < 0) {
+            srtt = sample
+            rttvar = sample / 2
+        } else {
+            rttvar = (3 * rttvar + Math.abs(srtt - sample)) / 4
+            srtt = (7 * srtt + sample) / 8
+        }
+    }
+
+    /**
+     * Decide what the periodic link check should do now
+     * readingPaused is true while the client is not requesting frames; nothing, pongs included, is delivered then,
+     * so silence proves nothing and the link gets a fresh window once reading resumes
+     */
+    @Synchronized
+    fun check(readingPaused: Boolean = false): Action {
+        val now = clock()
+        if (readingPaused) {
+            lastInbound = now
+            pingOutstanding = false
+            return Action.NONE
+        }
+        if (pingOutstanding) {
+            if (lastInbound - pingSentAt > 0) {
+                // Other traffic arrived after the ping, so the link is alive even if this pong is late
+                pingOutstanding = false
+                return Action.NONE
+            }
+            return if (now - pingSentAt > pongTimeoutNanos()) Action.DEAD else Action.NONE
+        }
+        return if (now - lastInbound >= pingIntervalNanos()) Action.PING else Action.NONE
+    }
+
+    /**
+     * Payload for the next ping; marks it outstanding
+     */
+    @Synchronized
+    fun nextPing(): ByteBuffer {
+        pingSentAt = clock()
+        pingOutstanding = true
+        return ByteBuffer.allocate(8).putLong(0, pingSentAt)
+    }
+
+    fun smoothedRttMs(): Double = if (srtt < 0) -1.0 else srtt / 1_000_000.0
+
+    fun rttVarianceMs(): Double = rttvar / 1_000_000.0
+
+    /**
+     * How long the link may be silent before it is probed
+     */
+    fun pingIntervalNanos(): Long {
+        val max = maxPingIntervalMs * 1_000_000
+        // Probe early until there is a first RTT sample
+        val interval = if (srtt < 0) MIN_PING_INTERVAL_NANOS else srtt * 16
+        return interval.coerceIn(MIN_PING_INTERVAL_NANOS, max.coerceAtLeast(MIN_PING_INTERVAL_NANOS))
+    }
+
+    /**
+     * How long an outstanding ping may go unanswered before the link is considered dead
+     */
+    fun pongTimeoutNanos(): Long {
+        if (srtt < 0) {
+            return MAX_PONG_TIMEOUT_NANOS
+        }
+        return (4 * (srtt + 4 * rttvar)).coerceIn(MIN_PONG_TIMEOUT_NANOS, MAX_PONG_TIMEOUT_NANOS)
+    }
+
+    /**
+     * Summary for the status command
+     */
+    fun describe(): String {
+        if (srtt < 0) {
+            return "rtt unknown"
+        }
+        return "rtt %.1fms ±%.1fms, probe after %ds idle".format(
+            smoothedRttMs(), rttVarianceMs(), pingIntervalNanos() / 1_000_000_000
+        )
+    }
+
+    companion object {
+        private const val MIN_PING_INTERVAL_NANOS = 2_000_000_000L
+        // A busy server can be slow to answer even on a fast link; stay well above the tick thread's worst stalls
+        private const val MIN_PONG_TIMEOUT_NANOS = 10_000_000_000L
+        private const val MAX_PONG_TIMEOUT_NANOS = 60_000_000_000L
+    }
+}
@@ -0,0 +1,214 @@
+package com.bcon.adapter.core.connection
+
+import com.bcon.adapter.core.events.EventJson
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Bounded queue between event producers (game threads) and the single sender thread
+ * Producers never touch the socket; a full queue is resolved by the configured overflow policy.
+ * Command acks (messages with replyTo) sit in their own small queue that the sender drains first, so an
+ * event flood can neither evict them nor hold them back behind a full event queue.
+ */
+class OutboundQueue(
+    capacity: Int,
+    private val policy: OverflowPolicy,
+    private val blockTimeoutMs: Long
+) {
+
+    private val capacity = capacity.coerceAtLeast(1)
+    private val events = ArrayDeque<OutboundMessage>()
+    private val replies = ArrayDeque<OutboundMessage>()
+    private val lock = ReentrantLock()
+    private val notEmpty = lock.newCondition()
+    private val notFull = lock.newCondition()
+    private var dropped = 0L
+    private var droppedReplies = 0L
+
+    /**
+     * Enqueue a message, applying the overflow policy when the queue is full
+     * Returns false if the message itself was dropped
+     */
+    fun offer(message: OutboundMessage): Boolean {
+        lock.withLock {
+            if (message.replyTo != null) {
+                return offerReply(message)
+            }
+            val accepted = when (policy) {
+                OverflowPolicy.DROP_NEWEST -> events.size < capacity
+                OverflowPolicy.DROP_OLDEST -> {
+                    while (events.size >= capacity) {
+                        events.removeFirst().onSettled?.invoke()
+                        dropped++
+                    }
+                    true
+                }
+                OverflowPolicy.BLOCK -> awaitSpace()
+            }
+            if (!accepted) {
+                dropped++
+                message.onSettled?.invoke()
+                return false
+            }
+            events.addLast(message)
+            notEmpty.signal()
+            return true
+        }
+    }
+
+    /**
+     * Acks arrive no faster than commands complete, so this only fills if the sender is stuck for a long time;
+     * the oldest ack goes first, its command is the one the server is most likely to have timed out already
+     */
+    private fun offerReply(message: OutboundMessage): Boolean {
+        if (replies.size >= MAX_REPLIES) {
+            replies.removeFirst()
+            droppedReplies++
+        }
+        replies.addLast(message)
+        notEmpty.signal()
+        return true
+    }
+
+    private fun awaitSpace(): Boolean {
+        var nanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs)
+        while (events.size >= capacity) {
+            if (nanos <= 0) {
+                return false
+            }
+            try {
+                nanos = notFull.awaitNanos(nanos)
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+                return false
+            }
+        }
+        return true
+    }
+
+    /**
+     * Take the next message, acks first, waiting up to the given timeout (sender thread only)
+     */
+    fun poll(timeout: Long, unit: TimeUnit): OutboundMessage? {
+        lock.lockInterruptibly()
+        try {
+            var nanos = unit.toNanos(timeout)
+            while (replies.isEmpty() && events.isEmpty()) {
+                if (nanos <= 0) {
+                    return null
+                }
+                nanos = notEmpty.awaitNanos(nanos)
+            }
+            replies.removeFirstOrNull()?.let { return it }
+            val message = events.removeFirst()
+            notFull.signal()
+            return message
+        } finally {
+            lock.unlock()
+        }
+    }
+
+    fun size(): Int = lock.withLock { events.size + replies.size }
+
+    fun isEmpty(): Boolean = lock.withLock { events.isEmpty() && replies.isEmpty() }
+
+    /**
+     * Total number of messages discarded because the queue was full
+     */
+    fun droppedCount(): Long = lock.withLock { dropped + droppedReplies }
+
+    companion object {
+        private const val MAX_REPLIES = 1024
+    }
+}
+
+/**
+ * Behaviour of the outbound queue when producers outpace the socket
+ */
+enum class OverflowPolicy {
+    DROP_OLDEST,
+    DROP_NEWEST,
+    BLOCK;
+
+    companion object {
+        /**
+         * Parse the config value (drop-oldest, drop-newest, block), defaulting to DROP_OLDEST
+         */
+        fun fromConfig(value: String): OverflowPolicy {
+            return when (value.trim().lowercase().replace('_', '-')) {
+                "drop-newest" -> DROP_NEWEST
+                "block", "block-with-timeout" -> BLOCK
+                else -> DROP_OLDEST
+            }
+        }
+    }
+}
+
+/**
+ * A single frame waiting to be written by the sender thread
+ * The timestamp is captured when the event fires, not when it is sent
+ * Event payloads normally arrive pre-encoded, as JSON text (encodedData) or as CBOR (encodedCbor) while the
+ * connection is on a CBOR subprotocol; data is used for acks and legacy callers
+ * Acks carry the System.nanoTime() at which their command arrived, for the ack latency histogram
+ * frame is a finished envelope or batch frame that an event lane could not send and handed back
+ * onSettled runs once the sender has sent, spooled or dropped the message, so the lane knows when it may resume
+ */
+class OutboundMessage(
+    val eventType: String,
+    val data: JsonObject?,
+    val replyTo: String? = null,
+    val timestamp: Long = System.currentTimeMillis() / 1000,
+    val encodedData: String? = null,
+    val receivedAtNanos: Long = 0,
+    val frame: Frame? = null,
+    val onSettled: (() -> Unit)? = null,
+    val encodedCbor: ByteArray? = null
+) {
+
+    /**
+     * Stream the JSON wire envelope for this message
+     */
+    fun encode(gson: Gson): String {
+        return EventJson.write { writer ->
+            writer.beginObject()
+            writer.name("eventType").value(eventType)
+            replyTo?.let { writer.name("replyTo").value(it) }
+            writer.name("data")
+            when {
+                encodedData != null -> writer.jsonValue(encodedData)
+                encodedCbor != null -> writer.jsonValue(CborCodec.toJson(encodedCbor))
+                data != null -> gson.toJson(data, writer)
+                else -> writer.beginObject().endObject()
+            }
+            writer.name("timestamp").value(timestamp)
+            writer.endObject()
+        }
+    }
+
+    /**
+     * Append the CBOR wire envelope around the CBOR payload; only for messages with encodedCbor
+     * internStrings writes the event type as a SharedStrings reference, like the payload's repeating values
+     */
+    fun encodeCbor(out: ByteSink, internStrings: Boolean = false) {
+        val payload = checkNotNull(encodedCbor) { "$eventType has no CBOR payload" }
+        out.write(CborCodec.BEGIN_MAP)
+        CborCodec.writeKey("eventType", out)
+        if (internStrings) {
+            CborCodec.writeShared(eventType, out)
+        } else {
+            CborCodec.writeText(eventType, out)
+        }
+        replyTo?.let {
+            CborCodec.writeKey("replyTo", out)
+            CborCodec.writeText(it, out)
+        }
+        CborCodec.writeKey("data", out)
+        out.write(payload, 0, payload.size)
+        CborCodec.writeKey("timestamp", out)
+        CborCodec.writeInteger(timestamp, out)
+        out.write(CborCodec.BREAK)
+    }
+}
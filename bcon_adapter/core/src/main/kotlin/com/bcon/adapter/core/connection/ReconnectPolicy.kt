@@ -0,0 +1,99 @@
+package com.bcon.adapter.core.connection
+
+import kotlin.random.Random
+
+/**
+ * Reconnect timing: decorrelated-jitter exponential backoff behind a circuit breaker
+ * Each failure waits a random time between baseDelayMs and three times the previous wait, capped at
+ * maxDelayMs, so a fleet of adapters spreads out instead of reconnecting in lockstep after a server restart.
+ * After failureThreshold consecutive failures the breaker opens and no attempt is made for openMs; then a
+ * single half-open attempt is allowed, which either closes the breaker or opens it again.
+ * A connection only counts as recovered once it has stayed up for stableMs, so a server that accepts and
+ * immediately drops connections keeps backing off instead of being retried at the base delay forever.
+ */
+class ReconnectPolicy(
+    private val baseDelayMs: Long,
+    private val maxDelayMs: Long,
+    private val failureThreshold: Int,
+    private val openMs: Long,
+    private val stableMs: Long,
+    private val clock: () -> Long = System::currentTimeMillis,
+    private val random: Random = Random.Default
+) {
+
+    enum class BreakerState { CLOSED, OPEN, HALF_OPEN }
+
+    var breakerState = BreakerState.CLOSED
+        private set
+    var consecutiveFailures = 0
+        private set
+
+    private var previousDelay = baseDelayMs
+    private var openedAt = 0L
+    private var connectedAt = -1L
+
+    /**
+     * Whether a connect attempt may start now; an open breaker turns half-open once openMs has passed
+     */
+    @Synchronized
+    fun allowAttempt(): Boolean {
+        if (breakerState == BreakerState.OPEN) {
+            if (clock() - openedAt < openMs) {
+                return false
+            }
+            breakerState = BreakerState.HALF_OPEN
+        }
+        return true
+    }
+
+    /**
+     * Record an established connection
+     */
+    @Synchronized
+    fun onConnected() {
+        connectedAt = clock()
+        if (breakerState == BreakerState.HALF_OPEN) {
+            breakerState = BreakerState.CLOSED
+        }
+    }
+
+    /**
+     * Record a failed attempt or a lost connection and return how long to wait before the next attempt
+     */
+    @Synchronized
+    fun onFailure(): Long {
+        val now = clock()
+        if (connectedAt >= 0 && now - connectedAt >= stableMs) {
+            reset()
+        }
+        connectedAt = -1
+
+        consecutiveFailures++
+        if (breakerState == BreakerState.HALF_OPEN ||
+            (breakerState == BreakerState.CLOSED && consecutiveFailures >= failureThreshold)) {
+            breakerState = BreakerState.OPEN
+            openedAt = now
+        }
+
+        if (breakerState == BreakerState.OPEN) {
+            // Jitter the half-open probe as well so adapters don't all probe at the same moment
+            return (openedAt + openMs - now).coerceAtLeast(0) + random.nextLong(0, baseDelayMs + 1)
+        }
+
+        val upper = maxOf(baseDelayMs, previousDelay * 3)
+        val delay = minOf(maxDelayMs, random.nextLong(baseDelayMs, upper + 1))
+        previousDelay = delay
+        return delay
+    }
+
+    /**
+     * Forget all failures (used when the client is restarted on purpose)
+     */
+    @Synchronized
+    fun reset() {
+        breakerState = BreakerState.CLOSED
+        consecutiveFailures = 0
+        previousDelay = baseDelayMs
+        connectedAt = -1
+    }
+}
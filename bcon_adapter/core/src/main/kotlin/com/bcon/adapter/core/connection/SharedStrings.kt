@@ -0,0 +1,58 @@
+package com.bcon.adapter.core.connection
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Adapter-wide string table that event payloads reference while they are encoded on the worker threads
+ * Ids are handed out once, in order, and never change for the life of the process, so a payload can carry a
+ * reference before anyone knows which socket it will go out on. Each FrameWriter tracks how much of the table
+ * its server has seen and sends the missing definitions at the front of its next frame (see CborCodec);
+ * Frame.asText() resolves the references for JSON connections and the spool.
+ * Once maxEntries strings are known, new ones are sent as plain text.
+ */
+object SharedStrings {
+
+    const val MAX_ENTRIES = StringDictionary.DEFAULT_MAX_ENTRIES
+
+    private val ids = ConcurrentHashMap<String, Int>()
+    private val values = arrayOfNulls<String>(MAX_ENTRIES)
+    // Written after the value it makes visible, so readers below size() always see the entry
+    @Volatile
+    private var count = 0
+
+    /**
+     * Id of a string, assigning the next one on first use; -1 once the table is full
+     */
+    fun idOf(value: String): Int {
+        ids[value]?.let { return it }
+        if (count >= MAX_ENTRIES) {
+            return -1
+        }
+        synchronized(this) {
+            ids[value]?.let { return it }
+            if (count >= MAX_ENTRIES) {
+                return -1
+            }
+            val id = count
+            values[id] = value
+            count = id + 1
+            ids[value] = id
+            return id
+        }
+    }
+
+    /**
+     * String for an id handed out by idOf()
+     */
+    fun valueOf(id: Int): String {
+        if (id < 0 || id >= count) {
+            throw IllegalArgumentException("Undefined string id $id")
+        }
+        return values[id]!!
+    }
+
+    /**
+     * Number of strings known so far; every id below it stays valid
+     */
+    fun size(): Int = count
+}
@@ -0,0 +1,89 @@
+package com.bcon.adapter.core.connection
+
+/**
+ * Session-scoped dictionary for strings that repeat across events (dimensions, entity types, player names)
+ * The first time a value is sent on a connection it goes out as a definition carrying its id; after that only
+ * the id is sent. Both sides start empty on every connection, and the sender resets it whenever a frame may
+ * not have arrived so the next use of every string is a fresh definition. Ids are never reused for different
+ * strings within a session, and once maxEntries is reached new strings are simply sent as text.
+ * The encoding side is used from the sender thread only.
+ */
+class StringDictionary(private val maxEntries: Int = DEFAULT_MAX_ENTRIES) {
+
+    private val ids = HashMap<String, Int>()
+    private val values = ArrayList<String>()
+
+    /**
+     * Whether values of this object key are worth interning
+     */
+    fun interns(key: String): Boolean = isInterned(key)
+
+    /**
+     * Id of a string already sent on this connection, or -1
+     */
+    fun idOf(value: String): Int = ids[value] ?: -1
+
+    /**
+     * Assign the next id to a new string, or return -1 if the dictionary is full
+     */
+    fun define(value: String): Int {
+        if (values.size >= maxEntries) {
+            return -1
+        }
+        val id = values.size
+        values.add(value)
+        ids[value] = id
+        return id
+    }
+
+    /**
+     * Record a definition received from the other side
+     */
+    fun store(id: Int, value: String) {
+        when {
+            id < values.size -> {
+                ids.remove(values[id])
+                values[id] = value
+            }
+            id == values.size && id < maxEntries -> values.add(value)
+            else -> throw IllegalArgumentException("Out of sequence string id $id")
+        }
+        ids[value] = id
+    }
+
+    /**
+     * String for an id received from the other side
+     */
+    fun valueOf(id: Int): String {
+        return values.getOrNull(id) ?: throw IllegalArgumentException("Undefined string id $id")
+    }
+
+    fun size(): Int = values.size
+
+    fun reset() {
+        ids.clear()
+        values.clear()
+    }
+
+    companion object {
+        const val DEFAULT_MAX_ENTRIES = 4096
+
+        /**
+         * Whether values of this object key are worth interning, for encoders that have no dictionary at hand
+         */
+        fun isInterned(key: String): Boolean = key in INTERNED_KEYS
+
+        /**
+         * Keys whose string values come from a small, repeating set
+         * UUID-valued keys (playerId, entityId, attackerId, ...) are left out: every mob is a new value, and they
+         * would fill the dictionary within minutes and shut out the strings that actually repeat
+         */
+        private val INTERNED_KEYS = hashSetOf(
+            "eventType", "playerName", "entityType", "name",
+            "dimension", "dimensionKey", "worldName", "gameMode", "type", "blockType",
+            "attackerType", "ownerType", "merchantType",
+            "projectileType", "damageType", "healReason", "inventoryType", "inputType",
+            "lootTable", "weather", "difficultyLevel", "advancementId"
+        )
+    }
+}
@@ -0,0 +1,165 @@
+package com.bcon.adapter.core.events
+
+import com.google.gson.stream.JsonWriter
+import java.io.Writer
+
+/**
+ * Streaming JSON encoder for event payloads and envelopes
+ * Writes straight into a per-thread reusable buffer instead of building Gson trees.
+ * The writer is configured like Gson.toJson(JsonElement) (HTML-safe escaping, null members
+ * skipped, lenient numbers), so the output is byte-identical to the previous tree-based encoding.
+ */
+object EventJson {
+
+    private val buffers = ThreadLocal.withInitial { BufferWriter() }
+
+    /**
+     * Run the block against a fresh JsonWriter on this thread's buffer and return the encoded text
+     */
+    fun write(block: (JsonWriter) -> Unit): String {
+        val pooled = buffers.get()
+        // Re-entrant use on the same thread falls back to a private buffer
+        val buffer = if (pooled.inUse) BufferWriter() else pooled
+
+        buffer.inUse = true
+        try {
+            val writer = newWriter(buffer)
+            block(writer)
+            writer.flush()
+            return buffer.builder.toString()
+        } finally {
+            buffer.reset()
+        }
+    }
+
+    internal fun newWriter(out: Writer): JsonWriter {
+        val writer = JsonWriter(out)
+        writer.setHtmlSafe(true)
+        writer.setSerializeNulls(false)
+        writer.setLenient(true)
+        return writer
+    }
+}
+
+/**
+ * EventWriter for JSON text payloads, configured like [EventJson]
+ * Each worker thread keeps one, with its own buffer; forThread() starts a new payload on it.
+ */
+class JsonEventWriter private constructor() : EventWriter {
+
+    private val buffer = BufferWriter()
+    private var json = EventJson.newWriter(buffer)
+
+    /**
+     * The payload written since forThread()
+     */
+    fun toText(): String {
+        json.flush()
+        return buffer.builder.toString()
+    }
+
+    override fun beginObject(): EventWriter {
+        json.beginObject()
+        return this
+    }
+
+    override fun endObject(): EventWriter {
+        json.endObject()
+        return this
+    }
+
+    override fun beginArray(): EventWriter {
+        json.beginArray()
+        return this
+    }
+
+    override fun endArray(): EventWriter {
+        json.endArray()
+        return this
+    }
+
+    override fun name(name: String): EventWriter {
+        json.name(name)
+        return this
+    }
+
+    override fun value(value: String?): EventWriter {
+        json.value(value)
+        return this
+    }
+
+    override fun value(value: Boolean): EventWriter {
+        json.value(value)
+        return this
+    }
+
+    override fun value(value: Long): EventWriter {
+        json.value(value)
+        return this
+    }
+
+    override fun value(value: Double): EventWriter {
+        json.value(value)
+        return this
+    }
+
+    private fun reset() {
+        buffer.reset()
+        // A JsonWriter can't be rewound, and one left mid-payload by a failed encode must not be reused
+        json = EventJson.newWriter(buffer)
+    }
+
+    companion object {
+        private val writers = ThreadLocal.withInitial { JsonEventWriter() }
+
+        /**
+         * This thread's writer, emptied for a new payload
+         */
+        fun forThread(): JsonEventWriter = writers.get().also { it.reset() }
+    }
+}
+
+/**
+ * Writer over a StringBuilder that is cleared, not reallocated, between events
+ */
+private class BufferWriter : Writer() {
+    var builder = StringBuilder(INITIAL_CAPACITY)
+        private set
+    var inUse = false
+
+    fun reset() {
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            // Don't pin a huge buffer after an unusually large payload (e.g. loot with many items)
+            builder = StringBuilder(INITIAL_CAPACITY)
+        } else {
+            builder.setLength(0)
+        }
+        inUse = false
+    }
+
+    override fun write(cbuf: CharArray, off: Int, len: Int) {
+        builder.append(cbuf, off, len)
+    }
+
+    override fun write(c: Int) {
+        builder.append(c.toChar())
+    }
+
+    override fun write(str: String, off: Int, len: Int) {
+        builder.append(str, off, off + len)
+    }
+
+    override fun append(csq: CharSequence?): Writer {
+        builder.append(csq)
+        return this
+    }
+
+    override fun flush() {}
+
+    override fun close() {}
+
+    companion object {
+        private const val INITIAL_CAPACITY = 1024
+        private const val MAX_RETAINED_CAPACITY = 64 * 1024
+    }
+}
@@ -0,0 +1,53 @@
+package com.bcon.adapter.core.events
+
+import kotlin.math.floor
+
+/**
+ * Primitive subject keys for events
+ * A key names what an event is about (a player, an entity, a block) so dedup windows, worker stripes and
+ * event lanes can tell subjects apart. Keys are longs hashed straight from the snapshot fields, so working
+ * one out on the game thread allocates nothing.
+ */
+object EventKeys {
+
+    /**
+     * Key of events without a subject
+     */
+    const val NONE = 0L
+
+    private const val FNV_OFFSET = -0x340d631b7bdddcdbL
+    private const val FNV_PRIME = 0x100000001b3L
+    private const val GOLDEN = -0x61c8864680b583ebL
+
+    /**
+     * Key for a UUID or other identifier (64-bit FNV-1a over its chars)
+     */
+    fun of(id: String): Long {
+        var hash = FNV_OFFSET
+        for (i in id.indices) {
+            hash = (hash xor id[i].code.toLong()) * FNV_PRIME
+        }
+        return if (hash == NONE) 1L else hash
+    }
+
+    /**
+     * Key for the block at a location: its coordinates packed like a block position, mixed with the dimension
+     */
+    fun of(location: Location): Long {
+        val packed = ((floor(location.x).toLong() and 0x3FFFFFF) shl 38) or
+            ((floor(location.z).toLong() and 0x3FFFFFF) shl 12) or
+            (floor(location.y).toLong() and 0xFFF)
+        val key = packed xor of(location.dimension)
+        return if (key == NONE) 1L else key
+    }
+
+    /**
+     * Which of count stripes (or lanes) owns a key; keyless events all share the first one
+     */
+    fun stripe(key: Long, count: Int): Int {
+        if (key == NONE || count <= 1) {
+            return 0
+        }
+        return ((key * GOLDEN) ushr 33).toInt() % count
+    }
+}
@@ -1,551 +1,646 @@
 package com.bcon.adapter.core.events
 
 import com.bcon.adapter.core.BconAdapter
-import com.google.gson.JsonObject
+import com.bcon.adapter.core.connection.CborEventWriter
 
 /**
  * Event management system for Bcon adapter
  * Provides standardized event data serialization and dispatch
+ * Payloads are streamed through an [EventWriter] rather than built as Gson trees: straight into JSON text, or
+ * straight into CBOR while the connection uses CBOR frames, so neither format is transcoded from the other.
+ * Platform listeners only build the immutable *Data snapshots on the game thread; encoding runs on [EventWorkers].
  */
-class EventManager(private val adapter: BconAdapter) {
+class EventManager(
+    private val adapter: BconAdapter,
+    private val workers: EventWorkers = EventWorkers(0, 1)
+) {
     
     private val logger = adapter.logger
     
+    /**
+     * Per-event-type filters; configured from BconConfig by the adapter
+     */
+    val policies = EventPolicyEngine()
+    
+    /**
+     * Whether payloads are written as CBOR; set by the connection when it negotiates its frame format
+     */
+    @Volatile
+    var binaryPayloads = false
+    
+    /**
+     * Whether CBOR payloads reference repeating values (dimensions, types, names) in the shared string table
+     */
+    @Volatile
+    var internStrings = false
+    
+    init {
+        adapter.metrics.registry.counter(
+            "bcon_event_encodes_dropped_total", "Events dropped because their encode worker's queue was full"
+        ) { workers.dropped() }
+    }
+    
+    /**
+     * Whether events of this type are enabled, so listeners can skip building snapshots
+     */
+    fun wants(eventType: String): Boolean = policies.wants(eventType)
+    
     // Server Events
     
     fun onServerStarting() {
         logger.info("Server starting")
-        adapter.sendEvent("server_starting", null)
+        send("server_starting")
     }
     
     fun onServerStarted() {
         logger.info("Server started")
-        adapter.sendEvent("server_started", null)
+        send("server_started")
     }
     
     fun onServerStopping() {
         logger.info("Server stopping")
-        adapter.sendEvent("server_stopping", null)
+        send("server_stopping")
     }
     
     fun onServerStopped() {
         logger.info("Server stopped")
-        adapter.sendEvent("server_stopped", null)
+        send("server_stopped")
     }
     
     fun onServerBeforeSave() {
-        adapter.sendEvent("server_before_save", null)
+        send("server_before_save")
     }
     
     fun onServerAfterSave() {
-        adapter.sendEvent("server_after_save", null)
+        send("server_after_save")
     }
     
     fun onDataPackReloadStart() {
-        adapter.sendEvent("data_pack_reload_start", null)
+        send("data_pack_reload_start")
     }
     
     fun onDataPackReloadEnd(success: Boolean) {
-        val data = JsonObject().apply {
-            addProperty("success", success)
+        emit("data_pack_reload_end") {
+            it.name("success").value(success)
         }
-        adapter.sendEvent("data_pack_reload_end", data)
     }
     
     // Player Events
     
     fun onPlayerJoined(player: PlayerData) {
-        val data = serializePlayer(player)
-        adapter.sendEvent("player_joined", data)
+        emit("player_joined", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+        }
         logger.info("Player joined: ${player.name}")
     }
     
     fun onPlayerLeft(player: PlayerData) {
-        val data = serializePlayer(player)
-        adapter.sendEvent("player_left", data)
+        emit("player_left", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+        }
         logger.info("Player left: ${player.name}")
     }
     
     fun onPlayerConnectionInit(player: PlayerData) {
-        val data = JsonObject().apply {
-            addProperty("playerId", player.uuid)
-            addProperty("playerName", player.name)
+        emit("player_connection_init", { EventKeys.of(player.uuid) }) {
+            it.name("playerId").value(player.uuid)
+            it.name("playerName").value(player.name)
         }
-        adapter.sendEvent("player_connection_init", data)
     }
     
     fun onPlayerRespawned(@Suppress("UNUSED_PARAMETER") oldPlayer: PlayerData, newPlayer: PlayerData, alive: Boolean) {
-        val data = JsonObject().apply {
-            addProperty("playerId", newPlayer.uuid)
-            addProperty("playerName", newPlayer.name)
-            addProperty("alive", alive)
-            addProperty("x", newPlayer.location.x)
-            addProperty("y", newPlayer.location.y)
-            addProperty("z", newPlayer.location.z)
-            addProperty("dimension", newPlayer.location.dimension)
+        emit("player_respawned", { EventKeys.of(newPlayer.uuid) }) {
+            it.name("playerId").value(newPlayer.uuid)
+            it.name("playerName").value(newPlayer.name)
+            it.name("alive").value(alive)
+            it.name("x").value(newPlayer.location.x)
+            it.name("y").value(newPlayer.location.y)
+            it.name("z").value(newPlayer.location.z)
+            it.name("dimension").value(newPlayer.location.dimension)
         }
-        adapter.sendEvent("player_respawned", data)
     }
     
     fun onPlayerDeath(player: PlayerData, deathMessage: String?, attacker: EntityData?) {
-        val data = serializePlayer(player).apply {
-            deathMessage?.let { addProperty("deathMessage", it) }
-            attacker?.let { 
-                addProperty("attackerId", it.uuid)
-                addProperty("attackerType", it.type)
+        emit("player_death", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            deathMessage?.let { message -> it.name("deathMessage").value(message) }
+            attacker?.let { attackerData ->
+                it.name("attackerId").value(attackerData.uuid)
+                it.name("attackerType").value(attackerData.type)
             }
         }
-        adapter.sendEvent("player_death", data)
         logger.info("Player death: ${player.name}")
     }
     
     fun onPlayerBreakBlockBefore(player: PlayerData, block: BlockData) {
-        val data = serializeBlockEvent(player, block)
-        adapter.sendEvent("player_break_block_before", data)
+        emit("player_break_block_before", { EventKeys.of(player.uuid) }) {
+            it.writeBlockEventFields(player, block)
+        }
     }
     
     fun onPlayerBreakBlockAfter(player: PlayerData, block: BlockData) {
-        val data = serializeBlockEvent(player, block)
-        adapter.sendEvent("player_break_block_after", data)
+        emit("player_break_block_after", { EventKeys.of(player.uuid) }) {
+            it.writeBlockEventFields(player, block)
+        }
     }
     
     fun onPlayerChat(player: PlayerData, message: String) {
-        val data = JsonObject().apply {
-            addProperty("playerId", player.uuid)
-            addProperty("playerName", player.name)
-            addProperty("message", message)
+        emit("player_chat", { EventKeys.of(player.uuid) }) {
+            it.name("playerId").value(player.uuid)
+            it.name("playerName").value(player.name)
+            it.name("message").value(message)
         }
-        adapter.sendEvent("player_chat", data)
     }
     
     // Entity Events
     
     fun onEntityDeath(killer: EntityData?, killed: EntityData, deathMessage: String?) {
-        val data = JsonObject().apply {
-            add("killedEntity", serializeEntity(killed))
-            killer?.let { add("killer", serializeEntity(it)) }
-            deathMessage?.let { addProperty("deathMessage", it) }
+        emit("entity_death", { EventKeys.of(killed.uuid) }) {
+            it.name("killedEntity").writeEntity(killed)
+            killer?.let { killerData -> it.name("killer").writeEntity(killerData) }
+            deathMessage?.let { message -> it.name("deathMessage").value(message) }
         }
-        adapter.sendEvent("entity_death", data)
     }
     
     fun onProjectileKill(projectile: ProjectileData, target: EntityData) {
-        val data = JsonObject().apply {
-            addProperty("projectileType", projectile.type)
-            projectile.owner?.let {
-                addProperty("ownerId", it.uuid)
-                addProperty("ownerType", it.type)
+        emit("projectile_kill", { EventKeys.of(target.uuid) }) {
+            it.name("projectileType").value(projectile.type)
+            projectile.owner?.let { owner ->
+                it.name("ownerId").value(owner.uuid)
+                it.name("ownerType").value(owner.type)
             }
-            add("target", serializeEntity(target))
+            it.name("target").writeEntity(target)
         }
-        adapter.sendEvent("projectile_kill", data)
     }
     
     // World Events
     
     fun onWorldLoad(world: WorldData) {
-        val data = serializeWorld(world)
-        adapter.sendEvent("world_load", data)
+        emit("world_load") {
+            it.writeWorldFields(world)
+        }
         logger.info("World loaded: ${world.name}")
     }
     
     fun onWorldUnload(world: WorldData) {
-        val data = serializeWorld(world)
-        adapter.sendEvent("world_unload", data)
+        emit("world_unload") {
+            it.writeWorldFields(world)
+        }
         logger.info("World unloaded: ${world.name}")
     }
     
     // Interaction Events
     
     fun onMerchantInteraction(player: PlayerData, merchant: EntityData) {
-        val data = JsonObject().apply {
-            addProperty("playerId", player.uuid)
-            addProperty("merchantId", merchant.uuid)
-            addProperty("merchantType", merchant.type)
+        emit("merchant_interaction", { EventKeys.of(player.uuid) }) {
+            it.name("playerId").value(player.uuid)
+            it.name("merchantId").value(merchant.uuid)
+            it.name("merchantType").value(merchant.type)
         }
-        adapter.sendEvent("merchant_interaction", data)
     }
     
     fun onRedstoneUpdate(location: Location, power: Int) {
-        val data = JsonObject().apply {
-            addProperty("x", location.x)
-            addProperty("y", location.y)
-            addProperty("z", location.z)
-            addProperty("dimension", location.dimension)
-            addProperty("power", power)
+        emit("redstone_update", { EventKeys.of(location) }) {
+            it.writeLocationFields(location, "x", "y", "z", "dimension")
+            it.name("power").value(power.toLong())
         }
-        adapter.sendEvent("redstone_update", data)
     }
     
     // Advancement Events
     
     fun onAdvancementComplete(player: PlayerData, advancement: AdvancementData) {
-        val data = JsonObject().apply {
-            addProperty("playerId", player.uuid)
-            addProperty("playerName", player.name)
-            addProperty("advancementId", advancement.id)
-            addProperty("title", advancement.title)
+        emit("advancement_complete", { EventKeys.of(player.uuid) }) {
+            it.name("playerId").value(player.uuid)
+            it.name("playerName").value(player.name)
+            it.name("advancementId").value(advancement.id)
+            it.name("title").value(advancement.title)
         }
-        adapter.sendEvent("advancement_complete", data)
     }
     
     // Command Events
     
     fun onCommandMessage(sender: String, message: String) {
-        val data = JsonObject().apply {
-            addProperty("sender", sender)
-            addProperty("message", message)
+        emit("command_message") {
+            it.name("sender").value(sender)
+            it.name("message").value(message)
         }
-        adapter.sendEvent("command_message", data)
     }
     
     // Fishing Events
     
     fun onPlayerFishingCast(player: PlayerData, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
-            addProperty("hookDimension", hook.location.dimension)
-            addProperty("inOpenWater", hook.inOpenWater)
-            addProperty("waitTime", hook.waitTime)
+        emit("player_fishing_cast", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.writeLocationFields(hook.location, "hookX", "hookY", "hookZ", "hookDimension")
+            it.name("inOpenWater").value(hook.inOpenWater)
+            it.name("waitTime").value(hook.waitTime.toLong())
         }
-        adapter.sendEvent("player_fishing_cast", data)
     }
     
     fun onPlayerFishCaught(player: PlayerData, fish: EntityData, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            add("fish", serializeEntity(fish))
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
-            addProperty("hookDimension", hook.location.dimension)
-            addProperty("inOpenWater", hook.inOpenWater)
+        emit("player_fish_caught", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("fish").writeEntity(fish)
+            it.writeLocationFields(hook.location, "hookX", "hookY", "hookZ", "hookDimension")
+            it.name("inOpenWater").value(hook.inOpenWater)
         }
-        adapter.sendEvent("player_fish_caught", data)
     }
     
     fun onPlayerEntityHooked(player: PlayerData, entity: EntityData, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            add("hookedEntity", serializeEntity(entity))
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
-            addProperty("hookDimension", hook.location.dimension)
+        emit("player_entity_hooked", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("hookedEntity").writeEntity(entity)
+            it.writeLocationFields(hook.location, "hookX", "hookY", "hookZ", "hookDimension")
         }
-        adapter.sendEvent("player_entity_hooked", data)
     }
     
     fun onPlayerFishingGrounded(player: PlayerData, location: Location, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            addProperty("groundX", location.x)
-            addProperty("groundY", location.y)
-            addProperty("groundZ", location.z)
-            addProperty("groundDimension", location.dimension)
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
+        emit("player_fishing_grounded", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.writeLocationFields(location, "groundX", "groundY", "groundZ", "groundDimension")
+            it.name("hookX").value(hook.location.x)
+            it.name("hookY").value(hook.location.y)
+            it.name("hookZ").value(hook.location.z)
         }
-        adapter.sendEvent("player_fishing_grounded", data)
     }
     
     fun onPlayerFishEscape(player: PlayerData, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
-            addProperty("hookDimension", hook.location.dimension)
+        emit("player_fish_escape", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.writeLocationFields(hook.location, "hookX", "hookY", "hookZ", "hookDimension")
         }
-        adapter.sendEvent("player_fish_escape", data)
     }
     
     fun onPlayerFishingReelIn(player: PlayerData, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
-            addProperty("hookDimension", hook.location.dimension)
+        emit("player_fishing_reel_in", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.writeLocationFields(hook.location, "hookX", "hookY", "hookZ", "hookDimension")
         }
-        adapter.sendEvent("player_fishing_reel_in", data)
     }
     
     fun onPlayerFishBite(player: PlayerData, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
-            addProperty("hookDimension", hook.location.dimension)
-            addProperty("waitTime", hook.waitTime)
+        emit("player_fish_bite", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.writeLocationFields(hook.location, "hookX", "hookY", "hookZ", "hookDimension")
+            it.name("waitTime").value(hook.waitTime.toLong())
         }
-        adapter.sendEvent("player_fish_bite", data)
     }
     
     fun onPlayerFishLured(player: PlayerData, hook: FishHookData) {
-        val data = serializePlayer(player).apply {
-            addProperty("hookX", hook.location.x)
-            addProperty("hookY", hook.location.y)
-            addProperty("hookZ", hook.location.z)
-            addProperty("hookDimension", hook.location.dimension)
-            addProperty("inOpenWater", hook.inOpenWater)
+        emit("player_fish_lured", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.writeLocationFields(hook.location, "hookX", "hookY", "hookZ", "hookDimension")
+            it.name("inOpenWater").value(hook.inOpenWater)
         }
-        adapter.sendEvent("player_fish_lured", data)
     }
     
     fun onPlayerBucketEntity(player: PlayerData, entity: EntityData, bucket: ItemData) {
-        val data = serializePlayer(player).apply {
-            add("entity", serializeEntity(entity))
-            add("bucket", serializeItem(bucket))
+        emit("player_bucket_entity", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("entity").writeEntity(entity)
+            it.name("bucket").writeItem(bucket)
         }
-        adapter.sendEvent("player_bucket_entity", data)
     }
     
     // Breeding Events
     
     fun onEntityStartBreeding(mother: EntityData, father: EntityData, breeder: PlayerData?, offspring: EntityData?) {
-        val data = JsonObject().apply {
-            add("mother", serializeEntity(mother))
-            add("father", serializeEntity(father))
-            breeder?.let { add("breeder", serializePlayer(it)) }
-            offspring?.let { add("offspring", serializeEntity(it)) }
+        emit("entity_start_breeding", { EventKeys.of(mother.uuid) }) {
+            it.name("mother").writeEntity(mother)
+            it.name("father").writeEntity(father)
+            breeder?.let { breederData -> it.name("breeder").writePlayer(breederData) }
+            offspring?.let { offspringData -> it.name("offspring").writeEntity(offspringData) }
         }
-        adapter.sendEvent("entity_start_breeding", data)
     }
     
     fun onEntityEnterLoveMode(entity: EntityData, cause: PlayerData?) {
-        val data = JsonObject().apply {
-            add("entity", serializeEntity(entity))
-            cause?.let { add("cause", serializePlayer(it)) }
+        emit("entity_enter_love_mode", { EventKeys.of(entity.uuid) }) {
+            it.name("entity").writeEntity(entity)
+            cause?.let { causeData -> it.name("cause").writePlayer(causeData) }
         }
-        adapter.sendEvent("entity_enter_love_mode", data)
     }
     
     // Enhanced Entity Events
     
     fun onEntityDamage(entity: EntityData, damage: Double, damageType: String, damageSource: EntityData?) {
-        val data = JsonObject().apply {
-            add("entity", serializeEntity(entity))
-            addProperty("damage", damage)
-            addProperty("damageType", damageType)
-            damageSource?.let { add("damageSource", serializeEntity(it)) }
+        emit("entity_damage", { EventKeys.of(entity.uuid) }) {
+            it.name("entity").writeEntity(entity)
+            it.name("damage").value(damage)
+            it.name("damageType").value(damageType)
+            damageSource?.let { source -> it.name("damageSource").writeEntity(source) }
         }
-        adapter.sendEvent("entity_damage", data)
     }
     
     fun onEntityHeal(entity: EntityData, healAmount: Double, healReason: String) {
-        val data = JsonObject().apply {
-            add("entity", serializeEntity(entity))
-            addProperty("healAmount", healAmount)
-            addProperty("healReason", healReason)
+        emit("entity_heal", { EventKeys.of(entity.uuid) }) {
+            it.name("entity").writeEntity(entity)
+            it.name("healAmount").value(healAmount)
+            it.name("healReason").value(healReason)
         }
-        adapter.sendEvent("entity_heal", data)
     }
     
     fun onEntityMount(rider: EntityData, mount: EntityData) {
-        val data = JsonObject().apply {
-            add("rider", serializeEntity(rider))
-            add("mount", serializeEntity(mount))
+        emit("entity_mount", { EventKeys.of(rider.uuid) }) {
+            it.name("rider").writeEntity(rider)
+            it.name("mount").writeEntity(mount)
         }
-        adapter.sendEvent("entity_mount", data)
     }
     
     fun onEntityDismount(rider: EntityData, mount: EntityData) {
-        val data = JsonObject().apply {
-            add("rider", serializeEntity(rider))
-            add("mount", serializeEntity(mount))
+        emit("entity_dismount", { EventKeys.of(rider.uuid) }) {
+            it.name("rider").writeEntity(rider)
+            it.name("mount").writeEntity(mount)
         }
-        adapter.sendEvent("entity_dismount", data)
     }
     
     // Furnace Events
     
     fun onFurnaceSmelt(location: Location, source: ItemData, result: ItemData) {
-        val data = JsonObject().apply {
-            addProperty("x", location.x)
-            addProperty("y", location.y)
-            addProperty("z", location.z)
-            addProperty("dimension", location.dimension)
-            add("source", serializeItem(source))
-            add("result", serializeItem(result))
+        emit("furnace_smelt", { EventKeys.of(location) }) {
+            it.writeLocationFields(location, "x", "y", "z", "dimension")
+            it.name("source").writeItem(source)
+            it.name("result").writeItem(result)
         }
-        adapter.sendEvent("furnace_smelt", data)
     }
     
     fun onFurnaceBurn(location: Location, fuel: ItemData, burnTime: Int) {
-        val data = JsonObject().apply {
-            addProperty("x", location.x)
-            addProperty("y", location.y)
-            addProperty("z", location.z)
-            addProperty("dimension", location.dimension)
-            add("fuel", serializeItem(fuel))
-            addProperty("burnTime", burnTime)
+        emit("furnace_burn", { EventKeys.of(location) }) {
+            it.writeLocationFields(location, "x", "y", "z", "dimension")
+            it.name("fuel").writeItem(fuel)
+            it.name("burnTime").value(burnTime.toLong())
         }
-        adapter.sendEvent("furnace_burn", data)
     }
     
     fun onFurnaceExtract(player: PlayerData, location: Location, item: ItemData, experience: Int) {
-        val data = serializePlayer(player).apply {
-            addProperty("furnaceX", location.x)
-            addProperty("furnaceY", location.y)
-            addProperty("furnaceZ", location.z)
-            addProperty("furnaceDimension", location.dimension)
-            add("item", serializeItem(item))
-            addProperty("experience", experience)
+        emit("furnace_extract", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.writeLocationFields(location, "furnaceX", "furnaceY", "furnaceZ", "furnaceDimension")
+            it.name("item").writeItem(item)
+            it.name("experience").value(experience.toLong())
         }
-        adapter.sendEvent("furnace_extract", data)
     }
     
     fun onFurnaceStartSmelt(location: Location, source: ItemData, totalCookTime: Int) {
-        val data = JsonObject().apply {
-            addProperty("x", location.x)
-            addProperty("y", location.y)
-            addProperty("z", location.z)
-            addProperty("dimension", location.dimension)
-            add("source", serializeItem(source))
-            addProperty("totalCookTime", totalCookTime)
+        emit("furnace_start_smelt", { EventKeys.of(location) }) {
+            it.writeLocationFields(location, "x", "y", "z", "dimension")
+            it.name("source").writeItem(source)
+            it.name("totalCookTime").value(totalCookTime.toLong())
         }
-        adapter.sendEvent("furnace_start_smelt", data)
     }
     
     // Inventory Events
     
     fun onPlayerInventoryOpen(player: PlayerData, inventoryType: String, location: Location?) {
-        val data = serializePlayer(player).apply {
-            addProperty("inventoryType", inventoryType)
-            location?.let {
-                addProperty("inventoryX", it.x)
-                addProperty("inventoryY", it.y)
-                addProperty("inventoryZ", it.z)
-                addProperty("inventoryDimension", it.dimension)
+        emit("player_inventory_open", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("inventoryType").value(inventoryType)
+            location?.let { inventoryLocation ->
+                it.writeLocationFields(inventoryLocation, "inventoryX", "inventoryY", "inventoryZ", "inventoryDimension")
             }
         }
-        adapter.sendEvent("player_inventory_open", data)
     }
     
     fun onPlayerInventoryClose(player: PlayerData, inventoryType: String) {
-        val data = serializePlayer(player).apply {
-            addProperty("inventoryType", inventoryType)
+        emit("player_inventory_close", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("inventoryType").value(inventoryType)
         }
-        adapter.sendEvent("player_inventory_close", data)
     }
     
     fun onPlayerItemDrop(player: PlayerData, item: ItemData, location: Location) {
-        val data = serializePlayer(player).apply {
-            add("item", serializeItem(item))
-            addProperty("dropX", location.x)
-            addProperty("dropY", location.y)
-            addProperty("dropZ", location.z)
-            addProperty("dropDimension", location.dimension)
+        emit("player_item_drop", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("item").writeItem(item)
+            it.writeLocationFields(location, "dropX", "dropY", "dropZ", "dropDimension")
         }
-        adapter.sendEvent("player_item_drop", data)
     }
     
     fun onPlayerItemPickup(player: PlayerData, item: ItemData, location: Location) {
-        val data = serializePlayer(player).apply {
-            add("item", serializeItem(item))
-            addProperty("pickupX", location.x)
-            addProperty("pickupY", location.y)
-            addProperty("pickupZ", location.z)
-            addProperty("pickupDimension", location.dimension)
+        emit("player_item_pickup", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("item").writeItem(item)
+            it.writeLocationFields(location, "pickupX", "pickupY", "pickupZ", "pickupDimension")
         }
-        adapter.sendEvent("player_item_pickup", data)
     }
     
     // Advanced Events (Version Dependent)
     
     fun onLootGenerate(location: Location, lootTable: String, items: List<ItemData>, entity: EntityData?) {
-        val data = JsonObject().apply {
-            addProperty("x", location.x)
-            addProperty("y", location.y)
-            addProperty("z", location.z)
-            addProperty("dimension", location.dimension)
-            addProperty("lootTable", lootTable)
-            val itemsArray = com.google.gson.JsonArray().apply {
-                items.forEach { add(serializeItem(it)) }
-            }
-            add("items", itemsArray)
-            entity?.let { add("entity", serializeEntity(it)) }
+        emit("loot_generate", { EventKeys.of(lootTable) }) {
+            it.writeLocationFields(location, "x", "y", "z", "dimension")
+            it.name("lootTable").value(lootTable)
+            it.name("items").beginArray()
+            items.forEach { item -> it.writeItem(item) }
+            it.endArray()
+            entity?.let { entityData -> it.name("entity").writeEntity(entityData) }
         }
-        adapter.sendEvent("loot_generate", data)
     }
     
     fun onPlayerInput(player: PlayerData, keys: Set<String>, inputType: String) {
-        val data = serializePlayer(player).apply {
-            val keysArray = com.google.gson.JsonArray().apply {
-                keys.forEach { add(it) }
+        emit("player_input", { EventKeys.of(player.uuid) }) {
+            it.writePlayerFields(player)
+            it.name("keys").beginArray()
+            keys.forEach { key -> it.value(key) }
+            it.endArray()
+            it.name("inputType").value(inputType)
+        }
+    }
+    
+    // Telemetry
+    
+    /**
+     * Periodic server_stats event; performance is null when the platform reports no tick data
+     */
+    fun onServerStats(performance: ServerPerformanceData?, jvm: JvmStatsData, adapterStats: AdapterStatsData) {
+        emit("server_stats") {
+            if (performance != null) {
+                performance.tps?.let { tps -> it.name("tps").value(tps) }
+                performance.mspt?.let { mspt ->
+                    it.name("mspt").beginObject()
+                    it.name("mean").value(mspt.mean)
+                    it.name("p50").value(mspt.p50)
+                    it.name("p95").value(mspt.p95)
+                    it.name("p99").value(mspt.p99)
+                    it.name("max").value(mspt.max)
+                    it.name("samples").value(mspt.samples)
+                    it.endObject()
+                }
+                it.name("worlds").beginArray()
+                performance.worlds.forEach { world ->
+                    it.beginObject()
+                    it.name("name").value(world.name)
+                    it.name("players").value(world.players)
+                    world.loadedChunks?.let { chunks -> it.name("loadedChunks").value(chunks) }
+                    world.entities?.let { entities -> it.name("entities").value(entities) }
+                    world.regionTps?.let { tps -> it.name("regionTps").value(tps) }
+                    it.endObject()
+                }
+                it.endArray()
+            }
+            it.name("jvm").beginObject()
+            it.name("heapUsed").value(jvm.heapUsed)
+            it.name("heapCommitted").value(jvm.heapCommitted)
+            it.name("heapMax").value(jvm.heapMax)
+            it.name("nonHeapUsed").value(jvm.nonHeapUsed)
+            it.name("gcCount").value(jvm.gcCount)
+            it.name("gcTimeMs").value(jvm.gcTimeMs)
+            it.name("gcCountDelta").value(jvm.gcCountDelta)
+            it.name("gcTimeMsDelta").value(jvm.gcTimeMsDelta)
+            it.name("threads").value(jvm.threads)
+            it.name("uptimeMs").value(jvm.uptimeMs)
+            if (jvm.systemLoadAverage >= 0) {
+                it.name("systemLoadAverage").value(jvm.systemLoadAverage)
             }
-            add("keys", keysArray)
-            addProperty("inputType", inputType)
+            it.endObject()
+            it.name("adapter").beginObject()
+            it.name("connected").value(adapterStats.connected)
+            it.name("queueDepth").value(adapterStats.queueDepth)
+            it.name("droppedEvents").value(adapterStats.droppedEvents)
+            it.name("spooledBytes").value(adapterStats.spooledBytes)
+            it.name("reconnects").value(adapterStats.reconnects)
+            it.name("ackLatencyP99Ms").value(adapterStats.ackLatencyP99Micros / 1000.0)
+            it.name("sendLatencyP99Ms").value(adapterStats.sendLatencyP99Micros / 1000.0)
+            it.name("serializationP99Ms").value(adapterStats.serializationP99Micros / 1000.0)
+            it.endObject()
         }
-        adapter.sendEvent("player_input", data)
     }
     
     // Serialization helpers
     
-    private fun serializePlayer(player: PlayerData): JsonObject {
-        return JsonObject().apply {
-            addProperty("playerId", player.uuid)
-            addProperty("playerName", player.name)
-            addProperty("x", player.location.x)
-            addProperty("y", player.location.y)
-            addProperty("z", player.location.z)
-            addProperty("dimension", player.location.dimension)
-            addProperty("health", player.health)
-            addProperty("maxHealth", player.maxHealth)
-            addProperty("level", player.level)
-            addProperty("gameMode", player.gameMode)
-        }
-    }
-    
-    private fun serializeEntity(entity: EntityData): JsonObject {
-        return JsonObject().apply {
-            addProperty("entityId", entity.uuid)
-            addProperty("entityType", entity.type)
-            addProperty("x", entity.location.x)
-            addProperty("y", entity.location.y)
-            addProperty("z", entity.location.z)
-            addProperty("dimension", entity.location.dimension)
-            entity.name?.let { addProperty("name", it) }
-        }
-    }
-    
-    private fun serializeWorld(world: WorldData): JsonObject {
-        return JsonObject().apply {
-            addProperty("worldName", world.name)
-            addProperty("dimensionKey", world.dimensionKey)
-            addProperty("time", world.time)
-            addProperty("difficultyLevel", world.difficulty)
-            addProperty("weather", world.weather)
-            addProperty("thundering", world.thundering)
-        }
-    }
-    
-    private fun serializeBlockEvent(player: PlayerData, block: BlockData): JsonObject {
-        return JsonObject().apply {
-            addProperty("playerId", player.uuid)
-            addProperty("playerName", player.name)
-            addProperty("x", block.location.x)
-            addProperty("y", block.location.y)
-            addProperty("z", block.location.z)
-            addProperty("dimension", block.location.dimension)
-            addProperty("blockType", block.type)
-            addProperty("blockData", block.data)
-        }
-    }
-    
-    private fun serializeItem(item: ItemData): JsonObject {
-        return JsonObject().apply {
-            addProperty("type", item.type)
-            addProperty("amount", item.amount)
-            item.displayName?.let { addProperty("displayName", it) }
-            item.lore?.let { 
-                val loreArray = it.toTypedArray()
-                add("lore", com.google.gson.JsonArray().apply {
-                    loreArray.forEach { loreItem -> add(loreItem) }
-                })
+    /**
+     * Send an event without data, subject to its policy
+     */
+    private fun send(eventType: String) {
+        if (policies.allow(eventType) { EventKeys.NONE }) {
+            adapter.sendEvent(eventType, null)
+        }
+    }
+    
+    private inline fun emit(eventType: String, crossinline fields: (EventWriter) -> Unit) {
+        emit(eventType, { EventKeys.NONE }, fields)
+    }
+    
+    /**
+     * Check the event's policy, then encode its data object on the subject's worker and hand it to the adapter
+     * Filtered events return before any serialization work; the timestamp is taken when the event fires
+     * The subject key is worked out once, inside the policy check when a dedup window needs it, and then
+     * picks the worker stripe and event lane
+     */
+    private inline fun emit(eventType: String, keyOf: () -> Long, crossinline fields: (EventWriter) -> Unit) {
+        var checkedKey = EventKeys.NONE
+        var keyed = false
+        if (!policies.allow(eventType) { checkedKey = keyOf(); keyed = true; checkedKey }) {
+            return
+        }
+        
+        val timestamp = System.currentTimeMillis() / 1000
+        val key = if (keyed) checkedKey else keyOf()
+        workers.execute(key) {
+            val started = System.nanoTime()
+            val cbor = if (binaryPayloads) CborEventWriter.forThread(internStrings) else null
+            val json = if (cbor == null) JsonEventWriter.forThread() else null
+            val writer: EventWriter = cbor ?: json!!
+            writer.beginObject()
+            fields(writer)
+            writer.endObject()
+            if (cbor != null) {
+                val data = cbor.toByteArray()
+                adapter.metrics.serializationTime.recordNanos(System.nanoTime() - started)
+                adapter.sendCborEvent(eventType, data, timestamp, key)
+            } else {
+                val data = json!!.toText()
+                adapter.metrics.serializationTime.recordNanos(System.nanoTime() - started)
+                adapter.sendEncodedEvent(eventType, data, timestamp, key)
             }
-            item.nbt?.let { addProperty("nbt", it) }
         }
     }
+    
+    /**
+     * Number of events waiting on the worker pool
+     */
+    fun pendingEncodes(): Int = workers.pending()
+    
+    /**
+     * Number of events dropped because the worker pool was saturated
+     */
+    fun droppedEncodes(): Long = workers.dropped()
+    
+    /**
+     * Finish encoding queued events before the connection is torn down
+     */
+    fun shutdown() {
+        workers.shutdown(2000)
+    }
+    
+    private fun EventWriter.writePlayer(player: PlayerData) {
+        beginObject()
+        writePlayerFields(player)
+        endObject()
+    }
+    
+    private fun EventWriter.writePlayerFields(player: PlayerData) {
+        name("playerId").value(player.uuid)
+        name("playerName").value(player.name)
+        name("x").value(player.location.x)
+        name("y").value(player.location.y)
+        name("z").value(player.location.z)
+        name("dimension").value(player.location.dimension)
+        name("health").value(player.health)
+        name("maxHealth").value(player.maxHealth)
+        name("level").value(player.level.toLong())
+        name("gameMode").value(player.gameMode)
+    }
+    
+    private fun EventWriter.writeEntity(entity: EntityData) {
+        beginObject()
+        name("entityId").value(entity.uuid)
+        name("entityType").value(entity.type)
+        name("x").value(entity.location.x)
+        name("y").value(entity.location.y)
+        name("z").value(entity.location.z)
+        name("dimension").value(entity.location.dimension)
+        entity.name?.let { name("name").value(it) }
+        endObject()
+    }
+    
+    private fun EventWriter.writeWorldFields(world: WorldData) {
+        name("worldName").value(world.name)
+        name("dimensionKey").value(world.dimensionKey)
+        name("time").value(world.time)
+        name("difficultyLevel").value(world.difficulty)
+        name("weather").value(world.weather)
+        name("thundering").value(world.thundering)
+    }
+    
+    private fun EventWriter.writeBlockEventFields(player: PlayerData, block: BlockData) {
+        name("playerId").value(player.uuid)
+        name("playerName").value(player.name)
+        writeLocationFields(block.location, "x", "y", "z", "dimension")
+        name("blockType").value(block.type)
+        // Null block data is omitted, matching the old tree encoding which skipped null members
+        name("blockData").value(block.data)
+    }
+    
+    private fun EventWriter.writeLocationFields(location: Location, xKey: String, yKey: String, zKey: String, dimensionKey: String) {
+        name(xKey).value(location.x)
+        name(yKey).value(location.y)
+        name(zKey).value(location.z)
+        name(dimensionKey).value(location.dimension)
+    }
+    
+    private fun EventWriter.writeItem(item: ItemData) {
+        beginObject()
+        name("type").value(item.type)
+        name("amount").value(item.amount.toLong())
+        item.displayName?.let { name("displayName").value(it) }
+        item.lore?.let { lore ->
+            name("lore").beginArray()
+            lore.forEach { loreItem -> value(loreItem) }
+            endArray()
+        }
+        item.nbt?.let { name("nbt").value(it) }
+        endObject()
+    }
 }
 
 // Data classes for event system
@@ -624,4 +719,82 @@ data class DamageSourceData(
     val isProjectile: Boolean = false,
     val isMagic: Boolean = false,
     val isExplosion: Boolean = false
-)
\ No newline at end of file
+)
+
+data class ServerPerformanceData(
+    val tps: Double?,
+    val mspt: MsptStats?,
+    val worlds: List<WorldStatsData>
+)
+
+/**
+ * Per-world counts; a platform leaves a value null when it can't read it safely from where it samples
+ */
+data class WorldStatsData(
+    val name: String,
+    val players: Int,
+    val loadedChunks: Int? = null,
+    val entities: Int? = null,
+    val regionTps: Double? = null
+)
+
+/**
+ * Milliseconds per tick over the platform's recent tick-time window
+ */
+data class MsptStats(
+    val mean: Double,
+    val p50: Double,
+    val p95: Double,
+    val p99: Double,
+    val max: Double,
+    val samples: Int
+) {
+    companion object {
+        /**
+         * Summarize a ring of tick durations in nanoseconds; slots the server hasn't filled yet (0) are skipped
+         */
+        fun fromTickTimes(tickTimesNanos: LongArray): MsptStats? {
+            val sorted = tickTimesNanos.filter { it > 0 }.sorted()
+            if (sorted.isEmpty()) {
+                return null
+            }
+            fun percentile(p: Double): Double {
+                val index = (Math.ceil(sorted.size * p / 100.0).toInt() - 1).coerceIn(0, sorted.size - 1)
+                return sorted[index] / 1_000_000.0
+            }
+            return MsptStats(
+                mean = sorted.average() / 1_000_000.0,
+                p50 = percentile(50.0),
+                p95 = percentile(95.0),
+                p99 = percentile(99.0),
+                max = sorted.last() / 1_000_000.0,
+                samples = sorted.size
+            )
+        }
+    }
+}
+
+data class JvmStatsData(
+    val heapUsed: Long,
+    val heapCommitted: Long,
+    val heapMax: Long,
+    val nonHeapUsed: Long,
+    val gcCount: Long,
+    val gcTimeMs: Long,
+    val gcCountDelta: Long,
+    val gcTimeMsDelta: Long,
+    val threads: Int,
+    val uptimeMs: Long,
+    val systemLoadAverage: Double
+)
+
+data class AdapterStatsData(
+    val connected: Boolean,
+    val queueDepth: Int,
+    val droppedEvents: Long,
+    val spooledBytes: Long,
+    val reconnects: Long,
+    val ackLatencyP99Micros: Long,
+    val sendLatencyP99Micros: Long,
+    val serializationP99Micros: Long
+)
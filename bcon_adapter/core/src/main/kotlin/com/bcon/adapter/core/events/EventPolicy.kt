@@ -0,0 +1,200 @@
+package com.bcon.adapter.core.events
+
+import com.google.gson.JsonObject
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Per-event-type filtering applied before any serialization work
+ * Combines the category switches from "eventFilters" with per-type rules from "eventPolicies":
+ *
+ *   "eventPolicies": {
+ *     "entity_damage": { "maxPerSecond": 50, "dedupWindowMs": 250 },
+ *     "redstone_update": { "enabled": false },
+ *     "player_input": { "sampleRate": 10 }
+ *   }
+ *
+ * Event types without a rule resolve to a shared pass-through policy, so the common case
+ * costs one map lookup.
+ */
+class EventPolicyEngine {
+
+    private val policies = ConcurrentHashMap<String, EventPolicy>()
+    @Volatile
+    private var eventFilters = JsonObject()
+    @Volatile
+    private var eventPolicies = JsonObject()
+    private val filtered = AtomicLong()
+
+    /**
+     * Whether events of this type are enabled at all (cheap pre-check for platform listeners)
+     */
+    fun wants(eventType: String): Boolean = policyFor(eventType).enabled
+
+    /**
+     * Decide whether one event may be sent
+     * keyOf gives the event's subject key (see EventKeys) and is only
+     * evaluated when the type has a dedup window
+     */
+    inline fun allow(eventType: String, keyOf: () -> Long): Boolean {
+        val policy = policyFor(eventType)
+        if (policy === EventPolicy.PASS_THROUGH) {
+            return true
+        }
+        return check(policy, if (policy.usesKey) keyOf() else EventKeys.NONE)
+    }
+
+    @PublishedApi
+    internal fun check(policy: EventPolicy, key: Long): Boolean {
+        val allowed = policy.allow(key, System.currentTimeMillis())
+        if (!allowed) {
+            filtered.incrementAndGet()
+        }
+        return allowed
+    }
+
+    /**
+     * Total number of events dropped by policies since startup
+     */
+    fun filteredCount(): Long = filtered.get()
+
+    /**
+     * Apply the "eventFilters" and "eventPolicies" config sections
+     * Resolved policies (and their rate/dedup state) are rebuilt on next use
+     */
+    fun configure(filters: JsonObject, rules: JsonObject) {
+        eventFilters = filters
+        eventPolicies = rules
+        policies.clear()
+    }
+
+    @PublishedApi
+    internal fun policyFor(eventType: String): EventPolicy {
+        return policies[eventType] ?: policies.computeIfAbsent(eventType) { resolve(it) }
+    }
+
+    private fun resolve(eventType: String): EventPolicy {
+        val categoryEnabled = categoryFilterKey(eventType)?.let { key ->
+            eventFilters.get(key)?.asBoolean ?: true
+        } ?: true
+
+        val rule = eventPolicies.get(eventType)?.takeIf { it.isJsonObject }?.asJsonObject
+        if (rule == null) {
+            return if (categoryEnabled) EventPolicy.PASS_THROUGH else EventPolicy.DISABLED
+        }
+
+        return EventPolicy(
+            enabled = categoryEnabled && (rule.get("enabled")?.asBoolean ?: true),
+            maxPerSecond = rule.doubleOrZero("maxPerSecond"),
+            sampleRate = rule.get("sampleRate")?.asInt?.coerceAtLeast(1) ?: 1,
+            dedupWindowMs = rule.get("dedupWindowMs")?.asLong?.coerceAtLeast(0) ?: 0
+        )
+    }
+
+    private fun JsonObject.doubleOrZero(name: String): Double {
+        return get(name)?.asDouble?.coerceAtLeast(0.0) ?: 0.0
+    }
+
+    companion object {
+        /**
+         * Map an event type to its "eventFilters" switch
+         */
+        fun categoryFilterKey(eventType: String): String? {
+            return when {
+                eventType.startsWith("server_") || eventType.startsWith("data_pack_") -> "enableServerEvents"
+                eventType.startsWith("world_") -> "enableWorldEvents"
+                eventType.startsWith("player_") || eventType == "advancement_complete" -> "enablePlayerEvents"
+                eventType.startsWith("entity_") || eventType == "projectile_kill" -> "enableEntityEvents"
+                eventType == "merchant_interaction" || eventType == "redstone_update" ||
+                    eventType.startsWith("furnace_") || eventType == "loot_generate" ||
+                    eventType == "command_message" -> "enableInteractionEvents"
+                else -> null
+            }
+        }
+    }
+}
+
+/**
+ * Resolved rule for a single event type
+ * A maxPerSecond or dedupWindowMs of 0 and a sampleRate of 1 disable that stage
+ */
+class EventPolicy(
+    val enabled: Boolean,
+    private val maxPerSecond: Double,
+    private val sampleRate: Int,
+    private val dedupWindowMs: Long
+) {
+
+    val usesKey: Boolean get() = dedupWindowMs > 0
+
+    private val sampleCounter = AtomicLong()
+    // Last accepted time per key, in insertion order: a key is re-inserted when its window restarts, so the head
+    // is always the oldest entry and expiry and overflow only ever look at the head
+    private val recentKeys = LinkedHashMap<Long, Long>()
+
+    // Token bucket, refilled lazily on each check
+    private val bucketLock = Any()
+    private var tokens = maxPerSecond.coerceAtLeast(1.0)
+    private var lastRefill = System.currentTimeMillis()
+
+    fun allow(key: Long, nowMs: Long): Boolean {
+        if (!enabled) {
+            return false
+        }
+
+        if (sampleRate > 1 && sampleCounter.getAndIncrement() % sampleRate != 0L) {
+            return false
+        }
+
+        if (dedupWindowMs > 0 && key != EventKeys.NONE && isDuplicate(key, nowMs)) {
+            return false
+        }
+
+        return maxPerSecond <= 0.0 || takeToken(nowMs)
+    }
+
+    private fun isDuplicate(key: Long, nowMs: Long): Boolean {
+        synchronized(recentKeys) {
+            val last = recentKeys[key]
+            if (last != null && nowMs - last < dedupWindowMs) {
+                return true
+            }
+            recentKeys.remove(key)
+            recentKeys[key] = nowMs
+
+            // Drop expired keys from the head; when every tracked key is still live, forget the oldest instead
+            val entries = recentKeys.entries.iterator()
+            while (entries.hasNext()) {
+                val eldest = entries.next()
+                if (nowMs - eldest.value < dedupWindowMs && recentKeys.size <= MAX_TRACKED_KEYS) {
+                    break
+                }
+                entries.remove()
+            }
+            return false
+        }
+    }
+
+    private fun takeToken(nowMs: Long): Boolean {
+        synchronized(bucketLock) {
+            val capacity = maxPerSecond.coerceAtLeast(1.0)
+            val elapsed = nowMs - lastRefill
+            if (elapsed > 0) {
+                tokens = (tokens + elapsed * maxPerSecond / 1000.0).coerceAtMost(capacity)
+                lastRefill = nowMs
+            }
+            if (tokens < 1.0) {
+                return false
+            }
+            tokens -= 1.0
+            return true
+        }
+    }
+
+    companion object {
+        private const val MAX_TRACKED_KEYS = 10_000
+
+        val PASS_THROUGH = EventPolicy(enabled = true, maxPerSecond = 0.0, sampleRate = 1, dedupWindowMs = 0)
+        val DISABLED = EventPolicy(enabled = false, maxPerSecond = 0.0, sampleRate = 1, dedupWindowMs = 0)
+    }
+}
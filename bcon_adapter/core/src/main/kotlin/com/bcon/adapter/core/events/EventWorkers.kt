@@ -0,0 +1,78 @@
+package com.bcon.adapter.core.events
+
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Small striped worker pool that encodes events off the game threads
+ * Each stripe is a single thread, and events for the same subject key (see EventKeys)
+ * always land on the same stripe, so their relative order is preserved.
+ * A saturated stripe drops the event and counts it; running it on the caller would put the encode back on the
+ * game thread and let it overtake events for the same subject still queued on the stripe.
+ * With zero threads the work runs inline on the caller, which is what tests use.
+ */
+class EventWorkers(threads: Int, queueCapacity: Int) {
+
+    private val dropped = LongAdder()
+
+    private val stripes: Array<ThreadPoolExecutor> = Array(threads.coerceAtLeast(0)) { index ->
+        ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            ArrayBlockingQueue(queueCapacity.coerceAtLeast(1)),
+            { r ->
+                Thread(r, "bcon-event-worker-$index").apply {
+                    isDaemon = true
+                }
+            },
+            { _, executor ->
+                // Tasks refused during shutdown are not overflow
+                if (!executor.isShutdown) {
+                    dropped.increment()
+                }
+            }
+        )
+    }
+
+    /**
+     * Run the task on the stripe owning this subject key
+     */
+    fun execute(key: Long, task: Runnable) {
+        if (stripes.isEmpty()) {
+            task.run()
+            return
+        }
+
+        stripes[EventKeys.stripe(key, stripes.size)].execute(task)
+    }
+
+    /**
+     * Number of events waiting to be encoded
+     */
+    fun pending(): Int = stripes.sumOf { it.queue.size }
+
+    /**
+     * Number of events dropped because their stripe's queue was full
+     */
+    fun dropped(): Long = dropped.sum()
+
+    /**
+     * Let queued events finish encoding, waiting at most timeoutMs
+     */
+    fun shutdown(timeoutMs: Long) {
+        stripes.forEach { it.shutdown() }
+        val deadline = System.currentTimeMillis() + timeoutMs
+        try {
+            for (stripe in stripes) {
+                val remaining = deadline - System.currentTimeMillis()
+                if (remaining <= 0 || !stripe.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                    stripe.shutdownNow()
+                }
+            }
+        } catch (e: InterruptedException) {
+            stripes.forEach { it.shutdownNow() }
+            Thread.currentThread().interrupt()
+        }
+    }
+}
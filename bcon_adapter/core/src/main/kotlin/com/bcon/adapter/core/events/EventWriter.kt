@@ -0,0 +1,30 @@
+package com.bcon.adapter.core.events
+
+/**
+ * Format-neutral sink the event field writers stream into
+ * Covers the part of Gson's JsonWriter that EventManager uses: [JsonEventWriter] produces JSON text payloads,
+ * CborEventWriter writes CBOR for binary connections directly, so neither format is built from the other.
+ * A null string value drops its name too, like the JSON encoding with serializeNulls off.
+ */
+interface EventWriter {
+
+    fun beginObject(): EventWriter
+
+    fun endObject(): EventWriter
+
+    fun beginArray(): EventWriter
+
+    fun endArray(): EventWriter
+
+    fun name(name: String): EventWriter
+
+    fun value(value: String?): EventWriter
+
+    fun value(value: Boolean): EventWriter
+
+    fun value(value: Long): EventWriter
+
+    fun value(value: Double): EventWriter
+
+    fun value(value: Int): EventWriter = value(value.toLong())
+}
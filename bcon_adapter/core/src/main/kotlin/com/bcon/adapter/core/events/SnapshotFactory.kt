@@ -0,0 +1,104 @@
+package com.bcon.adapter.core.events
+
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Builds PlayerData, EntityData and Location snapshots for a platform, caching the strings that rarely change
+ * Dimension names are cached per world object, registry names per type object and id/name strings per player,
+ * so a snapshot costs the data class allocations but no string building. A player's entry is replaced when
+ * their name changes and dropped by forgetPlayer on quit; forgetWorld drops an unloaded world.
+ * Safe to call from any thread (Folia region threads, Fabric mixins, Paper listeners).
+ */
+class SnapshotFactory<W : Any>(private val dimensionOf: (W) -> String) {
+
+    private val dimensions = ConcurrentHashMap<W, String>()
+    private val typeNames = ConcurrentHashMap<Any, String>()
+    private val players = ConcurrentHashMap<UUID, PlayerStrings>()
+
+    /**
+     * Dimension name of a world, computed once per world
+     */
+    fun dimension(world: W): String {
+        return dimensions[world] ?: dimensions.computeIfAbsent(world) { dimensionOf(it) }
+    }
+
+    /**
+     * Registry name of an entity, block or item type, computed once per type
+     */
+    fun <T : Any> typeName(type: T, nameOf: (T) -> String): String {
+        return typeNames[type] ?: typeNames.computeIfAbsent(type) { nameOf(type) }
+    }
+
+    /**
+     * UUID string of a player, cached until they quit
+     */
+    fun playerId(uuid: UUID, name: String): String = playerStrings(uuid, name).id
+
+    fun location(x: Double, y: Double, z: Double, world: W, yaw: Float = 0f, pitch: Float = 0f): Location {
+        return Location(x, y, z, dimension(world), yaw, pitch)
+    }
+
+    fun player(
+        uuid: UUID,
+        name: String,
+        world: W,
+        x: Double,
+        y: Double,
+        z: Double,
+        yaw: Float,
+        pitch: Float,
+        health: Double,
+        maxHealth: Double,
+        level: Int,
+        gameMode: String
+    ): PlayerData {
+        val strings = playerStrings(uuid, name)
+        return PlayerData(
+            uuid = strings.id,
+            name = strings.name,
+            location = Location(x, y, z, dimension(world), yaw, pitch),
+            health = health,
+            maxHealth = maxHealth,
+            level = level,
+            gameMode = gameMode
+        )
+    }
+
+    fun entity(id: String, type: String, world: W, x: Double, y: Double, z: Double, name: String? = null): EntityData {
+        return EntityData(id, type, Location(x, y, z, dimension(world)), name)
+    }
+
+    /**
+     * Drop a player's cached strings (on quit)
+     */
+    fun forgetPlayer(uuid: UUID) {
+        players.remove(uuid)
+    }
+
+    /**
+     * Drop a world's cached dimension name (on unload)
+     */
+    fun forgetWorld(world: W) {
+        dimensions.remove(world)
+    }
+
+    fun clear() {
+        dimensions.clear()
+        typeNames.clear()
+        players.clear()
+    }
+
+    private fun playerStrings(uuid: UUID, name: String): PlayerStrings {
+        val cached = players[uuid]
+        if (cached != null && (cached.name === name || cached.name == name)) {
+            return cached
+        }
+        // First sighting or renamed: the UUID string can be kept, only the name changed
+        val strings = PlayerStrings(cached?.id ?: uuid.toString(), name)
+        players[uuid] = strings
+        return strings
+    }
+
+    private class PlayerStrings(val id: String, val name: String)
+}
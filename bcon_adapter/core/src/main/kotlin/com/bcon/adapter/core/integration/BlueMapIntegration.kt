@@ -9,7 +9,7 @@ import java.util.concurrent.ConcurrentHashMap
  * Optional BlueMap integration for world visualization
  * Provides marker management and map interaction capabilities
  */
-class BlueMapIntegration(private val adapter: BconAdapter) {
+open class BlueMapIntegration(private val adapter: BconAdapter) {
     
     private val logger = adapter.logger
     private val gson = Gson()
@@ -0,0 +1,53 @@
+package com.bcon.adapter.core.metrics
+
+/**
+ * The adapter's own metrics, shared by the connection, event lanes, event manager and command path
+ * Everything lives in one [MetricsRegistry] so the status command, the metrics endpoint and telemetry events
+ * read the same numbers. Queue depth and drop totals are registered as suppliers by their owners.
+ */
+class AdapterMetrics(val registry: MetricsRegistry = MetricsRegistry()) {
+
+    val bytesSent = registry.counter("bcon_sent_bytes_total", "Bytes of frames written to the bcon server, after CBOR and compression")
+    val bytesReceived = registry.counter("bcon_received_bytes_total", "Characters of text frames received from the bcon server")
+    val reconnects = registry.counter("bcon_reconnects_total", "Connections established after the first one")
+    val connectionFailures = registry.counter("bcon_connection_failures_total", "Failed connect attempts and lost connections")
+
+    /**
+     * Time for one frame to be written to the socket, from the sender's point of view
+     */
+    val sendLatency = registry.histogram("bcon_frame_send_seconds", "Time to write one frame to the socket")
+
+    /**
+     * Time from receiving a command to its ack leaving the socket
+     */
+    val ackLatency = registry.histogram("bcon_ack_latency_seconds", "Time from receiving a command to its ack leaving the socket")
+
+    /**
+     * Time to stream one event's data object to JSON text
+     */
+    val serializationTime = registry.histogram("bcon_event_serialization_seconds", "Time to encode one event's data as JSON")
+
+    /**
+     * Count an event (or event_batch entry) handed to a socket or the spool
+     */
+    fun eventSent(eventType: String) {
+        registry.labeledCounter(EVENTS_SENT, "Events written to the connection or the spool, by type", "type", eventType).increment()
+    }
+
+    /**
+     * Time to run one incoming command, including the wait for the tick thread
+     */
+    fun recordCommand(commandType: String, nanos: Long) {
+        // The type comes from the server; unknown ones share a series so they can't grow the registry
+        val label = if (commandType in COMMAND_TYPES) commandType else "other"
+        registry.histogram(COMMAND_DURATION, "Time to execute an incoming command, by type", "type" to label).recordNanos(nanos)
+    }
+
+    companion object {
+        private const val EVENTS_SENT = "bcon_events_sent_total"
+        private const val COMMAND_DURATION = "bcon_command_duration_seconds"
+        private val COMMAND_TYPES = setOf(
+            "command", "command_batch", "chat", "register_command", "unregister_command", "clear_commands", "bluemap", "bcon_config"
+        )
+    }
+}
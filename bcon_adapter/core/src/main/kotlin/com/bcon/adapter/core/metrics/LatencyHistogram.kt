@@ -0,0 +1,100 @@
+package com.bcon.adapter.core.metrics
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets
+ * Bucket i counts samples below 2^i µs (the last bucket is open-ended), so percentiles are accurate to a
+ * factor of two, which is enough to tell a 2ms ack from a 200ms one at a glance. Recording is two atomic
+ * increments and can happen on any thread.
+ */
+class LatencyHistogram {
+
+    private val buckets = AtomicLongArray(BUCKETS)
+    private val count = AtomicLong()
+    private val totalMicros = AtomicLong()
+    private val maxMicros = AtomicLong()
+
+    fun recordNanos(nanos: Long) {
+        val micros = (nanos / 1000).coerceAtLeast(0)
+        val bucket = (64 - java.lang.Long.numberOfLeadingZeros(micros)).coerceAtMost(BUCKETS - 1)
+        buckets.incrementAndGet(bucket)
+        count.incrementAndGet()
+        totalMicros.addAndGet(micros)
+        maxMicros.accumulateAndGet(micros, ::maxOf)
+    }
+
+    fun count(): Long = count.get()
+
+    fun meanMicros(): Long {
+        val samples = count.get()
+        return if (samples == 0L) 0 else totalMicros.get() / samples
+    }
+
+    fun maxMicros(): Long = maxMicros.get()
+
+    fun sumMicros(): Long = totalMicros.get()
+
+    /**
+     * Upper bound in microseconds of the bucket holding the given percentile (0-100)
+     */
+    fun percentileMicros(percentile: Double): Long {
+        val samples = count.get()
+        if (samples == 0L) {
+            return 0
+        }
+        val rank = Math.ceil(samples * percentile / 100.0).toLong().coerceIn(1, samples)
+        var seen = 0L
+        for (i in 0 until BUCKETS) {
+            seen += buckets.get(i)
+            if (seen >= rank) {
+                return upperBoundMicros(i)
+            }
+        }
+        return maxMicros.get()
+    }
+
+    /**
+     * Count of samples per bucket upper bound in microseconds, for exporters
+     */
+    fun snapshot(): List<Pair<Long, Long>> {
+        return (0 until BUCKETS).map { upperBoundMicros(it) to buckets.get(it) }
+    }
+
+    /**
+     * One-line summary for the status command
+     */
+    fun describe(): String {
+        if (count.get() == 0L) {
+            return "no samples"
+        }
+        return "${count()} samples, mean ${format(meanMicros())}, p50 ≤${format(percentileMicros(50.0))}, " +
+            "p99 ≤${format(percentileMicros(99.0))}, max ${format(maxMicros())}"
+    }
+
+    fun reset() {
+        for (i in 0 until BUCKETS) {
+            buckets.set(i, 0)
+        }
+        count.set(0)
+        totalMicros.set(0)
+        maxMicros.set(0)
+    }
+
+    private fun upperBoundMicros(bucket: Int): Long = if (bucket == BUCKETS - 1) Long.MAX_VALUE else 1L shl bucket
+
+    private fun format(micros: Long): String {
+        return when {
+            micros == Long.MAX_VALUE -> "∞"
+            micros >= 1_000_000 -> "%.1fs".format(micros / 1_000_000.0)
+            micros >= 1_000 -> "%.1fms".format(micros / 1_000.0)
+            else -> "${micros}µs"
+        }
+    }
+
+    companion object {
+        // 2^26 µs is about 67s; anything slower lands in the last bucket
+        private const val BUCKETS = 28
+    }
+}
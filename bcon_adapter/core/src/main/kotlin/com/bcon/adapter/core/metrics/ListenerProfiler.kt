@@ -0,0 +1,88 @@
+package com.bcon.adapter.core.metrics
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Opt-in tick cost accounting for bcon's own listeners, callbacks and mixin hooks
+ * Enabled with -Dbcon.profileListeners=true. ENABLED is a static final field, so when it is off the JIT folds
+ * every guard away and a wrapped handler costs nothing; when it is on each call records its nanoTime duration
+ * into a per-handler LatencyHistogram. Kotlin callers use time(); Java mixins use start()/stop() around a
+ * try/finally. Handler names are string constants, so recording allocates nothing after the first call.
+ */
+object ListenerProfiler {
+
+    @JvmField
+    val ENABLED: Boolean = java.lang.Boolean.getBoolean("bcon.profileListeners")
+
+    private val handlers = ConcurrentHashMap<String, LatencyHistogram>()
+
+    @JvmStatic
+    fun start(): Long = if (ENABLED) System.nanoTime() else 0L
+
+    @JvmStatic
+    fun stop(handler: String, start: Long) {
+        if (ENABLED) {
+            record(handler, System.nanoTime() - start)
+        }
+    }
+
+    inline fun <T> time(handler: String, block: () -> T): T {
+        if (!ENABLED) {
+            return block()
+        }
+        val start = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            record(handler, System.nanoTime() - start)
+        }
+    }
+
+    fun record(handler: String, nanos: Long) {
+        (handlers[handler] ?: handlers.computeIfAbsent(handler) { LatencyHistogram() }).recordNanos(nanos)
+    }
+
+    fun reset() {
+        handlers.clear()
+    }
+
+    /**
+     * Top handlers by total time and by p99, for /bcon profile
+     */
+    fun report(limit: Int = 10): String {
+        if (!ENABLED && handlers.isEmpty()) {
+            return "Listener profiling is off - start the server with -Dbcon.profileListeners=true"
+        }
+        val snapshot = handlers.entries.map { (name, histogram) -> Row(name, histogram) }.filter { it.calls > 0 }
+        if (snapshot.isEmpty()) {
+            return "No listener calls recorded yet"
+        }
+
+        return buildString {
+            append("Bcon listeners by total time:")
+            snapshot.sortedByDescending { it.totalMicros }.take(limit).forEach { append('\n').append(it.format()) }
+            append("\nBcon listeners by p99:")
+            snapshot.sortedByDescending { it.p99Micros }.take(limit).forEach { append('\n').append(it.format()) }
+        }
+    }
+
+    private class Row(val name: String, histogram: LatencyHistogram) {
+        val calls = histogram.count()
+        val totalMicros = histogram.sumMicros()
+        val p99Micros = histogram.percentileMicros(99.0)
+        private val maxMicros = histogram.maxMicros()
+
+        fun format(): String {
+            return "- $name: $calls calls, total ${formatMicros(totalMicros)}, mean ${formatMicros(totalMicros / calls)}, " +
+                "p99 ≤${formatMicros(p99Micros)}, max ${formatMicros(maxMicros)}"
+        }
+    }
+
+    private fun formatMicros(micros: Long): String {
+        return when {
+            micros >= 1_000_000 -> "%.1fs".format(micros / 1_000_000.0)
+            micros >= 1_000 -> "%.1fms".format(micros / 1_000.0)
+            else -> "${micros}µs"
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.bcon.adapter.core.metrics
+
+import com.bcon.adapter.core.logging.BconLogger
+import com.sun.net.httpserver.HttpServer
+import java.io.IOException
+import java.net.InetSocketAddress
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Serves GET /metrics in Prometheus text format from the JDK's built-in HTTP server
+ * One daemon thread handles scrapes; rendering only reads the registry, so a scrape never blocks the
+ * sender or the tick thread. Binds to loopback by default - expose it deliberately via metricsBindAddress.
+ */
+class MetricsEndpoint(
+    private val registry: MetricsRegistry,
+    private val logger: BconLogger,
+    private val constantLabels: () -> Map<String, String>
+) {
+
+    private var server: HttpServer? = null
+    private var executor: ExecutorService? = null
+
+    val isRunning: Boolean get() = server != null
+
+    @Synchronized
+    fun start(bindAddress: String, port: Int) {
+        stop()
+        try {
+            val http = HttpServer.create(InetSocketAddress(bindAddress, port), 0)
+            http.createContext("/metrics") { exchange ->
+                exchange.use {
+                    if (it.requestMethod != "GET" && it.requestMethod != "HEAD") {
+                        it.sendResponseHeaders(405, -1)
+                        return@use
+                    }
+                    val body = PrometheusText.render(registry, constantLabels()).toByteArray(Charsets.UTF_8)
+                    it.responseHeaders.set("Content-Type", PrometheusText.CONTENT_TYPE)
+                    if (it.requestMethod == "HEAD") {
+                        it.sendResponseHeaders(200, -1)
+                    } else {
+                        it.sendResponseHeaders(200, body.size.toLong())
+                        it.responseBody.write(body)
+                    }
+                }
+            }
+            val threads = Executors.newSingleThreadExecutor { runnable ->
+                Thread(runnable, "bcon-metrics").apply { isDaemon = true }
+            }
+            http.executor = threads
+            http.start()
+            server = http
+            executor = threads
+            logger.info("Metrics endpoint listening on http://$bindAddress:$port/metrics")
+        } catch (e: IOException) {
+            logger.warning("Failed to start metrics endpoint on $bindAddress:$port: ${e.message}")
+        }
+    }
+
+    @Synchronized
+    fun stop() {
+        server?.stop(0)
+        server = null
+        executor?.shutdownNow()
+        executor = null
+    }
+}
@@ -0,0 +1,94 @@
+package com.bcon.adapter.core.metrics
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListMap
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Lock-free registry of counters, gauges and latency histograms, exported by [PrometheusText]
+ * Registering takes a map lookup; hot paths keep the returned Counter or LatencyHistogram and only touch
+ * its LongAdder or atomics from then on. A metric is a family name plus optional labels; registering the
+ * same name and labels twice returns the existing metric.
+ */
+class MetricsRegistry {
+
+    enum class Type(val exposition: String) { COUNTER("counter"), GAUGE("gauge"), HISTOGRAM("histogram") }
+
+    class Counter {
+        private val adder = LongAdder()
+
+        fun increment() = adder.increment()
+
+        fun add(amount: Long) = adder.add(amount)
+
+        fun sum(): Long = adder.sum()
+    }
+
+    /**
+     * Metrics sharing a name, help text and type; children are keyed by their rendered label set
+     */
+    class Family(val name: String, val help: String, val type: Type) {
+        // Sorted so every scrape lists series in the same order
+        val children = ConcurrentSkipListMap<String, Any>()
+    }
+
+    private val families = ConcurrentSkipListMap<String, Family>()
+    private val counterCache = ConcurrentHashMap<String, Counter>()
+
+    /**
+     * Counter incremented by the caller
+     */
+    fun counter(name: String, help: String, vararg labels: Pair<String, String>): Counter {
+        return family(name, help, Type.COUNTER).children.computeIfAbsent(renderLabels(labels)) { Counter() } as Counter
+    }
+
+    /**
+     * Counter with one label whose value is only known at record time (e.g. the event type)
+     * Each distinct value is registered once and cached, so recording is a single map read
+     */
+    fun labeledCounter(name: String, help: String, label: String, value: String): Counter {
+        return counterCache[name + '\u0000' + value] ?: counterCache.computeIfAbsent(name + '\u0000' + value) {
+            counter(name, help, label to value)
+        }
+    }
+
+    /**
+     * Counter read from an existing total, e.g. the outbound queue's drop count
+     * Registering the name again replaces the supplier, so a restarted component reports its own total
+     */
+    fun counter(name: String, help: String, supplier: () -> Long) {
+        family(name, help, Type.COUNTER).children[""] = supplier
+    }
+
+    /**
+     * Gauge sampled at export time; registering the name again replaces the supplier
+     */
+    fun gauge(name: String, help: String, supplier: () -> Number) {
+        family(name, help, Type.GAUGE).children[""] = supplier
+    }
+
+    fun histogram(name: String, help: String, vararg labels: Pair<String, String>): LatencyHistogram {
+        return family(name, help, Type.HISTOGRAM).children.computeIfAbsent(renderLabels(labels)) { LatencyHistogram() } as LatencyHistogram
+    }
+
+    fun families(): Collection<Family> = families.values
+
+    private fun family(name: String, help: String, type: Type): Family {
+        val family = families.computeIfAbsent(name) { Family(name, help, type) }
+        require(family.type == type) { "Metric $name is already registered as a ${family.type.exposition}" }
+        return family
+    }
+
+    private fun renderLabels(labels: Array<out Pair<String, String>>): String {
+        if (labels.isEmpty()) {
+            return ""
+        }
+        return labels.joinToString(",") { (key, value) -> "$key=\"${escapeLabelValue(value)}\"" }
+    }
+
+    companion object {
+        fun escapeLabelValue(value: String): String {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+        }
+    }
+}
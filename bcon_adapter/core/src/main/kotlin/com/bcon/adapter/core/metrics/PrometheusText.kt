@@ -0,0 +1,67 @@
+package com.bcon.adapter.core.metrics
+
+import java.math.BigDecimal
+
+/**
+ * Renders a [MetricsRegistry] in the Prometheus text exposition format (version 0.0.4)
+ * Histograms are recorded in microseconds and exported in seconds, with one cumulative bucket per
+ * power-of-two bound. constantLabels (e.g. the server id) are added to every series so 40 servers can share
+ * one dashboard without relabelling.
+ */
+object PrometheusText {
+
+    const val CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8"
+
+    fun render(registry: MetricsRegistry, constantLabels: Map<String, String> = emptyMap()): String {
+        val constant = constantLabels.entries.joinToString(",") { (key, value) ->
+            "$key=\"${MetricsRegistry.escapeLabelValue(value)}\""
+        }
+        val out = StringBuilder(4096)
+        for (family in registry.families()) {
+            if (family.children.isEmpty()) {
+                continue
+            }
+            out.append("# HELP ").append(family.name).append(' ').append(family.help.replace("\n", " ")).append('\n')
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.exposition).append('\n')
+            for ((labels, metric) in family.children) {
+                val series = join(constant, labels)
+                when (metric) {
+                    is MetricsRegistry.Counter -> sample(out, family.name, series, metric.sum().toString())
+                    is LatencyHistogram -> histogram(out, family.name, series, metric)
+                    is Function0<*> -> sample(out, family.name, series, (metric.invoke() as Number).toString())
+                }
+            }
+        }
+        return out.toString()
+    }
+
+    private fun histogram(out: StringBuilder, name: String, labels: String, histogram: LatencyHistogram) {
+        // Buckets are read one by one while other threads record, so the count is taken from the same reads
+        var cumulative = 0L
+        for ((upperMicros, count) in histogram.snapshot()) {
+            cumulative += count
+            val le = if (upperMicros == Long.MAX_VALUE) "+Inf" else seconds(upperMicros)
+            sample(out, name + "_bucket", join(labels, "le=\"$le\""), cumulative.toString())
+        }
+        sample(out, name + "_sum", labels, seconds(histogram.sumMicros()))
+        sample(out, name + "_count", labels, cumulative.toString())
+    }
+
+    private fun sample(out: StringBuilder, name: String, labels: String, value: String) {
+        out.append(name)
+        if (labels.isNotEmpty()) {
+            out.append('{').append(labels).append('}')
+        }
+        out.append(' ').append(value).append('\n')
+    }
+
+    private fun join(first: String, second: String): String {
+        return when {
+            first.isEmpty() -> second
+            second.isEmpty() -> first
+            else -> "$first,$second"
+        }
+    }
+
+    private fun seconds(micros: Long): String = BigDecimal.valueOf(micros, 6).stripTrailingZeros().toPlainString()
+}
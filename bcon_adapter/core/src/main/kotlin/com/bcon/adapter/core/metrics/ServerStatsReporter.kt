@@ -0,0 +1,94 @@
+package com.bcon.adapter.core.metrics
+
+import com.bcon.adapter.core.BconAdapter
+import com.bcon.adapter.core.events.JvmStatsData
+import java.lang.management.ManagementFactory
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * Sends a server_stats event every intervalSeconds
+ * The timer only starts a sample; the sample runs on an adapter task so waiting for the tick thread never blocks
+ * the timer. JVM numbers come from the management beans off-thread; the platform decides which of its numbers
+ * need the tick thread (see BconAdapter.sampleServerPerformance). GC deltas are relative to the previous sample.
+ */
+class ServerStatsReporter(private val adapter: BconAdapter) {
+
+    private val logger = adapter.logger
+    private var task: ScheduledFuture<*>? = null
+    @Volatile
+    private var sampling = false
+    private var lastGcCount = -1L
+    private var lastGcTimeMs = -1L
+
+    @Synchronized
+    fun start(intervalSeconds: Int) {
+        stop()
+        if (intervalSeconds <= 0) {
+            return
+        }
+        val intervalMs = intervalSeconds * 1000L
+        task = adapter.scheduler.scheduleWithFixedDelay("server-stats", intervalMs, intervalMs) {
+            // A sample still waiting on a lagging tick thread covers this interval too
+            if (!sampling) {
+                sampling = true
+                adapter.scheduler.executeInternal("server-stats", ::sample)
+            }
+        }
+    }
+
+    @Synchronized
+    fun stop() {
+        task?.cancel(false)
+        task = null
+    }
+
+    private fun sample() {
+        try {
+            val performance = try {
+                adapter.sampleServerPerformance().get(PLATFORM_SAMPLE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            } catch (e: Exception) {
+                logger.fine("Server performance sample unavailable: ${e.message}")
+                null
+            }
+            adapter.eventManager.onServerStats(performance, sampleJvm(), adapter.adapterStats())
+        } catch (e: Exception) {
+            logger.warning("Failed to send server stats: ${e.message}")
+        } finally {
+            sampling = false
+        }
+    }
+
+    private fun sampleJvm(): JvmStatsData {
+        val memory = ManagementFactory.getMemoryMXBean()
+        val heap = memory.heapMemoryUsage
+        var gcCount = 0L
+        var gcTimeMs = 0L
+        for (collector in ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += collector.collectionCount.coerceAtLeast(0)
+            gcTimeMs += collector.collectionTime.coerceAtLeast(0)
+        }
+        val countDelta = if (lastGcCount < 0) 0 else gcCount - lastGcCount
+        val timeDelta = if (lastGcTimeMs < 0) 0 else gcTimeMs - lastGcTimeMs
+        lastGcCount = gcCount
+        lastGcTimeMs = gcTimeMs
+
+        return JvmStatsData(
+            heapUsed = heap.used,
+            heapCommitted = heap.committed,
+            heapMax = heap.max,
+            nonHeapUsed = memory.nonHeapMemoryUsage.used,
+            gcCount = gcCount,
+            gcTimeMs = gcTimeMs,
+            gcCountDelta = countDelta,
+            gcTimeMsDelta = timeDelta,
+            threads = ManagementFactory.getThreadMXBean().threadCount,
+            uptimeMs = ManagementFactory.getRuntimeMXBean().uptime,
+            systemLoadAverage = ManagementFactory.getOperatingSystemMXBean().systemLoadAverage
+        )
+    }
+
+    companion object {
+        private const val PLATFORM_SAMPLE_TIMEOUT_MS = 5_000L
+    }
+}
@@ -0,0 +1,151 @@
+package com.bcon.adapter.core.scheduling
+
+import com.bcon.adapter.core.logging.BconLogger
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Adapter-owned scheduler for everything the adapter runs off the game threads
+ * Tasks such as incoming commands run on virtual threads, at most maxConcurrentTasks at a time; timed work
+ * (heartbeats, health checks, reconnect backoff) shares one platform timer thread. Nothing goes to the common
+ * ForkJoinPool, and reconnects reuse this scheduler instead of creating executors of their own.
+ * The adapter's own control work (reconnects, lane retries, stats samples) never takes a command permit, so
+ * remote commands parked on the tick thread can't hold up a reconnect.
+ */
+class AdapterScheduler(private val logger: BconLogger, maxConcurrentTasks: Int) {
+
+    private val timer = ScheduledThreadPoolExecutor(1) { r ->
+        Thread(r, "bcon-timer").apply {
+            isDaemon = true
+        }
+    }.apply {
+        removeOnCancelPolicy = true
+        executeExistingDelayedTasksAfterShutdownPolicy = false
+        continueExistingPeriodicTasksAfterShutdownPolicy = false
+    }
+
+    private val tasks: ExecutorService = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("bcon-task-", 0).factory()
+    )
+    private val permits = Semaphore(maxConcurrentTasks.coerceAtLeast(1))
+    private val running = AtomicInteger()
+    private val waiting = AtomicInteger()
+    private val internalRunning = AtomicInteger()
+    private val completed = AtomicLong()
+
+    /**
+     * Run a task on a virtual thread; it may block, but waits for a permit while maxConcurrentTasks are running
+     */
+    fun execute(name: String, task: Runnable) {
+        waiting.incrementAndGet()
+        try {
+            tasks.execute { runTask(name, task) }
+        } catch (e: RejectedExecutionException) {
+            waiting.decrementAndGet()
+            logger.warning("Scheduler is shut down - dropped task '$name'")
+        }
+    }
+
+    /**
+     * Run adapter control work on its own virtual thread, without waiting for a command permit
+     */
+    fun executeInternal(name: String, task: Runnable) {
+        try {
+            tasks.execute {
+                internalRunning.incrementAndGet()
+                try {
+                    task.run()
+                } catch (e: Exception) {
+                    logger.severe("Task '$name' failed: ${e.message}")
+                } finally {
+                    internalRunning.decrementAndGet()
+                    completed.incrementAndGet()
+                }
+            }
+        } catch (e: RejectedExecutionException) {
+            logger.warning("Scheduler is shut down - dropped task '$name'")
+        }
+    }
+
+    /**
+     * Run adapter control work on a virtual thread after a delay
+     */
+    fun schedule(name: String, delayMs: Long, task: Runnable): ScheduledFuture<*> {
+        return timer.schedule({ executeInternal(name, task) }, delayMs, TimeUnit.MILLISECONDS)
+    }
+
+    /**
+     * Run a periodic check on the timer thread itself; it must be quick and never block
+     */
+    fun scheduleWithFixedDelay(name: String, initialDelayMs: Long, delayMs: Long, task: Runnable): ScheduledFuture<*> {
+        return timer.scheduleWithFixedDelay({
+            try {
+                task.run()
+            } catch (e: Exception) {
+                // An exception would otherwise cancel the periodic task silently
+                logger.severe("Periodic task '$name' failed: ${e.message}")
+            }
+        }, initialDelayMs, delayMs, TimeUnit.MILLISECONDS)
+    }
+
+    fun runningTasks(): Int = running.get()
+
+    fun waitingTasks(): Int = waiting.get()
+
+    fun completedTasks(): Long = completed.get()
+
+    fun timerTasks(): Int = timer.queue.size
+
+    /**
+     * One-line summary for the status command
+     */
+    fun describe(): String {
+        return "${runningTasks()} running, ${waitingTasks()} waiting, ${internalRunning.get()} internal, " +
+            "${timerTasks()} timers, ${completedTasks()} completed"
+    }
+
+    /**
+     * Cancel timers and give running tasks up to timeoutMs to finish
+     */
+    fun shutdown(timeoutMs: Long) {
+        timer.shutdownNow()
+        tasks.shutdown()
+        try {
+            if (!tasks.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warning("${runningTasks()} task(s) still running after ${timeoutMs}ms - interrupting")
+                tasks.shutdownNow()
+            }
+        } catch (e: InterruptedException) {
+            tasks.shutdownNow()
+            Thread.currentThread().interrupt()
+        }
+    }
+
+    private fun runTask(name: String, task: Runnable) {
+        try {
+            permits.acquire()
+        } catch (e: InterruptedException) {
+            waiting.decrementAndGet()
+            return
+        }
+
+        waiting.decrementAndGet()
+        running.incrementAndGet()
+        try {
+            task.run()
+        } catch (e: Exception) {
+            logger.severe("Task '$name' failed: ${e.message}")
+        } finally {
+            running.decrementAndGet()
+            completed.incrementAndGet()
+            permits.release()
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.bcon.adapter.core.scheduling
+
+import com.bcon.adapter.core.logging.BconLogger
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Tick thread executor that drains all adapter work from one per-tick hook under a time budget
+ * Commands, broadcasts, batches and strict-mode shutdown are queued here instead of scheduling their own
+ * main-thread tasks. Each tick runs queued work until budgetMicros is spent and carries the rest over, so a
+ * burst of remote commands is spread over several ticks instead of pushing one tick past 50ms. At least one
+ * task runs per tick, so a single task longer than the budget still makes progress.
+ * Platforms install the hook in installHook(): END_SERVER_TICK on Fabric, runTaskTimer on Paper, the global
+ * region on Folia. Once stopped, new work fails immediately instead of waiting for a tick that never comes.
+ */
+abstract class BudgetedTickExecutor(protected val logger: BconLogger) : TickThreadExecutor {
+
+    @Volatile
+    var budgetMicros = DEFAULT_BUDGET_MICROS
+
+    private val queue = ConcurrentLinkedQueue<Runnable>()
+    private val queued = AtomicInteger()
+    private val overBudgetTicks = AtomicLong()
+    private val carriedOver = AtomicLong()
+    @Volatile
+    private var lastTickMicros = 0L
+    @Volatile
+    private var stopped = false
+    // Only touched on the tick thread while draining
+    private var deadline = 0L
+    private var draining = false
+
+    /**
+     * Install the per-tick hook and accept work again after a stop()
+     */
+    fun start() {
+        stopped = false
+        installHook()
+    }
+
+    /**
+     * Remove the per-tick hook; queued and later work is dropped and submitted futures fail right away, so
+     * command workers waiting on them don't sit out the tick-result timeout during shutdown
+     */
+    fun stop() {
+        stopped = true
+        removeHook()
+        dropQueued()
+    }
+
+    /**
+     * Install the per-tick hook that calls drainTick()
+     */
+    protected abstract fun installHook()
+
+    /**
+     * Remove the per-tick hook installed by installHook()
+     */
+    protected abstract fun removeHook()
+
+    override fun <T> submit(task: () -> T): CompletableFuture<T> {
+        val future = CompletableFuture<T>()
+        if (isTickThread()) {
+            TickThreadExecutor.runInto(future, task)
+        } else {
+            enqueue(Submitted(future, task))
+        }
+        return future
+    }
+
+    override fun executeNextTick(task: Runnable) {
+        enqueue(task)
+    }
+
+    /**
+     * Tick time left in the current drain; a full budget when called outside of one
+     */
+    fun remainingTickNanos(): Long {
+        if (!draining) {
+            return budgetMicros * 1000
+        }
+        return (deadline - System.nanoTime()).coerceAtLeast(0)
+    }
+
+    /**
+     * Run queued work until the budget is spent; called once per tick on the tick thread
+     */
+    fun drainTick() {
+        // Work queued by the tasks below waits for the next tick
+        var remaining = queued.get()
+        if (remaining == 0) {
+            lastTickMicros = 0
+            return
+        }
+
+        val start = System.nanoTime()
+        deadline = start + budgetMicros * 1000
+        draining = true
+        try {
+            while (remaining-- > 0) {
+                val task = queue.poll() ?: break
+                queued.decrementAndGet()
+                try {
+                    task.run()
+                } catch (e: Exception) {
+                    logger.severe("Tick task failed: ${e.message}")
+                }
+                if (System.nanoTime() >= deadline) {
+                    break
+                }
+            }
+        } finally {
+            draining = false
+        }
+
+        val elapsed = System.nanoTime() - start
+        lastTickMicros = elapsed / 1000
+        if (elapsed > budgetMicros * 1000) {
+            overBudgetTicks.incrementAndGet()
+        }
+        if (queued.get() > 0) {
+            carriedOver.incrementAndGet()
+        }
+    }
+
+    fun queuedTasks(): Int = queued.get()
+
+    /**
+     * One-line summary for the status command
+     */
+    fun describe(): String {
+        return "${queuedTasks()} queued, last drain ${lastTickMicros}µs of ${budgetMicros}µs, " +
+            "${carriedOver.get()} carry-overs, ${overBudgetTicks.get()} ticks over budget"
+    }
+
+    private fun enqueue(task: Runnable) {
+        if (stopped) {
+            (task as? Submitted<*>)?.cancel()
+            return
+        }
+        queue.add(task)
+        queued.incrementAndGet()
+        // stop() may have drained the queue between the check above and the add
+        if (stopped) {
+            dropQueued()
+        }
+    }
+
+    private fun dropQueued() {
+        while (true) {
+            val task = queue.poll() ?: break
+            queued.decrementAndGet()
+            (task as? Submitted<*>)?.cancel()
+        }
+    }
+
+    /**
+     * A submit() task, kept apart from plain executeNextTick runnables so stop() can fail its future
+     */
+    private class Submitted<T>(private val future: CompletableFuture<T>, private val task: () -> T) : Runnable {
+        override fun run() = TickThreadExecutor.runInto(future, task)
+
+        fun cancel() {
+            future.completeExceptionally(IllegalStateException("Tick executor stopped before the task ran"))
+        }
+    }
+
+    companion object {
+        const val DEFAULT_BUDGET_MICROS = 2_000L
+    }
+}
@@ -0,0 +1,116 @@
+package com.bcon.adapter.core.scheduling
+
+/**
+ * Ordered dispatcher for commands pushed by the Bcon server
+ * Commands with the same key run one after another in arrival order; commands with different keys run in
+ * parallel, at most maxConcurrent at a time. A GLOBAL command waits for everything submitted before it and
+ * holds back everything submitted after it, so e.g. clear_commands can't overtake a pending registration.
+ * Once maxPending commands are queued or running, acceptMore() returns false and the caller stops reading
+ * from the socket; onResume is called when the backlog has drained to half of that.
+ */
+class CommandDispatcher(
+    private val scheduler: AdapterScheduler,
+    private val maxConcurrent: Int,
+    private val maxPending: Int,
+    private val onResume: () -> Unit
+) {
+
+    private class Entry(val key: String, val name: String, val task: Runnable)
+
+    private val lock = Any()
+    private val waiting = ArrayList<Entry>()
+    private val activeKeys = HashSet<String>()
+    private var paused = false
+
+    /**
+     * Queue a command behind earlier commands with the same key
+     */
+    fun submit(key: String, name: String, task: Runnable) {
+        val ready = synchronized(lock) {
+            waiting.add(Entry(key, name, task))
+            takeReady()
+        }
+        ready?.forEach(::launch)
+    }
+
+    /**
+     * Whether the caller may read another message; false marks the dispatcher paused until the backlog drains
+     */
+    fun acceptMore(): Boolean {
+        synchronized(lock) {
+            if (waiting.size + activeKeys.size < maxPending) {
+                return true
+            }
+            paused = true
+            return false
+        }
+    }
+
+    fun pendingCommands(): Int = synchronized(lock) { waiting.size + activeKeys.size }
+
+    fun isPaused(): Boolean = synchronized(lock) { paused }
+
+    private fun launch(entry: Entry) {
+        scheduler.execute(entry.name) {
+            try {
+                entry.task.run()
+            } finally {
+                complete(entry)
+            }
+        }
+    }
+
+    private fun complete(entry: Entry) {
+        var resume = false
+        val ready = synchronized(lock) {
+            activeKeys.remove(entry.key)
+            if (paused && waiting.size + activeKeys.size <= maxPending / 2) {
+                paused = false
+                resume = true
+            }
+            takeReady()
+        }
+        ready?.forEach(::launch)
+        if (resume) {
+            onResume()
+        }
+    }
+
+    /**
+     * Move every waiting entry that may start now into activeKeys; called with the lock held
+     */
+    private fun takeReady(): List<Entry>? {
+        if (GLOBAL in activeKeys) {
+            return null
+        }
+
+        var ready: MutableList<Entry>? = null
+        var skipped: HashSet<String>? = null
+        val iterator = waiting.iterator()
+        while (iterator.hasNext() && activeKeys.size < maxConcurrent) {
+            val entry = iterator.next()
+            if (entry.key == GLOBAL) {
+                // Everything before it has either started (and is active) or is still waiting
+                if (activeKeys.isEmpty()) {
+                    iterator.remove()
+                    activeKeys.add(GLOBAL)
+                    ready = mutableListOf(entry)
+                }
+                break
+            }
+            if (entry.key in activeKeys || skipped?.contains(entry.key) == true) {
+                // An earlier command with this key hasn't finished yet
+                (skipped ?: HashSet<String>().also { skipped = it }).add(entry.key)
+                continue
+            }
+            iterator.remove()
+            activeKeys.add(entry.key)
+            (ready ?: mutableListOf<Entry>().also { ready = it }).add(entry)
+        }
+        return ready
+    }
+
+    companion object {
+        const val GLOBAL = "global"
+    }
+}
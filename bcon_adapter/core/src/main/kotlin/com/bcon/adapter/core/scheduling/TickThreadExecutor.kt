@@ -0,0 +1,34 @@
+package com.bcon.adapter.core.scheduling
+
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Runs work on the server thread that owns game state
+ * Paper uses the main thread, Folia the global region and Fabric the server thread. The returned future
+ * completes with the task's result after it ran, so callers off the tick can wait for real results without
+ * blocking the tick themselves. Called from the tick thread, the task runs right away.
+ */
+interface TickThreadExecutor {
+
+    fun isTickThread(): Boolean
+
+    fun <T> submit(task: () -> T): CompletableFuture<T>
+
+    /**
+     * Queue a task for a later tick even when called from the tick thread; used to spread work across ticks
+     */
+    fun executeNextTick(task: Runnable)
+
+    companion object {
+        /**
+         * Run task and complete future with its result or failure; shared by the platform implementations
+         */
+        fun <T> runInto(future: CompletableFuture<T>, task: () -> T) {
+            try {
+                future.complete(task())
+            } catch (e: Throwable) {
+                future.completeExceptionally(e)
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bcon.adapter.core.commands
+
+import com.bcon.adapter.core.scheduling.TickThreadExecutor
+import java.util.ArrayDeque
+import java.util.concurrent.CompletableFuture
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class CommandBatchTest {
+
+    /**
+     * Tick thread stand-in: tasks queued for the next tick run when the test calls tick()
+     */
+    private class ManualTicks : TickThreadExecutor {
+        val queued = ArrayDeque<Runnable>()
+
+        override fun isTickThread() = true
+
+        override fun <T> submit(task: () -> T): CompletableFuture<T> {
+            val future = CompletableFuture<T>()
+            TickThreadExecutor.runInto(future, task)
+            return future
+        }
+
+        override fun executeNextTick(task: Runnable) {
+            queued.add(task)
+        }
+
+        fun tick() {
+            repeat(queued.size) { queued.poll().run() }
+        }
+    }
+
+    private val ticks = ManualTicks()
+    private val executed = mutableListOf<String>()
+
+    private fun execute(command: String): CompletableFuture<String> = ticks.submit {
+        executed.add(command)
+        if (command.startsWith("bad")) throw IllegalStateException("Unknown command")
+        "ran $command"
+    }
+
+    @Test
+    fun runsWholeBatchInOneTickWithinBudget() {
+        val result = CommandBatch(listOf("say a", "say b", "say c"), false, ticks, { Long.MAX_VALUE }, ::execute).start()
+        assertFalse(result.isDone)
+
+        ticks.tick()
+        val results = result.join()
+        assertEquals(3, results.size())
+        assertEquals("ran say b", results[1].asJsonObject.get("output").asString)
+        assertTrue(ticks.queued.isEmpty())
+    }
+
+    @Test
+    fun continuesOnNextTickOnceBudgetIsSpent() {
+        val result = CommandBatch(listOf("a", "b", "c"), false, ticks, { 0 }, ::execute).start()
+
+        ticks.tick()
+        assertEquals(listOf("a"), executed)
+        ticks.tick()
+        assertEquals(listOf("a", "b"), executed)
+        ticks.tick()
+        assertEquals(3, result.join().size())
+    }
+
+    @Test
+    fun reportsFailuresPerCommand() {
+        val result = CommandBatch(listOf("a", "bad", "c"), false, ticks, { Long.MAX_VALUE }, ::execute).start()
+        ticks.tick()
+
+        val failed = result.join()[1].asJsonObject
+        assertFalse(failed.get("success").asBoolean)
+        assertEquals("Unknown command", failed.get("error").asString)
+        assertEquals(listOf("a", "bad", "c"), executed)
+    }
+
+    @Test
+    fun stopsOnFirstErrorWhenAsked() {
+        val result = CommandBatch(listOf("a", "bad", "c"), true, ticks, { Long.MAX_VALUE }, ::execute).start()
+        ticks.tick()
+
+        assertEquals(2, result.join().size())
+        assertEquals(listOf("a", "bad"), executed)
+    }
+}
@@ -0,0 +1,32 @@
+package com.bcon.adapter.core.commands
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class CommandOutputTest {
+
+    @Test
+    fun joinsFeedbackLines() {
+        val output = CommandOutput()
+        output.add("Teleported Steve to 0, 64, 0")
+        output.add("  ")
+        output.add("Set the time to 1000")
+        assertEquals("Teleported Steve to 0, 64, 0\nSet the time to 1000", output.toResult(true))
+    }
+
+    @Test
+    fun fallsBackToGenericResult() {
+        assertEquals("Command executed successfully", CommandOutput().toResult(true))
+        val error = assertFailsWith<IllegalStateException> { CommandOutput().toResult(false) }
+        assertEquals("Command execution failed", error.message)
+    }
+
+    @Test
+    fun failureCarriesOutput() {
+        val output = CommandOutput()
+        output.add("Unknown command. Type \"/help\" for help.")
+        val error = assertFailsWith<IllegalStateException> { output.toResult(false) }
+        assertEquals("Unknown command. Type \"/help\" for help.", error.message)
+    }
+}
@@ -0,0 +1,167 @@
+package com.bcon.adapter.core.connection
+
+import java.util.zip.CRC32
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class CborCodecTest {
+
+    private fun roundTrip(json: String): String {
+        val sink = ByteSink(16)
+        CborCodec.encode(json, sink)
+        return CborCodec.decode(sink.bytes, 0, sink.size)
+    }
+
+    @Test
+    fun encodesKnownFrame() {
+        // Same fixture as bcon_server's message.rs tests
+        val sink = ByteSink()
+        sink.write(CborCodec.FRAME_CBOR)
+        CborCodec.encode("{\"eventType\":\"a\",\"data\":{\"x\":1.5},\"timestamp\":1}", sink)
+
+        val expected = byteArrayOf(
+            0x01, 0xbf.toByte(),
+            0x69, *"eventType".toByteArray(), 0x61, 'a'.code.toByte(),
+            0x64, *"data".toByteArray(), 0xbf.toByte(), 0x61, 'x'.code.toByte(), 0xfa.toByte(), 0x3f, 0xc0.toByte(), 0x00, 0x00, 0xff.toByte(),
+            0x69, *"timestamp".toByteArray(), 0x01,
+            0xff.toByte()
+        )
+        assertContentEquals(expected, sink.bytes.copyOf(sink.size))
+    }
+
+    @Test
+    fun roundTripsEventEnvelopes() {
+        val frames = listOf(
+            "{\"eventType\":\"player_joined\",\"data\":{\"playerId\":\"8667ba71-b85a-4004-af54-457a9734eed7\",\"playerName\":\"Steve\",\"x\":12.5,\"y\":64.0,\"z\":-30.25,\"dimension\":\"minecraft:overworld\",\"health\":18.5,\"maxHealth\":20.0,\"level\":7,\"gameMode\":\"SURVIVAL\"},\"timestamp\":1700000000}",
+            "{\"eventType\":\"event_batch\",\"data\":[{\"eventType\":\"a\",\"data\":{},\"timestamp\":1},{\"eventType\":\"b\",\"data\":{\"ok\":true,\"none\":null},\"timestamp\":2}],\"timestamp\":2}",
+            "{\"eventType\":\"player_chat\",\"data\":{\"message\":\"h\\u00e9llo \\u003cworld\\u003e 😀\"},\"timestamp\":1}",
+            "{\"eventType\":\"entity_damage\",\"data\":{\"damage\":0.1,\"time\":-9223372036854775807,\"big\":4294967296,\"small\":-24},\"timestamp\":1}"
+        )
+
+        for (frame in frames) {
+            assertEquals(frame.replace("\\u003c", "<").replace("\\u003e", ">").replace("\\u00e9", "é"), roundTrip(frame))
+        }
+    }
+
+    @Test
+    fun internsRepeatedStrings() {
+        val frame = "{\"eventType\":\"a\",\"data\":{\"dimension\":\"minecraft:overworld\",\"message\":\"hi\"},\"timestamp\":1}"
+        val sender = StringDictionary()
+        val receiver = StringDictionary()
+
+        val first = ByteSink()
+        CborCodec.encode(frame, first, sender)
+        val second = ByteSink()
+        CborCodec.encode(frame, second, sender)
+
+        // Same bytes as bcon_server's message.rs string dictionary test: definitions first, then ids
+        val definition = byteArrayOf(0xd8.toByte(), 0xe0.toByte(), 0x82.toByte(), 0x01, 0x73, *"minecraft:overworld".toByteArray())
+        val reference = byteArrayOf(0xd8.toByte(), 0xe1.toByte(), 0x01)
+        assertTrue(first.bytes.copyOf(first.size).asList().windowed(definition.size).contains(definition.asList()))
+        assertTrue(second.bytes.copyOf(second.size).asList().windowed(reference.size).contains(reference.asList()))
+        assertTrue(second.size < first.size - 15)
+        assertEquals(2, sender.size())
+
+        assertEquals(frame, CborCodec.decode(first.bytes, 0, first.size, receiver))
+        assertEquals(frame, CborCodec.decode(second.bytes, 0, second.size, receiver))
+
+        // After a reset the next use is a definition again
+        sender.reset()
+        val third = ByteSink()
+        CborCodec.encode(frame, third, sender)
+        assertContentEquals(first.bytes.copyOf(first.size), third.bytes.copyOf(third.size))
+    }
+
+    @Test
+    fun leavesUniqueIdsOutOfTheDictionary() {
+        val strings = StringDictionary()
+        val sink = ByteSink()
+        CborCodec.encode(
+            "{\"eventType\":\"a\",\"data\":{\"entityId\":\"0f3a2c1e-5b7d-4e8f-9a6b-1c2d3e4f5a6b\",\"entityType\":\"minecraft:zombie\"}}",
+            sink,
+            strings
+        )
+        assertEquals(-1, strings.idOf("0f3a2c1e-5b7d-4e8f-9a6b-1c2d3e4f5a6b"))
+        assertTrue(strings.idOf("minecraft:zombie") >= 0)
+    }
+
+    @Test
+    fun stopsDefiningWhenFull() {
+        val strings = StringDictionary(maxEntries = 1)
+        val sink = ByteSink()
+        CborCodec.encode("{\"eventType\":\"a\",\"data\":{\"playerName\":\"Steve\"}}", sink, strings)
+        assertEquals(1, strings.size())
+        assertEquals(-1, strings.idOf("Steve"))
+        assertEquals("{\"eventType\":\"a\",\"data\":{\"playerName\":\"Steve\"}}", CborCodec.decode(sink.bytes, 0, sink.size, StringDictionary()))
+    }
+
+    @Test
+    fun isSmallerThanJson() {
+        val json = "{\"eventType\":\"entity_damage\",\"data\":{\"entity\":{\"entityId\":\"0f3a2c1e-5b7d-4e8f-9a6b-1c2d3e4f5a6b\",\"x\":10.0,\"y\":64.0,\"z\":-28.0,\"level\":7},\"damage\":4.5},\"timestamp\":1700000000}"
+        val sink = ByteSink()
+        CborCodec.encode(json, sink)
+        assertTrue(sink.size < json.length)
+    }
+
+    @Test
+    fun decodesFieldCodeKeys() {
+        val sink = ByteSink()
+        sink.write(CborCodec.BEGIN_MAP)
+        CborCodec.writeKey("eventType", sink)
+        CborCodec.writeText("a", sink)
+        CborCodec.writeKey("data", sink)
+        sink.write(CborCodec.BEGIN_MAP)
+        CborCodec.writeKey("x", sink)
+        CborCodec.writeDouble(1.5, sink)
+        CborCodec.writeKey("loadSentAt", sink)
+        CborCodec.writeInteger(7, sink)
+        sink.write(CborCodec.BREAK)
+        CborCodec.writeKey("timestamp", sink)
+        CborCodec.writeInteger(1, sink)
+        sink.write(CborCodec.BREAK)
+
+        // Same fixture as bcon_server's message.rs field code test
+        val expected = byteArrayOf(
+            0xbf.toByte(), 0x00, 0x61, 'a'.code.toByte(),
+            0x01, 0xbf.toByte(), 0x06, 0xfa.toByte(), 0x3f, 0xc0.toByte(), 0x00, 0x00,
+            0x6a, *"loadSentAt".toByteArray(), 0x07, 0xff.toByte(),
+            0x02, 0x01,
+            0xff.toByte()
+        )
+        assertContentEquals(expected, sink.bytes.copyOf(sink.size))
+        assertEquals(
+            "{\"eventType\":\"a\",\"data\":{\"x\":1.5,\"loadSentAt\":7},\"timestamp\":1}",
+            CborCodec.decode(sink.bytes, 0, sink.size)
+        )
+    }
+
+    @Test
+    fun fieldCodesMatchTheServerTable() {
+        // bcon_server's message.rs checks the same count and checksum, so the two tables can't drift apart
+        val crc = CRC32()
+        crc.update(FieldCodes.joined().toByteArray())
+        assertEquals(136, FieldCodes.size())
+        assertEquals(3080013965L, crc.value)
+    }
+
+    @Test
+    fun sharedStringsAreDefinedAheadOfTheEnvelope() {
+        val frame = "{\"eventType\":\"a\",\"data\":{\"dimension\":\"minecraft:the_end\",\"message\":\"hi\"},\"timestamp\":1}"
+        val payload = ByteSink()
+        CborCodec.encodeShared(frame, payload)
+        val id = SharedStrings.idOf("minecraft:the_end")
+        val reference = byteArrayOf(0xd8.toByte(), 0xe1.toByte(), *ByteSink().also { CborCodec.writeInteger(id.toLong(), it) }.copyFrom(0))
+        assertTrue(payload.copyFrom(0).asList().windowed(reference.size).contains(reference.asList()))
+        assertEquals(frame, CborCodec.toJson(payload.copyFrom(0)))
+
+        // What a FrameWriter sends to a socket that has seen none of the table yet
+        val sink = ByteSink()
+        sink.write(CborCodec.BEGIN_MAP)
+        CborCodec.writeSharedDefinitions(0, SharedStrings.size(), sink)
+        sink.write(payload.bytes, 1, payload.size - 1)
+        val decoded = CborCodec.decode(sink.bytes, 0, sink.size, StringDictionary())
+        assertEquals(frame, decoded.replaceFirst(Regex("\"strings\":\\[[^\\]]*],"), ""))
+    }
+}
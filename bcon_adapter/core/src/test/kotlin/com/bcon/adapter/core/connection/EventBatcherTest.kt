@@ -0,0 +1,55 @@
+package com.bcon.adapter.core.connection
+
+import com.google.gson.JsonParser
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class EventBatcherTest {
+
+    private val ack = """{"eventType":"command_result","replyTo":"%s","data":{"success":true,"result":"ok"},"timestamp":1}"""
+
+    @Test
+    fun coalescesAcksIntoOneFrame() {
+        val batcher = EventBatcher(64, 65536, 5, "command_result_batch")
+        batcher.add(ack.format("a1"), 0)
+        batcher.add(ack.format("a2"), 0)
+        assertTrue(batcher.isDue(5))
+
+        val frame = JsonParser.parseString(batcher.drain().text).asJsonObject
+        assertEquals("command_result_batch", frame.get("eventType").asString)
+        assertEquals("a2", frame.getAsJsonArray("data")[1].asJsonObject.get("replyTo").asString)
+        assertTrue(batcher.isEmpty())
+    }
+
+    @Test
+    fun sendsSingleAckAsPlainEnvelope() {
+        val batcher = EventBatcher(64, 65536, 5, "command_result_batch")
+        batcher.add(ack.format("a1"), 0)
+        assertEquals(ack.format("a1"), batcher.drain().text)
+    }
+
+    @Test
+    fun batchesCborEnvelopesWithoutTranscoding() {
+        val batcher = EventBatcher(64, 65536, 5)
+        val envelope = ByteSink()
+        OutboundMessage("player_chat", null, timestamp = 1, encodedCbor = cborPayload("hi")).encodeCbor(envelope)
+        batcher.add(envelope, 0)
+        assertTrue(!batcher.holds(false))
+        envelope.reset()
+        OutboundMessage("player_chat", null, timestamp = 2, encodedCbor = cborPayload("there")).encodeCbor(envelope)
+        batcher.add(envelope, 0)
+
+        val cbor = batcher.drain().cbor!!
+        val frame = JsonParser.parseString(CborCodec.decode(cbor, 0, cbor.size)).asJsonObject
+        assertEquals("event_batch", frame.get("eventType").asString)
+        assertEquals("there", frame.getAsJsonArray("data")[1].asJsonObject.getAsJsonObject("data").get("message").asString)
+        assertTrue(batcher.holds(false))
+    }
+
+    private fun cborPayload(message: String): ByteArray {
+        val writer = CborEventWriter.forThread()
+        writer.beginObject().name("message").value(message).endObject()
+        return writer.toByteArray()
+    }
+}
@@ -0,0 +1,88 @@
+package com.bcon.adapter.core.connection
+
+import com.bcon.adapter.core.logging.JavaBconLogger
+import java.nio.file.Files
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class EventSpoolTest {
+
+    private val logger = JavaBconLogger("EventSpoolTest")
+    private val directory = Files.createTempDirectory("bcon-spool").toFile().apply { deleteOnExit() }
+
+    @Test
+    fun replaysFramesInOrder() {
+        val spool = EventSpool(directory, 1024L * 1024, logger)
+        spool.open()
+
+        spool.append("{\"eventType\":\"a\"}")
+        spool.append("{\"eventType\":\"b\",\"data\":{\"name\":\"Stéve\"}}")
+        assertTrue(spool.hasBacklog())
+
+        assertEquals("{\"eventType\":\"a\"}", spool.peek())
+        // Not committed yet, so the same frame comes back
+        assertEquals("{\"eventType\":\"a\"}", spool.peek())
+        spool.commit()
+        assertEquals("{\"eventType\":\"b\",\"data\":{\"name\":\"Stéve\"}}", spool.peek())
+        spool.commit()
+
+        assertFalse(spool.hasBacklog())
+        assertNull(spool.peek())
+        assertEquals(0, spool.backlogBytes())
+        spool.close()
+    }
+
+    @Test
+    fun survivesRestart() {
+        val first = EventSpool(directory, 1024L * 1024, logger)
+        first.open()
+        first.append("one")
+        first.append("two")
+        first.close()
+
+        val second = EventSpool(directory, 1024L * 1024, logger)
+        second.open()
+        assertTrue(second.hasBacklog())
+        assertEquals("one", second.peek())
+        second.commit()
+        second.append("three")
+        assertEquals("two", second.peek())
+        second.commit()
+        assertEquals("three", second.peek())
+        second.commit()
+        assertFalse(second.hasBacklog())
+        second.close()
+    }
+
+    @Test
+    fun discardsOldestSegmentsOverCap() {
+        val spool = EventSpool(directory, 256L * 1024, logger)
+        spool.open()
+
+        val frame = "x".repeat(1000)
+        repeat(1000) { spool.append(frame) }
+
+        assertTrue(spool.backlogBytes() <= 256L * 1024)
+        assertEquals(frame, spool.peek())
+        spool.close()
+    }
+
+    @Test
+    fun handlesFramesLargerThanWriteBuffer() {
+        val spool = EventSpool(directory, 16L * 1024 * 1024, logger)
+        spool.open()
+
+        val large = "y".repeat(100_000)
+        spool.append("small")
+        spool.append(large)
+        assertEquals("small", spool.peek())
+        spool.commit()
+        assertEquals(large, spool.peek())
+        spool.commit()
+        assertFalse(spool.hasBacklog())
+        spool.close()
+    }
+}
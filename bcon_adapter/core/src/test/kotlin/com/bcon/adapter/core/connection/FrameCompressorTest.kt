@@ -0,0 +1,62 @@
+package com.bcon.adapter.core.connection
+
+import java.util.zip.CRC32
+import java.util.zip.Inflater
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class FrameCompressorTest {
+
+    private fun inflate(frame: ByteSink): String {
+        val inflater = Inflater(true)
+        inflater.setDictionary(FrameCompressor.DICTIONARY)
+        inflater.setInput(frame.bytes, 1, frame.size - 1)
+        val out = ByteArray(64 * 1024)
+        val length = inflater.inflate(out)
+        assertTrue(inflater.finished())
+        inflater.end()
+        return String(out, 0, length, Charsets.UTF_8)
+    }
+
+    @Test
+    fun dictionaryMatchesServer() {
+        // Same length and CRC-32 as bcon_server's message.rs DEFLATE_DICTIONARY
+        val crc = CRC32()
+        crc.update(FrameCompressor.DICTIONARY)
+        assertEquals(516, FrameCompressor.DICTIONARY.size)
+        assertEquals(843789761L, crc.value)
+    }
+
+    @Test
+    fun compressesLargeFrames() {
+        val items = (1..20).joinToString(",") { "{\"type\":\"minecraft:bone\",\"amount\":$it,\"displayName\":\"Bone\"}" }
+        val json = "{\"eventType\":\"loot_generate\",\"data\":{\"lootTable\":\"minecraft:chests/simple_dungeon\",\"items\":[$items]},\"timestamp\":1700000000}"
+        val input = json.toByteArray(Charsets.UTF_8)
+
+        val compressor = FrameCompressor(1024)
+        val out = ByteSink(16)
+        assertTrue(compressor.shouldCompress(input.size))
+        assertTrue(compressor.compress(FrameCompressor.FRAME_DEFLATE_JSON, input, 0, input.size, out))
+        assertEquals(FrameCompressor.FRAME_DEFLATE_JSON, out.bytes[0].toInt())
+        assertTrue(out.size < input.size / 4)
+        assertEquals(json, inflate(out))
+
+        // The deflater is reused, so a second frame must decode independently of the first
+        val second = "{\"eventType\":\"player_chat\",\"data\":{\"message\":\"héllo\"},\"timestamp\":1}".toByteArray(Charsets.UTF_8)
+        assertTrue(compressor.compress(FrameCompressor.FRAME_DEFLATE_JSON, second, 0, second.size, out))
+        assertEquals(String(second, Charsets.UTF_8), inflate(out))
+        compressor.close()
+    }
+
+    @Test
+    fun skipsFramesThatDoNotShrink() {
+        val compressor = FrameCompressor(1024)
+        assertFalse(compressor.shouldCompress(1023))
+
+        val random = ByteArray(2048).also { java.util.Random(42).nextBytes(it) }
+        assertFalse(compressor.compress(FrameCompressor.FRAME_DEFLATE_CBOR, random, 0, random.size, ByteSink()))
+        compressor.close()
+    }
+}
@@ -0,0 +1,49 @@
+package com.bcon.adapter.core.connection
+
+import com.google.gson.JsonSyntaxException
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class IncomingMessageReaderTest {
+
+    private fun read(json: String) = IncomingMessageReader.read(StringBuilder(json))
+
+    @Test
+    fun readsServerEnvelope() {
+        val message = read(
+            """{"type":"register_command","data":{"name":"spawn","args":[1,2]},"timestamp":1700000000,""" +
+                """"messageId":"abc-123","timeoutMs":30000,"requires_ack":true}"""
+        )
+
+        assertEquals("abc-123", message.messageId)
+        assertEquals("register_command", message.type)
+        assertEquals("spawn", message.data?.get("name")?.asString)
+        assertEquals(2, message.data?.getAsJsonArray("args")?.size())
+        assertTrue(message.requiresAck)
+    }
+
+    @Test
+    fun acceptsCamelCaseAckAndNullFields() {
+        val message = read("""{"messageId":"m1","type":"chat","data":null,"error":null,"requiresAck":true}""")
+        assertNull(message.data)
+        assertTrue(message.requiresAck)
+    }
+
+    @Test
+    fun skipsPayloadOfPayloadFreeTypes() {
+        val message = read("""{"type":"clear_commands","data":{"ignored":[{"deep":true}]},"messageId":"m2"}""")
+        assertEquals("clear_commands", message.type)
+        assertNull(message.data)
+        assertFalse(message.requiresAck)
+    }
+
+    @Test
+    fun rejectsMalformedInput() {
+        assertFailsWith<JsonSyntaxException> { read("""{"type":"chat",""") }
+        assertFailsWith<JsonSyntaxException> { read("""{"type":{"nested":1}}""") }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bcon.adapter.core.connection
+
+import java.nio.ByteBuffer
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class LinkMonitorTest {
+
+    private var now = 0L
+    private val monitor = LinkMonitor(maxPingIntervalMs = 30_000) { now }
+
+    private fun advanceMs(ms: Long) {
+        now += ms * 1_000_000
+    }
+
+    private fun pingAndEcho(rttMs: Long) {
+        val payload = monitor.nextPing()
+        advanceMs(rttMs)
+        monitor.onPong(payload)
+    }
+
+    @Test
+    fun doesNotPingWhileTrafficFlows() {
+        repeat(10) {
+            advanceMs(1_000)
+            monitor.onInbound()
+            assertEquals(LinkMonitor.Action.NONE, monitor.check())
+        }
+    }
+
+    @Test
+    fun pingsAfterSilence() {
+        advanceMs(2_000)
+        assertEquals(LinkMonitor.Action.PING, monitor.check())
+    }
+
+    @Test
+    fun measuresRttFromEchoedPayload() {
+        pingAndEcho(40)
+        assertEquals(40.0, monitor.smoothedRttMs())
+
+        // Later samples are smoothed rather than replacing the estimate
+        pingAndEcho(120)
+        assertEquals(50.0, monitor.smoothedRttMs())
+    }
+
+    @Test
+    fun ignoresPongsThatDoNotEchoTheOutstandingPing() {
+        monitor.nextPing()
+        advanceMs(40)
+        monitor.onPong(ByteBuffer.allocate(0))
+        assertEquals(-1.0, monitor.smoothedRttMs())
+    }
+
+    @Test
+    fun declaresIdleLinkDeadWithinSeconds() {
+        pingAndEcho(20)
+
+        advanceMs(monitor.pingIntervalNanos() / 1_000_000)
+        assertEquals(LinkMonitor.Action.PING, monitor.check())
+        monitor.nextPing()
+
+        advanceMs(9_000)
+        assertEquals(LinkMonitor.Action.NONE, monitor.check())
+        advanceMs(2_000)
+        assertEquals(LinkMonitor.Action.DEAD, monitor.check())
+    }
+
+    @Test
+    fun pausedReadingNeverDeclaresTheLinkDead() {
+        pingAndEcho(20)
+        monitor.nextPing()
+
+        // Backpressure holds the pong back for longer than any timeout
+        advanceMs(120_000)
+        assertEquals(LinkMonitor.Action.NONE, monitor.check(readingPaused = true))
+
+        // Reading resumed: the link gets a fresh window rather than an instant verdict
+        advanceMs(1_000)
+        assertEquals(LinkMonitor.Action.NONE, monitor.check())
+    }
+
+    @Test
+    fun otherTrafficAfterAPingProvesTheLinkAlive() {
+        monitor.nextPing()
+        advanceMs(10)
+        monitor.onInbound()
+        advanceMs(60_000)
+        assertTrue(monitor.check() != LinkMonitor.Action.DEAD)
+    }
+
+    @Test
+    fun intervalAndTimeoutFollowRtt() {
+        pingAndEcho(500)
+        assertEquals(8_000L, monitor.pingIntervalNanos() / 1_000_000)
+        assertEquals(10_000L, monitor.pongTimeoutNanos() / 1_000_000)
+
+        pingAndEcho(5_000)
+        assertEquals(17_000L, monitor.pingIntervalNanos() / 1_000_000)
+        assertEquals(25_250L, monitor.pongTimeoutNanos() / 1_000_000)
+    }
+}
@@ -0,0 +1,59 @@
+package com.bcon.adapter.core.connection
+
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class OutboundQueueTest {
+
+    private fun event(name: String) = OutboundMessage(name, null)
+
+    private fun ack(id: String) = OutboundMessage("command_result", null, replyTo = id)
+
+    @Test
+    fun dropOldestEvictsEventsButNeverAcks() {
+        val queue = OutboundQueue(2, OverflowPolicy.DROP_OLDEST, 0)
+        queue.offer(ack("c1"))
+        repeat(5) { queue.offer(event("e$it")) }
+
+        assertEquals(3, queue.size())
+        assertEquals(3, queue.droppedCount())
+        assertEquals("c1", queue.poll(0, TimeUnit.MILLISECONDS)?.replyTo)
+        assertEquals("e3", queue.poll(0, TimeUnit.MILLISECONDS)?.eventType)
+        assertEquals("e4", queue.poll(0, TimeUnit.MILLISECONDS)?.eventType)
+        assertNull(queue.poll(0, TimeUnit.MILLISECONDS))
+    }
+
+    @Test
+    fun acksOvertakeQueuedEvents() {
+        val queue = OutboundQueue(10, OverflowPolicy.DROP_NEWEST, 0)
+        queue.offer(event("e1"))
+        queue.offer(event("e2"))
+        queue.offer(ack("c1"))
+
+        assertEquals("c1", queue.poll(0, TimeUnit.MILLISECONDS)?.replyTo)
+        assertEquals("e1", queue.poll(0, TimeUnit.MILLISECONDS)?.eventType)
+    }
+
+    @Test
+    fun droppedMessagesAreSettled() {
+        var settled = 0
+        val queue = OutboundQueue(1, OverflowPolicy.DROP_OLDEST, 0)
+        queue.offer(OutboundMessage("event_batch", null, frame = Frame.text("{}"), onSettled = { settled++ }))
+        queue.offer(event("e1"))
+
+        // The evicted lane frame counts as settled, so its lane does not wait for it forever
+        assertEquals(1, settled)
+    }
+
+    @Test
+    fun fullEventQueueStillAcceptsAcks() {
+        val queue = OutboundQueue(1, OverflowPolicy.BLOCK, 10)
+        queue.offer(event("e1"))
+
+        assertEquals(false, queue.offer(event("e2")))
+        assertEquals(true, queue.offer(ack("c1")))
+        assertEquals(1, queue.droppedCount())
+    }
+}
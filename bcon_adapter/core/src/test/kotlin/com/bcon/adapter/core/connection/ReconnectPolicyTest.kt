@@ -0,0 +1,76 @@
+package com.bcon.adapter.core.connection
+
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ReconnectPolicyTest {
+
+    private var now = 0L
+    private val policy = ReconnectPolicy(
+        baseDelayMs = 500,
+        maxDelayMs = 60_000,
+        failureThreshold = 5,
+        openMs = 120_000,
+        stableMs = 30_000,
+        clock = { now },
+        random = Random(42)
+    )
+
+    @Test
+    fun delaysStayWithinDecorrelatedBounds() {
+        var previous = 500L
+        repeat(4) {
+            val delay = policy.onFailure()
+            assertTrue(delay in 500..minOf(60_000, previous * 3), "delay $delay after $previous")
+            previous = delay
+        }
+        assertEquals(ReconnectPolicy.BreakerState.CLOSED, policy.breakerState)
+    }
+
+    @Test
+    fun opensAfterThresholdAndProbesOnce() {
+        repeat(4) { policy.onFailure() }
+        val wait = policy.onFailure()
+        assertEquals(ReconnectPolicy.BreakerState.OPEN, policy.breakerState)
+        assertTrue(wait in 120_000..120_500)
+        assertFalse(policy.allowAttempt())
+
+        now += 120_000
+        assertTrue(policy.allowAttempt())
+        assertEquals(ReconnectPolicy.BreakerState.HALF_OPEN, policy.breakerState)
+
+        // A failed probe opens the breaker again right away
+        policy.onFailure()
+        assertEquals(ReconnectPolicy.BreakerState.OPEN, policy.breakerState)
+        assertFalse(policy.allowAttempt())
+
+        now += 120_000
+        assertTrue(policy.allowAttempt())
+        policy.onConnected()
+        assertEquals(ReconnectPolicy.BreakerState.CLOSED, policy.breakerState)
+    }
+
+    @Test
+    fun stableConnectionClearsFailures() {
+        repeat(3) { policy.onFailure() }
+        policy.onConnected()
+        now += 30_000
+        policy.onFailure()
+        assertEquals(1, policy.consecutiveFailures)
+    }
+
+    @Test
+    fun flappingConnectionKeepsBackingOff() {
+        repeat(4) {
+            policy.onFailure()
+            policy.onConnected()
+            now += 1_000
+        }
+        policy.onFailure()
+        assertEquals(5, policy.consecutiveFailures)
+        assertEquals(ReconnectPolicy.BreakerState.OPEN, policy.breakerState)
+    }
+}
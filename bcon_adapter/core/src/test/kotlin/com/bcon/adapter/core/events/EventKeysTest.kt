@@ -0,0 +1,28 @@
+package com.bcon.adapter.core.events
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
+import kotlin.test.assertTrue
+
+class EventKeysTest {
+
+    @Test
+    fun blockKeysTellPositionsAndDimensionsApart() {
+        val furnace = EventKeys.of(Location(10.0, 64.0, -3.0, "minecraft:overworld"))
+
+        assertEquals(furnace, EventKeys.of(Location(10.0, 64.0, -3.0, "minecraft:overworld")))
+        assertNotEquals(furnace, EventKeys.of(Location(10.0, 65.0, -3.0, "minecraft:overworld")))
+        assertNotEquals(furnace, EventKeys.of(Location(10.0, 64.0, -3.0, "minecraft:the_nether")))
+        assertNotEquals(EventKeys.NONE, furnace)
+    }
+
+    @Test
+    fun stripesStayInRangeAndKeylessEventsShareTheFirst() {
+        repeat(1000) {
+            val stripe = EventKeys.stripe(EventKeys.of("player $it"), 3)
+            assertTrue(stripe in 0 until 3)
+        }
+        assertEquals(0, EventKeys.stripe(EventKeys.NONE, 3))
+    }
+}
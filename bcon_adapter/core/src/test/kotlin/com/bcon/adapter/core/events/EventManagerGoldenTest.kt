@@ -0,0 +1,168 @@
+package com.bcon.adapter.core.events
+
+import com.bcon.adapter.core.BconAdapter
+import com.bcon.adapter.core.connection.CborCodec
+import com.bcon.adapter.core.connection.OutboundMessage
+import com.bcon.adapter.core.scheduling.BudgetedTickExecutor
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import java.util.concurrent.CompletableFuture
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+/**
+ * Golden-file tests for the streaming event encoder
+ * The files under resources/golden were produced by the previous JsonObject-tree implementation,
+ * so any drift in field order, number formatting, escaping or null handling fails here
+ */
+class EventManagerGoldenTest {
+
+    private val adapter = CapturingAdapter()
+    private val events = EventManager(adapter)
+
+    private val overworld = "minecraft:overworld"
+    private val player = PlayerData(
+        uuid = "8667ba71-b85a-4004-af54-457a9734eed7",
+        name = "Steve",
+        location = Location(12.5, 64.0, -30.25, overworld),
+        health = 18.5,
+        maxHealth = 20.0,
+        level = 7,
+        gameMode = "SURVIVAL"
+    )
+    private val zombie = EntityData(
+        uuid = "0f3a2c1e-5b7d-4e8f-9a6b-1c2d3e4f5a6b",
+        type = "minecraft:zombie",
+        location = Location(10.0, 64.0, -28.0, overworld)
+    )
+
+    @Test
+    fun playerJoined() {
+        events.onPlayerJoined(player)
+        assertGolden("player_joined")
+    }
+
+    @Test
+    fun playerDeathEscapesHtmlCharacters() {
+        events.onPlayerDeath(player, "Steve was slain by <Zombie> & friends='x'", zombie)
+        assertGolden("player_death")
+    }
+
+    @Test
+    fun entityDamageOmitsMissingSource() {
+        events.onEntityDamage(zombie.copy(name = "Bob"), 4.5, "minecraft:player_attack", null)
+        assertGolden("entity_damage")
+    }
+
+    @Test
+    fun blockBreakOmitsNullBlockData() {
+        events.onPlayerBreakBlockAfter(player, BlockData("minecraft:stone", Location(1.0, 2.0, 3.0, overworld)))
+        assertGolden("player_break_block_after")
+    }
+
+    @Test
+    fun lootGenerateWritesItemArray() {
+        val items = listOf(
+            ItemData("minecraft:diamond", 2, displayName = "Shiny", lore = listOf("Line <1>")),
+            ItemData("minecraft:stick", 1)
+        )
+        events.onLootGenerate(Location(100.0, 40.0, -7.0, overworld), "minecraft:chests/simple_dungeon", items, null)
+        assertGolden("loot_generate")
+    }
+
+    @Test
+    fun worldLoad() {
+        events.onWorldLoad(WorldData("world", overworld, 6000L, "NORMAL", "RAIN", true))
+        assertGolden("world_load")
+    }
+
+    @Test
+    fun playerInputWritesKeyArray() {
+        events.onPlayerInput(player, linkedSetOf("forward", "jump"), "movement")
+        assertGolden("player_input")
+    }
+
+    @Test
+    fun fishingCastWritesHookFields() {
+        events.onPlayerFishingCast(player, FishHookData(Location(13.0, 62.5, -31.0, overworld), true, 140))
+        assertGolden("player_fishing_cast")
+    }
+
+    @Test
+    fun cborPayloadsDecodeToTheGoldenJson() {
+        events.binaryPayloads = true
+        events.internStrings = true
+        events.onPlayerDeath(player, "Steve was slain by <Zombie> & friends='x'", zombie)
+        events.onPlayerBreakBlockAfter(player, BlockData("minecraft:stone", Location(1.0, 2.0, 3.0, overworld)))
+        val items = listOf(
+            ItemData("minecraft:diamond", 2, displayName = "Shiny", lore = listOf("Line <1>")),
+            ItemData("minecraft:stick", 1)
+        )
+        events.onLootGenerate(Location(100.0, 40.0, -7.0, overworld), "minecraft:chests/simple_dungeon", items, null)
+
+        assertEquals(listOf("player_death", "player_break_block_after", "loot_generate"), adapter.cborEvents.map { it.first })
+        for ((name, payload) in adapter.cborEvents) {
+            // Repeating values are references into the shared string table, resolved by toJson
+            val decoded = JsonParser.parseString(CborCodec.toJson(payload))
+            val golden = JsonParser.parseString(javaClass.getResource("/golden/$name.json")!!.readText())
+            assertEquals(golden, decoded, name)
+        }
+        assertEquals(null, adapter.lastEncodedData)
+    }
+
+    @Test
+    fun envelopeMatchesTreeEncoding() {
+        val gson = Gson()
+        val data = JsonObject().apply {
+            addProperty("success", true)
+            addProperty("result", "ok <b>")
+        }
+        val ack = OutboundMessage("command_result", data, replyTo = "msg-1", timestamp = 1700000000L)
+        val legacy = JsonObject().apply {
+            addProperty("eventType", "command_result")
+            addProperty("replyTo", "msg-1")
+            add("data", data)
+            addProperty("timestamp", 1700000000L)
+        }
+        assertEquals(gson.toJson(legacy), ack.encode(gson))
+
+        val streamed = OutboundMessage("player_chat", null, timestamp = 1700000000L, encodedData = "{\"message\":\"hi\"}")
+        assertEquals("{\"eventType\":\"player_chat\",\"data\":{\"message\":\"hi\"},\"timestamp\":1700000000}", streamed.encode(gson))
+
+        val empty = OutboundMessage("server_started", null, timestamp = 1700000000L)
+        assertEquals("{\"eventType\":\"server_started\",\"data\":{},\"timestamp\":1700000000}", empty.encode(gson))
+    }
+
+    private fun assertGolden(name: String) {
+        val expected = javaClass.getResource("/golden/$name.json")!!.readText().trimEnd()
+        assertEquals(name, adapter.lastEventType)
+        assertEquals(expected, adapter.lastEncodedData)
+    }
+
+    private class CapturingAdapter : BconAdapter() {
+        var lastEventType: String? = null
+        var lastEncodedData: String? = null
+        val cborEvents = mutableListOf<Pair<String, ByteArray>>()
+
+        override fun sendEncodedEvent(eventType: String, encodedData: String, timestamp: Long, key: Long) {
+            lastEventType = eventType
+            lastEncodedData = encodedData
+        }
+
+        override fun sendCborEvent(eventType: String, encodedData: ByteArray, timestamp: Long, key: Long) {
+            cborEvents.add(eventType to encodedData)
+        }
+
+        override fun onInitialize() {}
+        override fun onShutdown() {}
+        override fun registerEvents() {}
+        override val tickExecutor: BudgetedTickExecutor get() = throw UnsupportedOperationException()
+        override fun executeCommand(command: String): CompletableFuture<String> = CompletableFuture.completedFuture("")
+        override fun broadcastMessage(message: String): CompletableFuture<String> = CompletableFuture.completedFuture("")
+        override fun getServerInstance(): Any? = null
+        override fun isServerRunning(): Boolean = true
+        override fun getServerInfo(): JsonObject = JsonObject()
+        override fun handleStrictModeFailure() {}
+    }
+}
@@ -0,0 +1,78 @@
+package com.bcon.adapter.core.events
+
+import com.google.gson.JsonParser
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class EventPolicyTest {
+
+    @Test
+    fun unconfiguredTypesPassThrough() {
+        val engine = EventPolicyEngine()
+        assertTrue(engine.allow("entity_damage") { EventKeys.of("a") })
+        assertEquals(0, engine.filteredCount())
+    }
+
+    @Test
+    fun categorySwitchDisablesType() {
+        val engine = EventPolicyEngine()
+        engine.configure(JsonParser.parseString("{\"enableEntityEvents\": false}").asJsonObject, JsonParser.parseString("{}").asJsonObject)
+
+        assertFalse(engine.wants("entity_heal"))
+        assertFalse(engine.allow("projectile_kill") { EventKeys.NONE })
+        assertTrue(engine.allow("player_chat") { EventKeys.NONE })
+    }
+
+    @Test
+    fun samplingKeepsOneInN() {
+        val policy = EventPolicy(enabled = true, maxPerSecond = 0.0, sampleRate = 4, dedupWindowMs = 0)
+        val now = System.currentTimeMillis()
+        val kept = (1..20).count { policy.allow(EventKeys.NONE, now) }
+        assertEquals(5, kept)
+    }
+
+    @Test
+    fun dedupWindowIsPerKey() {
+        val policy = EventPolicy(enabled = true, maxPerSecond = 0.0, sampleRate = 1, dedupWindowMs = 500)
+        val now = System.currentTimeMillis()
+
+        assertTrue(policy.allow(EventKeys.of("zombie"), now))
+        assertFalse(policy.allow(EventKeys.of("zombie"), now + 100))
+        assertTrue(policy.allow(EventKeys.of("skeleton"), now + 100))
+        assertTrue(policy.allow(EventKeys.of("zombie"), now + 600))
+    }
+
+    @Test
+    fun fullDedupMapForgetsTheOldestLiveKeys() {
+        val policy = EventPolicy(enabled = true, maxPerSecond = 0.0, sampleRate = 1, dedupWindowMs = 60_000)
+        val now = System.currentTimeMillis()
+
+        // More live keys than are tracked: the first ones are evicted rather than the map being rescanned
+        repeat(10_001) { assertTrue(policy.allow(EventKeys.of("block $it"), now + it / 100)) }
+        assertTrue(policy.allow(EventKeys.of("block 0"), now + 200))
+        assertFalse(policy.allow(EventKeys.of("block 10000"), now + 200))
+    }
+
+    @Test
+    fun tokenBucketRefillsOverTime() {
+        val policy = EventPolicy(enabled = true, maxPerSecond = 10.0, sampleRate = 1, dedupWindowMs = 0)
+        val now = System.currentTimeMillis()
+
+        val burst = (1..20).count { policy.allow(EventKeys.NONE, now) }
+        assertEquals(10, burst)
+        assertFalse(policy.allow(EventKeys.NONE, now))
+        assertTrue(policy.allow(EventKeys.NONE, now + 100))
+    }
+
+    @Test
+    fun filteredEventsSkipKeyWhenNoDedup() {
+        val engine = EventPolicyEngine()
+        engine.configure(JsonParser.parseString("{}").asJsonObject, JsonParser.parseString("{\"player_input\": {\"sampleRate\": 2}}").asJsonObject)
+
+        var keyRequested = false
+        engine.allow("player_input") { keyRequested = true; EventKeys.of("steve") }
+        assertFalse(keyRequested)
+    }
+}
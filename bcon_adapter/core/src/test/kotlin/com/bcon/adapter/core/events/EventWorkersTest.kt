@@ -0,0 +1,35 @@
+package com.bcon.adapter.core.events
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class EventWorkersTest {
+
+    @Test
+    fun saturatedStripeDropsInsteadOfRunningOnTheCaller() {
+        val workers = EventWorkers(1, 1)
+        val player = EventKeys.of("player")
+        val release = CountDownLatch(1)
+        val started = CountDownLatch(1)
+        val caller = Thread.currentThread()
+        var ranOnCaller = false
+
+        // One task holds the stripe, one fills its queue, the third has nowhere to go
+        workers.execute(player) {
+            started.countDown()
+            release.await()
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        workers.execute(player) {}
+        workers.execute(player) { ranOnCaller = Thread.currentThread() === caller }
+
+        assertEquals(1, workers.dropped())
+        assertEquals(false, ranOnCaller)
+
+        release.countDown()
+        workers.shutdown(2000)
+    }
+}
@@ -0,0 +1,28 @@
+package com.bcon.adapter.core.events
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class MsptStatsTest {
+
+    @Test
+    fun percentilesComeFromTheFilledSlots() {
+        // 98 ticks of 10ms, one 40ms and one 90ms spike, plus unfilled slots from a fresh server
+        val ticks = LongArray(98) { 10_000_000 } + longArrayOf(40_000_000, 90_000_000) + LongArray(20)
+
+        val stats = MsptStats.fromTickTimes(ticks)!!
+
+        assertEquals(100, stats.samples)
+        assertEquals(11.1, stats.mean, 1e-9)
+        assertEquals(10.0, stats.p50)
+        assertEquals(10.0, stats.p95)
+        assertEquals(40.0, stats.p99)
+        assertEquals(90.0, stats.max)
+    }
+
+    @Test
+    fun emptyRingHasNoStats() {
+        assertNull(MsptStats.fromTickTimes(LongArray(100)))
+    }
+}
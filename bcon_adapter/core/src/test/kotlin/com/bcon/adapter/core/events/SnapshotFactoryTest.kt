@@ -0,0 +1,70 @@
+package com.bcon.adapter.core.events
+
+import java.util.UUID
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+
+class SnapshotFactoryTest {
+
+    private class World(val key: String)
+
+    private val overworld = World("minecraft:overworld")
+    private val nether = World("minecraft:the_nether")
+    private var dimensionLookups = 0
+    private val factory = SnapshotFactory<World> {
+        dimensionLookups++
+        String(it.key.toCharArray())
+    }
+    private val uuid = UUID.fromString("8667ba71-b85a-4004-af54-457a9734eed7")
+
+    private fun snapshot(name: String, world: World) =
+        factory.player(uuid, name, world, 1.0, 64.0, -2.0, 0f, 0f, 20.0, 20.0, 3, "SURVIVAL")
+
+    @Test
+    fun reusesStringsAcrossSnapshots() {
+        val first = snapshot("Steve", overworld)
+        val second = snapshot("Steve", overworld)
+
+        assertEquals("8667ba71-b85a-4004-af54-457a9734eed7", first.uuid)
+        assertEquals("minecraft:overworld", first.location.dimension)
+        assertSame(first.uuid, second.uuid)
+        assertSame(first.location.dimension, second.location.dimension)
+        assertSame(first.location.dimension, factory.location(0.0, 0.0, 0.0, overworld).dimension)
+        assertEquals(1, dimensionLookups)
+    }
+
+    @Test
+    fun followsWorldChangesAndRenames() {
+        val before = snapshot("Steve", overworld)
+        val travelled = snapshot("Steve", nether)
+        assertEquals("minecraft:the_nether", travelled.location.dimension)
+
+        val renamed = snapshot("Alex", nether)
+        assertEquals("Alex", renamed.name)
+        assertSame(before.uuid, renamed.uuid)
+    }
+
+    @Test
+    fun forgetsPlayersAndWorlds() {
+        val before = snapshot("Steve", overworld)
+        factory.forgetPlayer(uuid)
+        factory.forgetWorld(overworld)
+
+        val after = snapshot("Steve", overworld)
+        assertEquals(before.uuid, after.uuid)
+        assertNotSame(before.uuid, after.uuid)
+        assertEquals(2, dimensionLookups)
+    }
+
+    @Test
+    fun cachesTypeNames() {
+        var lookups = 0
+        val type = Any()
+        val first = factory.typeName(type) { lookups++; "minecraft:cow" }
+        val second = factory.typeName(type) { lookups++; "minecraft:cow" }
+        assertSame(first, second)
+        assertEquals(1, lookups)
+    }
+}
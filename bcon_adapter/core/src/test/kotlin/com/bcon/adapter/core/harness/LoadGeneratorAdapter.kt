@@ -0,0 +1,233 @@
+package com.bcon.adapter.core.harness
+
+import com.bcon.adapter.core.BconAdapter
+import com.bcon.adapter.core.connection.ByteSink
+import com.bcon.adapter.core.connection.CborCodec
+import com.bcon.adapter.core.events.BlockData
+import com.bcon.adapter.core.events.EntityData
+import com.bcon.adapter.core.events.ItemData
+import com.bcon.adapter.core.events.Location
+import com.bcon.adapter.core.events.PlayerData
+import com.bcon.adapter.core.logging.BconLogger
+import com.bcon.adapter.core.scheduling.BudgetedTickExecutor
+import com.google.gson.JsonObject
+import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Synthetic platform adapter that fires game events at a target rate instead of listening to a server
+ * Events go through the real EventManager, queue, batcher, spool and socket. Each event's data is stamped with
+ * loadSentAt (System.nanoTime() when it reaches the connection) so the StandInServer in the same JVM can
+ * measure end-to-end latency. The "tick thread" is a timer thread that drains the tick executor every 50ms.
+ */
+class LoadGeneratorAdapter(
+    private val directory: File,
+    private val mix: EventMix,
+    private val players: Int = 50
+) : BconAdapter() {
+
+    override val logger: BconLogger = QuietLogger()
+
+    override val tickExecutor: BudgetedTickExecutor = TimerTickExecutor(logger)
+
+    @Volatile
+    var firedEvents = 0L
+        private set
+
+    private val overworld = "minecraft:overworld"
+    private val playerData = List(players) { index ->
+        PlayerData(
+            uuid = "00000000-0000-4000-8000-%012d".format(index),
+            name = "Player$index",
+            location = Location(index * 16.0, 64.0, -index * 16.0, overworld)
+        )
+    }
+    private val zombie = EntityData("0f3a2c1e-5b7d-4e8f-9a6b-1c2d3e4f5a6b", "minecraft:zombie", Location(1.0, 64.0, 1.0, overworld))
+    private val stone = BlockData("minecraft:stone", Location(3.0, 62.0, 7.0, overworld))
+    private val diamond = ItemData("minecraft:diamond", 1)
+    private val loot = listOf(diamond, ItemData("minecraft:stick", 3))
+
+    override fun dataDirectory(): File = directory
+
+    /**
+     * Fire events at ratePerSecond for durationMs from the calling thread
+     * Events are fired in 1ms slots so rates far above 1000/s don't depend on sleep precision.
+     * onProgress is called about once per second with the elapsed milliseconds.
+     */
+    fun generate(ratePerSecond: Int, durationMs: Long, onProgress: (Long) -> Unit = {}) {
+        val start = System.nanoTime()
+        var nextProgress = 1000L
+        var sequence = 0L
+        while (true) {
+            val elapsedMs = (System.nanoTime() - start) / 1_000_000
+            if (elapsedMs >= durationMs) {
+                break
+            }
+            val due = ratePerSecond * elapsedMs / 1000
+            while (sequence < due) {
+                fire(sequence++)
+            }
+            if (elapsedMs >= nextProgress) {
+                onProgress(elapsedMs)
+                nextProgress += 1000
+            }
+            LockSupport.parkNanos(1_000_000)
+        }
+    }
+
+    /**
+     * Fire the mix's next event for one of the synthetic players
+     */
+    fun fire(sequence: Long) {
+        val player = playerData[(sequence % players).toInt()]
+        when (mix.pick(sequence)) {
+            "player_chat" -> eventManager.onPlayerChat(player, "load test message $sequence")
+            "player_joined" -> eventManager.onPlayerJoined(player)
+            "player_left" -> eventManager.onPlayerLeft(player)
+            "player_break_block_after" -> eventManager.onPlayerBreakBlockAfter(player, stone)
+            "player_item_pickup" -> eventManager.onPlayerItemPickup(player, diamond, player.location)
+            "player_input" -> eventManager.onPlayerInput(player, setOf("forward", "sprint"), "movement")
+            "entity_damage" -> eventManager.onEntityDamage(zombie, 2.5, "minecraft:player_attack", null)
+            "loot_generate" -> eventManager.onLootGenerate(stone.location, "minecraft:chests/simple_dungeon", loot, null)
+        }
+        firedEvents++
+    }
+
+    fun droppedMessages(): Long = webSocketClient.droppedMessages()
+
+    fun pendingMessages(): Int = webSocketClient.pendingMessages()
+
+    fun spooledBytes(): Long = webSocketClient.spooledBytes()
+
+    fun isConnected(): Boolean = webSocketClient.isConnected()
+
+    override fun sendEncodedEvent(eventType: String, encodedData: String, timestamp: Long, key: Long) {
+        // encodedData is always a JSON object, so the stamp can be spliced in after the opening brace
+        val separator = if (encodedData.length > 2) "," else ""
+        val stamped = "{\"loadSentAt\":${System.nanoTime()}$separator${encodedData.substring(1)}"
+        super.sendEncodedEvent(eventType, stamped, timestamp, key)
+    }
+
+    override fun sendCborEvent(eventType: String, encodedData: ByteArray, timestamp: Long, key: Long) {
+        // Same stamp for CBOR payloads, written as the first entry of the indefinite-length map
+        val stamped = ByteSink(encodedData.size + 24)
+        stamped.write(encodedData[0].toInt() and 0xff)
+        CborCodec.writeText("loadSentAt", stamped)
+        CborCodec.writeInteger(System.nanoTime(), stamped)
+        stamped.write(encodedData, 1, encodedData.size - 1)
+        super.sendCborEvent(eventType, stamped.copyFrom(0), timestamp, key)
+    }
+
+    override fun onInitialize() {}
+
+    override fun onShutdown() {}
+
+    override fun registerEvents() {}
+
+    override fun executeCommand(command: String): CompletableFuture<String> {
+        return tickExecutor.submit { "Executed: $command" }
+    }
+
+    override fun broadcastMessage(message: String): CompletableFuture<String> {
+        return tickExecutor.submit { "Broadcast: $message" }
+    }
+
+    override fun getServerInstance(): Any? = null
+
+    override fun isServerRunning(): Boolean = true
+
+    override fun getServerInfo(): JsonObject = JsonObject().apply {
+        addProperty("platform", "load-generator")
+        addProperty("players", players)
+    }
+
+    override fun handleStrictModeFailure() {}
+
+    /**
+     * Fake tick thread: drains the executor every 50ms like a 20 TPS server
+     */
+    private class TimerTickExecutor(logger: BconLogger) : BudgetedTickExecutor(logger) {
+        @Volatile
+        private var thread: Thread? = null
+
+        override fun isTickThread(): Boolean = Thread.currentThread() === thread
+
+        override fun installHook() {
+            thread = Thread({
+                while (!Thread.currentThread().isInterrupted) {
+                    drainTick()
+                    try {
+                        Thread.sleep(50)
+                    } catch (e: InterruptedException) {
+                        break
+                    }
+                }
+            }, "load-tick").apply {
+                isDaemon = true
+                start()
+            }
+        }
+
+        override fun removeHook() {
+            thread?.interrupt()
+            thread = null
+        }
+    }
+
+    /**
+     * Only warnings and errors, so a long run doesn't drown the report in per-connection info lines
+     */
+    private class QuietLogger : BconLogger {
+        override fun info(message: String) {}
+        override fun warning(message: String) = System.err.println("[adapter] WARN $message")
+        override fun error(message: String) = System.err.println("[adapter] ERROR $message")
+        override fun debug(message: String) {}
+        override fun fine(message: String) {}
+        override fun severe(message: String) = System.err.println("[adapter] SEVERE $message")
+    }
+}
+
+/**
+ * Weighted event mix, e.g. "player_chat=5,entity_damage=3,player_break_block_after=2"
+ * Picks cycle through a fixed schedule, so a run is reproducible and every type appears in its exact share
+ */
+class EventMix(private val schedule: List<String>) {
+
+    fun pick(sequence: Long): String = schedule[(sequence % schedule.size).toInt()]
+
+    fun types(): Set<String> = schedule.toSet()
+
+    companion object {
+        val SUPPORTED = setOf(
+            "player_chat", "player_joined", "player_left", "player_break_block_after", "player_item_pickup",
+            "player_input", "entity_damage", "loot_generate"
+        )
+
+        const val DEFAULT = "player_chat=3,player_input=4,entity_damage=2,player_break_block_after=1"
+
+        fun parse(spec: String): EventMix {
+            val weighted = spec.split(',').filter { it.isNotBlank() }.map { entry ->
+                val parts = entry.split('=')
+                val type = parts[0].trim()
+                require(type in SUPPORTED) { "Unsupported event type '$type' (supported: ${SUPPORTED.joinToString()})" }
+                val weight = parts.getOrNull(1)?.trim()?.toInt() ?: 1
+                require(weight > 0) { "Weight for $type must be positive" }
+                type to weight
+            }
+            require(weighted.isNotEmpty()) { "Event mix is empty" }
+
+            // Interleave the types instead of firing each one in a block
+            val schedule = ArrayList<String>()
+            val remaining = weighted.associate { it.first to it.second }.toMutableMap()
+            while (remaining.isNotEmpty()) {
+                for ((type, _) in weighted) {
+                    val left = remaining[type] ?: continue
+                    schedule.add(type)
+                    if (left == 1) remaining.remove(type) else remaining[type] = left - 1
+                }
+            }
+            return EventMix(schedule)
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.bcon.adapter.core.harness
+
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonObject
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+/**
+ * Offline end-to-end load test: a LoadGeneratorAdapter against a StandInServer in the same JVM
+ * Run with ./gradlew :core:loadTest --args="--rate=5000 --seconds=30 --disconnect-every=10"
+ */
+class LoadTest(private val options: Options) {
+
+    data class Options(
+        val ratePerSecond: Int = 2_000,
+        val seconds: Int = 20,
+        val mix: String = EventMix.DEFAULT,
+        val players: Int = 50,
+        val batching: Boolean = true,
+        val eventLanes: Int = 0,
+        val eventWorkers: Int = 0,
+        val queueCapacity: Int = 10_000,
+        val spool: Boolean = true,
+        val disconnectEverySeconds: Int = 0,
+        val outageMs: Long = 1_000,
+        val processingDelayMs: Long = 0,
+        val commandsPerSecond: Int = 5,
+        val drainTimeoutMs: Long = 15_000,
+        // Leave batching, workers, lanes, queue and spool at the shipped config defaults instead of the options above
+        val shippedDefaults: Boolean = false
+    ) {
+        companion object {
+            fun parse(args: Array<String>): Options {
+                var options = Options()
+                for (arg in args) {
+                    val (key, value) = arg.removePrefix("--").split('=', limit = 2).let { it[0] to it.getOrElse(1) { "true" } }
+                    options = when (key) {
+                        "rate" -> options.copy(ratePerSecond = value.toInt())
+                        "seconds" -> options.copy(seconds = value.toInt())
+                        "mix" -> options.copy(mix = value)
+                        "players" -> options.copy(players = value.toInt())
+                        "batching" -> options.copy(batching = value.toBoolean())
+                        "lanes" -> options.copy(eventLanes = value.toInt())
+                        "workers" -> options.copy(eventWorkers = value.toInt())
+                        "queue" -> options.copy(queueCapacity = value.toInt())
+                        "spool" -> options.copy(spool = value.toBoolean())
+                        "disconnect-every" -> options.copy(disconnectEverySeconds = value.toInt())
+                        "outage-ms" -> options.copy(outageMs = value.toLong())
+                        "processing-delay-ms" -> options.copy(processingDelayMs = value.toLong())
+                        "commands-per-second" -> options.copy(commandsPerSecond = value.toInt())
+                        "defaults" -> options.copy(shippedDefaults = value.toBoolean())
+                        else -> throw IllegalArgumentException("Unknown option --$key")
+                    }
+                }
+                return options
+            }
+        }
+    }
+
+    data class Report(
+        val firedEvents: Long,
+        val receivedEvents: Long,
+        val droppedByAdapter: Long,
+        val latencyP50Micros: Long,
+        val latencyP99Micros: Long,
+        val latencyMaxMicros: Long,
+        val commandsSent: Int,
+        val commandsAcked: Int,
+        val ackP99Micros: Long,
+        val lateAcks: Long,
+        val recoveryTimesMs: List<Long>
+    ) {
+        val lostEvents: Long get() = firedEvents - receivedEvents
+
+        fun format(): String {
+            return buildString {
+                appendLine("Events: fired $firedEvents, received $receivedEvents, lost $lostEvents (dropped by adapter queue: $droppedByAdapter)")
+                appendLine("Event latency: p50 ${latencyP50Micros}µs, p99 ${latencyP99Micros}µs, max ${latencyMaxMicros}µs")
+                appendLine("Commands: sent $commandsSent, acked $commandsAcked, ack p99 ${ackP99Micros}µs, late $lateAcks")
+                append("Reconnect recovery: ")
+                append(if (recoveryTimesMs.isEmpty()) "no disconnects" else recoveryTimesMs.joinToString(prefix = "[", postfix = "] ms"))
+            }
+        }
+    }
+
+    fun run(): Report {
+        val directory = Files.createTempDirectory("bcon-load").toFile()
+        val token = "load-test-token"
+        val server = StandInServer(token).startAndWait()
+        server.processingDelayMs = options.processingDelayMs
+        writeConfig(directory, token, server.url())
+
+        val adapter = LoadGeneratorAdapter(directory, EventMix.parse(options.mix), options.players)
+        val acks = ArrayList<java.util.concurrent.CompletableFuture<JsonObject>>()
+        try {
+            adapter.initialize()
+            waitFor(10_000) { server.isAdapterConnected() }
+
+            val commandEveryMs = if (options.commandsPerSecond > 0) 1000L / options.commandsPerSecond else Long.MAX_VALUE
+            var nextCommandAt = 0L
+            var nextDisconnectAt = options.disconnectEverySeconds * 1000L
+            adapter.generate(options.ratePerSecond, options.seconds * 1000L) { elapsedMs ->
+                if (options.disconnectEverySeconds > 0 && elapsedMs >= nextDisconnectAt) {
+                    println("[load] ${elapsedMs / 1000}s: forcing disconnect (${options.outageMs}ms outage)")
+                    server.dropConnections(options.outageMs)
+                    nextDisconnectAt += options.disconnectEverySeconds * 1000L
+                }
+                while (nextCommandAt <= elapsedMs) {
+                    if (server.isAdapterConnected()) {
+                        acks.add(server.sendCommand("say load ${acks.size}"))
+                    }
+                    nextCommandAt += commandEveryMs
+                }
+                println("[load] ${elapsedMs / 1000}s: fired ${adapter.firedEvents}, received ${server.receivedEvents()}, " +
+                    "queued ${adapter.pendingMessages()}, spooled ${adapter.spooledBytes()} bytes")
+            }
+
+            // Let the queue and the spool catch up before counting losses
+            waitFor(options.drainTimeoutMs) {
+                server.receivedEvents() >= adapter.firedEvents ||
+                    (adapter.pendingMessages() == 0 && adapter.spooledBytes() == 0L && adapter.isConnected())
+            }
+            waitFor(1_000) { server.receivedEvents() >= adapter.firedEvents }
+            val acked = acks.count {
+                try {
+                    it.get(2, TimeUnit.SECONDS)
+                    true
+                } catch (e: Exception) {
+                    false
+                }
+            }
+
+            return Report(
+                firedEvents = adapter.firedEvents,
+                receivedEvents = server.receivedEvents(),
+                droppedByAdapter = adapter.droppedMessages(),
+                latencyP50Micros = server.eventLatency.percentileMicros(50.0),
+                latencyP99Micros = server.eventLatency.percentileMicros(99.0),
+                latencyMaxMicros = server.eventLatency.maxMicros(),
+                commandsSent = acks.size,
+                commandsAcked = acked,
+                ackP99Micros = server.ackLatency.percentileMicros(99.0),
+                lateAcks = server.lateAcks(),
+                recoveryTimesMs = server.recoveryTimes.toList()
+            )
+        } finally {
+            adapter.shutdown()
+            server.stop(1000)
+            directory.deleteRecursively()
+        }
+    }
+
+    private fun writeConfig(directory: File, token: String, url: String) {
+        val config = JsonObject().apply {
+            addProperty("jwtToken", token)
+            addProperty("serverUrl", url)
+            addProperty("serverId", "load-test")
+            addProperty("serverName", "Load Test")
+            addProperty("enableBlueMap", false)
+            addProperty("connectionTimeoutMs", 2000)
+            addProperty("reconnectBaseDelayMs", 100)
+            addProperty("reconnectMaxDelayMs", 2000)
+            if (!options.shippedDefaults) {
+                addProperty("outboundQueueCapacity", options.queueCapacity)
+                addProperty("batchingEnabled", options.batching)
+                addProperty("eventWorkerThreads", options.eventWorkers)
+                addProperty("eventLanes", options.eventLanes)
+                addProperty("spoolEnabled", options.spool)
+                addProperty("spoolReplayFramesPerSecond", 1000)
+            }
+        }
+        File(directory, "config.json").writeText(GsonBuilder().setPrettyPrinting().create().toJson(config))
+    }
+
+    private fun waitFor(timeoutMs: Long, condition: () -> Boolean) {
+        val deadline = System.currentTimeMillis() + timeoutMs
+        while (!condition() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20)
+        }
+    }
+}
+
+fun main(args: Array<String>) {
+    val options = LoadTest.Options.parse(args)
+    println("[load] $options")
+    println(LoadTest(options).run().format())
+}
@@ -0,0 +1,211 @@
+package com.bcon.adapter.core.harness
+
+import com.bcon.adapter.core.metrics.LatencyHistogram
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import org.java_websocket.WebSocket
+import org.java_websocket.drafts.Draft
+import org.java_websocket.exceptions.InvalidDataException
+import org.java_websocket.framing.CloseFrame
+import org.java_websocket.handshake.ClientHandshake
+import org.java_websocket.handshake.ServerHandshakeBuilder
+import org.java_websocket.server.WebSocketServer
+import java.net.InetSocketAddress
+import java.nio.ByteBuffer
+import java.util.UUID
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * In-process stand-in for bcon_server's adapter endpoint, for offline load tests
+ * Speaks the adapter side of bcon_server/src/message.rs over JSON text frames: Bearer token auth in the
+ * handshake, event envelopes and event_batch frames in, OutgoingMessage commands out and their acks (single or
+ * command_result_batch) back. Binary subprotocols are never accepted, so the adapter stays on JSON.
+ * Events stamped with loadSentAt (see LoadGeneratorAdapter) feed the end-to-end latency histogram.
+ * Slow servers are simulated with processingDelayMs, outages with dropConnections().
+ */
+class StandInServer(
+    private val token: String,
+    port: Int = 0
+) : WebSocketServer(InetSocketAddress("127.0.0.1", port)) {
+
+    /**
+     * Time each received frame is held before it is processed; blocks the connection like a slow server would
+     */
+    @Volatile
+    var processingDelayMs = 0L
+
+    /**
+     * Commands whose ack takes longer than this count as late
+     */
+    @Volatile
+    var ackTimeoutMs = 5_000L
+
+    val eventLatency = LatencyHistogram()
+    val ackLatency = LatencyHistogram()
+    val recoveryTimes: MutableList<Long> = CopyOnWriteArrayList()
+
+    private val received = LongAdder()
+    private val receivedByType = ConcurrentHashMap<String, LongAdder>()
+    private val lateAcks = LongAdder()
+    private val rejectedHandshakes = LongAdder()
+    private val pendingAcks = ConcurrentHashMap<String, PendingAck>()
+    private val priorityConnections = ConcurrentHashMap.newKeySet<WebSocket>()
+    private val started = CountDownLatch(1)
+    @Volatile
+    private var rejectUntil = 0L
+    private val droppedAt = AtomicLong(-1)
+
+    private class PendingAck(val sentAt: Long, val result: CompletableFuture<JsonObject>)
+
+    /**
+     * Start listening and wait until the port is bound
+     */
+    fun startAndWait(): StandInServer {
+        isReuseAddr = true
+        start()
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw IllegalStateException("Stand-in server did not start")
+        }
+        return this
+    }
+
+    fun url(): String = "ws://127.0.0.1:$port"
+
+    fun receivedEvents(): Long = received.sum()
+
+    fun receivedEvents(eventType: String): Long = receivedByType[eventType]?.sum() ?: 0
+
+    fun lateAcks(): Long = lateAcks.sum()
+
+    fun rejectedHandshakes(): Long = rejectedHandshakes.sum()
+
+    fun isAdapterConnected(): Boolean = priorityConnections.isNotEmpty()
+
+    /**
+     * Send a console command the way bcon_server does and complete with the adapter's ack
+     */
+    fun sendCommand(command: String): CompletableFuture<JsonObject> {
+        val messageId = UUID.randomUUID().toString()
+        val result = CompletableFuture<JsonObject>()
+        val message = JsonObject().apply {
+            addProperty("type", "command")
+            add("data", JsonObject().apply { addProperty("command", command) })
+            addProperty("timestamp", System.currentTimeMillis() / 1000)
+            addProperty("messageId", messageId)
+            addProperty("timeoutMs", ackTimeoutMs)
+            addProperty("requires_ack", true)
+        }
+
+        val target = priorityConnections.firstOrNull()
+        if (target == null) {
+            result.completeExceptionally(IllegalStateException("No adapter connected"))
+            return result
+        }
+        pendingAcks[messageId] = PendingAck(System.nanoTime(), result)
+        target.send(message.toString())
+        return result
+    }
+
+    /**
+     * Cut every adapter socket without a close handshake and refuse handshakes for outageMs
+     * The time until the adapter's next successful connection is recorded in recoveryTimes
+     */
+    fun dropConnections(outageMs: Long = 0) {
+        rejectUntil = System.currentTimeMillis() + outageMs
+        droppedAt.set(System.nanoTime())
+        connections.forEach { it.closeConnection(CloseFrame.ABNORMAL_CLOSE, "Forced disconnect") }
+    }
+
+    override fun onWebsocketHandshakeReceivedAsServer(
+        conn: WebSocket,
+        draft: Draft,
+        request: ClientHandshake
+    ): ServerHandshakeBuilder {
+        val builder = super.onWebsocketHandshakeReceivedAsServer(conn, draft, request)
+        if (System.currentTimeMillis() < rejectUntil) {
+            rejectedHandshakes.increment()
+            throw InvalidDataException(CloseFrame.TRY_AGAIN_LATER, "Simulated outage")
+        }
+        if (request.getFieldValue("Authorization") != "Bearer $token") {
+            rejectedHandshakes.increment()
+            throw InvalidDataException(CloseFrame.POLICY_VALIDATION, "Invalid adapter token")
+        }
+        return builder
+    }
+
+    override fun onOpen(conn: WebSocket, handshake: ClientHandshake) {
+        // Event lanes never receive commands, like on the real server
+        if (!handshake.getFieldValue("X-Bcon-Lane").equals("events", ignoreCase = true)) {
+            priorityConnections.add(conn)
+            val dropped = droppedAt.getAndSet(-1)
+            if (dropped >= 0) {
+                recoveryTimes.add((System.nanoTime() - dropped) / 1_000_000)
+            }
+        }
+    }
+
+    override fun onClose(conn: WebSocket, code: Int, reason: String, remote: Boolean) {
+        priorityConnections.remove(conn)
+    }
+
+    override fun onMessage(conn: WebSocket, message: String) {
+        if (processingDelayMs > 0) {
+            Thread.sleep(processingDelayMs)
+        }
+        val frame = try {
+            JsonParser.parseString(message).asJsonObject
+        } catch (e: Exception) {
+            System.err.println("Stand-in: invalid frame from adapter: ${e.message}")
+            return
+        }
+
+        when (frame.get("eventType")?.asString) {
+            "event_batch", "command_result_batch" -> frame.getAsJsonArray("data").forEach(::handleEnvelope)
+            else -> handleEnvelope(frame)
+        }
+    }
+
+    override fun onMessage(conn: WebSocket, message: ByteBuffer) {
+        System.err.println("Stand-in: unexpected binary frame (${message.remaining()} bytes) - only JSON is negotiated")
+    }
+
+    override fun onError(conn: WebSocket?, ex: Exception) {
+        if (conn == null) {
+            System.err.println("Stand-in server error: ${ex.message}")
+        }
+    }
+
+    override fun onStart() {
+        started.countDown()
+    }
+
+    private fun handleEnvelope(element: JsonElement) {
+        val envelope = element.asJsonObject
+        val replyTo = envelope.get("replyTo")?.asString
+        if (replyTo != null) {
+            val pending = pendingAcks.remove(replyTo) ?: return
+            val elapsed = System.nanoTime() - pending.sentAt
+            ackLatency.recordNanos(elapsed)
+            if (elapsed > ackTimeoutMs * 1_000_000) {
+                lateAcks.increment()
+            }
+            pending.result.complete(envelope.getAsJsonObject("data") ?: JsonObject())
+            return
+        }
+
+        val eventType = envelope.get("eventType")?.asString ?: "unknown"
+        received.increment()
+        receivedByType.computeIfAbsent(eventType) { LongAdder() }.increment()
+        val sentAt = envelope.getAsJsonObject("data")?.get("loadSentAt")?.asLong
+        if (sentAt != null) {
+            eventLatency.recordNanos(System.nanoTime() - sentAt)
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bcon.adapter.core.metrics
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class LatencyHistogramTest {
+
+    @Test
+    fun percentilesLandInPowerOfTwoBuckets() {
+        val histogram = LatencyHistogram()
+        repeat(98) { histogram.recordNanos(1_500_000) } // 1.5ms
+        histogram.recordNanos(40_000_000) // 40ms
+        histogram.recordNanos(90_000_000) // 90ms
+
+        assertEquals(100, histogram.count())
+        assertEquals(2048, histogram.percentileMicros(50.0))
+        assertEquals(65536, histogram.percentileMicros(99.0))
+        assertEquals(131072, histogram.percentileMicros(100.0))
+        assertEquals(90_000, histogram.maxMicros())
+    }
+
+    @Test
+    fun emptyAndReset() {
+        val histogram = LatencyHistogram()
+        assertEquals(0, histogram.percentileMicros(99.0))
+        assertEquals("no samples", histogram.describe())
+
+        histogram.recordNanos(10_000)
+        assertTrue(histogram.describe().startsWith("1 samples"))
+        histogram.reset()
+        assertEquals(0, histogram.count())
+        assertEquals(0, histogram.snapshot().sumOf { it.second })
+    }
+}
@@ -0,0 +1,37 @@
+package com.bcon.adapter.core.metrics
+
+import kotlin.test.AfterTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class ListenerProfilerTest {
+
+    @AfterTest
+    fun clear() {
+        ListenerProfiler.reset()
+    }
+
+    @Test
+    fun reportRanksHandlersByTotalAndByP99() {
+        // Many cheap calls: largest total, small p99
+        repeat(1000) { ListenerProfiler.record("fabric.ALLOW_DAMAGE", 50_000) }
+        // One slow call: small total, largest p99
+        ListenerProfiler.record("mixin.AnimalEntity.onBreed", 8_000_000)
+
+        val report = ListenerProfiler.report().lines()
+        val byP99 = report.indexOf("Bcon listeners by p99:")
+
+        assertEquals("Bcon listeners by total time:", report[0])
+        assertTrue(report[1].startsWith("- fabric.ALLOW_DAMAGE: 1000 calls, total 50.0ms"), report[1])
+        assertTrue(report[byP99 + 1].startsWith("- mixin.AnimalEntity.onBreed: 1 calls"), report[byP99 + 1])
+    }
+
+    @Test
+    fun disabledTimingRunsTheBlockWithoutRecording() {
+        // Tests run without -Dbcon.profileListeners, so time() is a plain call
+        assertEquals(false, ListenerProfiler.ENABLED)
+        assertEquals(42, ListenerProfiler.time("paper.onPlayerJoin") { 42 })
+        assertTrue(ListenerProfiler.report().startsWith("Listener profiling is off"))
+    }
+}
@@ -0,0 +1,67 @@
+package com.bcon.adapter.core.metrics
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class PrometheusTextTest {
+
+    @Test
+    fun countersAndGaugesRenderWithHelpTypeAndLabels() {
+        val registry = MetricsRegistry()
+        registry.labeledCounter("bcon_events_sent_total", "Events sent", "type", "player_chat").add(3)
+        registry.labeledCounter("bcon_events_sent_total", "Events sent", "type", "entity_damage").increment()
+        registry.gauge("bcon_outbound_queue_depth", "Queued") { 7 }
+
+        val text = PrometheusText.render(registry, mapOf("server_id" to "lobby"))
+
+        assertEquals(
+            """
+            # HELP bcon_events_sent_total Events sent
+            # TYPE bcon_events_sent_total counter
+            bcon_events_sent_total{server_id="lobby",type="entity_damage"} 1
+            bcon_events_sent_total{server_id="lobby",type="player_chat"} 3
+            # HELP bcon_outbound_queue_depth Queued
+            # TYPE bcon_outbound_queue_depth gauge
+            bcon_outbound_queue_depth{server_id="lobby"} 7
+            """.trimIndent() + "\n",
+            text
+        )
+    }
+
+    @Test
+    fun histogramBucketsAreCumulativeSeconds() {
+        val registry = MetricsRegistry()
+        val histogram = registry.histogram("bcon_ack_latency_seconds", "Ack latency")
+        histogram.recordNanos(1_500_000) // 1.5ms, below 2^11 µs
+        histogram.recordNanos(3_000_000) // 3ms, below 2^12 µs
+
+        val lines = PrometheusText.render(registry).lines()
+
+        assertTrue("bcon_ack_latency_seconds_bucket{le=\"0.001024\"} 0" in lines)
+        assertTrue("bcon_ack_latency_seconds_bucket{le=\"0.002048\"} 1" in lines)
+        assertTrue("bcon_ack_latency_seconds_bucket{le=\"0.004096\"} 2" in lines)
+        assertTrue("bcon_ack_latency_seconds_bucket{le=\"+Inf\"} 2" in lines)
+        assertTrue("bcon_ack_latency_seconds_sum 0.0045" in lines)
+        assertTrue("bcon_ack_latency_seconds_count 2" in lines)
+    }
+
+    @Test
+    fun registeringAgainReturnsTheSameMetricAndReplacesSuppliers() {
+        val registry = MetricsRegistry()
+        assertSame(registry.counter("bcon_reconnects_total", "Reconnects"), registry.counter("bcon_reconnects_total", "Reconnects"))
+
+        registry.counter("bcon_events_dropped_total", "Dropped") { 5L }
+        registry.counter("bcon_events_dropped_total", "Dropped") { 9L }
+        assertTrue("bcon_events_dropped_total 9" in PrometheusText.render(registry).lines())
+    }
+
+    @Test
+    fun labelValuesAreEscaped() {
+        val registry = MetricsRegistry()
+        registry.counter("bcon_test_total", "Test", "name" to "say \"hi\"\\").increment()
+
+        assertTrue("bcon_test_total{name=\"say \\\"hi\\\"\\\\\"} 1" in PrometheusText.render(registry).lines())
+    }
+}
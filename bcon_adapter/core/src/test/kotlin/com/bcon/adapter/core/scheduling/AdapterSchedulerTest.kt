@@ -0,0 +1,88 @@
+package com.bcon.adapter.core.scheduling
+
+import com.bcon.adapter.core.logging.JavaBconLogger
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class AdapterSchedulerTest {
+
+    private val logger = JavaBconLogger("AdapterSchedulerTest")
+
+    @Test
+    fun boundsConcurrentTasks() {
+        val scheduler = AdapterScheduler(logger, 2)
+        val release = CountDownLatch(1)
+        val done = CountDownLatch(6)
+        val concurrent = AtomicInteger()
+        val peak = AtomicInteger()
+
+        repeat(6) {
+            scheduler.execute("task $it") {
+                peak.accumulateAndGet(concurrent.incrementAndGet(), ::maxOf)
+                release.await()
+                concurrent.decrementAndGet()
+                done.countDown()
+            }
+        }
+
+        Thread.sleep(100)
+        assertEquals(2, scheduler.runningTasks())
+        assertEquals(4, scheduler.waitingTasks())
+
+        release.countDown()
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        assertEquals(2, peak.get())
+        scheduler.shutdown(1000)
+        assertEquals(6L, scheduler.completedTasks())
+    }
+
+    @Test
+    fun delayedControlWorkDoesNotWaitForCommandPermits() {
+        val scheduler = AdapterScheduler(logger, 1)
+        val release = CountDownLatch(1)
+        val reconnected = CountDownLatch(1)
+
+        // The only permit is held by a command parked on the tick thread
+        scheduler.execute("command") { release.await() }
+        scheduler.schedule("reconnect", 10) { reconnected.countDown() }
+
+        assertTrue(reconnected.await(5, TimeUnit.SECONDS))
+        release.countDown()
+        scheduler.shutdown(1000)
+    }
+
+    @Test
+    fun periodicTaskSurvivesExceptions() {
+        val scheduler = AdapterScheduler(logger, 1)
+        val runs = CountDownLatch(3)
+
+        scheduler.scheduleWithFixedDelay("flaky", 0, 10) {
+            runs.countDown()
+            throw IllegalStateException("boom")
+        }
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS))
+        scheduler.shutdown(1000)
+        assertEquals(0, scheduler.timerTasks())
+    }
+
+    @Test
+    fun delayedTasksRunOffTheTimerThread() {
+        val scheduler = AdapterScheduler(logger, 1)
+        val ran = CountDownLatch(1)
+        var virtual = false
+
+        scheduler.schedule("reconnect", 10) {
+            virtual = Thread.currentThread().isVirtual
+            ran.countDown()
+        }
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS))
+        assertTrue(virtual)
+        scheduler.shutdown(1000)
+    }
+}
@@ -0,0 +1,107 @@
+package com.bcon.adapter.core.scheduling
+
+import com.bcon.adapter.core.logging.JavaBconLogger
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class BudgetedTickExecutorTest {
+
+    private class TestExecutor : BudgetedTickExecutor(JavaBconLogger("BudgetedTickExecutorTest")) {
+        var onTickThread = false
+
+        override fun isTickThread() = onTickThread
+
+        override fun installHook() {}
+
+        override fun removeHook() {}
+
+        fun tick() {
+            onTickThread = true
+            try {
+                drainTick()
+            } finally {
+                onTickThread = false
+            }
+        }
+    }
+
+    private val executor = TestExecutor().apply { budgetMicros = 1_000 }
+
+    @Test
+    fun queuesWorkUntilTheNextTick() {
+        val result = executor.submit { "done" }
+        assertFalse(result.isDone)
+        assertEquals(1, executor.queuedTasks())
+
+        executor.tick()
+        assertEquals("done", result.join())
+        assertEquals(0, executor.queuedTasks())
+    }
+
+    @Test
+    fun runsInlineOnTheTickThread() {
+        executor.onTickThread = true
+        assertTrue(executor.submit { 1 }.isDone)
+    }
+
+    @Test
+    fun carriesOverWorkBeyondTheBudget() {
+        val results = (1..5).map { executor.submit { Thread.sleep(2); it } }
+
+        // Every task overruns the 1ms budget on its own, so each tick runs exactly one
+        executor.tick()
+        assertEquals(1, results.count { it.isDone })
+        executor.tick()
+        assertEquals(2, results.count { it.isDone })
+        assertTrue(executor.describe().contains("2 ticks over budget"))
+        repeat(3) { executor.tick() }
+        assertEquals(listOf(1, 2, 3, 4, 5), results.map { it.join() })
+    }
+
+    @Test
+    fun workQueuedDuringATickWaitsForTheNext() {
+        var ranFollowUp = false
+        executor.executeNextTick { executor.executeNextTick { ranFollowUp = true } }
+
+        executor.tick()
+        assertFalse(ranFollowUp)
+        executor.tick()
+        assertTrue(ranFollowUp)
+    }
+
+    @Test
+    fun stopFailsPendingFuturesInsteadOfLeavingThemHanging() {
+        val pending = executor.submit { "never" }
+        executor.executeNextTick { throw AssertionError("dropped work must not run") }
+
+        executor.stop()
+        assertTrue(pending.isCompletedExceptionally)
+        assertEquals(0, executor.queuedTasks())
+        executor.tick()
+    }
+
+    @Test
+    fun workSubmittedAfterStopFailsImmediately() {
+        executor.stop()
+        assertTrue(executor.submit { "late" }.isCompletedExceptionally)
+        executor.executeNextTick { throw AssertionError("dropped work must not run") }
+        assertEquals(0, executor.queuedTasks())
+
+        // A restart accepts work again
+        executor.start()
+        val result = executor.submit { "again" }
+        executor.tick()
+        assertEquals("again", result.join())
+    }
+
+    @Test
+    fun failedTasksDoNotStopTheDrain() {
+        executor.executeNextTick { throw IllegalStateException("boom") }
+        val after = executor.submit { "still runs" }
+
+        executor.tick()
+        assertEquals("still runs", after.join())
+    }
+}
@@ -0,0 +1,126 @@
+package com.bcon.adapter.core.scheduling
+
+import com.bcon.adapter.core.logging.JavaBconLogger
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.AfterTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class CommandDispatcherTest {
+
+    private val scheduler = AdapterScheduler(JavaBconLogger("CommandDispatcherTest"), 8)
+    private val resumed = AtomicInteger()
+
+    private fun dispatcher(maxConcurrent: Int = 4, maxPending: Int = 64) =
+        CommandDispatcher(scheduler, maxConcurrent, maxPending) { resumed.incrementAndGet() }
+
+    @AfterTest
+    fun shutdown() {
+        scheduler.shutdown(1000)
+    }
+
+    @Test
+    fun keepsOrderPerKey() {
+        val dispatcher = dispatcher()
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        val done = CountDownLatch(40)
+
+        repeat(20) { i ->
+            dispatcher.submit("command:a", "a$i") {
+                Thread.sleep((i % 3).toLong())
+                order.add("a$i")
+                done.countDown()
+            }
+            dispatcher.submit("command:b", "b$i") {
+                order.add("b$i")
+                done.countDown()
+            }
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        assertEquals((0 until 20).map { "a$it" }, order.filter { it.startsWith("a") })
+        assertEquals((0 until 20).map { "b$it" }, order.filter { it.startsWith("b") })
+    }
+
+    @Test
+    fun runsIndependentKeysInParallelUpToLimit() {
+        val dispatcher = dispatcher(maxConcurrent = 2)
+        val release = CountDownLatch(1)
+        val done = CountDownLatch(3)
+        val running = AtomicInteger()
+        val peak = AtomicInteger()
+
+        repeat(3) { i ->
+            dispatcher.submit("marker:$i", "m$i") {
+                peak.accumulateAndGet(running.incrementAndGet(), ::maxOf)
+                release.await()
+                running.decrementAndGet()
+                done.countDown()
+            }
+        }
+
+        Thread.sleep(100)
+        assertEquals(2, running.get())
+        assertEquals(3, dispatcher.pendingCommands())
+        release.countDown()
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        assertEquals(2, peak.get())
+    }
+
+    @Test
+    fun globalCommandIsABarrier() {
+        val dispatcher = dispatcher()
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        val release = CountDownLatch(1)
+        val done = CountDownLatch(3)
+
+        dispatcher.submit("command:a", "register") {
+            release.await()
+            order.add("register")
+            done.countDown()
+        }
+        dispatcher.submit(CommandDispatcher.GLOBAL, "clear") {
+            order.add("clear")
+            done.countDown()
+        }
+        dispatcher.submit("command:b", "register b") {
+            order.add("register b")
+            done.countDown()
+        }
+
+        Thread.sleep(50)
+        assertTrue(order.isEmpty())
+        release.countDown()
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        assertEquals(listOf("register", "clear", "register b"), order)
+    }
+
+    @Test
+    fun pausesReadingUntilBacklogDrains() {
+        val dispatcher = dispatcher(maxConcurrent = 1, maxPending = 4)
+        val release = CountDownLatch(1)
+        val done = CountDownLatch(4)
+
+        repeat(4) { i ->
+            assertTrue(dispatcher.acceptMore())
+            dispatcher.submit("console", "c$i") {
+                release.await()
+                done.countDown()
+            }
+        }
+        assertFalse(dispatcher.acceptMore())
+        assertTrue(dispatcher.isPaused())
+        assertEquals(0, resumed.get())
+
+        release.countDown()
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        Thread.sleep(50)
+        assertEquals(1, resumed.get())
+        assertFalse(dispatcher.isPaused())
+    }
+}
@@ -2,7 +2,9 @@ package com.bcon.adapter.fabric.mixins;
 
 import com.bcon.adapter.core.events.ItemData;
 import com.bcon.adapter.core.events.Location;
+import com.bcon.adapter.core.metrics.ListenerProfiler;
 import com.bcon.adapter.fabric.FabricEventBridge;
+import com.bcon.adapter.fabric.FabricSnapshots;
 import net.minecraft.block.entity.AbstractFurnaceBlockEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.BlockPos;
@@ -23,33 +25,31 @@ public class AbstractFurnaceBlockEntityMixin {
      */
     @Inject(method = {"tick", "method_31652"}, at = @At("HEAD"), require = 0)
     private static void onTick(World world, BlockPos pos, net.minecraft.block.BlockState state, AbstractFurnaceBlockEntity blockEntity, CallbackInfo ci) {
-        if (world.isClient()) {
-            return;
-        }
+        long profileStart = ListenerProfiler.start();
+        try {
+            if (world.isClient()) {
+                return;
+            }
         
-        // Track furnace operations - this is a simplified example
-        // In a real implementation, you'd need to track state changes
+            // Track furnace operations - this is a simplified example
+            // In a real implementation, you'd need to track state changes
         
-        try {
-            // Access furnace inventory through reflection or accessible methods
-            // This is a basic framework - detailed implementation would require
-            // deeper integration with the furnace's internal state
+            try {
+                // Access furnace inventory through reflection or accessible methods
+                // This is a basic framework - detailed implementation would require
+                // deeper integration with the furnace's internal state
             
-            Location location = new Location(
-                pos.getX(), 
-                pos.getY(), 
-                pos.getZ(), 
-                world.getRegistryKey().getValue().toString(),
-                0f,
-                0f
-            );
+                Location location = FabricSnapshots.INSTANCE.blockLocation(pos, world);
             
-            // Example: Detect if furnace is actively smelting
-            // You would need to access burnTime, cookTime, cookTimeTotal fields
-            // This requires careful field mapping and access
+                // Example: Detect if furnace is actively smelting
+                // You would need to access burnTime, cookTime, cookTimeTotal fields
+                // This requires careful field mapping and access
             
-        } catch (Exception e) {
-            // Silently handle any access issues
+            } catch (Exception e) {
+                // Silently handle any access issues
+            }
+        } finally {
+            ListenerProfiler.stop("mixin.AbstractFurnaceBlockEntity.onTick", profileStart);
         }
     }
 
@@ -59,44 +59,42 @@ public class AbstractFurnaceBlockEntityMixin {
      */
     @Inject(method = {"setStack", "method_5447"}, at = @At("HEAD"), require = 0)
     public void onSetStack(int slot, ItemStack stack, CallbackInfo ci) {
-        AbstractFurnaceBlockEntity furnace = (AbstractFurnaceBlockEntity) (Object) this;
+        long profileStart = ListenerProfiler.start();
+        try {
+            AbstractFurnaceBlockEntity furnace = (AbstractFurnaceBlockEntity) (Object) this;
         
-        if (furnace.getWorld() == null || furnace.getWorld().isClient()) {
-            return;
-        }
+            if (furnace.getWorld() == null || furnace.getWorld().isClient()) {
+                return;
+            }
         
-        try {
-            Location location = new Location(
-                furnace.getPos().getX(),
-                furnace.getPos().getY(), 
-                furnace.getPos().getZ(),
-                furnace.getWorld().getRegistryKey().getValue().toString(),
-                0f,
-                0f
-            );
+            try {
+                Location location = FabricSnapshots.INSTANCE.blockLocation(furnace.getPos(), furnace.getWorld());
             
-            ItemData itemData = new ItemData(
-                stack.getItem().toString(),
-                stack.getCount(),
-                stack.getName().getString(),
-                null,
-                stack.toString()
-            );
+                ItemData itemData = new ItemData(
+                    stack.getItem().toString(),
+                    stack.getCount(),
+                    stack.getName().getString(),
+                    null,
+                    stack.toString()
+                );
             
-            // Detect slot type and fire appropriate events
-            if (slot == 0) { // Input slot
-                // Could fire furnace_start_smelt when item is added
-                FabricEventBridge.INSTANCE.fireFurnaceStartSmelt(location, itemData, 200); // Default cook time
-            } else if (slot == 1) { // Fuel slot  
-                // Could fire furnace_burn when fuel is added
-                FabricEventBridge.INSTANCE.fireFurnaceBurn(location, itemData, 1600); // Default burn time
-            } else if (slot == 2) { // Output slot
-                // This is trickier - output is usually set by the furnace itself
-                // Would need to detect when smelting completes
-            }
+                // Detect slot type and fire appropriate events
+                if (slot == 0) { // Input slot
+                    // Could fire furnace_start_smelt when item is added
+                    FabricEventBridge.INSTANCE.fireFurnaceStartSmelt(location, itemData, 200); // Default cook time
+                } else if (slot == 1) { // Fuel slot  
+                    // Could fire furnace_burn when fuel is added
+                    FabricEventBridge.INSTANCE.fireFurnaceBurn(location, itemData, 1600); // Default burn time
+                } else if (slot == 2) { // Output slot
+                    // This is trickier - output is usually set by the furnace itself
+                    // Would need to detect when smelting completes
+                }
             
-        } catch (Exception e) {
-            // Silently handle any issues
+            } catch (Exception e) {
+                // Silently handle any issues
+            }
+        } finally {
+            ListenerProfiler.stop("mixin.AbstractFurnaceBlockEntity.onSetStack", profileStart);
         }
     }
 }
\ No newline at end of file
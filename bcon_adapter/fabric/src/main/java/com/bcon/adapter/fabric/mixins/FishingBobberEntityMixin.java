@@ -1,11 +1,10 @@
 package com.bcon.adapter.fabric.mixins;
 
-import com.bcon.adapter.core.events.EntityData;
 import com.bcon.adapter.core.events.FishHookData;
-import com.bcon.adapter.core.events.Location;
 import com.bcon.adapter.core.events.PlayerData;
+import com.bcon.adapter.core.metrics.ListenerProfiler;
 import com.bcon.adapter.fabric.FabricEventBridge;
-import net.minecraft.entity.Entity;
+import com.bcon.adapter.fabric.FabricSnapshots;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.projectile.FishingBobberEntity;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -27,59 +26,42 @@ public class FishingBobberEntityMixin {
      */
     @Inject(method = {"use", "method_7218"}, at = @At("RETURN"), require = 0)
     private void onUse(CallbackInfoReturnable<Integer> cir) {
-        FishingBobberEntity bobber = (FishingBobberEntity) (Object) this;
-        PlayerEntity owner = ((FishingBobberEntity) (Object) this).getPlayerOwner();
+        long profileStart = ListenerProfiler.start();
+        try {
+            FishingBobberEntity bobber = (FishingBobberEntity) (Object) this;
+            PlayerEntity owner = ((FishingBobberEntity) (Object) this).getPlayerOwner();
         
-        if (bobber.getWorld().isClient() || !(owner instanceof ServerPlayerEntity)) {
-            return;
-        }
+            if (bobber.getWorld().isClient() || !(owner instanceof ServerPlayerEntity)) {
+                return;
+            }
         
-        try {
-            ServerPlayerEntity player = (ServerPlayerEntity) owner;
-            int result = cir.getReturnValue();
+            try {
+                ServerPlayerEntity player = (ServerPlayerEntity) owner;
+                int result = cir.getReturnValue();
             
-            PlayerData playerData = new PlayerData(
-                player.getUuidAsString(),
-                player.getName().getString(),
-                new Location(
-                    player.getX(),
-                    player.getY(), 
-                    player.getZ(),
-                    player.getWorld().getRegistryKey().getValue().toString(),
-                    player.getYaw(),
-                    player.getPitch()
-                ),
-                player.getHealth(),
-                player.getMaxHealth(),
-                player.experienceLevel,
-                "SURVIVAL"
-            );
+                PlayerData playerData = FabricSnapshots.INSTANCE.player(player);
             
-            FishHookData hookData = new FishHookData(
-                new Location(
-                    bobber.getX(),
-                    bobber.getY(),
-                    bobber.getZ(),
-                    bobber.getWorld().getRegistryKey().getValue().toString(),
-                    0f,
-                    0f
-                ),
-                bobber.isInOpenWater(),
-                0 // waitTime would need reflection to access
-            );
+                FishHookData hookData = new FishHookData(
+                    FabricSnapshots.INSTANCE.location(bobber.getPos(), bobber.getWorld()),
+                    bobber.isInOpenWater(),
+                    0 // waitTime would need reflection to access
+                );
             
-            // Interpret the result to determine what happened
-            if (result == 1) {
-                // Something was caught - could be fish or entity
-                // We would need to check what was actually caught
-                FabricEventBridge.INSTANCE.firePlayerFishingReelIn(playerData, hookData);
-            } else if (result == 0) {
-                // Nothing caught or failed attempt
-                FabricEventBridge.INSTANCE.firePlayerFishEscape(playerData, hookData);
-            }
+                // Interpret the result to determine what happened
+                if (result == 1) {
+                    // Something was caught - could be fish or entity
+                    // We would need to check what was actually caught
+                    FabricEventBridge.INSTANCE.firePlayerFishingReelIn(playerData, hookData);
+                } else if (result == 0) {
+                    // Nothing caught or failed attempt
+                    FabricEventBridge.INSTANCE.firePlayerFishEscape(playerData, hookData);
+                }
             
-        } catch (Exception e) {
-            // Silently handle any issues
+            } catch (Exception e) {
+                // Silently handle any issues
+            }
+        } finally {
+            ListenerProfiler.stop("mixin.FishingBobberEntity.onUse", profileStart);
         }
     }
 
@@ -88,51 +70,34 @@ public class FishingBobberEntityMixin {
      */
     @Inject(method = {"onRemoved", "method_5650"}, at = @At("HEAD"), require = 0)
     private void onRemoved(CallbackInfo ci) {
-        FishingBobberEntity bobber = (FishingBobberEntity) (Object) this;
-        PlayerEntity owner = ((FishingBobberEntity) (Object) this).getPlayerOwner();
+        long profileStart = ListenerProfiler.start();
+        try {
+            FishingBobberEntity bobber = (FishingBobberEntity) (Object) this;
+            PlayerEntity owner = ((FishingBobberEntity) (Object) this).getPlayerOwner();
         
-        if (bobber.getWorld().isClient() || !(owner instanceof ServerPlayerEntity)) {
-            return;
-        }
+            if (bobber.getWorld().isClient() || !(owner instanceof ServerPlayerEntity)) {
+                return;
+            }
         
-        try {
-            ServerPlayerEntity player = (ServerPlayerEntity) owner;
+            try {
+                ServerPlayerEntity player = (ServerPlayerEntity) owner;
             
-            PlayerData playerData = new PlayerData(
-                player.getUuidAsString(),
-                player.getName().getString(),
-                new Location(
-                    player.getX(),
-                    player.getY(),
-                    player.getZ(), 
-                    player.getWorld().getRegistryKey().getValue().toString(),
-                    player.getYaw(),
-                    player.getPitch()
-                ),
-                player.getHealth(),
-                player.getMaxHealth(),
-                player.experienceLevel,
-                "SURVIVAL"
-            );
+                PlayerData playerData = FabricSnapshots.INSTANCE.player(player);
             
-            FishHookData hookData = new FishHookData(
-                new Location(
-                    bobber.getX(),
-                    bobber.getY(),
-                    bobber.getZ(),
-                    bobber.getWorld().getRegistryKey().getValue().toString(),
-                    0f,
-                    0f
-                ),
-                bobber.isInOpenWater(),
-                0
-            );
+                FishHookData hookData = new FishHookData(
+                    FabricSnapshots.INSTANCE.location(bobber.getPos(), bobber.getWorld()),
+                    bobber.isInOpenWater(),
+                    0
+                );
             
-            // Bobber removed - could be reel in or timeout
-            FabricEventBridge.INSTANCE.firePlayerFishingReelIn(playerData, hookData);
+                // Bobber removed - could be reel in or timeout
+                FabricEventBridge.INSTANCE.firePlayerFishingReelIn(playerData, hookData);
             
-        } catch (Exception e) {
-            // Silently handle any issues
+            } catch (Exception e) {
+                // Silently handle any issues
+            }
+        } finally {
+            ListenerProfiler.stop("mixin.FishingBobberEntity.onRemoved", profileStart);
         }
     }
 }
\ No newline at end of file
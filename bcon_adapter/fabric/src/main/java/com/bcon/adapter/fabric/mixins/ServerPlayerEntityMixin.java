@@ -1,8 +1,9 @@
 package com.bcon.adapter.fabric.mixins;
 
 import com.bcon.adapter.core.events.EntityData;
-import com.bcon.adapter.core.events.Location;
+import com.bcon.adapter.core.metrics.ListenerProfiler;
 import com.bcon.adapter.fabric.FabricEventBridge;
+import com.bcon.adapter.fabric.FabricSnapshots;
 import net.minecraft.entity.Entity;
 import net.minecraft.server.network.ServerPlayerEntity;
 import org.spongepowered.asm.mixin.Mixin;
@@ -22,45 +23,26 @@ public class ServerPlayerEntityMixin {
      */
     @Inject(method = {"startRiding", "method_5873"}, at = @At("HEAD"), require = 0)
     private void onStartRiding(Entity entity, boolean force, CallbackInfoReturnable<Boolean> cir) {
-        ServerPlayerEntity player = (ServerPlayerEntity) (Object) this;
+        long profileStart = ListenerProfiler.start();
+        try {
+            ServerPlayerEntity player = (ServerPlayerEntity) (Object) this;
         
-        if (player.getWorld().isClient()) {
-            return;
-        }
+            if (player.getWorld().isClient()) {
+                return;
+            }
         
-        try {
-            EntityData riderData = new EntityData(
-                player.getUuidAsString(),
-                player.getType().toString(),
-                new Location(
-                    player.getX(),
-                    player.getY(),
-                    player.getZ(),
-                    player.getWorld().getRegistryKey().getValue().toString(),
-                    player.getYaw(),
-                    player.getPitch()
-                ),
-                player.hasCustomName() ? player.getCustomName().getString() : player.getName().getString()
-            );
+            try {
+                EntityData riderData = FabricSnapshots.INSTANCE.entity(player);
             
-            EntityData mountData = new EntityData(
-                entity.getUuidAsString(),
-                entity.getType().toString(),
-                new Location(
-                    entity.getX(),
-                    entity.getY(),
-                    entity.getZ(),
-                    entity.getWorld().getRegistryKey().getValue().toString(),
-                    0f,
-                    0f
-                ),
-                entity.hasCustomName() ? entity.getCustomName().getString() : null
-            );
+                EntityData mountData = FabricSnapshots.INSTANCE.entity(entity);
             
-            FabricEventBridge.INSTANCE.fireEntityMount(riderData, mountData);
+                FabricEventBridge.INSTANCE.fireEntityMount(riderData, mountData);
             
-        } catch (Exception e) {
-            // Silently handle any issues
+            } catch (Exception e) {
+                // Silently handle any issues
+            }
+        } finally {
+            ListenerProfiler.stop("mixin.ServerPlayerEntity.onStartRiding", profileStart);
         }
     }
 
@@ -69,46 +51,27 @@ public class ServerPlayerEntityMixin {
      */
     @Inject(method = {"stopRiding", "method_5848"}, at = @At("HEAD"), require = 0)
     private void onStopRiding(CallbackInfo ci) {
-        ServerPlayerEntity player = (ServerPlayerEntity) (Object) this;
-        Entity vehicle = player.getVehicle();
+        long profileStart = ListenerProfiler.start();
+        try {
+            ServerPlayerEntity player = (ServerPlayerEntity) (Object) this;
+            Entity vehicle = player.getVehicle();
         
-        if (player.getWorld().isClient() || vehicle == null) {
-            return;
-        }
+            if (player.getWorld().isClient() || vehicle == null) {
+                return;
+            }
         
-        try {
-            EntityData riderData = new EntityData(
-                player.getUuidAsString(),
-                player.getType().toString(),
-                new Location(
-                    player.getX(),
-                    player.getY(),
-                    player.getZ(),
-                    player.getWorld().getRegistryKey().getValue().toString(),
-                    player.getYaw(),
-                    player.getPitch()
-                ),
-                player.hasCustomName() ? player.getCustomName().getString() : player.getName().getString()
-            );
+            try {
+                EntityData riderData = FabricSnapshots.INSTANCE.entity(player);
             
-            EntityData mountData = new EntityData(
-                vehicle.getUuidAsString(),
-                vehicle.getType().toString(),
-                new Location(
-                    vehicle.getX(),
-                    vehicle.getY(),
-                    vehicle.getZ(),
-                    vehicle.getWorld().getRegistryKey().getValue().toString(),
-                    0f,
-                    0f
-                ),
-                vehicle.hasCustomName() ? vehicle.getCustomName().getString() : null
-            );
+                EntityData mountData = FabricSnapshots.INSTANCE.entity(vehicle);
             
-            FabricEventBridge.INSTANCE.fireEntityDismount(riderData, mountData);
+                FabricEventBridge.INSTANCE.fireEntityDismount(riderData, mountData);
             
-        } catch (Exception e) {
-            // Silently handle any issues
+            } catch (Exception e) {
+                // Silently handle any issues
+            }
+        } finally {
+            ListenerProfiler.stop("mixin.ServerPlayerEntity.onStopRiding", profileStart);
         }
     }
 }
\ No newline at end of file
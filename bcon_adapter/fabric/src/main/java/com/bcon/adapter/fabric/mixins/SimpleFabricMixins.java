@@ -3,6 +3,7 @@ package com.bcon.adapter.fabric.mixins;
 import com.bcon.adapter.core.events.EntityData;
 import com.bcon.adapter.core.events.Location;
 import com.bcon.adapter.core.events.PlayerData;
+import com.bcon.adapter.core.metrics.ListenerProfiler;
 import com.bcon.adapter.fabric.FabricEventBridge;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.ItemEntity;
@@ -27,14 +28,19 @@ public class SimpleFabricMixins {
          */
         @Inject(method = "tick", at = @At("HEAD"), require = 0)
         private void onTick(CallbackInfo ci) {
-            ItemEntity item = (ItemEntity) (Object) this;
+            long profileStart = ListenerProfiler.start();
+            try {
+                ItemEntity item = (ItemEntity) (Object) this;
             
-            if (item.getWorld().isClient()) {
-                return;
-            }
+                if (item.getWorld().isClient()) {
+                    return;
+                }
             
-            // This is a simplified approach - we could track item pickup here
-            // but it would require more complex state management
+                // This is a simplified approach - we could track item pickup here
+                // but it would require more complex state management
+            } finally {
+                ListenerProfiler.stop("mixin.ItemEntity.onTick", profileStart);
+            }
         }
     }
 
@@ -46,20 +52,25 @@ public class SimpleFabricMixins {
          */
         @Inject(method = "tick", at = @At("HEAD"), require = 0)
         private void onTick(CallbackInfo ci) {
-            AnimalEntity animal = (AnimalEntity) (Object) this;
+            long profileStart = ListenerProfiler.start();
+            try {
+                AnimalEntity animal = (AnimalEntity) (Object) this;
             
-            if (animal.getWorld().isClient()) {
-                return;
-            }
+                if (animal.getWorld().isClient()) {
+                    return;
+                }
             
-            try {
-                // Check if the animal is in love mode
-                if (animal.isInLove()) {
-                    // This would fire too often, so we'd need to track state changes
-                    // For now, this is just a framework
+                try {
+                    // Check if the animal is in love mode
+                    if (animal.isInLove()) {
+                        // This would fire too often, so we'd need to track state changes
+                        // For now, this is just a framework
+                    }
+                } catch (Exception e) {
+                    // Silently handle any issues
                 }
-            } catch (Exception e) {
-                // Silently handle any issues
+            } finally {
+                ListenerProfiler.stop("mixin.SimpleAnimal.onTick", profileStart);
             }
         }
     }
@@ -72,25 +83,30 @@ public class SimpleFabricMixins {
          */
         @Inject(method = "tick", at = @At("HEAD"), require = 0)  
         private void onTick(CallbackInfo ci) {
-            ServerPlayerEntity player = (ServerPlayerEntity) (Object) this;
+            long profileStart = ListenerProfiler.start();
+            try {
+                ServerPlayerEntity player = (ServerPlayerEntity) (Object) this;
             
-            if (player.getWorld().isClient()) {
-                return;
-            }
+                if (player.getWorld().isClient()) {
+                    return;
+                }
             
-            try {
-                // We could track various player state changes here
-                // like riding status, health changes, etc.
+                try {
+                    // We could track various player state changes here
+                    // like riding status, health changes, etc.
                 
-                // Example: Check if player is riding something
-                Entity vehicle = player.getVehicle();
-                if (vehicle != null) {
-                    // Player is riding something - could track mount/dismount events
-                    // Would need state tracking to avoid duplicate events
-                }
+                    // Example: Check if player is riding something
+                    Entity vehicle = player.getVehicle();
+                    if (vehicle != null) {
+                        // Player is riding something - could track mount/dismount events
+                        // Would need state tracking to avoid duplicate events
+                    }
                 
-            } catch (Exception e) {
-                // Silently handle any issues
+                } catch (Exception e) {
+                    // Silently handle any issues
+                }
+            } finally {
+                ListenerProfiler.stop("mixin.SimpleServerPlayer.onTick", profileStart);
             }
         }
     }
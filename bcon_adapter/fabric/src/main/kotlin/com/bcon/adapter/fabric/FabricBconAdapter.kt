@@ -1,10 +1,13 @@
 package com.bcon.adapter.fabric
 
 import com.bcon.adapter.core.BconAdapter
+import com.bcon.adapter.core.commands.CommandOutput
 import com.bcon.adapter.core.events.*
+import com.bcon.adapter.core.metrics.ListenerProfiler
 import com.bcon.adapter.fabric.commands.FabricCommandManager
 import com.bcon.adapter.fabric.integration.FabricBlueMapIntegration
 import com.bcon.adapter.fabric.logging.FabricBconLogger
+import com.bcon.adapter.fabric.scheduling.FabricTickExecutor
 import com.google.gson.JsonObject
 import net.fabricmc.api.DedicatedServerModInitializer
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback
@@ -28,7 +31,6 @@ import net.minecraft.advancement.Advancement
 import net.minecraft.advancement.AdvancementProgress
 import net.minecraft.block.BlockState
 import net.minecraft.entity.Entity
-import net.minecraft.entity.LivingEntity
 import net.minecraft.entity.damage.DamageSource
 import net.minecraft.entity.player.PlayerEntity
 import net.minecraft.entity.projectile.ProjectileEntity
@@ -46,13 +48,14 @@ import net.minecraft.screen.ScreenHandler
 import net.minecraft.loot.LootTable
 import net.minecraft.loot.context.LootContext
 import net.minecraft.server.MinecraftServer
+import net.minecraft.server.command.CommandOutput as MinecraftCommandOutput
 import net.minecraft.server.command.ServerCommandSource
 import net.minecraft.server.network.ServerPlayerEntity
 import net.minecraft.server.world.ServerWorld
 import net.minecraft.text.Text
 import net.minecraft.util.math.BlockPos
-import net.minecraft.registry.Registries
 import net.minecraft.world.World
+import java.util.concurrent.CompletableFuture
 
 /**
  * Fabric implementation of the Bcon adapter
@@ -62,6 +65,7 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
     
     override val logger = FabricBconLogger("Fabric")
     private var server: MinecraftServer? = null
+    override val tickExecutor = FabricTickExecutor({ server }, logger)
     private var fabricCommandManager: FabricCommandManager? = null
     private var fabricBlueMapIntegration: FabricBlueMapIntegration? = null
     
@@ -102,93 +106,124 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
         
         // Server lifecycle events
         ServerLifecycleEvents.SERVER_STARTING.register { server ->
-            this.server = server
-            eventManager.onServerStarting()
+            ListenerProfiler.time("fabric.ServerLifecycleEvents.SERVER_STARTING") {
+                this.server = server
+                eventManager.onServerStarting()
+            }
         }
         
         ServerLifecycleEvents.SERVER_STARTED.register { server ->
-            eventManager.onServerStarted()
+            ListenerProfiler.time("fabric.ServerLifecycleEvents.SERVER_STARTED") {
+                eventManager.onServerStarted()
+            }
         }
         
         ServerLifecycleEvents.SERVER_STOPPING.register { server ->
-            eventManager.onServerStopping()
+            ListenerProfiler.time("fabric.ServerLifecycleEvents.SERVER_STOPPING") {
+                eventManager.onServerStopping()
+            }
         }
         
         ServerLifecycleEvents.SERVER_STOPPED.register { server ->
-            eventManager.onServerStopped()
-            this.server = null
+            ListenerProfiler.time("fabric.ServerLifecycleEvents.SERVER_STOPPED") {
+                eventManager.onServerStopped()
+                FabricSnapshots.clear()
+                this.server = null
+            }
         }
         
         // World events
         ServerWorldEvents.LOAD.register { server, world ->
-            val worldData = createWorldData(world)
-            eventManager.onWorldLoad(worldData)
+            ListenerProfiler.time("fabric.ServerWorldEvents.LOAD") {
+                val worldData = createWorldData(world)
+                eventManager.onWorldLoad(worldData)
+            }
         }
         
         ServerWorldEvents.UNLOAD.register { server, world ->
-            val worldData = createWorldData(world)
-            eventManager.onWorldUnload(worldData)
+            ListenerProfiler.time("fabric.ServerWorldEvents.UNLOAD") {
+                val worldData = createWorldData(world)
+                eventManager.onWorldUnload(worldData)
+                FabricSnapshots.forgetWorld(world)
+            }
         }
         
         // Player connection events
         ServerPlayConnectionEvents.JOIN.register { handler, sender, server ->
-            val player = handler.player
-            val playerData = createPlayerData(player as ServerPlayerEntity)
-            eventManager.onPlayerJoined(playerData)
+            ListenerProfiler.time("fabric.ServerPlayConnectionEvents.JOIN") {
+                val player = handler.player
+                val playerData = createPlayerData(player as ServerPlayerEntity)
+                eventManager.onPlayerJoined(playerData)
+            }
         }
         
         ServerPlayConnectionEvents.DISCONNECT.register { handler, server ->
-            val player = handler.player
-            val playerData = createPlayerData(player as ServerPlayerEntity)
-            eventManager.onPlayerLeft(playerData)
+            ListenerProfiler.time("fabric.ServerPlayConnectionEvents.DISCONNECT") {
+                val player = handler.player
+                val playerData = createPlayerData(player as ServerPlayerEntity)
+                eventManager.onPlayerLeft(playerData)
+                FabricSnapshots.forgetPlayer(player.uuid)
+            }
         }
         
         ServerPlayConnectionEvents.INIT.register { handler, server ->
-            val player = handler.player
-            val playerData = createPlayerData(player as ServerPlayerEntity)
-            eventManager.onPlayerConnectionInit(playerData)
+            ListenerProfiler.time("fabric.ServerPlayConnectionEvents.INIT") {
+                val player = handler.player
+                val playerData = createPlayerData(player as ServerPlayerEntity)
+                eventManager.onPlayerConnectionInit(playerData)
+            }
         }
         
         // Player respawn events
         ServerPlayerEvents.AFTER_RESPAWN.register { oldPlayer, newPlayer, alive ->
-            val oldPlayerData = createPlayerData(oldPlayer)
-            val newPlayerData = createPlayerData(newPlayer)
-            eventManager.onPlayerRespawned(oldPlayerData, newPlayerData, alive)
+            ListenerProfiler.time("fabric.ServerPlayerEvents.AFTER_RESPAWN") {
+                val oldPlayerData = createPlayerData(oldPlayer)
+                val newPlayerData = createPlayerData(newPlayer)
+                eventManager.onPlayerRespawned(oldPlayerData, newPlayerData, alive)
+            }
         }
         
         // Entity death events
         ServerLivingEntityEvents.AFTER_DEATH.register { entity, damageSource ->
-            if (entity is ServerPlayerEntity) {
-                val playerData = createPlayerData(entity)
-                val deathMessage = entity.getDamageTracker().getDeathMessage().string
-                val attacker = damageSource.attacker?.let { createEntityData(it) }
-                eventManager.onPlayerDeath(playerData, deathMessage, attacker)
-            } else {
-                val killedEntity = createEntityData(entity)
-                val killer = damageSource.attacker?.let { createEntityData(it) }
-                val deathMessage = "Entity death" // Fabric doesn't provide death messages for non-players
-                eventManager.onEntityDeath(killer, killedEntity, deathMessage)
+            ListenerProfiler.time("fabric.ServerLivingEntityEvents.AFTER_DEATH") {
+                if (entity is ServerPlayerEntity) {
+                    val playerData = createPlayerData(entity)
+                    val deathMessage = entity.getDamageTracker().getDeathMessage().string
+                    val attacker = damageSource.attacker?.let { createEntityData(it) }
+                    eventManager.onPlayerDeath(playerData, deathMessage, attacker)
+                } else {
+                    val killedEntity = createEntityData(entity)
+                    val killer = damageSource.attacker?.let { createEntityData(it) }
+                    val deathMessage = "Entity death" // Fabric doesn't provide death messages for non-players
+                    eventManager.onEntityDeath(killer, killedEntity, deathMessage)
+                }
             }
         }
         
         // Block break events
         PlayerBlockBreakEvents.BEFORE.register { world, player, pos, state, blockEntity ->
-            val playerData = createPlayerData(player as ServerPlayerEntity)
-            val blockData = createBlockData(state, pos, world)
-            eventManager.onPlayerBreakBlockBefore(playerData, blockData)
-            true // Allow the event to continue
+            ListenerProfiler.time("fabric.PlayerBlockBreakEvents.BEFORE") {
+                val playerData = createPlayerData(player as ServerPlayerEntity)
+                val blockData = createBlockData(state, pos, world)
+                eventManager.onPlayerBreakBlockBefore(playerData, blockData)
+                true // Allow the event to continue
+            }
         }
         
         PlayerBlockBreakEvents.AFTER.register { world, player, pos, state, blockEntity ->
-            val playerData = createPlayerData(player as ServerPlayerEntity)
-            val blockData = createBlockData(state, pos, world)
-            eventManager.onPlayerBreakBlockAfter(playerData, blockData)
+            ListenerProfiler.time("fabric.PlayerBlockBreakEvents.AFTER") {
+                val playerData = createPlayerData(player as ServerPlayerEntity)
+                val blockData = createBlockData(state, pos, world)
+                eventManager.onPlayerBreakBlockAfter(playerData, blockData)
+            }
         }
         
         // Chat events
         ServerMessageEvents.CHAT_MESSAGE.register { message, sender, params ->
-            val playerData = createPlayerData(sender)
-            eventManager.onPlayerChat(playerData, message.content.string)
+            ListenerProfiler.time("fabric.ServerMessageEvents.CHAT_MESSAGE") {
+                val playerData = createPlayerData(sender)
+                eventManager.onPlayerChat(playerData, message.content.string)
+            }
         }
         
         // Command registration
@@ -198,76 +233,87 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
         
         // Enhanced Entity Events
         ServerEntityCombatEvents.AFTER_KILLED_OTHER_ENTITY.register { world, entity, killedEntity ->
-            val entityData = createEntityData(entity)
-            val killedEntityData = createEntityData(killedEntity)
-            eventManager.onEntityDeath(entityData, killedEntityData, "Entity combat death")
+            ListenerProfiler.time("fabric.ServerEntityCombatEvents.AFTER_KILLED_OTHER_ENTITY") {
+                val entityData = createEntityData(entity)
+                val killedEntityData = createEntityData(killedEntity)
+                eventManager.onEntityDeath(entityData, killedEntityData, "Entity combat death")
+            }
         }
         
         // Entity damage events
         ServerLivingEntityEvents.ALLOW_DAMAGE.register { entity, source, amount ->
-            val entityData = createEntityData(entity)
-            val damageType = source.name ?: "UNKNOWN"
-            val damageSourceEntity = source.attacker?.let { createEntityData(it) }
-            eventManager.onEntityDamage(entityData, amount.toDouble(), damageType, damageSourceEntity)
-            true // Allow damage to proceed
+            ListenerProfiler.time("fabric.ServerLivingEntityEvents.ALLOW_DAMAGE") {
+                if (!eventManager.wants("entity_damage")) return@register true
+                val entityData = createEntityData(entity)
+                val damageType = source.name ?: "UNKNOWN"
+                val damageSourceEntity = source.attacker?.let { createEntityData(it) }
+                eventManager.onEntityDamage(entityData, amount.toDouble(), damageType, damageSourceEntity)
+                true // Allow damage to proceed
+            }
         }
         
         // Use entity callback for basic entity interactions
         UseEntityCallback.EVENT.register { player, world, hand, entity, hitResult ->
-            if (entity is AnimalEntity && player is ServerPlayerEntity) {
-                val item = player.getStackInHand(hand)
-                val playerData = createPlayerData(player)
-                val entityData = createEntityData(entity)
+            ListenerProfiler.time("fabric.UseEntityCallback.EVENT") {
+                if (entity is AnimalEntity && player is ServerPlayerEntity) {
+                    val item = player.getStackInHand(hand)
+                    val playerData = createPlayerData(player)
+                    val entityData = createEntityData(entity)
                 
-                // Basic breeding item detection
-                if (!entity.world.isClient && entity.isBreedingItem(item)) {
-                    // Animal might enter love mode - handled by mixins for detailed tracking
-                    logger.info("Breeding item used on ${entity.type} by ${player.name.string}")
+                    // Basic breeding item detection
+                    if (!entity.world.isClient && entity.isBreedingItem(item)) {
+                        // Animal might enter love mode - handled by mixins for detailed tracking
+                        logger.info("Breeding item used on ${entity.type} by ${player.name.string}")
+                    }
                 }
+                ActionResult.PASS
             }
-            ActionResult.PASS
         }
         
         // Use block callback for basic block interactions
         UseBlockCallback.EVENT.register { player, world, hand, hitResult ->
-            if (player is ServerPlayerEntity) {
-                val blockPos = hitResult.blockPos
-                val blockState = world.getBlockState(blockPos)
-                val block = blockState.block
-                val playerData = createPlayerData(player)
-                val location = createLocationFromBlockPos(blockPos, world)
+            ListenerProfiler.time("fabric.UseBlockCallback.EVENT") {
+                if (player is ServerPlayerEntity) {
+                    val blockPos = hitResult.blockPos
+                    val blockState = world.getBlockState(blockPos)
+                    val block = blockState.block
+                    val playerData = createPlayerData(player)
+                    val location = createLocationFromBlockPos(blockPos, world)
                 
-                // Handle basic inventory opening detection
-                val inventoryType = when {
-                    block.toString().contains("chest") -> "CHEST"
-                    block.toString().contains("barrel") -> "BARREL"
-                    block.toString().contains("shulker") -> "SHULKER_BOX"
-                    block.toString().contains("furnace") -> "FURNACE"
-                    block.toString().contains("hopper") -> "HOPPER"
-                    else -> "UNKNOWN"
-                }
+                    // Handle basic inventory opening detection
+                    val inventoryType = when {
+                        block.toString().contains("chest") -> "CHEST"
+                        block.toString().contains("barrel") -> "BARREL"
+                        block.toString().contains("shulker") -> "SHULKER_BOX"
+                        block.toString().contains("furnace") -> "FURNACE"
+                        block.toString().contains("hopper") -> "HOPPER"
+                        else -> "UNKNOWN"
+                    }
                 
-                if (inventoryType != "UNKNOWN") {
-                    eventManager.onPlayerInventoryOpen(playerData, inventoryType, location)
+                    if (inventoryType != "UNKNOWN") {
+                        eventManager.onPlayerInventoryOpen(playerData, inventoryType, location)
+                    }
                 }
+                ActionResult.PASS
             }
-            ActionResult.PASS
         }
         
         // Use item callback for basic item usage
         UseItemCallback.EVENT.register { player, world, hand ->
-            if (player is ServerPlayerEntity) {
-                val item = player.getStackInHand(hand)
-                if (item.item == Items.FISHING_ROD) {
-                    val playerData = createPlayerData(player)
-                    val location = createLocationFromPos(player.pos, world)
-                    val hookData = FishHookData(location, false, 0) // Basic hook data
+            ListenerProfiler.time("fabric.UseItemCallback.EVENT") {
+                if (player is ServerPlayerEntity) {
+                    val item = player.getStackInHand(hand)
+                    if (item.item == Items.FISHING_ROD) {
+                        val playerData = createPlayerData(player)
+                        val location = createLocationFromPos(player.pos, world)
+                        val hookData = FishHookData(location, false, 0) // Basic hook data
                     
-                    // Basic fishing rod usage detection - detailed events handled by mixins
-                    eventManager.onPlayerFishingCast(playerData, hookData)
+                        // Basic fishing rod usage detection - detailed events handled by mixins
+                        eventManager.onPlayerFishingCast(playerData, hookData)
+                    }
                 }
+                net.minecraft.util.TypedActionResult.pass(player.getStackInHand(hand))
             }
-            net.minecraft.util.TypedActionResult.pass(player.getStackInHand(hand))
         }
         
         // Advanced events requiring custom implementation
@@ -279,30 +325,30 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
         logger.info("Fabric events registered successfully - enhanced coverage with custom implementations")
     }
     
-    override fun executeCommand(command: String): String {
-        val server = this.server ?: return "Server not available"
-        
-        return try {
-            val commandSource = server.commandSource
-            val commandManager = server.commandManager
-            val result = commandManager.executeWithPrefix(commandSource, command)
-            "Command executed successfully (result: $result)"
-        } catch (e: Exception) {
-            logger.severe("Failed to execute command '$command': ${e.message}")
-            "Failed to execute command: ${e.message}"
+    override fun executeCommand(command: String): CompletableFuture<String> {
+        return tickExecutor.submit {
+            val server = this.server ?: throw IllegalStateException("Server not available")
+            val output = CommandOutput()
+            // executeWithPrefix reports parse and execution errors to the source instead of throwing; the return
+            // value consumer is the only success signal, and it is never called for an unknown command
+            var succeeded = false
+            // Console permissions, but feedback goes to the ack instead of the server log
+            val source = server.commandSource.withOutput(object : MinecraftCommandOutput {
+                override fun sendMessage(message: Text) = output.add(message.string)
+                override fun shouldReceiveFeedback() = true
+                override fun shouldTrackOutput() = true
+                override fun shouldBroadcastConsoleToOps() = false
+            }).withReturnValueConsumer { successful, _ -> succeeded = succeeded || successful }
+            server.commandManager.executeWithPrefix(source, command)
+            output.toResult(succeeded)
         }
     }
     
-    override fun broadcastMessage(message: String): String {
-        val server = this.server ?: return "Server not available"
-        
-        return try {
-            val text = Text.literal(message)
-            server.playerManager.broadcast(text, false)
+    override fun broadcastMessage(message: String): CompletableFuture<String> {
+        return tickExecutor.submit {
+            val server = this.server ?: throw IllegalStateException("Server not available")
+            server.playerManager.broadcast(Text.literal(message), false)
             "Message broadcasted successfully"
-        } catch (e: Exception) {
-            logger.severe("Failed to broadcast message: ${e.message}")
-            "Failed to broadcast message: ${e.message}"
         }
     }
     
@@ -322,33 +368,37 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
         }
     }
     
+    override fun sampleServerPerformance(): CompletableFuture<ServerPerformanceData?> {
+        val server = this.server ?: return CompletableFuture.completedFuture(null)
+        // The tick-time ring is plain longs written once per tick; a copy taken off-thread is at worst one tick stale
+        val mspt = MsptStats.fromTickTimes(server.tickTimes.clone())
+        val tickRate = server.tickManager.tickRate.toDouble()
+        val tps = mspt?.let { minOf(tickRate, 1000.0 / it.mean.coerceAtLeast(0.001)) }
+        // Chunk and entity counts walk world state, so only those run on the tick thread
+        return tickExecutor.submit {
+            val worlds = server.worlds.map { world ->
+                WorldStatsData(
+                    name = FabricSnapshots.dimension(world),
+                    players = world.players.size,
+                    loadedChunks = world.chunkManager.loadedChunkCount,
+                    entities = world.iterateEntities().count()
+                )
+            }
+            ServerPerformanceData(tps, mspt, worlds)
+        }
+    }
+    
     // Helper methods for data conversion
     
-    private fun createPlayerData(player: ServerPlayerEntity): PlayerData {
-        return PlayerData(
-            uuid = player.uuidAsString,
-            name = player.gameProfile.name,
-            location = createLocation(player.pos, player.world),
-            health = player.health.toDouble(),
-            maxHealth = player.maxHealth.toDouble(),
-            level = player.experienceLevel,
-            gameMode = player.interactionManager.gameMode.name
-        )
-    }
+    private fun createPlayerData(player: ServerPlayerEntity): PlayerData = FabricSnapshots.player(player)
     
-    private fun createEntityData(entity: Entity): EntityData {
-        return EntityData(
-            uuid = entity.uuidAsString,
-            type = Registries.ENTITY_TYPE.getId(entity.type).toString(),
-            location = createLocation(entity.pos, entity.world),
-            name = if (entity is LivingEntity) entity.displayName?.string else null
-        )
-    }
+    private fun createEntityData(entity: Entity): EntityData = FabricSnapshots.entity(entity)
     
     private fun createWorldData(world: ServerWorld): WorldData {
+        val dimension = FabricSnapshots.dimension(world)
         return WorldData(
-            name = world.registryKey.value.toString(),
-            dimensionKey = world.registryKey.value.toString(),
+            name = dimension,
+            dimensionKey = dimension,
             time = world.timeOfDay,
             difficulty = world.difficulty.name,
             weather = if (world.isRaining) "RAIN" else "CLEAR",
@@ -358,40 +408,28 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
     
     private fun createBlockData(blockState: BlockState, pos: BlockPos, world: World): BlockData {
         return BlockData(
-            type = Registries.BLOCK.getId(blockState.block).toString(),
-            location = Location(
-                x = pos.x.toDouble(),
-                y = pos.y.toDouble(), 
-                z = pos.z.toDouble(),
-                dimension = world.registryKey.value.toString()
-            ),
+            type = FabricSnapshots.blockType(blockState.block),
+            location = FabricSnapshots.blockLocation(pos, world),
             data = blockState.toString()
         )
     }
     
-    private fun createLocation(pos: net.minecraft.util.math.Vec3d, world: World): Location {
-        return Location(
-            x = pos.x,
-            y = pos.y,
-            z = pos.z,
-            dimension = world.registryKey.value.toString()
-        )
-    }
-    
     private fun registerCustomFabricEvents() {
         // Register custom events that don't have direct Fabric API equivalents
         logger.info("Registering custom Fabric events for enhanced functionality")
         
         // Server tick event for periodic checks
         ServerTickEvents.END_SERVER_TICK.register { server ->
-            // We can use this to periodically check for state changes
-            // that don't have direct events in Fabric
+            ListenerProfiler.time("fabric.ServerTickEvents.END_SERVER_TICK.itemsAndFurnaces") {
+                // We can use this to periodically check for state changes
+                // that don't have direct events in Fabric
             
-            // Check for item drops by monitoring ItemEntity spawns
-            checkForItemDrops(server)
+                // Check for item drops by monitoring ItemEntity spawns
+                checkForItemDrops(server)
             
-            // Check for furnace state changes
-            checkFurnaceStates(server)
+                // Check for furnace state changes
+                checkFurnaceStates(server)
+            }
         }
     }
     
@@ -409,7 +447,7 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
     
     private fun createItemData(itemStack: ItemStack): ItemData {
         return ItemData(
-            type = itemStack.item.toString(),
+            type = FabricSnapshots.itemType(itemStack.item),
             amount = itemStack.count,
             displayName = try { 
                 // Simplified name extraction for Fabric
@@ -428,25 +466,11 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
     }
     
     private fun createLocationFromPos(pos: net.minecraft.util.math.Vec3d, world: net.minecraft.world.World): Location {
-        return Location(
-            x = pos.x,
-            y = pos.y,
-            z = pos.z,
-            dimension = world.registryKey.value.toString(),
-            yaw = 0f,
-            pitch = 0f
-        )
+        return FabricSnapshots.location(pos, world)
     }
     
     private fun createLocationFromBlockPos(pos: net.minecraft.util.math.BlockPos, world: net.minecraft.world.World): Location {
-        return Location(
-            x = pos.x.toDouble(),
-            y = pos.y.toDouble(),
-            z = pos.z.toDouble(),
-            dimension = world.registryKey.value.toString(),
-            yaw = 0f,
-            pitch = 0f
-        )
+        return FabricSnapshots.blockLocation(pos, world)
     }
 
     private fun createAdvancementData(advancement: Advancement): AdvancementData {
@@ -461,10 +485,12 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
         // Custom advancement event registration
         // This requires more complex implementation as Fabric doesn't provide direct advancement events
         ServerTickEvents.END_SERVER_TICK.register { server ->
-            // Check for advancement completion periodically
-            // This is a simplified approach - a more sophisticated implementation would track changes
-            for (player in server.playerManager.playerList) {
-                checkPlayerAdvancements(player)
+            ListenerProfiler.time("fabric.ServerTickEvents.END_SERVER_TICK.advancements") {
+                // Check for advancement completion periodically
+                // This is a simplified approach - a more sophisticated implementation would track changes
+                for (player in server.playerManager.playerList) {
+                    checkPlayerAdvancements(player)
+                }
             }
         }
     }
@@ -481,13 +507,9 @@ class FabricBconAdapter : BconAdapter(), DedicatedServerModInitializer {
         logger.severe("Bcon connection failed in strict mode - shutting down server")
         
         // Schedule server shutdown on the main thread
-        getServerInstance()?.let { server ->
-            if (server is MinecraftServer) {
-                server.execute {
-                    logger.severe("Executing emergency server shutdown due to Bcon connection failure")
-                    server.stop(false)
-                }
-            }
+        tickExecutor.executeNextTick {
+            logger.severe("Executing emergency server shutdown due to Bcon connection failure")
+            server?.stop(false)
         }
     }
     
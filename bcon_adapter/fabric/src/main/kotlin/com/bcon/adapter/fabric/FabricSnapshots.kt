@@ -0,0 +1,82 @@
+package com.bcon.adapter.fabric
+
+import com.bcon.adapter.core.events.EntityData
+import com.bcon.adapter.core.events.Location
+import com.bcon.adapter.core.events.PlayerData
+import com.bcon.adapter.core.events.SnapshotFactory
+import net.minecraft.block.Block
+import net.minecraft.entity.Entity
+import net.minecraft.entity.LivingEntity
+import net.minecraft.item.Item
+import net.minecraft.registry.Registries
+import net.minecraft.server.network.ServerPlayerEntity
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.Vec3d
+import net.minecraft.world.World
+import java.util.UUID
+
+/**
+ * Event snapshot builders shared by the Fabric adapter and its mixins
+ * Dimension and registry id strings are cached instead of being rebuilt from registry keys on every event
+ */
+object FabricSnapshots {
+
+    private val factory = SnapshotFactory<World> { it.registryKey.value.toString() }
+
+    fun player(player: ServerPlayerEntity): PlayerData {
+        return factory.player(
+            uuid = player.uuid,
+            name = player.gameProfile.name,
+            world = player.world,
+            x = player.x,
+            y = player.y,
+            z = player.z,
+            yaw = player.yaw,
+            pitch = player.pitch,
+            health = player.health.toDouble(),
+            maxHealth = player.maxHealth.toDouble(),
+            level = player.experienceLevel,
+            gameMode = player.interactionManager.gameMode.name
+        )
+    }
+
+    fun entity(entity: Entity): EntityData {
+        return factory.entity(
+            id = entity.uuidAsString,
+            type = entityType(entity),
+            world = entity.world,
+            x = entity.x,
+            y = entity.y,
+            z = entity.z,
+            name = if (entity is LivingEntity) entity.displayName?.string else null
+        )
+    }
+
+    fun location(pos: Vec3d, world: World): Location = factory.location(pos.x, pos.y, pos.z, world)
+
+    fun location(x: Double, y: Double, z: Double, world: World): Location = factory.location(x, y, z, world)
+
+    fun blockLocation(pos: BlockPos, world: World): Location {
+        return factory.location(pos.x.toDouble(), pos.y.toDouble(), pos.z.toDouble(), world)
+    }
+
+    fun dimension(world: World): String = factory.dimension(world)
+
+    fun entityType(entity: Entity): String = factory.typeName(entity.type) { Registries.ENTITY_TYPE.getId(it).toString() }
+
+    fun blockType(block: Block): String = factory.typeName(block) { Registries.BLOCK.getId(it).toString() }
+
+    fun itemType(item: Item): String = factory.typeName(item) { it.toString() }
+
+    fun forgetPlayer(uuid: UUID) {
+        factory.forgetPlayer(uuid)
+    }
+
+    fun forgetWorld(world: World) {
+        factory.forgetWorld(world)
+    }
+
+    fun clear() {
+        factory.clear()
+    }
+}
@@ -113,6 +113,14 @@ class FabricCommandManager(
                     CommandManager.literal("reload")
                         .executes { context -> executeBconCommand(context, "reload", null) }
                 )
+                .then(
+                    CommandManager.literal("profile")
+                        .executes { context -> executeBconCommand(context, "profile", null) }
+                        .then(
+                            CommandManager.literal("reset")
+                                .executes { context -> executeBconCommand(context, "profile", "reset") }
+                        )
+                )
                 .executes { context -> 
                     // Show usage when no subcommand is provided
                     executeBconCommand(context, "help", null)
@@ -139,7 +147,8 @@ class FabricCommandManager(
                 "- /bcon name <name> - Update server name\n" +
                 "- /bcon strict <true|false> - Toggle strict mode\n" +
                 "- /bcon reconnect - Force reconnection\n" +
-                "- /bcon reload - Reload configuration"
+                "- /bcon reload - Reload configuration\n" +
+                "- /bcon profile [reset] - Show (or clear) listener tick costs"
             } else {
                 adapter.handleBconConfigCommand(data)
             }
@@ -0,0 +1,40 @@
+package com.bcon.adapter.fabric.scheduling
+
+import com.bcon.adapter.core.logging.BconLogger
+import com.bcon.adapter.core.metrics.ListenerProfiler
+import com.bcon.adapter.core.scheduling.BudgetedTickExecutor
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents
+import net.minecraft.server.MinecraftServer
+
+/**
+ * Runs adapter work on the Minecraft server thread, drained at the end of every server tick
+ * The server is looked up per call because it only exists between SERVER_STARTING and SERVER_STOPPED.
+ */
+class FabricTickExecutor(
+    private val server: () -> MinecraftServer?,
+    logger: BconLogger
+) : BudgetedTickExecutor(logger) {
+
+    @Volatile
+    private var active = false
+    private var registered = false
+
+    override fun isTickThread(): Boolean = server()?.isOnThread == true
+
+    override fun installHook() {
+        active = true
+        // Fabric events can't be unregistered, so the listener is added once and gated by active
+        if (!registered) {
+            registered = true
+            ServerTickEvents.END_SERVER_TICK.register { _ ->
+                if (active) {
+                    ListenerProfiler.time("fabric.tickExecutor.drainTick") { drainTick() }
+                }
+            }
+        }
+    }
+
+    override fun removeHook() {
+        active = false
+    }
+}
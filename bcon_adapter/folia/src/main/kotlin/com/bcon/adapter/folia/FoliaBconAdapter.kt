@@ -1,11 +1,15 @@
 package com.bcon.adapter.folia
 
 import com.bcon.adapter.core.BconAdapter
+import com.bcon.adapter.core.commands.CommandOutput
 import com.bcon.adapter.core.events.*
+import com.bcon.adapter.folia.commands.BconAdminCommand
 import com.bcon.adapter.folia.commands.FoliaCommandManager
 import com.bcon.adapter.folia.integration.FoliaBlueMapIntegration
 import com.bcon.adapter.folia.logging.FoliaBconLogger
+import com.bcon.adapter.folia.scheduling.FoliaTickExecutor
 import com.google.gson.JsonObject
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer
 import io.papermc.paper.threadedregions.scheduler.ScheduledTask
 import org.bukkit.Bukkit
 import org.bukkit.Server
@@ -30,6 +34,8 @@ import org.bukkit.inventory.ItemStack
 import org.bukkit.entity.FishHook
 import org.bukkit.entity.Animals
 import org.bukkit.plugin.java.JavaPlugin
+import java.lang.reflect.Method
+import java.util.concurrent.CompletableFuture
 
 /**
  * Folia implementation of the Bcon adapter
@@ -52,11 +58,13 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
             registerFoliaEvents()
         }
         
-        override fun executeCommand(command: String): String {
+        override val tickExecutor = FoliaTickExecutor(this@FoliaBconAdapter, isFolia(), logger)
+        
+        override fun executeCommand(command: String): CompletableFuture<String> {
             return executeServerCommand(command)
         }
         
-        override fun broadcastMessage(message: String): String {
+        override fun broadcastMessage(message: String): CompletableFuture<String> {
             return broadcastServerMessage(message)
         }
         
@@ -78,6 +86,10 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
             }
         }
         
+        override fun sampleServerPerformance(): CompletableFuture<ServerPerformanceData?> {
+            return if (isFolia()) sampleRegionPerformance() else samplePaperPerformance()
+        }
+        
         override fun handleStrictModeFailure() {
             logger.severe("Bcon connection failed in strict mode - shutting down server")
             
@@ -90,8 +102,10 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
     }
     
     private var foliaCommandManager: FoliaCommandManager? = null
+    private var adminCommand: BconAdminCommand? = null
     private var foliaBlueMapIntegration: FoliaBlueMapIntegration? = null
     private var scheduledTasks = mutableListOf<ScheduledTask>()
+    private val snapshots = SnapshotFactory<World> { it.environment.name }
     
     override fun onEnable() {
         super.getLogger().info("Enabling Folia Bcon Adapter")
@@ -107,6 +121,7 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
     override fun onDisable() {
         super.getLogger().info("Disabling Folia Bcon Adapter")
         adapter.shutdown()
+        snapshots.clear()
     }
     
     private fun setupFoliaComponents() {
@@ -114,6 +129,11 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
         
         // Initialize Folia-specific command manager
         foliaCommandManager = FoliaCommandManager(this, adapter.commandManager)
+        adminCommand = BconAdminCommand(adapter::handleBconConfigCommand) { taskName, task ->
+            adapter.scheduler.executeInternal(taskName, task)
+        }.also {
+            server.commandMap.register(name.lowercase(), it)
+        }
         
         // Initialize Folia-specific BlueMap integration if available
         try {
@@ -144,13 +164,15 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
         
         foliaBlueMapIntegration?.shutdown()
         foliaCommandManager?.shutdown()
+        adminCommand?.unregister(server.commandMap)
+        adminCommand = null
     }
     
     private fun registerFoliaEvents() {
         super.getLogger().info("Registering Folia events")
         
         // Register this class as event listener
-        server.pluginManager.registerEvents(this, this)
+        ProfiledListeners.register(this, this)
         
         // Register server lifecycle events
         adapter.eventManager.onServerStarted()
@@ -158,6 +180,65 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
         super.getLogger().info("Folia events registered successfully")
     }
     
+    /**
+     * Folia has no global tick: report each world's spawn-region TPS and player counts
+     * Chunk and entity counts are owned by individual regions, so they are left out rather than read unsafely.
+     */
+    private fun sampleRegionPerformance(): CompletableFuture<ServerPerformanceData?> {
+        val playersByWorld = server.onlinePlayers.groupingBy { it.world.name }.eachCount()
+        val futures = server.worlds.map { world ->
+            val spawn = world.spawnLocation
+            adapter.tickExecutor.submitAt(spawn) {
+                WorldStatsData(
+                    name = world.name,
+                    players = playersByWorld[world.name] ?: 0,
+                    regionTps = regionTps(spawn)
+                )
+            }
+        }
+        return CompletableFuture.allOf(*futures.toTypedArray()).thenApply {
+            val worlds = futures.map { it.join() }
+            // The server-wide figure is the slowest region, which is what lag alerts care about
+            ServerPerformanceData(worlds.mapNotNull { it.regionTps }.minOrNull(), null, worlds)
+        }
+    }
+    
+    private fun samplePaperPerformance(): CompletableFuture<ServerPerformanceData?> {
+        val tps = server.tps.firstOrNull()
+        val mspt = MsptStats.fromTickTimes(server.tickTimes.clone())
+        return adapter.tickExecutor.submit {
+            val worlds = server.worlds.map { world ->
+                WorldStatsData(
+                    name = world.name,
+                    players = world.playerCount,
+                    loadedChunks = world.chunkCount,
+                    entities = world.entityCount
+                )
+            }
+            ServerPerformanceData(tps, mspt, worlds)
+        }
+    }
+    
+    /**
+     * 1-minute TPS of the region owning location, via Folia's getRegionTPS when the running API has it
+     */
+    private fun regionTps(location: org.bukkit.Location): Double? {
+        val method = regionTpsMethod ?: return null
+        return try {
+            (method.invoke(server, location) as? DoubleArray)?.firstOrNull()
+        } catch (e: Exception) {
+            null
+        }
+    }
+    
+    private val regionTpsMethod: Method? by lazy {
+        try {
+            Server::class.java.getMethod("getRegionTPS", org.bukkit.Location::class.java)
+        } catch (e: NoSuchMethodException) {
+            null
+        }
+    }
+    
     /**
      * Check if the server is running Folia
      */
@@ -213,6 +294,7 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
         scheduleEntityTask(event.player) {
             val playerData = createPlayerData(event.player)
             adapter.eventManager.onPlayerLeft(playerData)
+            snapshots.forgetPlayer(event.player.uniqueId)
         }
     }
     
@@ -302,6 +384,7 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
         scheduleGlobalTask {
             val worldData = createWorldData(event.world)
             adapter.eventManager.onWorldUnload(worldData)
+            snapshots.forgetWorld(event.world)
         }
     }
     
@@ -441,6 +524,7 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     fun onEntityDamage(event: EntityDamageEvent) {
         if (event.isCancelled) return
+        if (!adapter.eventManager.wants("entity_damage")) return
         
         scheduleEntityTask(event.entity) {
             val entity = event.entity
@@ -459,6 +543,7 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     fun onEntityRegainHealth(event: EntityRegainHealthEvent) {
         if (event.isCancelled) return
+        if (!adapter.eventManager.wants("entity_heal")) return
         
         scheduleEntityTask(event.entity) {
             val entity = event.entity
@@ -633,17 +718,9 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
      * Schedule a task on the region scheduler (Folia-specific)
      */
     private fun scheduleRegionTask(location: org.bukkit.Location, task: Runnable) {
-        if (isFolia()) {
-            try {
-                Bukkit.getRegionScheduler().run(this, location) { _ -> task.run() }
-            } catch (e: Exception) {
-                super.getLogger().warning("Failed to schedule region task: ${e.message}")
-                // Fallback to immediate execution
-                task.run()
-            }
-        } else {
-            // Fallback for non-Folia
-            Bukkit.getScheduler().runTask(this, task)
+        adapter.tickExecutor.submitAt(location) { task.run() }.exceptionally { e ->
+            super.getLogger().warning("Failed to run region task: ${e.message}")
+            null
         }
     }
     
@@ -651,64 +728,40 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
      * Schedule a task on the global region scheduler (Folia-specific)
      */
     private fun scheduleGlobalTask(task: Runnable) {
-        if (isFolia()) {
-            try {
-                Bukkit.getGlobalRegionScheduler().run(this) { _ -> task.run() }
-            } catch (e: Exception) {
-                super.getLogger().warning("Failed to schedule global task: ${e.message}")
-                // Fallback to immediate execution
-                task.run()
-            }
-        } else {
-            // Fallback for non-Folia
-            Bukkit.getScheduler().runTask(this, task)
-        }
+        adapter.tickExecutor.executeNextTick(task)
     }
     
     // Command and server management
     
-    private fun executeServerCommand(command: String): String {
-        return try {
-            // Commands should be executed on the main thread/global region
-            var result = false
-            if (isFolia()) {
-                Bukkit.getGlobalRegionScheduler().run(this) { _ ->
-                    result = Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command)
-                }
-            } else {
-                result = Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command)
-            }
-            
-            if (result) {
-                "Command executed successfully"
-            } else {
-                "Command execution failed"
-            }
-        } catch (e: Exception) {
-            super.getLogger().severe("Failed to execute command '$command': ${e.message}")
-            "Failed to execute command: ${e.message}"
+    private fun executeServerCommand(command: String): CompletableFuture<String> {
+        // Console commands run on the global region; the future completes once the command actually ran
+        return adapter.tickExecutor.submit {
+            val output = CommandOutput()
+            val sender = server.createCommandSender { output.add(PlainTextComponentSerializer.plainText().serialize(it)) }
+            output.toResult(Bukkit.dispatchCommand(sender, command))
         }
     }
     
-    private fun broadcastServerMessage(message: String): String {
-        return try {
-            scheduleGlobalTask {
-                Bukkit.broadcastMessage(message)
-            }
+    private fun broadcastServerMessage(message: String): CompletableFuture<String> {
+        return adapter.tickExecutor.submit {
+            Bukkit.broadcastMessage(message)
             "Message broadcasted successfully"
-        } catch (e: Exception) {
-            super.getLogger().severe("Failed to broadcast message: ${e.message}")
-            "Failed to broadcast message: ${e.message}"
         }
     }
     
     // Helper methods for data conversion (same as Paper)
     
     private fun createPlayerData(player: Player): PlayerData {
-        return PlayerData(
-            uuid = player.uniqueId.toString(),
+        val location = player.location
+        return snapshots.player(
+            uuid = player.uniqueId,
             name = player.name,
-            location = createLocation(player.location),
+            world = player.world,
+            x = location.x,
+            y = location.y,
+            z = location.z,
+            yaw = location.yaw,
+            pitch = location.pitch,
             health = player.health,
             maxHealth = player.maxHealth,
             level = player.level,
@@ -718,7 +771,7 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
     
     private fun createEntityData(entity: Entity): EntityData {
         return EntityData(
-            uuid = entity.uniqueId.toString(),
+            uuid = if (entity is Player) snapshots.playerId(entity.uniqueId, entity.name) else entity.uniqueId.toString(),
             type = entity.type.name,
             location = createLocation(entity.location),
             name = if (entity is LivingEntity) entity.customName else null
@@ -749,11 +802,12 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
     }
     
     private fun createLocation(location: org.bukkit.Location): Location {
+        val world = location.world
         return Location(
             x = location.x,
             y = location.y,
             z = location.z,
-            dimension = location.world?.environment?.name ?: "NORMAL",
+            dimension = if (world != null) snapshots.dimension(world) else "NORMAL",
             yaw = location.yaw,
             pitch = location.pitch
         )
@@ -762,7 +816,8 @@ class FoliaBconAdapter : JavaPlugin(), Listener {
     private fun createAdvancementData(advancement: Advancement): AdvancementData {
         val display = advancement.display
         return AdvancementData(
-            id = advancement.key.toString(),
+            // Keyed by the NamespacedKey, which compares by value; the Advancement wrapper may be new on every event
+            id = snapshots.typeName(advancement.key) { it.toString() },
             title = display?.title()?.toString() ?: "Unknown",
             description = display?.description()?.toString() ?: ""
         )
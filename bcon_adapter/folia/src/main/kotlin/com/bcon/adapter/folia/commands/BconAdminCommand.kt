@@ -0,0 +1,77 @@
+package com.bcon.adapter.folia.commands
+
+import com.google.gson.JsonObject
+import org.bukkit.command.Command
+import org.bukkit.command.CommandSender
+
+/**
+ * The built-in /bcon command; each subcommand maps to a bcon_config action, like on Fabric
+ * Actions that restart the connection block until the old socket closes, so they run through runInBackground
+ * instead of on the thread that dispatched the command, and the sender hears back when they finish.
+ */
+class BconAdminCommand(
+    private val handleAction: (JsonObject) -> String,
+    private val runInBackground: (String, Runnable) -> Unit
+) : Command("bcon", "Bcon adapter administration", "/bcon <action> [value]", emptyList()) {
+
+    init {
+        permission = "bcon.admin"
+    }
+
+    override fun execute(sender: CommandSender, commandLabel: String, args: Array<out String>): Boolean {
+        if (!testPermission(sender)) {
+            return true
+        }
+        val action = args.firstOrNull()?.lowercase()
+        if (action == null || action == "help") {
+            sender.sendMessage(USAGE)
+            return true
+        }
+
+        val data = JsonObject().apply {
+            addProperty("action", action)
+            if (args.size > 1) {
+                addProperty("value", args.drop(1).joinToString(" "))
+            }
+        }
+        if (action in BLOCKING_ACTIONS) {
+            sender.sendMessage("Running /bcon $action...")
+            runInBackground("bcon-$action") { reply(sender, data) }
+        } else {
+            reply(sender, data)
+        }
+        return true
+    }
+
+    // sendMessage is safe off the server thread, so background actions reply directly
+    private fun reply(sender: CommandSender, data: JsonObject) {
+        try {
+            sender.sendMessage(handleAction(data))
+        } catch (e: Exception) {
+            sender.sendMessage("§cError executing command: ${e.message}")
+        }
+    }
+
+    override fun tabComplete(sender: CommandSender, alias: String, args: Array<out String>): List<String> {
+        if (args.size != 1) {
+            return emptyList()
+        }
+        return ACTIONS.filter { it.startsWith(args[0].lowercase()) }
+    }
+
+    companion object {
+        private val ACTIONS = listOf("status", "token", "url", "id", "name", "strict", "reconnect", "reload", "profile")
+        private val BLOCKING_ACTIONS = setOf("token", "url", "id", "reconnect", "reload")
+
+        private const val USAGE = "Bcon Commands:\n" +
+            "- /bcon status - Show connection status\n" +
+            "- /bcon token <jwt> - Update JWT token\n" +
+            "- /bcon url <ws://host:port> - Update server URL\n" +
+            "- /bcon id <id> - Update server ID\n" +
+            "- /bcon name <name> - Update server name\n" +
+            "- /bcon strict <true|false> - Toggle strict mode\n" +
+            "- /bcon reconnect - Force reconnection\n" +
+            "- /bcon reload - Reload configuration\n" +
+            "- /bcon profile [reset] - Show (or clear) listener tick costs"
+    }
+}
@@ -0,0 +1,69 @@
+package com.bcon.adapter.folia.scheduling
+
+import com.bcon.adapter.core.logging.BconLogger
+import com.bcon.adapter.core.metrics.ListenerProfiler
+import com.bcon.adapter.core.scheduling.BudgetedTickExecutor
+import com.bcon.adapter.core.scheduling.TickThreadExecutor
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask
+import org.bukkit.Bukkit
+import org.bukkit.Location
+import org.bukkit.plugin.Plugin
+import org.bukkit.scheduler.BukkitTask
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Runs adapter work on Folia's global region, drained by a global task that repeats every tick
+ * Location-bound work goes straight to the owning region. Falls back to the Bukkit main thread when the
+ * plugin runs on plain Paper.
+ */
+class FoliaTickExecutor(
+    private val plugin: Plugin,
+    private val folia: Boolean,
+    logger: BconLogger
+) : BudgetedTickExecutor(logger) {
+
+    private var globalHook: ScheduledTask? = null
+    private var bukkitHook: BukkitTask? = null
+
+    override fun isTickThread(): Boolean = if (folia) Bukkit.isGlobalTickThread() else Bukkit.isPrimaryThread()
+
+    override fun installHook() {
+        cancelHooks()
+        if (folia) {
+            globalHook = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, { _ -> ListenerProfiler.time("folia.tickExecutor.drainTick") { drainTick() } }, 1L, 1L)
+        } else {
+            bukkitHook = Bukkit.getScheduler().runTaskTimer(plugin, Runnable { ListenerProfiler.time("folia.tickExecutor.drainTick") { drainTick() } }, 1L, 1L)
+        }
+    }
+
+    override fun removeHook() {
+        cancelHooks()
+    }
+
+    /**
+     * Run a task on the region that owns location (e.g. marker or block changes)
+     */
+    fun <T> submitAt(location: Location, task: () -> T): CompletableFuture<T> {
+        if (!folia) {
+            return submit(task)
+        }
+        val future = CompletableFuture<T>()
+        if (Bukkit.isOwnedByCurrentRegion(location)) {
+            TickThreadExecutor.runInto(future, task)
+            return future
+        }
+        try {
+            Bukkit.getRegionScheduler().execute(plugin, location, Runnable { TickThreadExecutor.runInto(future, task) })
+        } catch (e: Exception) {
+            future.completeExceptionally(e)
+        }
+        return future
+    }
+
+    private fun cancelHooks() {
+        globalHook?.cancel()
+        globalHook = null
+        bukkitHook?.cancel()
+        bukkitHook = null
+    }
+}
@@ -1,11 +1,15 @@
 package com.bcon.adapter.paper
 
 import com.bcon.adapter.core.BconAdapter
+import com.bcon.adapter.core.commands.CommandOutput
 import com.bcon.adapter.core.events.*
+import com.bcon.adapter.paper.commands.BconAdminCommand
 import com.bcon.adapter.paper.commands.PaperCommandManager
 import com.bcon.adapter.paper.integration.PaperBlueMapIntegration
 import com.bcon.adapter.paper.logging.PaperBconLogger
+import com.bcon.adapter.paper.scheduling.BukkitTickExecutor
 import com.google.gson.JsonObject
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer
 import org.bukkit.Bukkit
 import org.bukkit.Server
 import org.bukkit.World
@@ -29,6 +33,7 @@ import org.bukkit.inventory.ItemStack
 import org.bukkit.entity.FishHook
 import org.bukkit.entity.Animals
 import org.bukkit.plugin.java.JavaPlugin
+import java.util.concurrent.CompletableFuture
 
 /**
  * Paper/Bukkit implementation of the Bcon adapter
@@ -51,11 +56,13 @@ class PaperBconAdapter : JavaPlugin(), Listener {
             registerPaperEvents()
         }
         
-        override fun executeCommand(command: String): String {
+        override val tickExecutor = BukkitTickExecutor(this@PaperBconAdapter, logger)
+        
+        override fun executeCommand(command: String): CompletableFuture<String> {
             return executeServerCommand(command)
         }
         
-        override fun broadcastMessage(message: String): String {
+        override fun broadcastMessage(message: String): CompletableFuture<String> {
             return broadcastServerMessage(message)
         }
         
@@ -76,19 +83,38 @@ class PaperBconAdapter : JavaPlugin(), Listener {
             }
         }
         
+        override fun sampleServerPerformance(): CompletableFuture<ServerPerformanceData?> {
+            // Paper keeps TPS and tick times in fields the main thread only overwrites, so read them here
+            val tps = server.tps.firstOrNull()
+            val mspt = MsptStats.fromTickTimes(server.tickTimes.clone())
+            return tickExecutor.submit {
+                val worlds = server.worlds.map { world ->
+                    WorldStatsData(
+                        name = world.name,
+                        players = world.playerCount,
+                        loadedChunks = world.chunkCount,
+                        entities = world.entityCount
+                    )
+                }
+                ServerPerformanceData(tps, mspt, worlds)
+            }
+        }
+        
         override fun handleStrictModeFailure() {
             logger.severe("Bcon connection failed in strict mode - shutting down server")
             
             // Schedule server shutdown on the main thread
-            org.bukkit.Bukkit.getScheduler().runTask(this@PaperBconAdapter, Runnable {
+            tickExecutor.executeNextTick {
                 logger.severe("Executing emergency server shutdown due to Bcon connection failure")
                 server.shutdown()
-            })
+            }
         }
     }
     
     private var paperCommandManager: PaperCommandManager? = null
+    private var adminCommand: BconAdminCommand? = null
     private var paperBlueMapIntegration: PaperBlueMapIntegration? = null
+    private val snapshots = SnapshotFactory<World> { it.environment.name }
     
     override fun onEnable() {
         super.getLogger().info("Enabling Paper Bcon Adapter")
@@ -98,6 +124,7 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     override fun onDisable() {
         super.getLogger().info("Disabling Paper Bcon Adapter")
         adapter.shutdown()
+        snapshots.clear()
     }
     
     private fun setupPaperComponents() {
@@ -105,6 +132,11 @@ class PaperBconAdapter : JavaPlugin(), Listener {
         
         // Initialize Paper-specific command manager
         paperCommandManager = PaperCommandManager(this, adapter.commandManager)
+        adminCommand = BconAdminCommand(adapter::handleBconConfigCommand) { taskName, task ->
+            adapter.scheduler.executeInternal(taskName, task)
+        }.also {
+            server.commandMap.register(name.lowercase(), it)
+        }
         
         // Initialize Paper-specific BlueMap integration if available
         try {
@@ -121,13 +153,15 @@ class PaperBconAdapter : JavaPlugin(), Listener {
         super.getLogger().info("Shutting down Paper Bcon Adapter")
         paperBlueMapIntegration?.shutdown()
         paperCommandManager?.shutdown()
+        adminCommand?.unregister(server.commandMap)
+        adminCommand = null
     }
     
     private fun registerPaperEvents() {
         super.getLogger().info("Registering Paper events")
         
         // Register this class as event listener
-        server.pluginManager.registerEvents(this, this)
+        ProfiledListeners.register(this, this)
         
         // Register server lifecycle events
         adapter.eventManager.onServerStarted()
@@ -147,6 +181,7 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     fun onPlayerQuit(event: PlayerQuitEvent) {
         val playerData = createPlayerData(event.player)
         adapter.eventManager.onPlayerLeft(playerData)
+        snapshots.forgetPlayer(event.player.uniqueId)
     }
     
     @EventHandler(priority = EventPriority.MONITOR)
@@ -219,6 +254,7 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     fun onWorldUnload(event: WorldUnloadEvent) {
         val worldData = createWorldData(event.world)
         adapter.eventManager.onWorldUnload(worldData)
+        snapshots.forgetWorld(event.world)
     }
     
     @EventHandler(priority = EventPriority.MONITOR)
@@ -345,6 +381,7 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     fun onEntityDamage(event: EntityDamageEvent) {
         if (event.isCancelled) return
+        if (!adapter.eventManager.wants("entity_damage")) return
         
         val entity = event.entity
         val entityData = createEntityData(entity)
@@ -361,6 +398,7 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     fun onEntityRegainHealth(event: EntityRegainHealthEvent) {
         if (event.isCancelled) return
+        if (!adapter.eventManager.wants("entity_heal")) return
         
         val entity = event.entity
         val entityData = createEntityData(entity)
@@ -491,37 +529,35 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     
     // Command and server management
     
-    private fun executeServerCommand(command: String): String {
-        return try {
-            val result = Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command)
-            if (result) {
-                "Command executed successfully"
-            } else {
-                "Command execution failed"
-            }
-        } catch (e: Exception) {
-            super.getLogger().severe("Failed to execute command '$command': ${e.message}")
-            "Failed to execute command: ${e.message}"
+    private fun executeServerCommand(command: String): CompletableFuture<String> {
+        // dispatchCommand is only legal on the main thread; the sender collects the feedback for the ack
+        return adapter.tickExecutor.submit {
+            val output = CommandOutput()
+            val sender = server.createCommandSender { output.add(PlainTextComponentSerializer.plainText().serialize(it)) }
+            output.toResult(Bukkit.dispatchCommand(sender, command))
         }
     }
     
-    private fun broadcastServerMessage(message: String): String {
-        return try {
+    private fun broadcastServerMessage(message: String): CompletableFuture<String> {
+        return adapter.tickExecutor.submit {
             Bukkit.broadcastMessage(message)
             "Message broadcasted successfully"
-        } catch (e: Exception) {
-            super.getLogger().severe("Failed to broadcast message: ${e.message}")
-            "Failed to broadcast message: ${e.message}"
         }
     }
     
     // Helper methods for data conversion
     
     private fun createPlayerData(player: Player): PlayerData {
-        return PlayerData(
-            uuid = player.uniqueId.toString(),
+        val location = player.location
+        return snapshots.player(
+            uuid = player.uniqueId,
             name = player.name,
-            location = createLocation(player.location),
+            world = player.world,
+            x = location.x,
+            y = location.y,
+            z = location.z,
+            yaw = location.yaw,
+            pitch = location.pitch,
             health = player.health,
             maxHealth = player.maxHealth,
             level = player.level,
@@ -531,7 +567,7 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     
     private fun createEntityData(entity: Entity): EntityData {
         return EntityData(
-            uuid = entity.uniqueId.toString(),
+            uuid = if (entity is Player) snapshots.playerId(entity.uniqueId, entity.name) else entity.uniqueId.toString(),
             type = entity.type.name,
             location = createLocation(entity.location),
             name = if (entity is LivingEntity) entity.customName else null
@@ -562,11 +598,12 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     }
     
     private fun createLocation(location: org.bukkit.Location): Location {
+        val world = location.world
         return Location(
             x = location.x,
             y = location.y,
             z = location.z,
-            dimension = location.world?.environment?.name ?: "NORMAL",
+            dimension = if (world != null) snapshots.dimension(world) else "NORMAL",
             yaw = location.yaw,
             pitch = location.pitch
         )
@@ -575,7 +612,8 @@ class PaperBconAdapter : JavaPlugin(), Listener {
     private fun createAdvancementData(advancement: Advancement): AdvancementData {
         val display = advancement.display
         return AdvancementData(
-            id = advancement.key.toString(),
+            // Keyed by the NamespacedKey, which compares by value; the Advancement wrapper may be new on every event
+            id = snapshots.typeName(advancement.key) { it.toString() },
             title = display?.title()?.toString() ?: "Unknown",
             description = display?.description()?.toString() ?: ""
         )
@@ -0,0 +1,28 @@
+package com.bcon.adapter.paper.scheduling
+
+import com.bcon.adapter.core.logging.BconLogger
+import com.bcon.adapter.core.metrics.ListenerProfiler
+import com.bcon.adapter.core.scheduling.BudgetedTickExecutor
+import org.bukkit.Bukkit
+import org.bukkit.plugin.Plugin
+import org.bukkit.scheduler.BukkitTask
+
+/**
+ * Runs adapter work on the Bukkit main thread, drained by a task that repeats every tick
+ */
+class BukkitTickExecutor(private val plugin: Plugin, logger: BconLogger) : BudgetedTickExecutor(logger) {
+
+    private var hook: BukkitTask? = null
+
+    override fun isTickThread(): Boolean = Bukkit.isPrimaryThread()
+
+    override fun installHook() {
+        hook?.cancel()
+        hook = Bukkit.getScheduler().runTaskTimer(plugin, Runnable { ListenerProfiler.time("paper.tickExecutor.drainTick") { drainTick() } }, 1L, 1L)
+    }
+
+    override fun removeHook() {
+        hook?.cancel()
+        hook = null
+    }
+}
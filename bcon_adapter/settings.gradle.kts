@@ -13,3 +13,4 @@ include(":core")
 include(":paper")
 include(":fabric")
 include(":folia")
+include(":benchmarks")
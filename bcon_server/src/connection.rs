@@ -1,5 +1,5 @@
 use crate::auth::{ClientRole, ValidatedAdapterToken, ValidatedClientToken};
-use crate::message::{IncomingMessage, OutgoingMessage};
+use crate::message::{FrameDecoder, IncomingMessage, OutgoingMessage};
 use dashmap::DashMap;
 use futures_util::sink::SinkExt;
 use futures_util::stream::StreamExt;
@@ -12,6 +12,28 @@ use tracing::{debug, error, info, warn};
 
 pub type WebSocket = WebSocketStream<tokio::net::TcpStream>;
 
+/// Role of one adapter socket
+/// An adapter may open extra event lanes next to its main connection so large event frames don't hold up
+/// acks and commands. Only priority lanes receive messages from the server; event lanes only carry events in.
+/// Adapters that don't send the X-Bcon-Lane header get a single priority connection, as before.
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub enum AdapterLane {
+    Priority,
+    Events,
+}
+
+impl AdapterLane {
+    pub const HEADER: &'static str = "x-bcon-lane";
+    pub const SESSION_HEADER: &'static str = "x-bcon-session";
+
+    pub fn from_header(value: Option<&str>) -> Self {
+        match value.map(str::trim) {
+            Some(lane) if lane.eq_ignore_ascii_case("events") => AdapterLane::Events,
+            _ => AdapterLane::Priority,
+        }
+    }
+}
+
 #[derive(Debug, Clone)]
 pub struct AdapterConnection {
     pub connection_id: String,
@@ -19,6 +41,9 @@ pub struct AdapterConnection {
     pub server_name: Option<String>,
     pub connected_at: Instant,
     pub last_heartbeat: Instant,
+    pub lane: AdapterLane,
+    /// Shared by all sockets one adapter opened for the same connection attempt
+    pub session_id: Option<String>,
     pub message_sender: mpsc::UnboundedSender<OutgoingMessage>,
 }
 
@@ -34,9 +59,10 @@ pub struct ClientConnection {
 }
 
 pub struct ConnectionManager {
-    adapters: DashMap<String, AdapterConnection>,
-    clients: DashMap<String, ClientConnection>,
-    system_clients: DashMap<String, Weak<ClientConnection>>,
+    // Shared with the per-connection tasks, which remove their entry on disconnect
+    adapters: Arc<DashMap<String, AdapterConnection>>,
+    clients: Arc<DashMap<String, ClientConnection>>,
+    system_clients: Arc<DashMap<String, Weak<ClientConnection>>>,
     adapter_count: Arc<AtomicU64>,
     client_count: Arc<AtomicU64>,
 }
@@ -44,9 +70,9 @@ pub struct ConnectionManager {
 impl ConnectionManager {
     pub fn new() -> Self {
         Self {
-            adapters: DashMap::new(),
-            clients: DashMap::new(),
-            system_clients: DashMap::new(),
+            adapters: Arc::new(DashMap::new()),
+            clients: Arc::new(DashMap::new()),
+            system_clients: Arc::new(DashMap::new()),
             adapter_count: Arc::new(AtomicU64::new(0)),
             client_count: Arc::new(AtomicU64::new(0)),
         }
@@ -56,6 +82,8 @@ impl ConnectionManager {
         &self,
         connection_id: String,
         validated_token: ValidatedAdapterToken,
+        lane: AdapterLane,
+        session_id: Option<String>,
         websocket: WebSocket,
         message_handler: F,
     ) -> Result<Arc<AdapterConnection>, Box<dyn std::error::Error + Send + Sync>>
@@ -63,6 +91,20 @@ impl ConnectionManager {
         F: Fn(String, IncomingMessage) -> Fut + Send + Sync + 'static,
         Fut: std::future::Future<Output = Result<(), anyhow::Error>> + Send,
     {
+        // An event lane belongs to a live priority connection of the same adapter session; anything else is stale
+        if lane == AdapterLane::Events
+            && !self.has_priority_session(&validated_token.server_id, session_id.as_deref())
+        {
+            let mut websocket = websocket;
+            let _ = websocket.close(None).await;
+            return Err(format!(
+                "event lane for {} does not match a connected priority session ({})",
+                validated_token.server_id,
+                session_id.as_deref().unwrap_or("none")
+            )
+            .into());
+        }
+
         let (message_sender, mut message_receiver) = mpsc::unbounded_channel();
         
         let connection = Arc::new(AdapterConnection {
@@ -71,21 +113,30 @@ impl ConnectionManager {
             server_name: validated_token.server_name,
             connected_at: Instant::now(),
             last_heartbeat: Instant::now(),
+            lane,
+            session_id,
             message_sender,
         });
 
-        // Insert connection
+        // Insert connection; event lanes are extra sockets of an adapter that is already counted
         self.adapters.insert(connection_id.clone(), (*connection).clone());
-        self.adapter_count.fetch_add(1, Ordering::Relaxed);
-
-        info!(
-            "Adapter connected: {}",
-            validated_token.server_id
-        );
+        if lane == AdapterLane::Priority {
+            self.adapter_count.fetch_add(1, Ordering::Relaxed);
+            info!(
+                "Adapter connected: {}",
+                validated_token.server_id
+            );
+        } else {
+            info!(
+                "Adapter event lane connected: {} (session {})",
+                validated_token.server_id,
+                connection.session_id.as_deref().unwrap_or("none")
+            );
+        }
 
         // Spawn WebSocket handler
         let connection_clone = Arc::clone(&connection);
-        let adapters_clone = self.adapters.clone();
+        let adapters_clone = Arc::clone(&self.adapters);
         let adapter_count_clone = Arc::clone(&self.adapter_count);
         
         tokio::spawn(async move {
@@ -100,8 +151,10 @@ impl ConnectionManager {
 
             // Cleanup on disconnection
             adapters_clone.remove(&connection_id);
-            adapter_count_clone.fetch_sub(1, Ordering::Relaxed);
-            info!("Adapter disconnected: {}", connection_id);
+            if lane == AdapterLane::Priority {
+                adapter_count_clone.fetch_sub(1, Ordering::Relaxed);
+            }
+            info!("Adapter disconnected: {} ({:?} lane)", connection_id, lane);
         });
 
         Ok(connection)
@@ -152,8 +205,8 @@ impl ConnectionManager {
 
         // Spawn WebSocket handler
         let connection_clone = Arc::clone(&connection);
-        let clients_clone = self.clients.clone();
-        let system_clients_clone = self.system_clients.clone();
+        let clients_clone = Arc::clone(&self.clients);
+        let system_clients_clone = Arc::clone(&self.system_clients);
         let client_count_clone = Arc::clone(&self.client_count);
         
         tokio::spawn(async move {
@@ -188,6 +241,9 @@ impl ConnectionManager {
         F: Fn(String, IncomingMessage) -> Fut + Send + Sync,
         Fut: std::future::Future<Output = Result<(), anyhow::Error>> + Send,
     {
+        // Strings the adapter has defined on this connection (CBOR frames only)
+        let mut frame_decoder = FrameDecoder::new();
+
         loop {
             tokio::select! {
                 // Handle incoming WebSocket messages
@@ -208,6 +264,18 @@ impl ConnectionManager {
                                             connection.connection_id, connection.server_id, e, text);
                                     }
                                 }
+                            } else if let tokio_tungstenite::tungstenite::Message::Binary(frame) = msg {
+                                match frame_decoder.decode(&frame) {
+                                    Ok(incoming_message) => {
+                                        if let Err(e) = message_handler(connection.server_id.clone(), incoming_message).await {
+                                            error!("Failed to route adapter message: {}", e);
+                                        }
+                                    }
+                                    Err(e) => {
+                                        warn!("Invalid binary frame from adapter {} (server: {}): {} ({} bytes)",
+                                            connection.connection_id, connection.server_id, e, frame.len());
+                                    }
+                                }
                             } else if let tokio_tungstenite::tungstenite::Message::Close(_) = msg {
                                 info!("Adapter {} (server: {}) closed connection", connection.connection_id, connection.server_id);
                                 break;
@@ -319,10 +387,23 @@ impl ConnectionManager {
         self.clients.get(connection_id).map(|entry| entry.clone())
     }
 
+    /// Whether a priority connection of this server was opened with the given session
+    fn has_priority_session(&self, server_id: &str, session_id: Option<&str>) -> bool {
+        let Some(session_id) = session_id else {
+            return false;
+        };
+        self.adapters.iter().any(|entry| {
+            entry.server_id == server_id
+                && entry.lane == AdapterLane::Priority
+                && entry.session_id.as_deref() == Some(session_id)
+        })
+    }
+
+    /// Connections that accept messages for a server; event lanes are left out so each command is delivered once
     pub fn get_adapters_by_server(&self, server_id: &str) -> Vec<AdapterConnection> {
         self.adapters
             .iter()
-            .filter(|entry| entry.server_id == server_id)
+            .filter(|entry| entry.server_id == server_id && entry.lane == AdapterLane::Priority)
             .map(|entry| entry.clone())
             .collect()
     }
@@ -379,6 +460,9 @@ impl ConnectionManager {
 
     pub async fn broadcast_to_adapters(&self, message: OutgoingMessage) {
         for adapter in self.adapters.iter() {
+            if adapter.lane == AdapterLane::Events {
+                continue;
+            }
             if let Err(e) = adapter.message_sender.send(message.clone()) {
                 warn!("Failed to send message to adapter {}: {}", adapter.connection_id, e);
             }
@@ -437,8 +521,10 @@ impl ConnectionManager {
     }
 
     pub fn remove_adapter(&self, connection_id: &str) {
-        if self.adapters.remove(connection_id).is_some() {
-            self.adapter_count.fetch_sub(1, Ordering::Relaxed);
+        if let Some((_, adapter)) = self.adapters.remove(connection_id) {
+            if adapter.lane == AdapterLane::Priority {
+                self.adapter_count.fetch_sub(1, Ordering::Relaxed);
+            }
         }
     }
 
@@ -478,4 +564,52 @@ mod tests {
         // In a real test, you'd create mock connections and test filtering
         assert_eq!(manager.get_clients_by_role(ClientRole::System).len(), 0);
     }
+
+    fn adapter(server_id: &str, lane: AdapterLane) -> AdapterConnection {
+        let (message_sender, _) = mpsc::unbounded_channel();
+        AdapterConnection {
+            connection_id: uuid::Uuid::new_v4().to_string(),
+            server_id: server_id.to_string(),
+            server_name: None,
+            connected_at: Instant::now(),
+            last_heartbeat: Instant::now(),
+            lane,
+            session_id: Some("session".to_string()),
+            message_sender,
+        }
+    }
+
+    #[test]
+    fn test_lane_from_header() {
+        assert_eq!(AdapterLane::from_header(None), AdapterLane::Priority);
+        assert_eq!(AdapterLane::from_header(Some("priority")), AdapterLane::Priority);
+        assert_eq!(AdapterLane::from_header(Some(" Events ")), AdapterLane::Events);
+        assert_eq!(AdapterLane::from_header(Some("unknown")), AdapterLane::Priority);
+    }
+
+    #[test]
+    fn test_event_lanes_do_not_receive_server_messages() {
+        let manager = ConnectionManager::new();
+        for lane in [AdapterLane::Priority, AdapterLane::Events, AdapterLane::Events] {
+            let connection = adapter("survival", lane);
+            manager.adapters.insert(connection.connection_id.clone(), connection);
+        }
+
+        let targets = manager.get_adapters_by_server("survival");
+        assert_eq!(targets.len(), 1);
+        assert_eq!(targets[0].lane, AdapterLane::Priority);
+        assert_eq!(manager.get_all_adapters().len(), 3);
+    }
+
+    #[test]
+    fn test_event_lane_session_must_match_a_priority_connection() {
+        let manager = ConnectionManager::new();
+        let priority = adapter("survival", AdapterLane::Priority);
+        manager.adapters.insert(priority.connection_id.clone(), priority);
+
+        assert!(manager.has_priority_session("survival", Some("session")));
+        assert!(!manager.has_priority_session("survival", Some("stale")));
+        assert!(!manager.has_priority_session("survival", None));
+        assert!(!manager.has_priority_session("creative", Some("session")));
+    }
 }
\ No newline at end of file
@@ -1,4 +1,105 @@
 use serde::{Deserialize, Serialize};
+use thiserror::Error;
+
+/// WebSocket subprotocol adapters offer when they can send CBOR binary frames
+/// v2 adds integer map keys from FIELD_NAMES; v1 adapters only ever send text keys
+pub const CBOR_SUBPROTOCOL: &str = "bcon.cbor.v2";
+pub const CBOR_SUBPROTOCOL_V1: &str = "bcon.cbor.v1";
+
+/// Leading byte of a binary adapter frame carrying a CBOR envelope
+pub const FRAME_CBOR: u8 = 0x01;
+
+/// Subprotocols for adapters that also compress large frames; the plain JSON variant still sends
+/// small frames as text and only large ones as binary
+pub const CBOR_DEFLATE_SUBPROTOCOL: &str = "bcon.cbor+deflate.v2";
+pub const CBOR_DEFLATE_SUBPROTOCOL_V1: &str = "bcon.cbor+deflate.v1";
+pub const JSON_DEFLATE_SUBPROTOCOL: &str = "bcon.json+deflate.v1";
+
+/// Subprotocols the server accepts, in order of preference
+pub const SUPPORTED_SUBPROTOCOLS: [&str; 5] = [
+    CBOR_DEFLATE_SUBPROTOCOL,
+    CBOR_SUBPROTOCOL,
+    CBOR_DEFLATE_SUBPROTOCOL_V1,
+    CBOR_SUBPROTOCOL_V1,
+    JSON_DEFLATE_SUBPROTOCOL,
+];
+
+/// Leading bytes of binary frames carrying a raw-deflate compressed JSON or CBOR envelope
+pub const FRAME_DEFLATE_JSON: u8 = 0x02;
+pub const FRAME_DEFLATE_CBOR: u8 = 0x03;
+
+/// CBOR tags for the per-connection string dictionary, private to the bcon CBOR subprotocols
+/// A definition wraps [id, text] and stands for the text; a reference wraps an id defined earlier
+pub const TAG_STRING_DEFINE: u64 = 224;
+pub const TAG_STRING_REF: u64 = 225;
+
+/// Envelope key under which v2 adapters send a batch of definitions ahead of the event they lead
+pub const STRINGS_KEY: &str = "strings";
+
+/// Map keys that v2 CBOR frames may carry as an integer index into this list
+/// Must stay identical to the adapter's FieldCodes: same names, same order, only ever appended
+pub const FIELD_NAMES: [&str; 136] = [
+    "eventType", "data", "timestamp", "replyTo", "playerId", "playerName", "x", "y", "z", "dimension",
+    "health", "maxHealth", "level", "gameMode", "entityId", "entityType", "name", "entity", "type",
+    "amount", "displayName", "lore", "nbt", "item", "success", "result", "message", "deathMessage",
+    "attackerId", "attackerType", "alive", "killedEntity", "killer", "projectileType", "ownerId",
+    "ownerType", "target", "merchantId", "merchantType", "power", "advancementId", "title", "sender",
+    "inOpenWater", "waitTime", "fish", "hookedEntity", "hookX", "hookY", "hookZ", "hookDimension",
+    "groundX", "groundY", "groundZ", "groundDimension", "bucket", "mother", "father", "breeder",
+    "offspring", "cause", "damage", "damageType", "damageSource", "healAmount", "healReason", "rider",
+    "mount", "source", "fuel", "burnTime", "experience", "totalCookTime", "furnaceX", "furnaceY",
+    "furnaceZ", "furnaceDimension", "inventoryType", "inventoryX", "inventoryY", "inventoryZ",
+    "inventoryDimension", "dropX", "dropY", "dropZ", "dropDimension", "pickupX", "pickupY", "pickupZ",
+    "pickupDimension", "lootTable", "items", "keys", "inputType", "blockType", "blockData",
+    "worldName", "dimensionKey", "time", "difficultyLevel", "weather", "thundering", "tps", "mspt",
+    "mean", "p50", "p95", "p99", "max", "samples", "worlds", "players", "loadedChunks", "entities",
+    "regionTps", "jvm", "heapUsed", "heapCommitted", "heapMax", "nonHeapUsed", "gcCount", "gcTimeMs",
+    "gcCountDelta", "gcTimeMsDelta", "threads", "uptimeMs", "systemLoadAverage", "adapter",
+    "connected", "queueDepth", "droppedEvents", "spooledBytes", "reconnects", "ackLatencyP99Ms",
+    "sendLatencyP99Ms", "serializationP99Ms",
+];
+
+/// Upper bound for dictionary entries per connection
+const MAX_DICTIONARY_STRINGS: usize = 65_536;
+
+/// Upper bound for an inflated frame so a small malicious frame cannot exhaust memory
+const MAX_INFLATED_BYTES: usize = 16 * 1024 * 1024;
+
+/// Preset deflate dictionary; must stay byte-identical to the adapter's FrameCompressor.DICTIONARY
+pub const DEFLATE_DICTIONARY: &[u8] = concat!(
+    r#"{"eventType":"event_batch","data":[{"eventType":"command_result","replyTo":"","#,
+    r#""data":{"success":true,"result":"","error":"","markers":[{"id":"","label":"","#,
+    r#""position":{"x":,"y":,"z":}}],"items":[{"type":"minecraft:","amount":1,"displayName":"","#,
+    r#""lore":[""],"nbt":""}],"lootTable":"minecraft:chests/","entity":{"entityId":"","#,
+    r#""entityType":"minecraft:","name":""},"playerId":"","playerName":"","x":,"y":,"z":,"#,
+    r#""dimension":"minecraft:overworld","health":20.0,"maxHealth":20.0,"level":0,"#,
+    r#""gameMode":"SURVIVAL"},"timestamp":17"#
+).as_bytes();
+
+/// Pick the subprotocol to echo back from the ones an adapter offered
+pub fn select_subprotocol<'a>(offered: impl IntoIterator<Item = &'a str>) -> Option<&'static str> {
+    let offered: Vec<&str> = offered.into_iter().map(str::trim).collect();
+    SUPPORTED_SUBPROTOCOLS
+        .iter()
+        .copied()
+        .find(|supported| offered.contains(supported))
+}
+
+#[derive(Error, Debug)]
+pub enum FrameError {
+    #[error("empty binary frame")]
+    Empty,
+    #[error("unknown binary frame type {0:#04x}")]
+    UnknownType(u8),
+    #[error("invalid CBOR payload: {0}")]
+    Cbor(String),
+    #[error("invalid JSON payload: {0}")]
+    Json(String),
+    #[error("invalid deflate payload: {0}")]
+    Deflate(String),
+    #[error("invalid string dictionary entry: {0}")]
+    Dictionary(String),
+}
 
 #[derive(Debug, Clone, Serialize, Deserialize)]
 pub struct IncomingMessage {
@@ -105,6 +206,27 @@ impl IncomingMessage {
     pub fn extract_auth_data(&self) -> Result<AuthData, serde_json::Error> {
         serde_json::from_value(self.data.clone())
     }
+
+    /// Decode a single binary frame that does not rely on strings defined by earlier frames
+    pub fn from_binary_frame(frame: &[u8]) -> Result<Self, FrameError> {
+        FrameDecoder::new().decode(frame)
+    }
+
+    /// Both `event_batch` and `command_result_batch` (coalesced acks) carry an array of plain envelopes
+    pub fn is_event_batch(&self) -> bool {
+        self.event_type == "event_batch" || self.event_type == "command_result_batch"
+    }
+
+    /// Split a batch frame into the individual events or acks it carries
+    pub fn into_event_batch(self) -> Result<Vec<IncomingMessage>, serde_json::Error> {
+        match self.data {
+            serde_json::Value::Array(entries) => entries
+                .into_iter()
+                .map(serde_json::from_value)
+                .collect(),
+            _ => Ok(Vec::new()),
+        }
+    }
 }
 
 impl OutgoingMessage {
@@ -248,10 +370,176 @@ impl RelayMessage {
     }
 }
 
+/// Decodes the binary frames of one adapter connection
+/// Keeps the session string dictionary: adapters send a repeated string once as a definition and
+/// afterwards only its id, and restart numbering from 0 on every new connection. Definitions arrive
+/// inline where the string is first used, or (v2) as a STRINGS_KEY entry at the front of the envelope.
+#[derive(Debug, Default)]
+pub struct FrameDecoder {
+    strings: Vec<String>,
+}
+
+impl FrameDecoder {
+    pub fn new() -> Self {
+        Self::default()
+    }
+
+    /// Decode a binary frame: one type byte followed by the encoded envelope
+    pub fn decode(&mut self, frame: &[u8]) -> Result<IncomingMessage, FrameError> {
+        let (&frame_type, payload) = frame.split_first().ok_or(FrameError::Empty)?;
+        match frame_type {
+            FRAME_CBOR => self.decode_cbor(payload),
+            FRAME_DEFLATE_CBOR => {
+                let inflated = inflate(payload)?;
+                self.decode_cbor(&inflated)
+            }
+            FRAME_DEFLATE_JSON => {
+                let inflated = inflate(payload)?;
+                serde_json::from_slice(&inflated).map_err(|e| FrameError::Json(e.to_string()))
+            }
+            other => Err(FrameError::UnknownType(other)),
+        }
+    }
+
+    fn decode_cbor(&mut self, payload: &[u8]) -> Result<IncomingMessage, FrameError> {
+        let mut value: ciborium::Value =
+            ciborium::de::from_reader(payload).map_err(|e| FrameError::Cbor(e.to_string()))?;
+        self.expand_strings(&mut value)?;
+        if let ciborium::Value::Map(entries) = &mut value {
+            // Only there to define strings, which expand_strings has recorded
+            entries.retain(|(key, _)| !matches!(key, ciborium::Value::Text(key) if key == STRINGS_KEY));
+        }
+        value.deserialized().map_err(|e| FrameError::Cbor(e.to_string()))
+    }
+
+    /// Replace dictionary tags with the strings they stand for, recording new definitions
+    fn expand_strings(&mut self, value: &mut ciborium::Value) -> Result<(), FrameError> {
+        use ciborium::Value;
+
+        match value {
+            Value::Tag(TAG_STRING_DEFINE, inner) => {
+                let text = match inner.as_mut() {
+                    Value::Array(entry) if entry.len() == 2 => {
+                        let id = dictionary_id(&entry[0])?;
+                        let text = match &mut entry[1] {
+                            Value::Text(text) => std::mem::take(text),
+                            _ => return Err(FrameError::Dictionary("definition without text".to_string())),
+                        };
+                        self.define(id, &text)?;
+                        text
+                    }
+                    _ => return Err(FrameError::Dictionary("malformed definition".to_string())),
+                };
+                *value = Value::Text(text);
+            }
+            Value::Tag(TAG_STRING_REF, inner) => {
+                let id = dictionary_id(inner)?;
+                let text = self
+                    .strings
+                    .get(id)
+                    .cloned()
+                    .ok_or_else(|| FrameError::Dictionary(format!("undefined string id {}", id)))?;
+                *value = Value::Text(text);
+            }
+            Value::Tag(_, inner) => self.expand_strings(inner)?,
+            Value::Array(items) => {
+                for item in items {
+                    self.expand_strings(item)?;
+                }
+            }
+            Value::Map(entries) => {
+                for (key, entry) in entries {
+                    if let Value::Integer(code) = key {
+                        let name = u64::try_from(*code)
+                            .ok()
+                            .and_then(|code| usize::try_from(code).ok())
+                            .and_then(|code| FIELD_NAMES.get(code))
+                            .ok_or_else(|| FrameError::Cbor(format!("unknown field code {}", i128::from(*code))))?;
+                        *key = Value::Text(name.to_string());
+                    } else {
+                        self.expand_strings(key)?;
+                    }
+                    self.expand_strings(entry)?;
+                }
+            }
+            _ => {}
+        }
+        Ok(())
+    }
+
+    fn define(&mut self, id: usize, text: &str) -> Result<(), FrameError> {
+        if id < self.strings.len() {
+            // Adapter reset its dictionary after a failed send and is numbering again
+            self.strings[id] = text.to_string();
+        } else if id == self.strings.len() && id < MAX_DICTIONARY_STRINGS {
+            self.strings.push(text.to_string());
+        } else {
+            return Err(FrameError::Dictionary(format!("out of sequence string id {}", id)));
+        }
+        Ok(())
+    }
+}
+
+fn dictionary_id(value: &ciborium::Value) -> Result<usize, FrameError> {
+    match value {
+        ciborium::Value::Integer(id) => u64::try_from(*id)
+            .ok()
+            .and_then(|id| usize::try_from(id).ok())
+            .ok_or_else(|| FrameError::Dictionary("invalid string id".to_string())),
+        _ => Err(FrameError::Dictionary("string id is not an integer".to_string())),
+    }
+}
+
+/// Inflate a raw-deflate payload primed with DEFLATE_DICTIONARY
+fn inflate(payload: &[u8]) -> Result<Vec<u8>, FrameError> {
+    use flate2::{Decompress, FlushDecompress, Status};
+
+    let mut inflater = Decompress::new(false);
+    inflater
+        .set_dictionary(DEFLATE_DICTIONARY)
+        .map_err(|e| FrameError::Deflate(e.to_string()))?;
+
+    let mut out = Vec::with_capacity((payload.len() * 4).clamp(4096, MAX_INFLATED_BYTES));
+    loop {
+        if out.len() == out.capacity() {
+            if out.len() >= MAX_INFLATED_BYTES {
+                return Err(FrameError::Deflate("inflated frame exceeds 16 MB".to_string()));
+            }
+            out.reserve(out.len().min(MAX_INFLATED_BYTES - out.len()));
+        }
+
+        let consumed = inflater.total_in() as usize;
+        let status = inflater
+            .decompress_vec(&payload[consumed..], &mut out, FlushDecompress::Finish)
+            .map_err(|e| FrameError::Deflate(e.to_string()))?;
+        match status {
+            Status::StreamEnd => return Ok(out),
+            // Input used up with room left in the buffer but no end of stream: truncated frame
+            _ if inflater.total_in() as usize == payload.len() && out.len() < out.capacity() => {
+                return Err(FrameError::Deflate("truncated deflate stream".to_string()));
+            }
+            _ => {}
+        }
+    }
+}
+
 #[cfg(test)]
 mod tests {
     use super::*;
 
+    fn deflate_frame(frame_type: u8, payload: &[u8]) -> Vec<u8> {
+        use flate2::{Compress, Compression, FlushCompress};
+
+        let mut deflater = Compress::new(Compression::default(), false);
+        deflater.set_dictionary(DEFLATE_DICTIONARY).unwrap();
+        let mut compressed = Vec::with_capacity(payload.len() + 64);
+        deflater.compress_vec(payload, &mut compressed, FlushCompress::Finish).unwrap();
+
+        let mut frame = vec![frame_type];
+        frame.extend_from_slice(&compressed);
+        frame
+    }
+
     #[test]
     fn test_incoming_message_creation() {
         let msg = IncomingMessage::new(
@@ -297,6 +585,272 @@ mod tests {
         assert!(auth_msg.is_auth_message());
     }
 
+    #[test]
+    fn test_event_batch_unpacking() {
+        let raw = r#"{
+            "eventType": "event_batch",
+            "data": [
+                {"eventType": "entity_damage", "data": {"damage": 2.0}, "timestamp": 1700000000},
+                {"eventType": "player_chat", "data": {"message": "hi"}, "timestamp": 1700000001}
+            ],
+            "timestamp": 1700000001
+        }"#;
+        let batch: IncomingMessage = serde_json::from_str(raw).unwrap();
+        assert!(batch.is_event_batch());
+
+        let events = batch.into_event_batch().unwrap();
+        assert_eq!(events.len(), 2);
+        assert_eq!(events[0].event_type, "entity_damage");
+        assert_eq!(events[1].event_type, "player_chat");
+        assert_eq!(events[1].data["message"], "hi");
+        assert_eq!(events[1].timestamp, Some(1700000001));
+    }
+
+    #[test]
+    fn test_command_result_batch_unpacking() {
+        let raw = r#"{
+            "eventType": "command_result_batch",
+            "data": [
+                {"eventType": "command_result", "replyTo": "a1", "data": {"success": true, "result": "ok"}, "timestamp": 1700000000},
+                {"eventType": "command_result", "replyTo": "a2", "data": {"success": false, "error": "nope"}, "timestamp": 1700000000}
+            ],
+            "timestamp": 1700000000
+        }"#;
+        let batch: IncomingMessage = serde_json::from_str(raw).unwrap();
+        assert!(batch.is_event_batch());
+
+        let acks = batch.into_event_batch().unwrap();
+        assert_eq!(acks.len(), 2);
+        assert_eq!(acks[0].reply_to.as_deref(), Some("a1"));
+        assert_eq!(acks[1].data["error"], "nope");
+    }
+
+    #[test]
+    fn test_event_batch_with_non_array_data() {
+        let batch = IncomingMessage::new(
+            "event_batch".to_string(),
+            serde_json::json!({"unexpected": true}),
+        );
+
+        assert!(batch.into_event_batch().unwrap().is_empty());
+    }
+
+    #[test]
+    fn test_cbor_frame_from_adapter() {
+        // Bytes produced by the adapter's CborCodec for
+        // {"eventType":"a","data":{"x":1.5},"timestamp":1} (indefinite-length maps, float32)
+        let mut frame = vec![FRAME_CBOR, 0xbf, 0x69];
+        frame.extend_from_slice(b"eventType");
+        frame.extend_from_slice(&[0x61, b'a', 0x64]);
+        frame.extend_from_slice(b"data");
+        frame.extend_from_slice(&[0xbf, 0x61, b'x', 0xfa, 0x3f, 0xc0, 0x00, 0x00, 0xff, 0x69]);
+        frame.extend_from_slice(b"timestamp");
+        frame.extend_from_slice(&[0x01, 0xff]);
+
+        let message = IncomingMessage::from_binary_frame(&frame).unwrap();
+        assert_eq!(message.event_type, "a");
+        assert_eq!(message.data["x"], 1.5);
+        assert_eq!(message.timestamp, Some(1));
+    }
+
+    #[test]
+    fn test_cbor_frame_with_field_codes() {
+        // Bytes produced by the adapter for {"eventType":"a","data":{"x":1.5,"loadSentAt":7},"timestamp":1}
+        // with the keys in FIELD_NAMES sent as their index
+        let mut frame = vec![FRAME_CBOR, 0xbf, 0x00, 0x61, b'a', 0x01, 0xbf, 0x06, 0xfa, 0x3f, 0xc0, 0x00, 0x00, 0x6a];
+        frame.extend_from_slice(b"loadSentAt");
+        frame.extend_from_slice(&[0x07, 0xff, 0x02, 0x01, 0xff]);
+
+        let message = IncomingMessage::from_binary_frame(&frame).unwrap();
+        assert_eq!(message.event_type, "a");
+        assert_eq!(message.data["x"], 1.5);
+        assert_eq!(message.data["loadSentAt"], 7);
+        assert_eq!(message.timestamp, Some(1));
+
+        let unknown = [FRAME_CBOR, 0xbf, 0x18, 0xff, 0x61, b'a', 0xff];
+        assert!(matches!(IncomingMessage::from_binary_frame(&unknown), Err(FrameError::Cbor(_))));
+    }
+
+    #[test]
+    fn test_field_names_match_adapter() {
+        // Same count and CRC-32 as the adapter's CborCodecTest computes over FieldCodes
+        let mut crc = flate2::Crc::new();
+        crc.update(FIELD_NAMES.join("\n").as_bytes());
+        assert_eq!(FIELD_NAMES.len(), 136);
+        assert_eq!(crc.sum(), 3080013965);
+    }
+
+    #[test]
+    fn test_cbor_frame_round_trip() {
+        let original = serde_json::json!({
+            "eventType": "event_batch",
+            "data": [
+                {"eventType": "player_chat", "data": {"playerName": "Steve", "message": "héllo <world>"}, "timestamp": 1700000000u64},
+                {"eventType": "entity_damage", "data": {"damage": 0.1, "x": -28.0, "alive": true, "name": null}, "timestamp": 1700000001u64}
+            ],
+            "timestamp": 1700000001u64
+        });
+
+        let mut frame = vec![FRAME_CBOR];
+        ciborium::ser::into_writer(&original, &mut frame).unwrap();
+        let json_len = serde_json::to_vec(&original).unwrap().len();
+        assert!(frame.len() < json_len);
+
+        let batch = IncomingMessage::from_binary_frame(&frame).unwrap();
+        assert!(batch.is_event_batch());
+        assert_eq!(serde_json::to_value(&batch).unwrap()["data"], original["data"]);
+
+        let events = batch.into_event_batch().unwrap();
+        assert_eq!(events[0].data["message"], "héllo <world>");
+        assert_eq!(events[1].data["damage"], 0.1);
+        assert!(events[1].data["name"].is_null());
+    }
+
+    #[test]
+    fn test_binary_frame_errors() {
+        assert!(matches!(IncomingMessage::from_binary_frame(&[]), Err(FrameError::Empty)));
+        assert!(matches!(IncomingMessage::from_binary_frame(&[0x7f, 0xa0]), Err(FrameError::UnknownType(0x7f))));
+        assert!(matches!(IncomingMessage::from_binary_frame(&[FRAME_CBOR, 0xbf]), Err(FrameError::Cbor(_))));
+    }
+
+    #[test]
+    fn test_deflate_dictionary_matches_adapter() {
+        // Length and CRC-32 asserted by the adapter's FrameCompressorTest as well
+        let mut crc = flate2::Crc::new();
+        crc.update(DEFLATE_DICTIONARY);
+        assert_eq!(DEFLATE_DICTIONARY.len(), 516);
+        assert_eq!(crc.sum(), 843789761);
+    }
+
+    #[test]
+    fn test_deflate_frames() {
+        let original = serde_json::json!({
+            "eventType": "loot_generate",
+            "data": {
+                "lootTable": "minecraft:chests/simple_dungeon",
+                "items": (0..20).map(|i| serde_json::json!({"type": "minecraft:bone", "amount": i, "displayName": "Bone"})).collect::<Vec<_>>()
+            },
+            "timestamp": 1700000000u64
+        });
+
+        let json = serde_json::to_vec(&original).unwrap();
+        let frame = deflate_frame(FRAME_DEFLATE_JSON, &json);
+        assert!(frame.len() < json.len() / 4);
+        let message = IncomingMessage::from_binary_frame(&frame).unwrap();
+        assert_eq!(message.event_type, "loot_generate");
+        assert_eq!(message.data, original["data"]);
+
+        let mut cbor = Vec::new();
+        ciborium::ser::into_writer(&original, &mut cbor).unwrap();
+        let message = IncomingMessage::from_binary_frame(&deflate_frame(FRAME_DEFLATE_CBOR, &cbor)).unwrap();
+        assert_eq!(message.data["items"][19]["amount"], 19);
+        assert_eq!(message.timestamp, Some(1700000000));
+    }
+
+    #[test]
+    fn test_deflate_frame_errors() {
+        let frame = deflate_frame(FRAME_DEFLATE_JSON, br#"{"eventType":"a","data":{},"timestamp":1}"#);
+        assert!(matches!(
+            IncomingMessage::from_binary_frame(&frame[..frame.len() / 2]),
+            Err(FrameError::Deflate(_))
+        ));
+
+        let not_json = deflate_frame(FRAME_DEFLATE_JSON, b"not json");
+        assert!(matches!(IncomingMessage::from_binary_frame(&not_json), Err(FrameError::Json(_))));
+    }
+
+    #[test]
+    fn test_string_dictionary() {
+        // Bytes produced by the adapter's CborCodec with a fresh StringDictionary for two frames of
+        // {"eventType":"a","data":{"dimension":"minecraft:overworld"},"timestamp":1}
+        let define = |id: u8, text: &str| {
+            let mut bytes = vec![0xd8, TAG_STRING_DEFINE as u8, 0x82, id, 0x60 + text.len() as u8];
+            bytes.extend_from_slice(text.as_bytes());
+            bytes
+        };
+        let reference = |id: u8| vec![0xd8, TAG_STRING_REF as u8, id];
+        let frame = |event_type: Vec<u8>, dimension: Vec<u8>| {
+            let mut frame = vec![FRAME_CBOR, 0xbf, 0x69];
+            frame.extend_from_slice(b"eventType");
+            frame.extend_from_slice(&event_type);
+            frame.push(0x64);
+            frame.extend_from_slice(b"data");
+            frame.extend_from_slice(&[0xbf, 0x69]);
+            frame.extend_from_slice(b"dimension");
+            frame.extend_from_slice(&dimension);
+            frame.extend_from_slice(&[0xff, 0x69]);
+            frame.extend_from_slice(b"timestamp");
+            frame.extend_from_slice(&[0x01, 0xff]);
+            frame
+        };
+
+        let mut decoder = FrameDecoder::new();
+        let first = decoder.decode(&frame(define(0, "a"), define(1, "minecraft:overworld"))).unwrap();
+        let second = decoder.decode(&frame(reference(0), reference(1))).unwrap();
+        assert_eq!(first.event_type, "a");
+        assert_eq!(second.event_type, "a");
+        assert_eq!(second.data["dimension"], "minecraft:overworld");
+
+        // A new connection starts with an empty dictionary
+        assert!(matches!(
+            FrameDecoder::new().decode(&frame(reference(0), reference(1))),
+            Err(FrameError::Dictionary(_))
+        ));
+        assert!(matches!(
+            FrameDecoder::new().decode(&frame(define(3, "a"), reference(3))),
+            Err(FrameError::Dictionary(_))
+        ));
+    }
+
+    #[test]
+    fn test_leading_string_definitions() {
+        // Adapter frames whose values reference its shared string table, led by the definitions
+        // this connection hasn't had yet
+        let reference = |id: u8| vec![0xd8, TAG_STRING_REF as u8, id];
+        let frame = |definitions: &[(u8, &str)], event_type: Vec<u8>, dimension: Vec<u8>| {
+            let mut frame = vec![FRAME_CBOR, 0xbf];
+            if !definitions.is_empty() {
+                frame.push(0x67);
+                frame.extend_from_slice(STRINGS_KEY.as_bytes());
+                frame.push(0x80 + definitions.len() as u8);
+                for (id, text) in definitions {
+                    frame.extend_from_slice(&[0xd8, TAG_STRING_DEFINE as u8, 0x82, *id, 0x60 + text.len() as u8]);
+                    frame.extend_from_slice(text.as_bytes());
+                }
+            }
+            frame.push(0x00);
+            frame.extend_from_slice(&event_type);
+            frame.extend_from_slice(&[0x01, 0xbf, 0x09]);
+            frame.extend_from_slice(&dimension);
+            frame.extend_from_slice(&[0xff, 0x02, 0x01, 0xff]);
+            frame
+        };
+
+        let mut decoder = FrameDecoder::new();
+        let first = decoder
+            .decode(&frame(&[(0, "a"), (1, "minecraft:overworld")], reference(0), reference(1)))
+            .unwrap();
+        let second = decoder.decode(&frame(&[], reference(0), reference(1))).unwrap();
+        assert_eq!(first.event_type, "a");
+        assert_eq!(first.data["dimension"], "minecraft:overworld");
+        assert_eq!(second.data["dimension"], "minecraft:overworld");
+
+        // Definitions resent after a failed send overwrite the same ids
+        let resent = decoder
+            .decode(&frame(&[(0, "a"), (1, "minecraft:the_nether")], reference(0), reference(1)))
+            .unwrap();
+        assert_eq!(resent.data["dimension"], "minecraft:the_nether");
+    }
+
+    #[test]
+    fn test_select_subprotocol() {
+        assert_eq!(select_subprotocol([CBOR_SUBPROTOCOL, CBOR_DEFLATE_SUBPROTOCOL]), Some(CBOR_DEFLATE_SUBPROTOCOL));
+        assert_eq!(select_subprotocol(["bcon.cbor.v1", "bcon.cbor+deflate.v2"]), Some(CBOR_DEFLATE_SUBPROTOCOL));
+        assert_eq!(select_subprotocol(["bcon.cbor.v1"]), Some(CBOR_SUBPROTOCOL_V1));
+        assert_eq!(select_subprotocol([" bcon.json+deflate.v1"]), Some(JSON_DEFLATE_SUBPROTOCOL));
+        assert_eq!(select_subprotocol(["graphql-ws"]), None);
+    }
+
     #[test]
     fn test_relay_message_creation() {
         let msg = RelayMessage::new(
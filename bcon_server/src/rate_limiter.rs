@@ -294,6 +294,7 @@ impl RateLimiter {
             "heartbeat" | "ping" => 1,
             "chat_message" => 2,
             "command" => 5,
+            "command_batch" => 20,
             "admin_command" => 8,
             _ => 1,
         }
@@ -35,16 +35,43 @@ impl MessageRouter {
         &self,
         server_id: String,
         message: IncomingMessage,
+    ) -> Result<()> {
+        // Batched frames are unpacked so system clients keep seeing one message per event
+        if message.is_event_batch() {
+            let events = message.into_event_batch()?;
+            debug!("BATCH[{}]: {} events", server_id, events.len());
+
+            for event in events {
+                if let Err(e) = self.relay_adapter_event(&server_id, event).await {
+                    error!("Failed to relay batched event from {}: {}", server_id, e);
+                }
+            }
+            return Ok(());
+        }
+
+        self.relay_adapter_event(&server_id, message).await
+    }
+
+    /// Relay a single adapter event to system clients
+    async fn relay_adapter_event(
+        &self,
+        server_id: &str,
+        message: IncomingMessage,
     ) -> Result<()> {
         self.message_count.fetch_add(1, Ordering::Relaxed);
         
+        // Acks settle the tracked command, then still go to system clients so they see the result
+        if message.reply_to.is_some() {
+            self.command_tracker.handle_acknowledgment(&message);
+        }
+
         // Combined logging moved to after routing
 
         // Create relay message with server context
         let relay_message = RelayMessage::new(
             message.event_type.clone(),
             message.data.clone(),
-            Some(server_id.clone()),
+            Some(server_id.to_string()),
         );
 
         let outgoing_message = OutgoingMessage::new(
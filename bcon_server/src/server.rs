@@ -1,5 +1,5 @@
 use crate::auth::{AuthService, ValidatedAdapterToken, ValidatedClientToken};
-use crate::connection::ConnectionManager;
+use crate::connection::{AdapterLane, ConnectionManager};
 use crate::message::IncomingMessage;
 use crate::rate_limiter::{RateLimiter, RateLimitResult};
 use crate::router::MessageRouter;
@@ -93,9 +93,18 @@ impl AdapterServer {
         // Extract Authorization header during WebSocket handshake
         let auth_token = std::sync::Arc::new(std::sync::Mutex::new(None::<String>));
         let token_ref = auth_token.clone();
+        // Lane role and session of this socket when the adapter opens several
+        let lane_info = std::sync::Arc::new(std::sync::Mutex::new((AdapterLane::Priority, None::<String>)));
+        let lane_ref = lane_info.clone();
         
         let websocket = tokio_tungstenite::accept_hdr_async(stream, move |req: &tokio_tungstenite::tungstenite::handshake::server::Request, res: tokio_tungstenite::tungstenite::handshake::server::Response| {
             
+            let header = |name: &str| req.headers().get(name).and_then(|value| value.to_str().ok());
+            *lane_ref.lock().unwrap() = (
+                AdapterLane::from_header(header(AdapterLane::HEADER)),
+                header(AdapterLane::SESSION_HEADER).map(str::to_string),
+            );
+            
             // Extract Authorization header
             if let Some(auth_header) = req.headers().get("authorization") {
                 if let Ok(auth_str) = auth_header.to_str() {
@@ -111,6 +120,22 @@ impl AdapterServer {
                 warn!("No Authorization header provided from {}", client_addr);
             }
             
+            // Accept CBOR and/or compressed binary frames if the adapter offers them; otherwise it stays on JSON text
+            let mut res = res;
+            let selected = crate::message::select_subprotocol(
+                req.headers()
+                    .get_all("sec-websocket-protocol")
+                    .iter()
+                    .filter_map(|value| value.to_str().ok())
+                    .flat_map(|value| value.split(',')),
+            );
+            if let Some(protocol) = selected {
+                res.headers_mut().insert(
+                    "sec-websocket-protocol",
+                    tokio_tungstenite::tungstenite::http::HeaderValue::from_static(protocol),
+                );
+            }
+            
             Ok(res)
         }).await?;
         
@@ -136,6 +161,7 @@ impl AdapterServer {
         };
 
         let connection_id = uuid::Uuid::new_v4().to_string();
+        let (lane, session_id) = lane_info.lock().unwrap().clone();
         
         // Create message handler for this adapter
         let message_router_clone = Arc::clone(&message_router);
@@ -150,6 +176,8 @@ impl AdapterServer {
         match connection_manager.add_adapter_connection(
             connection_id.clone(),
             validated_token.clone(),
+            lane,
+            session_id,
             websocket,
             message_handler,
         ).await {